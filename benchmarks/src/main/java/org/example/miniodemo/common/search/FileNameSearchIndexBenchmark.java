@@ -0,0 +1,57 @@
+package org.example.miniodemo.common.search;
+
+import org.example.miniodemo.config.SearchConfig;
+import org.example.miniodemo.domain.StorageType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileNameSearchIndex#search} 的基准测试。
+ * <p>
+ * 文件名为随机串加常见扩展名：{@code rare} 只命中少量文件，{@code common} 命中三分之一的文件、
+ * 受候选上限约束，{@code prefix} 为两个字符的文件名前缀查询。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FileNameSearchIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int fileCount;
+
+    @Param({"rare", "common", "prefix"})
+    private String queryKind;
+
+    private FileNameSearchIndex index;
+    private String query;
+    private int maxCandidates;
+
+    @Setup
+    public void setUp() {
+        SearchConfig config = new SearchConfig();
+        maxCandidates = config.getMaxCandidates();
+        index = new FileNameSearchIndex(config);
+        Random random = new Random(42);
+        index.beginLoad();
+        for (long id = 1; id <= fileCount; id++) {
+            String name = "file_" + Long.toString(random.nextLong() & 0xffffffffL, 36) + (id % 3 == 0 ? ".jpg" : ".pdf");
+            index.load(id, StorageType.PRIVATE, name, "default/u" + (id % 100));
+        }
+        index.finishLoad();
+        query = switch (queryKind) {
+            case "rare" -> "abc1";
+            case "common" -> ".jpg";
+            default -> "fi";
+        };
+    }
+
+    @Benchmark
+    public FileNameSearchIndex.Hits search() {
+        return index.search(StorageType.PRIVATE, query, maxCandidates);
+    }
+}
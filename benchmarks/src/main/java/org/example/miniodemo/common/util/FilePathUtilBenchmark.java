@@ -0,0 +1,32 @@
+package org.example.miniodemo.common.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FilePathUtil} 路径构建与解析的基准测试。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilePathUtilBenchmark {
+
+    private final String folderPath = "default";
+    private final String fileHash = "a67e6d97aa5f39998391f188f12ebae7";
+    private final String fileName = "a67e6d_10_Sunshine_8k.jpg";
+    private final String filePath = "file/2025/11/17/a67e6d97aa5f39998391f188f12ebae7/a67e6d_10_Sunshine_8k.jpg";
+
+    @Benchmark
+    public String buildDateBasedPath() {
+        return FilePathUtil.buildDateBasedPath(folderPath, fileHash, fileName);
+    }
+
+    @Benchmark
+    public String extractHashFromPath() {
+        return FilePathUtil.extractHashFromPath(filePath);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.miniodemo.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片路径 JSON 解析与序列化的基准测试。
+ * <p>
+ * {@link ChunkUploadSessionServiceImpl#recordChunkUploaded} 每记录一个分片都会完整解析并重新序列化
+ * {@code chunk_paths_json}，其开销随分片数线性增长，这里覆盖 10 到 10,000 个分片。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkPathsBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int chunkCount;
+
+    private ChunkUploadSessionServiceImpl sessionService;
+    private List<String> chunkPaths;
+    private String chunkPathsJson;
+
+    @Setup
+    public void setUp() {
+        sessionService = new ChunkUploadSessionServiceImpl(null, new ObjectMapper(), null, null);
+        String sessionId = "cd269bd6c98f50b82481adfd9f3f4048";
+        chunkPaths = new ArrayList<>(chunkCount);
+        for (int i = 1; i <= chunkCount; i++) {
+            chunkPaths.add(sessionId + "/" + i);
+        }
+        chunkPathsJson = sessionService.serializeChunkPaths(chunkPaths);
+    }
+
+    @Benchmark
+    public List<String> parseChunkPaths() {
+        return sessionService.parseChunkPaths(chunkPathsJson);
+    }
+
+    @Benchmark
+    public String serializeChunkPaths() {
+        return sessionService.serializeChunkPaths(chunkPaths);
+    }
+}
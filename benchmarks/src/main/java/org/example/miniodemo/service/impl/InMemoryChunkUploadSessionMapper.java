@@ -0,0 +1,122 @@
+package org.example.miniodemo.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.miniodemo.domain.ChunkUploadSession;
+import org.example.miniodemo.domain.ChunkUploadStatus;
+import org.example.miniodemo.mapper.ChunkUploadSessionMapper;
+import org.springframework.beans.BeanUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存的 {@link ChunkUploadSessionMapper}，用于在没有数据库的情况下压测会话服务。
+ * <p>
+ * 只支持会话服务实际用到的 {@code selectOne}、{@code insert} 和 {@code update(null, wrapper)}；
+ * 更新时解析 {@link LambdaUpdateWrapper} 生成的 SET 片段并写回内存中的会话。
+ * 为了让长时间运行的基准保持稳定状态，会话在全部分片记录完成后会被重置为空会话。
+ */
+final class InMemoryChunkUploadSessionMapper {
+
+    private static final String PARAM_MARKER = "paramNameValuePairs.";
+
+    private final Map<String, ChunkUploadSession> sessions = new ConcurrentHashMap<>();
+
+    static {
+        // Lambda 条件构造器依赖实体的 TableInfo 缓存，脱离 Spring 时需要手动初始化
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, ChunkUploadSession.class);
+    }
+
+    ChunkUploadSessionMapper asMapper() {
+        return (ChunkUploadSessionMapper) Proxy.newProxyInstance(
+                ChunkUploadSessionMapper.class.getClassLoader(),
+                new Class<?>[]{ChunkUploadSessionMapper.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "selectOne" -> selectOne((AbstractWrapper<?, ?, ?>) args[0]);
+                    case "insert" -> insert((ChunkUploadSession) args[0]);
+                    case "update" -> update((LambdaUpdateWrapper<?>) args[1]);
+                    case "toString" -> "InMemoryChunkUploadSessionMapper";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    void put(ChunkUploadSession session) {
+        sessions.put(session.getSessionId(), copy(session));
+    }
+
+    private ChunkUploadSession selectOne(AbstractWrapper<?, ?, ?> wrapper) {
+        ChunkUploadSession session = findTarget(wrapper);
+        if (session == null) {
+            return null;
+        }
+        synchronized (session) {
+            return copy(session);
+        }
+    }
+
+    private int insert(ChunkUploadSession session) {
+        return sessions.putIfAbsent(session.getSessionId(), copy(session)) == null ? 1 : 0;
+    }
+
+    private int update(LambdaUpdateWrapper<?> wrapper) {
+        ChunkUploadSession session = findTarget(wrapper);
+        if (session == null) {
+            return 0;
+        }
+        Map<String, Object> params = wrapper.getParamNameValuePairs();
+        synchronized (session) {
+            for (String assignment : wrapper.getSqlSet().split(",")) {
+                String column = assignment.substring(0, assignment.indexOf('=')).trim();
+                int start = assignment.indexOf(PARAM_MARKER) + PARAM_MARKER.length();
+                int end = start;
+                while (end < assignment.length() && assignment.charAt(end) != ',' && assignment.charAt(end) != '}') {
+                    end++;
+                }
+                apply(session, column, params.get(assignment.substring(start, end)));
+            }
+            if (session.getUploadedChunks() != null && session.getUploadedChunks().equals(session.getTotalChunks())) {
+                session.setChunkPathsJson("[]");
+                session.setUploadedChunks(0);
+                session.setStatus(ChunkUploadStatus.UPLOADING);
+            }
+        }
+        return 1;
+    }
+
+    private void apply(ChunkUploadSession session, String column, Object value) {
+        switch (column) {
+            case "chunk_paths_json" -> session.setChunkPathsJson((String) value);
+            case "uploaded_chunks" -> session.setUploadedChunks((Integer) value);
+            case "status" -> session.setStatus((ChunkUploadStatus) value);
+            case "updated_at" -> session.setUpdatedAt((LocalDateTime) value);
+            default -> { /* 基准不关心的列 */ }
+        }
+    }
+
+    /**
+     * 条件中只有会话ID这一个等值条件，直接在参数值中查找已知的会话ID。
+     */
+    private ChunkUploadSession findTarget(AbstractWrapper<?, ?, ?> wrapper) {
+        for (Object value : wrapper.getParamNameValuePairs().values()) {
+            if (value instanceof String key && sessions.containsKey(key)) {
+                return sessions.get(key);
+            }
+        }
+        return null;
+    }
+
+    private static ChunkUploadSession copy(ChunkUploadSession source) {
+        ChunkUploadSession target = new ChunkUploadSession();
+        BeanUtils.copyProperties(source, target);
+        return target;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.miniodemo.service.impl;
+
+import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.config.MinioConfig;
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.dto.FileDetailDto;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PublicAssetServiceImpl#listPublicFiles()} 中元数据到 DTO 映射的基准测试。
+ * <p>
+ * 仓储层使用内存实现，只衡量映射与公开URL拼接本身的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListPublicFilesBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int fileCount;
+
+    private PublicAssetServiceImpl publicAssetService;
+
+    @Setup
+    public void setUp() {
+        List<FileMetadata> rows = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            String hash = String.format("%032x", i);
+            FileMetadata metadata = new FileMetadata();
+            metadata.setId((long) i);
+            metadata.setFolderPath("default");
+            metadata.setFilePath("default/2025/11/17/" + hash + "/file-" + i + ".jpg");
+            metadata.setOriginalFilename("file-" + i + ".jpg");
+            metadata.setFileSize(1024L * i);
+            metadata.setContentType("image/jpeg");
+            metadata.setContentHash(hash);
+            metadata.setBucketName("public-assets");
+            metadata.setStorageType(StorageType.PUBLIC);
+            metadata.setVisitCount(0);
+            rows.add(metadata);
+        }
+
+        FileMetadataRepository repository = (FileMetadataRepository) Proxy.newProxyInstance(
+                FileMetadataRepository.class.getClassLoader(),
+                new Class<?>[]{FileMetadataRepository.class},
+                (proxy, method, args) -> {
+                    if ("findAll".equals(method.getName())) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        MinioBucketConfig bucketConfig = new MinioBucketConfig();
+        bucketConfig.setPublicAssets("public-assets");
+        bucketConfig.setPrivateFiles("private-files");
+        MinioConfig minioConfig = new MinioConfig();
+        minioConfig.setPublicEndpoint("https://minio.example.org");
+
+        publicAssetService = new PublicAssetServiceImpl(null, repository, null, null, bucketConfig, minioConfig);
+    }
+
+    @Benchmark
+    public List<FileDetailDto> listPublicFiles() {
+        return publicAssetService.listPublicFiles();
+    }
+}
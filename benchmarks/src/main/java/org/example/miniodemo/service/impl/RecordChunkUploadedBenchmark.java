@@ -0,0 +1,69 @@
+package org.example.miniodemo.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.miniodemo.common.cache.UploadSessionCache;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.config.SessionCacheConfig;
+import org.example.miniodemo.domain.ChunkUploadSession;
+import org.example.miniodemo.domain.ChunkUploadStatus;
+import org.example.miniodemo.domain.StorageType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发记录分片上传的基准测试。
+ * <p>
+ * 多个线程同时对同一个会话调用 {@link ChunkUploadSessionServiceImpl#recordChunkUploaded}，
+ * 模拟前端并发上传同一文件的分片时会话记录的竞争情况。数据库由内存 Mapper 代替，
+ * 因此结果只反映锁竞争与 JSON 读改写的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RecordChunkUploadedBenchmark {
+
+    private static final String SESSION_ID = "cd269bd6c98f50b82481adfd9f3f4048";
+
+    @Param({"10", "100", "1000"})
+    private int totalChunks;
+
+    private ChunkUploadSessionServiceImpl sessionService;
+    private final AtomicInteger chunkCounter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryChunkUploadSessionMapper mapper = new InMemoryChunkUploadSessionMapper();
+        ChunkUploadSession session = new ChunkUploadSession();
+        session.setSessionId(SESSION_ID);
+        session.setFileName("bench.bin");
+        session.setFileHash(SESSION_ID);
+        session.setFileSize(5L * 1024 * 1024 * totalChunks);
+        session.setFolderPath("default");
+        session.setTotalChunks(totalChunks);
+        session.setUploadedChunks(0);
+        session.setChunkPathsJson("[]");
+        session.setBucketName("public-assets");
+        session.setStorageType(StorageType.PUBLIC);
+        session.setStatus(ChunkUploadStatus.UPLOADING);
+        session.setExpiresAt(LocalDateTime.now().plusDays(1));
+        mapper.put(session);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sessionService = new ChunkUploadSessionServiceImpl(mapper.asMapper(), new ObjectMapper(),
+                new UploadMetrics(registry), new UploadSessionCache(new SessionCacheConfig(), registry));
+    }
+
+    @Benchmark
+    public void recordChunkUploaded() {
+        int chunkNumber = Math.floorMod(chunkCounter.getAndIncrement(), totalChunks) + 1;
+        sessionService.recordChunkUploaded(SESSION_ID, chunkNumber, SESSION_ID + "/" + chunkNumber);
+    }
+}
@@ -68,6 +68,11 @@ const handleError = (error) => {
         message = data.message || '请求的资源不存在';
         businessCode = data && data.code;
         break;
+      case 429:
+        // 服务端准入控制限流，由上传器按 Retry-After 自动重试，不弹出错误提示
+        message = data.message || '请求过多，请稍后重试';
+        businessCode = data && data.code;
+        break;
       case 500:
         message = data.message || '服务器内部错误';
         businessCode = data && data.code;
@@ -83,11 +88,17 @@ const handleError = (error) => {
     message = error.message || '请求发送失败';
   }
 
-  notify(message, 'error', 5000);
+  if (httpStatus !== 429) {
+    notify(message, 'error', 5000);
+  }
 
   const apiError = new Error(message);
   if (businessCode) apiError.code = businessCode;
   if (httpStatus) apiError.httpStatus = httpStatus;
+  if (httpStatus === 429) {
+    const retryAfter = Number(error.response.headers?.['retry-after']);
+    apiError.retryAfterMs = Number.isFinite(retryAfter) && retryAfter > 0 ? retryAfter * 1000 : undefined;
+  }
   apiError.isBusinessError = !!businessCode;
   return Promise.reject(apiError);
 };
@@ -0,0 +1,137 @@
+/**
+ * @description 内容定义分块（FastCDC）与块哈希计算，用于私有文件的去重上传。
+ * 块边界只由内容决定：文件中间插入或修改少量字节时，只有附近的一两个块会变化，其余块的哈希保持不变，
+ * 服务端已有的块无需再次上传。切分参数由 /upload/dedup/params 下发，必须与服务端一致。
+ */
+
+/** 每次从文件中读取的字节数 */
+const READ_BLOCK_SIZE = 8 * 1024 * 1024;
+
+/**
+ * 生成 Gear 哈希表：256 个 32 位随机数，使用固定种子的 xorshift32，保证所有客户端的表完全相同。
+ * @returns {Uint32Array}
+ */
+const buildGearTable = () => {
+    const table = new Uint32Array(256);
+    let x = 0x9e3779b9;
+    for (let i = 0; i < 256; i++) {
+        x ^= x << 13;
+        x >>>= 0;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        x >>>= 0;
+        table[i] = x;
+    }
+    return table;
+};
+
+const GEAR = buildGearTable();
+
+/**
+ * 取 32 位整数高位 bits 个 1 组成的掩码。Gear 哈希左移累加，高位混合了更长的历史字节。
+ * @param {number} bits
+ * @returns {number}
+ */
+const highBitsMask = (bits) => (bits <= 0 ? 0 : (0xffffffff << (32 - bits)) >>> 0);
+
+/**
+ * 计算归一化分块（NC level 2）所需的掩码：达到平均块大小前使用更严格的掩码，之后使用更宽松的掩码，
+ * 使块大小集中在平均值附近。
+ * @param {number} avgSize - 平均块大小，必须是 2 的幂
+ */
+const buildMasks = (avgSize) => {
+    const bits = Math.round(Math.log2(avgSize));
+    return { maskS: highBitsMask(bits + 2), maskL: highBitsMask(bits - 2) };
+};
+
+/**
+ * 在 buf[start, end) 中找到下一个切分点，返回块长度。
+ * @param {Uint8Array} buf
+ * @param {number} start
+ * @param {number} end
+ * @param {{minSize:number, avgSize:number, maxSize:number, maskS:number, maskL:number}} p
+ * @returns {number}
+ */
+const findCutPoint = (buf, start, end, p) => {
+    let n = end - start;
+    if (n <= p.minSize) return n;
+    if (n > p.maxSize) n = p.maxSize;
+    const normal = Math.min(p.avgSize, n);
+    let fp = 0;
+    let i = p.minSize;
+    for (; i < normal; i++) {
+        fp = ((fp << 1) + GEAR[buf[start + i]]) >>> 0;
+        if ((fp & p.maskS) === 0) return i + 1;
+    }
+    for (; i < n; i++) {
+        fp = ((fp << 1) + GEAR[buf[start + i]]) >>> 0;
+        if ((fp & p.maskL) === 0) return i + 1;
+    }
+    return n;
+};
+
+/**
+ * 计算字节数组的 SHA-256（小写十六进制）。
+ * @param {Uint8Array} bytes
+ * @returns {Promise<string>}
+ */
+const sha256Hex = async (bytes) => {
+    const digest = new Uint8Array(await crypto.subtle.digest('SHA-256', bytes));
+    let hex = '';
+    for (let i = 0; i < digest.length; i++) {
+        hex += digest[i].toString(16).padStart(2, '0');
+    }
+    return hex;
+};
+
+/**
+ * 按内容定义边界切分文件并计算每个块的 SHA-256。按 READ_BLOCK_SIZE 分段读取，内存占用与文件大小无关。
+ * @param {File} file - 原始文件
+ * @param {{minChunkSize:number, avgChunkSize:number, maxChunkSize:number}} params - 服务端下发的分块参数
+ * @param {(p:{percentage?:number, status?:string})=>void} [onProgress] - 进度回调
+ * @returns {Promise<Array<{hash:string, offset:number, size:number}>>} 按文件内顺序排列的块
+ */
+export const chunkFileByContent = async (file, params, onProgress) => {
+    const p = {
+        minSize: params.minChunkSize,
+        avgSize: params.avgChunkSize,
+        maxSize: params.maxChunkSize,
+        ...buildMasks(params.avgChunkSize)
+    };
+    const chunks = [];
+    let carry = new Uint8Array(0);
+    let carryOffset = 0; // carry[0] 在文件中的偏移量
+    let readOffset = 0;
+
+    while (readOffset < file.size || carry.length > 0) {
+        const eof = readOffset >= file.size;
+        let buf = carry;
+        if (!eof) {
+            const block = new Uint8Array(await file.slice(readOffset, readOffset + READ_BLOCK_SIZE).arrayBuffer());
+            if (block.length === 0) throw new Error('文件读取失败');
+            readOffset += block.length;
+            buf = new Uint8Array(carry.length + block.length);
+            buf.set(carry, 0);
+            buf.set(block, carry.length);
+        }
+        const atEnd = readOffset >= file.size;
+
+        let pos = 0;
+        // 未到文件末尾时，剩余不足一个最大块的数据留到下一轮，保证切分点与读取分段无关
+        while (pos < buf.length && (atEnd || buf.length - pos >= p.maxSize)) {
+            const size = findCutPoint(buf, pos, buf.length, p);
+            const hash = await sha256Hex(buf.subarray(pos, pos + size));
+            chunks.push({ hash, offset: carryOffset + pos, size });
+            pos += size;
+        }
+        carry = buf.slice(pos);
+        carryOffset += pos;
+
+        onProgress?.({
+            percentage: file.size ? Math.floor((carryOffset / file.size) * 100) : 100,
+            status: `正在分块并计算块哈希: ${chunks.length} 个块`
+        });
+        if (atEnd && carry.length === 0) break;
+    }
+    return chunks;
+};
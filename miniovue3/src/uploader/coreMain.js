@@ -1,19 +1,26 @@
 import SparkMD5 from 'spark-md5';
 import { storageService } from './services/storageService';
+import { chunkFileByContent } from './cdc';
 
 /**
- * @description 文件分片大小，固定为5MB。
- * MinIO官方推荐分片大小为5MB到5GB之间，5MB是最小且常用的值。
+ * @description 计算哈希时的读取块大小，以及服务端未返回分片大小时（旧版后端/旧会话）的回退分片大小。
+ * 分片大小与并发数默认由 /upload/init 根据文件大小与服务端负载推荐，
+ * 设置 uploaderConfig.chunkSize 可强制使用固定分片大小。
  * @type {number}
  */
-// 默认分片大小 5MB，可通过 uploaderConfig.chunkSize 覆盖
 const DEFAULT_CHUNK_SIZE = 5 * 1024 * 1024; // 5MB
+const DEFAULT_MAX_CONCURRENCY = 4;
 
 // 重试相关配置
 const MAX_CHUNK_RETRIES = 3;
+const MAX_THROTTLED_RETRIES = 10; // 被服务端限流（429）时的重试次数，单独计数
 const MAX_MERGE_RETRIES = 3;
 const RETRY_BASE_DELAY_MS = 1000;
 
+// 同一文件正由其他客户端上传时，等待其结果的轮询间隔与重新初始化（尝试接管中断的上传）的间隔
+const WAITER_POLL_INTERVAL_MS = 2000;
+const WAITER_REINIT_INTERVAL_MS = 30000;
+
 /**
  * 延时辅助函数
  * @param {number} ms 毫秒数
@@ -26,6 +33,7 @@ const shouldRetryChunk = (error) => {
     const httpStatus = error?.httpStatus;
     const isBusiness = error?.isBusinessError;
     if (!isBusiness && !httpStatus) return true;
+    if (httpStatus === 429) return true;
     if (httpStatus && httpStatus >= 500) return true;
     if (code === 1001) return true; // FILE_UPLOAD_FAILED
     return false;
@@ -70,17 +78,25 @@ const shouldRetryMerge = (error) => {
  * 上传单个分片（带指数退避重试）
  * @param {object} uploaderConfig - 包含 `apiPrefix`、`folderPath` 等
  * @param {FormData} formData - 包含 `file`、`sessionId`、`chunkNumber`
- * @param {number} chunkNumber - 分片序号（从 1 开始）
+ * @param {number|string} chunkNumber - 分片序号（从 1 开始），仅用于状态提示
  * @param {(p:{status?:string})=>void} [onProgress] - 状态回调
+ * @param {(config:object, formData:FormData)=>Promise<any>} [send] - 实际发送请求的函数，默认为会话分片上传
  * @returns {Promise<any>} - 后端返回
  */
-const uploadChunkWithRetry = async (uploaderConfig, formData, chunkNumber, onProgress) => {
+const uploadChunkWithRetry = async (uploaderConfig, formData, chunkNumber, onProgress, send = storageService.uploadChunk) => {
     let attempt = 0;
+    let throttled = 0;
     // eslint-disable-next-line no-constant-condition
     while (true) {
         try {
-            return await storageService.uploadChunk(uploaderConfig, formData);
+            return await send(uploaderConfig, formData);
         } catch (err) {
+            if (err?.httpStatus === 429 && throttled < MAX_THROTTLED_RETRIES) {
+                throttled += 1;
+                onProgress?.({ status: `服务器繁忙，分片 ${chunkNumber} 稍后重试...` });
+                await sleep(err.retryAfterMs || RETRY_BASE_DELAY_MS);
+                continue;
+            }
             if (attempt < MAX_CHUNK_RETRIES && shouldRetryChunk(err)) {
                 attempt += 1;
                 onProgress?.({ status: `分片 ${chunkNumber} 上传失败，正在重试(${attempt}/${MAX_CHUNK_RETRIES})...` });
@@ -102,7 +118,8 @@ const uploadChunksConcurrently = async (
     MAX_CONCURRENCY,
     onProgress,
     totalChunks,
-    initialUploaded = []
+    initialUploaded = [],
+    uploaderToken
 ) => {
     const completedChunks = new Set(initialUploaded);
     const runNext = async () => {
@@ -113,6 +130,9 @@ const uploadChunksConcurrently = async (
         formData.append('file', chunk);
         formData.append('sessionId', sessionId);
         formData.append('chunkNumber', next.toString());
+        if (uploaderToken) {
+            formData.append('uploaderToken', uploaderToken);
+        }
         await uploadChunkWithRetry(uploaderConfig, formData, next, onProgress);
         completedChunks.add(next);
         const uploadedCount = completedChunks.size;
@@ -176,22 +196,70 @@ const mergeWithRetry = async (uploaderConfig, mergeData, sessionId, totalChunks,
     throw lastError;
 };
 
-// 初始化上传会话或秒传
-const initUploadSessionOrFastPath = async (file, uploaderConfig, fileHash, totalChunks, onProgress) => {
+// 初始化上传会话或秒传；未强制分片大小时不声明 totalChunks，由服务端推荐分片方案
+const initUploadSessionOrFastPath = async (file, uploaderConfig, fileHash, onProgress, uploaderToken) => {
     onProgress?.({ status: '正在初始化上传会话...' });
+    const forcedChunkSize = uploaderConfig?.chunkSize;
     const initData = {
         fileName: file.name,
         fileHash: fileHash,
         fileSize: file.size,
         contentType: file.type,
-        totalChunks: totalChunks,
         folderPath: uploaderConfig.folderPath || ''
     };
+    if (forcedChunkSize) {
+        initData.totalChunks = Math.max(1, Math.ceil(file.size / forcedChunkSize));
+    }
+    if (uploaderToken) {
+        initData.uploaderToken = uploaderToken;
+    }
     const sessionResponse = await storageService.initUploadSession(uploaderConfig, initData);
     const sessionId = sessionResponse.sessionId;
+    const chunkSize = sessionResponse.chunkSize || forcedChunkSize || DEFAULT_CHUNK_SIZE;
+    const totalChunks = sessionResponse.totalChunks || Math.max(1, Math.ceil(file.size / chunkSize));
     const uploadedChunkNumbers = sessionResponse.uploadedChunkNumbers || [];
-    const mergedOrFast = sessionResponse.status === 'MERGED' || sessionResponse.uploadedChunks === totalChunks;
-    return { sessionId, uploadedChunkNumbers, mergedOrFast };
+    // 分片已齐但尚未合并时：上传者继续合并，等待者等待合并结果；旧版后端不返回角色，按秒传处理
+    const mergedOrFast = sessionResponse.status === 'MERGED'
+        || (!sessionResponse.role && sessionResponse.uploadedChunks === totalChunks);
+    return {
+        sessionId,
+        uploadedChunkNumbers,
+        mergedOrFast,
+        chunkSize,
+        totalChunks,
+        recommendedConcurrency: sessionResponse.recommendedConcurrency,
+        // 旧版后端不返回角色，按上传者处理
+        isWaiter: sessionResponse.role === 'WAITER',
+        uploaderToken: sessionResponse.uploaderToken
+    };
+};
+
+/**
+ * 同一文件正由其他客户端上传：轮询会话直到合并完成，不重复发送分片。
+ * 定期重新初始化，上传者中断超时后由本客户端接管，从已上传的分片继续。
+ * @returns {Promise<object>} 合并完成或接管时返回重新初始化的结果
+ */
+const waitForSharedUpload = async (file, uploaderConfig, fileHash, sessionId, onProgress) => {
+    let lastInitAt = Date.now();
+    while (true) {
+        await sleep(WAITER_POLL_INTERVAL_MS);
+        const status = await storageService.getUploadStatus(uploaderConfig, sessionId);
+        // 合并结果属于上传者的目录与文件名，合并完成后也要再初始化一次，由后端为本客户端的目录与文件名新增引用
+        const merged = status.status === 'MERGED';
+        if (!merged) {
+            onProgress?.({
+                percentage: Math.floor((status.uploadedChunks / status.totalChunks) * 100),
+                status: `其他客户端正在上传同一文件，等待其完成: ${status.uploadedChunks} / ${status.totalChunks}`
+            });
+        }
+        if (merged || Date.now() - lastInitAt >= WAITER_REINIT_INTERVAL_MS) {
+            lastInitAt = Date.now();
+            const initRes = await initUploadSessionOrFastPath(file, uploaderConfig, fileHash, onProgress);
+            if (initRes.mergedOrFast || !initRes.isWaiter) {
+                return initRes;
+            }
+        }
+    }
 };
 
 // 规划待上传分片队列
@@ -273,6 +341,73 @@ const calculateFileHash = (file, chunkSize = DEFAULT_CHUNK_SIZE) => {
     });
 };
 
+/**
+ * CDC 去重上传：按内容定义边界切块，只上传服务端没有的块，最后提交块清单。
+ * @returns {Promise<object|null>} 上传结果；服务端未开启去重模式时返回 null，由调用方改走普通分片上传
+ */
+const dedupUpload = async (file, uploaderConfig, fileHash, onProgress) => {
+    const params = await storageService.getDedupParams(uploaderConfig);
+    if (!params?.enabled || file.size === 0) {
+        return null;
+    }
+
+    const chunks = await chunkFileByContent(file, params, onProgress);
+    onProgress?.({ status: '正在查询服务端已有的数据块...' });
+    const initRes = await storageService.initUploadSession(uploaderConfig, {
+        fileName: file.name,
+        fileHash: fileHash,
+        fileSize: file.size,
+        contentType: file.type,
+        folderPath: uploaderConfig.folderPath || '',
+        chunkHashes: chunks.map(c => c.hash)
+    });
+    if (initRes.status === 'MERGED') {
+        onProgress?.({ percentage: 100, status: '秒传成功！' });
+        return { isSuccess: true, gracefulResetNeeded: true };
+    }
+
+    // 同一文件内重复的块也只上传一次
+    const existing = new Set(initRes.existingChunkHashes || []);
+    const queue = [];
+    for (const chunk of chunks) {
+        if (existing.has(chunk.hash)) continue;
+        existing.add(chunk.hash);
+        queue.push(chunk);
+    }
+    const missingCount = queue.length;
+    const concurrencyCap = Math.max(1, Math.min(8, uploaderConfig?.maxConcurrency || 8));
+    const concurrency = Math.max(1, Math.min(concurrencyCap, initRes.recommendedConcurrency || DEFAULT_MAX_CONCURRENCY));
+    let done = 0;
+    const runNext = async () => {
+        const chunk = queue.shift();
+        if (chunk === undefined) return;
+        const formData = new FormData();
+        formData.append('file', file.slice(chunk.offset, chunk.offset + chunk.size));
+        formData.append('chunkHash', chunk.hash);
+        await uploadChunkWithRetry(uploaderConfig, formData, chunk.hash.substring(0, 8), onProgress,
+            storageService.uploadDedupChunk);
+        done += 1;
+        onProgress?.({
+            percentage: Math.floor((done / missingCount) * 100),
+            status: `正在上传数据块: ${done} / ${missingCount}（共 ${chunks.length} 个，${chunks.length - missingCount} 个已存在）`
+        });
+        return runNext();
+    };
+    await Promise.all(Array.from({ length: Math.min(concurrency, queue.length) }, () => runNext()));
+
+    onProgress?.({ status: '正在提交块清单...' });
+    const result = await storageService.commitDedupUpload(uploaderConfig, {
+        fileHash: fileHash,
+        fileName: file.name,
+        fileSize: file.size,
+        contentType: file.type,
+        folderPath: uploaderConfig.folderPath || '',
+        chunks: chunks.map(c => ({ hash: c.hash, size: c.size }))
+    });
+    onProgress?.({ percentage: 100, status: `文件上传成功！复用了 ${chunks.length - missingCount} / ${chunks.length} 个数据块` });
+    return { isSuccess: true, gracefulResetNeeded: true, fileUrl: result };
+};
+
 /**
  * 会话化分片上传核心（可配置分片大小与并发）
  * 1) 计算哈希与秒传；2) 初始化会话断点续传；3) 并发上传分片；4) 合并完成。
@@ -280,8 +415,6 @@ const calculateFileHash = (file, chunkSize = DEFAULT_CHUNK_SIZE) => {
 export const handleFileUploadV2 = async (file, uploaderConfig, callbacks = {}) => {
     const { onProgress, onUploadComplete, onHashCalculated, onUploadStarted } = callbacks;
 
-    const CHUNK_SIZE = uploaderConfig?.chunkSize || DEFAULT_CHUNK_SIZE;
-    const MAX_CONCURRENCY = Math.max(1, Math.min(8, uploaderConfig?.maxConcurrency || 4));
 
     // 触发上传开始的回调
     onUploadStarted?.();
@@ -289,24 +422,50 @@ export const handleFileUploadV2 = async (file, uploaderConfig, callbacks = {}) =
     // 步骤 1: 计算文件哈希
     let fileHash;
     try {
-        fileHash = await calculateFileHash(file, CHUNK_SIZE);
+        fileHash = await calculateFileHash(file, DEFAULT_CHUNK_SIZE);
         onHashCalculated?.(fileHash);
     } catch (e) {
         console.error('计算文件哈希失败:', e);
         return { isSuccess: false, error: e.message };
     }
 
+    // 开启 uploaderConfig.dedup 时优先走 CDC 去重上传，服务端未开启时回退到普通分片上传
+    if (uploaderConfig?.dedup) {
+        try {
+            const dedupResult = await dedupUpload(file, uploaderConfig, fileHash, onProgress);
+            if (dedupResult) {
+                onUploadComplete?.();
+                return dedupResult;
+            }
+        } catch (e) {
+            console.error('去重上传失败:', e);
+            return { isSuccess: false, error: '去重上传失败: ' + e.message };
+        }
+    }
+
     // 注意：所有文件（无论大小）都必须通过会话管理流程
     // 不再使用直接上传小文件的方式
 
-    // 步骤 2: 初始化上传会话
-    const totalChunks = Math.ceil(file.size / CHUNK_SIZE);
+    // 步骤 2: 初始化上传会话，按服务端返回的分片大小、分片数与推荐并发上传
     let sessionId;
+    let uploaderToken;
     let uploadedChunkNumbers = [];
+    let CHUNK_SIZE;
+    let totalChunks;
+    let MAX_CONCURRENCY;
     try {
-        const initRes = await initUploadSessionOrFastPath(file, uploaderConfig, fileHash, totalChunks, onProgress);
+        let initRes = await initUploadSessionOrFastPath(file, uploaderConfig, fileHash, onProgress);
+        if (initRes.isWaiter && !initRes.mergedOrFast) {
+            initRes = { ...initRes, ...await waitForSharedUpload(file, uploaderConfig, fileHash, initRes.sessionId, onProgress) };
+        }
         sessionId = initRes.sessionId;
+        uploaderToken = initRes.uploaderToken;
         uploadedChunkNumbers = initRes.uploadedChunkNumbers;
+        CHUNK_SIZE = initRes.chunkSize;
+        totalChunks = initRes.totalChunks;
+        // uploaderConfig.maxConcurrency 作为客户端侧上限，服务端推荐值随负载下调
+        const concurrencyCap = Math.max(1, Math.min(8, uploaderConfig?.maxConcurrency || 8));
+        MAX_CONCURRENCY = Math.max(1, Math.min(concurrencyCap, initRes.recommendedConcurrency || DEFAULT_MAX_CONCURRENCY));
         if (initRes.mergedOrFast) {
             onProgress?.({ percentage: 100, status: '秒传成功！' });
             onUploadComplete?.();
@@ -340,7 +499,8 @@ export const handleFileUploadV2 = async (file, uploaderConfig, callbacks = {}) =
             MAX_CONCURRENCY,
             onProgress,
             totalChunks,
-            currentUploaded
+            currentUploaded,
+            uploaderToken
         );
         if (completedChunks.size !== totalChunks) {
             throw new Error(`分片上传不完整: ${completedChunks.size}/${totalChunks}`);
@@ -34,13 +34,18 @@ function checkFile(uploaderConfig, fileHash) {
 
 /**
  * @description 上传单个文件分片（新版本，基于会话）。
+ * 会话ID同时放在请求头中，便于服务端准入控制在不读取请求体的情况下按会话限流。
  * @param {object} uploaderConfig - 上传器配置对象。
  * @param {string} uploaderConfig.apiPrefix - API请求前缀。
  * @param {FormData} formData - 包含分片文件(file)、会话ID(sessionId)和分片序号(chunkNumber)的表单数据。
  * @returns {Promise<{chunkNumber: number, chunkPath: string}>} 上传成功则resolve，失败则reject。
  */
 function uploadChunk(uploaderConfig, formData) {
-  return apiClient.post(`${uploaderConfig.apiPrefix}/upload/chunk`, formData);
+  return apiClient.post(`${uploaderConfig.apiPrefix}/upload/chunk`, formData, {
+    headers: {
+      'X-Upload-Session-Id': formData.get('sessionId'),
+    },
+  });
 }
 
 /**
@@ -54,6 +59,35 @@ function mergeChunks(uploaderConfig, mergeData) {
   return apiClient.post(`${uploaderConfig.apiPrefix}/upload/merge-v2`, mergeData);
 }
 
+/**
+ * @description 获取 CDC 去重上传的分块参数（仅私有文件接口提供）。
+ * @param {object} uploaderConfig - 上传器配置对象。
+ * @returns {Promise<{enabled: boolean, minChunkSize: number, avgChunkSize: number, maxChunkSize: number}>}
+ */
+function getDedupParams(uploaderConfig) {
+  return apiClient.get(`${uploaderConfig.apiPrefix}/upload/dedup/params`);
+}
+
+/**
+ * @description 上传一个去重数据块。
+ * @param {object} uploaderConfig - 上传器配置对象。
+ * @param {FormData} formData - 包含块内容(file)和块哈希(chunkHash)的表单数据。
+ * @returns {Promise<string>} 块哈希。
+ */
+function uploadDedupChunk(uploaderConfig, formData) {
+  return apiClient.post(`${uploaderConfig.apiPrefix}/upload/dedup/chunk`, formData);
+}
+
+/**
+ * @description 提交去重上传的块清单，完成文件上传。
+ * @param {object} uploaderConfig - 上传器配置对象。
+ * @param {object} commitData - { fileHash, fileName, fileSize, contentType, folderPath, chunks: [{hash, size}] }
+ * @returns {Promise<string>} 后端返回的结果消息。
+ */
+function commitDedupUpload(uploaderConfig, commitData) {
+  return apiClient.post(`${uploaderConfig.apiPrefix}/upload/dedup/commit`, commitData);
+}
+
 /**
  * @description 请求服务器合并所有已上传的分片（旧版本，保持兼容性）。
  * @param {object} uploaderConfig - 上传器配置对象。
@@ -89,6 +123,9 @@ function uploadFile(uploaderConfig, formData) {
  * @property {Function} uploadChunk - 上传单个分片。
  * @property {Function} mergeChunks - 请求合并分片（新版本）。
  * @property {Function} mergeChunksLegacy - 请求合并分片（旧版本）。
+ * @property {Function} getDedupParams - 获取去重上传的分块参数。
+ * @property {Function} uploadDedupChunk - 上传去重数据块。
+ * @property {Function} commitDedupUpload - 提交去重上传的块清单。
  * @property {Function} uploadFile - 直接上传文件。
  */
 export const storageService = {
@@ -98,5 +135,8 @@ export const storageService = {
   uploadChunk,
   mergeChunks,
   mergeChunksLegacy,
+  getDedupParams,
+  uploadDedupChunk,
+  commitDedupUpload,
   uploadFile,
 };
\ No newline at end of file
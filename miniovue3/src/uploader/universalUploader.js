@@ -9,8 +9,9 @@ import { handleFileUploadV2 } from './coreMain';
  * @param {object} [options]
  * @param {string} options.apiPrefix - 后端接口前缀，如 '/api/assets'
  * @param {string} [options.folderPath] - 存储子目录，如 'images/'
- * @param {number} [options.chunkSize] - 分片大小（字节）
- * @param {number} [options.maxConcurrency] - 并发分片数（1-8）
+ * @param {number} [options.chunkSize] - 强制使用的分片大小（字节），不传则由服务端推荐
+ * @param {number} [options.maxConcurrency] - 并发分片数上限（1-8），实际并发取服务端推荐值与该上限的较小者
+ * @param {boolean} [options.dedup] - 使用 CDC 去重上传（仅私有文件接口，需服务端开启 upload.dedup.enabled）
  * @returns {{upload:Function,onProgress:Function,onComplete:Function}}
  */
 export function createUploader(options = {}) {
@@ -19,6 +20,7 @@ export function createUploader(options = {}) {
     folderPath: options.folderPath || '',
     chunkSize: options.chunkSize, // 默认由核心使用
     maxConcurrency: options.maxConcurrency,
+    dedup: options.dedup === true,
   };
 
   let progressHandler = null;
@@ -1,12 +1,14 @@
 package org.example.miniodemo;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.miniodemo.exception.BusinessException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.example.miniodemo.common.response.R;
 import org.example.miniodemo.common.response.ResultCode;
@@ -19,6 +21,8 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * 使用 {@link ControllerAdvice} 拦截并处理在Controller层抛出的特定异常，
  * 返回统一格式的、对用户友好的错误响应。
+ * <p>
+ * 支持条件请求的端点在查询前已写入 ETag，异常响应标记为不可缓存，避免客户端之后用这个 ETag 取回缓存的错误。
  */
 @Slf4j
 @ControllerAdvice
@@ -43,8 +47,9 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(BusinessException.class)
     @ResponseBody
-    public R<Object> handleBusinessException(BusinessException e) {
+    public R<Object> handleBusinessException(BusinessException e, HttpServletResponse response) {
         log.warn("业务异常: {}", e.getMessage());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
         return R.error(e.getResultCode(), e.getMessage());
     }
 
@@ -69,8 +74,9 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     @ResponseBody
-    public R<Object> handleGlobalException(Exception e, HttpServletRequest request) {
+    public R<Object> handleGlobalException(Exception e, HttpServletRequest request, HttpServletResponse response) {
         log.error("在请求 '{}' 时发生了未捕获的异常: {}", request.getRequestURI(), e.getMessage(), e);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
         return R.error(ResultCode.INTERNAL_SERVER_ERROR, "服务器开小差了，请稍后再试");
     }
 }
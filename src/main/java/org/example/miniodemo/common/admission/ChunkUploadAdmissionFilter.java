@@ -0,0 +1,126 @@
+package org.example.miniodemo.common.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.response.R;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.config.UploadAdmissionConfig;
+import org.example.miniodemo.domain.StorageType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 分片上传准入过滤器。
+ * <p>
+ * 在 multipart 请求体被解析之前，按会话、客户端 IP 与存储类型检查 {@code /upload/chunk} 与
+ * {@code /upload/dedup/chunk}（去重数据块，没有会话ID，只受客户端与存储类型限制）请求，
+ * 超限时立即返回 {@code 429 Too Many Requests} 与 {@code Retry-After}，不占用请求处理线程去读取分片数据。
+ * 会话ID只从请求头 {@value #SESSION_ID_HEADER} 或查询字符串中读取——调用 {@code getParameter}
+ * 会触发容器解析整个 multipart 请求体。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChunkUploadAdmissionFilter extends OncePerRequestFilter {
+
+    public static final String SESSION_ID_HEADER = "X-Upload-Session-Id";
+
+    private static final String PUBLIC_CHUNK_PATH = "/minio/public/upload/chunk";
+    private static final String PRIVATE_CHUNK_PATH = "/minio/private/upload/chunk";
+    private static final String PRIVATE_DEDUP_CHUNK_PATH = "/minio/private/upload/dedup/chunk";
+
+    private final UploadAdmissionLimiter limiter;
+    private final UploadAdmissionConfig config;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled()
+                || !"POST".equalsIgnoreCase(request.getMethod())
+                || storageTypeOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StorageType storageType = storageTypeOf(request);
+        String sessionId = sessionIdOf(request);
+        String clientIp = clientIpOf(request);
+
+        try (UploadAdmissionLimiter.Admission admission = limiter.tryAcquire(sessionId, clientIp, storageType)) {
+            if (!admission.admitted()) {
+                log.warn("【准入控制 - {}】分片上传被拒绝: 原因={}, 客户端={}, 会话={}",
+                        storageType, admission.rejectReason(), clientIp, sessionId);
+                reject(response, admission);
+                return;
+            }
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private void reject(HttpServletResponse response, UploadAdmissionLimiter.Admission admission) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admission.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        R<Void> body = R.error(ResultCode.TOO_MANY_REQUESTS,
+                "分片上传请求过多（" + admission.rejectReason() + "），请 " + admission.retryAfterSeconds() + " 秒后重试");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static StorageType storageTypeOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (PUBLIC_CHUNK_PATH.equals(path)) {
+            return StorageType.PUBLIC;
+        }
+        if (PRIVATE_CHUNK_PATH.equals(path) || PRIVATE_DEDUP_CHUNK_PATH.equals(path)) {
+            return StorageType.PRIVATE;
+        }
+        return null;
+    }
+
+    /**
+     * 从请求头或查询字符串中读取会话ID，不触碰请求体。
+     */
+    private static String sessionIdOf(HttpServletRequest request) {
+        String header = request.getHeader(SESSION_ID_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header.trim();
+        }
+        String query = request.getQueryString();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && "sessionId".equals(pair.substring(0, eq))) {
+                String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                return value.isBlank() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    private String clientIpOf(HttpServletRequest request) {
+        if (config.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
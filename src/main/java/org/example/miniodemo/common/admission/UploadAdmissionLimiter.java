@@ -0,0 +1,249 @@
+package org.example.miniodemo.common.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.config.UploadAdmissionConfig;
+import org.example.miniodemo.domain.StorageType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分片上传准入限流器。
+ * <p>
+ * 依次检查：客户端 IP 的令牌桶（请求速率）、会话并发数、客户端并发数、存储类型并发数，
+ * 任一超限即拒绝并回滚已占用的名额。并发计数在请求结束时通过 {@link Admission#close()} 释放，
+ * 计数归零的会话与客户端条目随即删除，令牌桶闲置后由定时任务回收，内存占用只与活跃客户端数相关。
+ * <p>
+ * 指标：{@code upload.admission.admitted}、{@code upload.admission.rejected}（{@code reason} 标签）、
+ * {@code upload.admission.inflight}、{@code upload.admission.clients}、{@code upload.admission.sessions}。
+ */
+@Component
+public class UploadAdmissionLimiter {
+
+    /**
+     * 拒绝原因。
+     */
+    public enum RejectReason {
+        /** 客户端请求速率超限 */
+        CLIENT_RATE,
+        /** 会话并发超限 */
+        SESSION_CONCURRENCY,
+        /** 客户端并发超限 */
+        CLIENT_CONCURRENCY,
+        /** 存储类型并发超限 */
+        STORAGE_CONCURRENCY
+    }
+
+    private final UploadAdmissionConfig config;
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> sessionInFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> clientInFlight = new ConcurrentHashMap<>();
+    private final Map<StorageType, AtomicInteger> storageInFlight = new EnumMap<>(StorageType.class);
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+
+    public UploadAdmissionLimiter(UploadAdmissionConfig config, MeterRegistry registry) {
+        this.config = config;
+        this.registry = registry;
+        for (StorageType storageType : StorageType.values()) {
+            AtomicInteger counter = new AtomicInteger();
+            storageInFlight.put(storageType, counter);
+            Gauge.builder("upload.admission.inflight", counter, AtomicInteger::get)
+                    .description("已准入、正在处理的分片上传请求数")
+                    .tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name())
+                    .register(registry);
+        }
+        Gauge.builder("upload.admission.clients", clientBuckets, Map::size)
+                .description("准入控制当前跟踪的客户端数")
+                .register(registry);
+        Gauge.builder("upload.admission.sessions", sessionInFlight, Map::size)
+                .description("有分片正在上传的会话数")
+                .register(registry);
+    }
+
+    /**
+     * 尝试为一次分片上传请求占用名额。
+     *
+     * @param sessionId   会话ID，为空时跳过会话级限制。
+     * @param clientIp    客户端地址。
+     * @param storageType 存储类型。
+     * @return 准入结果；准入成功时必须在请求结束后调用 {@link Admission#close()}。
+     */
+    public Admission tryAcquire(String sessionId, String clientIp, StorageType storageType) {
+        long waitNanos = bucketFor(clientIp).tryConsume();
+        if (waitNanos > 0) {
+            return reject(RejectReason.CLIENT_RATE, storageType, ceilSeconds(waitNanos));
+        }
+        if (sessionId != null && !acquire(sessionInFlight, sessionId, config.getMaxConcurrentPerSession())) {
+            return reject(RejectReason.SESSION_CONCURRENCY, storageType, config.getRetryAfter().toSeconds());
+        }
+        if (!acquire(clientInFlight, clientIp, config.getMaxConcurrentPerClient())) {
+            release(sessionInFlight, sessionId);
+            return reject(RejectReason.CLIENT_CONCURRENCY, storageType, config.getRetryAfter().toSeconds());
+        }
+        AtomicInteger storageCounter = storageInFlight.get(storageType);
+        if (!tryIncrement(storageCounter, config.getMaxConcurrentPerStorageType())) {
+            release(sessionInFlight, sessionId);
+            release(clientInFlight, clientIp);
+            return reject(RejectReason.STORAGE_CONCURRENCY, storageType, config.getRetryAfter().toSeconds());
+        }
+
+        counter("upload.admission.admitted", "准入的分片上传请求数", storageType).increment();
+        return new Admission(null, 0, () -> {
+            storageCounter.decrementAndGet();
+            release(clientInFlight, clientIp);
+            release(sessionInFlight, sessionId);
+        });
+    }
+
+    /**
+     * 回收闲置的客户端令牌桶。
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        long idleBefore = System.nanoTime() - config.getIdleClientTimeout().toNanos();
+        clientBuckets.entrySet().removeIf(entry -> entry.getValue().lastUsedNanos() < idleBefore
+                && !clientInFlight.containsKey(entry.getKey()));
+    }
+
+    private Admission reject(RejectReason reason, StorageType storageType, long retryAfterSeconds) {
+        Counter.builder("upload.admission.rejected")
+                .description("因超限被拒绝（429）的分片上传请求数")
+                .tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name())
+                .tag("reason", reason.name())
+                .register(registry)
+                .increment();
+        return new Admission(reason, Math.max(1, retryAfterSeconds), null);
+    }
+
+    private Counter counter(String name, String description, StorageType storageType) {
+        return Counter.builder(name)
+                .description(description)
+                .tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name())
+                .register(registry);
+    }
+
+    private TokenBucket bucketFor(String clientIp) {
+        return clientBuckets.computeIfAbsent(clientIp,
+                ip -> new TokenBucket(config.getClientBurst(), config.getClientRatePerSecond()));
+    }
+
+    /**
+     * 在计数器映射中为指定键占用一个名额，计数在 {@code compute} 中原子地检查与递增。
+     */
+    private static boolean acquire(Map<String, AtomicInteger> counters, String key, int limit) {
+        boolean[] admitted = {false};
+        counters.compute(key, (k, counter) -> {
+            AtomicInteger current = counter == null ? new AtomicInteger() : counter;
+            if (limit <= 0 || current.get() < limit) {
+                current.incrementAndGet();
+                admitted[0] = true;
+            }
+            return current.get() == 0 ? null : current;
+        });
+        return admitted[0];
+    }
+
+    private static void release(Map<String, AtomicInteger> counters, String key) {
+        if (key == null) {
+            return;
+        }
+        counters.computeIfPresent(key, (k, counter) -> counter.decrementAndGet() <= 0 ? null : counter);
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int limit) {
+        while (true) {
+            int current = counter.get();
+            if (limit > 0 && current >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * 准入结果。
+     *
+     * @param rejectReason      拒绝原因，准入成功时为 {@code null}。
+     * @param retryAfterSeconds 建议客户端等待的秒数。
+     * @param releaser          释放已占用名额的回调。
+     */
+    public record Admission(RejectReason rejectReason, long retryAfterSeconds, Runnable releaser)
+            implements AutoCloseable {
+
+        public boolean admitted() {
+            return rejectReason == null;
+        }
+
+        @Override
+        public void close() {
+            if (releaser != null) {
+                releaser.run();
+            }
+        }
+    }
+
+    /**
+     * 按时间连续补充令牌的令牌桶。临界区内没有阻塞操作，使用 {@link ReentrantLock} 与项目中其他锁保持一致。
+     */
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+        private long lastRefillNanos;
+        private volatile long lastUsedNanos;
+
+        private TokenBucket(int capacity, double tokensPerSecond) {
+            this.capacity = Math.max(1, capacity);
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = this.capacity;
+            this.lastRefillNanos = System.nanoTime();
+            this.lastUsedNanos = lastRefillNanos;
+        }
+
+        /**
+         * 尝试取出一个令牌。
+         *
+         * @return 0 表示成功；否则为距离下一个令牌可用的纳秒数。
+         */
+        private long tryConsume() {
+            if (tokensPerNano <= 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                lastUsedNanos = now;
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+                lastRefillNanos = now;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return 0;
+                }
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long lastUsedNanos() {
+            return lastUsedNanos;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.miniodemo.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.miniodemo.config.SessionCacheConfig;
+import org.example.miniodemo.domain.ChunkUploadSession;
+import org.example.miniodemo.domain.ChunkUploadStatus;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 上传会话状态的进程内缓存。
+ * <p>
+ * 每个会话一项，容量与有效期有上限。读取未命中时在该会话的缓存项上加载一次，同一会话的并发读取只查询一次数据库；
+ * 会话的每次数据库写入之后以与 UPDATE 相同的字段增量更新缓存项（写穿），增量只设置绝对值，
+ * 即使作用于写入前加载的旧状态，结果也与数据库一致。在事务中写入时改为立即并在事务结束后各失效一次，回滚不会留下脏数据。
+ * <p>
+ * 缓存中保存的是副本，读取也返回副本，调用方修改返回的对象不影响缓存。
+ * 与会话锁一样，假定同一会话只由一个实例写入；其他实例的写入最多在 {@code expire-after-write} 内不可见，
+ * {@code /upload/status} 取 ETag 时发现状态不一致会提前失效。
+ */
+@Component
+public class UploadSessionCache {
+
+    private final boolean enabled;
+    private final Cache<String, ChunkUploadSession> cache;
+
+    public UploadSessionCache(SessionCacheConfig config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "uploadSessions");
+    }
+
+    /**
+     * 读取会话，未命中时调用 {@code loader} 从数据库加载并缓存。
+     *
+     * @param sessionId 会话ID。
+     * @param loader    数据库加载函数，会话不存在时返回 {@code null}（不缓存）。
+     * @return 会话副本，不存在时为 {@code null}。
+     */
+    public ChunkUploadSession get(String sessionId, Function<String, ChunkUploadSession> loader) {
+        if (!enabled) {
+            return loader.apply(sessionId);
+        }
+        ChunkUploadSession session = cache.get(sessionId, id -> {
+            ChunkUploadSession loaded = loader.apply(id);
+            return loaded == null ? null : copyOf(loaded);
+        });
+        return session == null ? null : copyOf(session);
+    }
+
+    /**
+     * 缓存新创建的会话。
+     */
+    public void put(ChunkUploadSession session) {
+        if (!enabled) {
+            return;
+        }
+        if (invalidateIfInTransaction(session.getSessionId())) {
+            return;
+        }
+        cache.put(session.getSessionId(), copyOf(session));
+    }
+
+    /**
+     * 数据库写入之后，以相同的字段增量更新已缓存的会话；未缓存的会话不做处理。
+     *
+     * @param sessionId 会话ID。
+     * @param change    与数据库 UPDATE 相同的字段修改。
+     */
+    public void update(String sessionId, Consumer<ChunkUploadSession> change) {
+        if (!enabled) {
+            return;
+        }
+        if (invalidateIfInTransaction(sessionId)) {
+            return;
+        }
+        cache.asMap().computeIfPresent(sessionId, (id, cached) -> {
+            ChunkUploadSession updated = copyOf(cached);
+            change.accept(updated);
+            return updated;
+        });
+    }
+
+    /**
+     * 缓存中的会话状态或已上传分片数与数据库不一致时（通常是其他实例写入）移出缓存，下次读取重新加载。
+     *
+     * @param sessionId      会话ID。
+     * @param status         数据库中的会话状态。
+     * @param uploadedChunks 数据库中的已上传分片数。
+     */
+    public void invalidateIfStale(String sessionId, ChunkUploadStatus status, Integer uploadedChunks) {
+        if (!enabled) {
+            return;
+        }
+        cache.asMap().computeIfPresent(sessionId, (id, cached) ->
+                cached.getStatus() == status && Objects.equals(cached.getUploadedChunks(), uploadedChunks) ? cached : null);
+    }
+
+    /**
+     * 会话已删除，移出缓存。
+     */
+    public void invalidate(String sessionId) {
+        if (enabled) {
+            cache.invalidate(sessionId);
+        }
+    }
+
+    /**
+     * 事务中的写入可能回滚：立即失效，事务结束后（无论提交还是回滚）再失效一次，
+     * 期间读到提交前状态的加载也会被清除。
+     */
+    private boolean invalidateIfInTransaction(String sessionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        cache.invalidate(sessionId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidate(sessionId);
+            }
+        });
+        return true;
+    }
+
+    private static ChunkUploadSession copyOf(ChunkUploadSession session) {
+        ChunkUploadSession copy = new ChunkUploadSession();
+        BeanUtils.copyProperties(session, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.miniodemo.common.etag;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.cache.UploadSessionCache;
+import org.example.miniodemo.domain.ChunkUploadSession;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.mapper.ChunkUploadSessionMapper;
+import org.example.miniodemo.mapper.ResourceVersionMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 列表与上传会话的版本号，用作条件请求的强 ETag。
+ * <p>
+ * 版本号都取自数据库，多个实例对同一份数据发出相同的 ETag，任一实例的写入都会使其他实例发出的 ETag 失效：
+ * <ul>
+ *     <li>文件列表：{@code resource_version} 表中每种存储类型一行，文件元数据写入的事务提交后在独立的短事务中递增，
+ *     同一事务内的多次写入只递增一次，元数据写入不持有这一行的锁。</li>
+ *     <li>上传会话：由会话行的状态、已上传分片数与更新时间组成，会话的写入本身就是版本变化，无需额外登记。</li>
+ * </ul>
+ * ETag 必须在查询数据之前取得。列表版本号在提交之后才递增，读请求不会以新版本号配旧数据；
+ * 以旧版本号配新数据时，下一次请求会因版本号已变化而重新获取。
+ */
+@Slf4j
+@Component
+public class ResourceVersionRegistry {
+
+    private final ResourceVersionMapper versionMapper;
+    private final ChunkUploadSessionMapper sessionMapper;
+    private final UploadSessionCache sessionCache;
+    private final TransactionTemplate newTransaction;
+
+    public ResourceVersionRegistry(ResourceVersionMapper versionMapper,
+                                   ChunkUploadSessionMapper sessionMapper,
+                                   UploadSessionCache sessionCache,
+                                   PlatformTransactionManager transactionManager) {
+        this.versionMapper = versionMapper;
+        this.sessionMapper = sessionMapper;
+        this.sessionCache = sessionCache;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 指定存储类型文件列表的当前 ETag。必须在查询数据库之前取得。
+     */
+    public String listingETag(StorageType storageType) {
+        Long version = versionMapper.selectVersion(listingKey(storageType));
+        return "l-" + storageType.name().toLowerCase() + "-" + (version == null ? 0 : version);
+    }
+
+    /**
+     * 指定存储类型的文件元数据发生了变化。在事务中调用时于提交后递增，回滚时不递增。
+     */
+    public void bumpListing(StorageType storageType) {
+        bumpListings(EnumSet.of(storageType));
+    }
+
+    /**
+     * 文件元数据发生了变化，但无法确定存储类型（如按主键更新）。
+     */
+    public void bumpAllListings() {
+        bumpListings(EnumSet.allOf(StorageType.class));
+    }
+
+    /**
+     * 上传会话的当前 ETag，会话不存在时为 {@code null}。必须在查询会话之前取得。
+     * <p>
+     * 直接读取数据库中的会话行；本实例缓存的会话状态与之不一致（会话由其他实例写入）时失效缓存，
+     * 随后的状态查询重新加载，响应内容与 ETag 一致。
+     */
+    public String sessionETag(String sessionId) {
+        ChunkUploadSession row = sessionMapper.selectOne(new LambdaQueryWrapper<ChunkUploadSession>()
+                .select(ChunkUploadSession::getStatus, ChunkUploadSession::getUploadedChunks,
+                        ChunkUploadSession::getUpdatedAt)
+                .eq(ChunkUploadSession::getSessionId, sessionId));
+        if (row == null) {
+            return null;
+        }
+        sessionCache.invalidateIfStale(sessionId, row.getStatus(), row.getUploadedChunks());
+        long updatedAt = row.getUpdatedAt() == null ? 0 : row.getUpdatedAt().toEpochSecond(ZoneOffset.UTC);
+        return "s-" + row.getStatus().name().toLowerCase() + "-" + row.getUploadedChunks() + "-" + updatedAt;
+    }
+
+    private void bumpListings(Set<StorageType> storageTypes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            storageTypes.forEach(this::increment);
+            return;
+        }
+        // 同一事务内的多次写入合并为提交后的一次递增
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof ListingBump pending) {
+                pending.storageTypes.addAll(storageTypes);
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new ListingBump(storageTypes));
+    }
+
+    private void increment(StorageType storageType) {
+        try {
+            newTransaction.executeWithoutResult(status -> versionMapper.increment(listingKey(storageType)));
+        } catch (Exception e) {
+            // 版本号未递增时客户端最多继续使用旧列表到下一次写入，不影响写入本身
+            log.warn("【条件请求】递增列表版本号失败: {}", storageType, e);
+        }
+    }
+
+    private static String listingKey(StorageType storageType) {
+        return "listing:" + storageType.name();
+    }
+
+    /**
+     * 事务提交后递增列表版本号。
+     */
+    private final class ListingBump implements TransactionSynchronization {
+
+        private final Set<StorageType> storageTypes;
+
+        private ListingBump(Set<StorageType> storageTypes) {
+            this.storageTypes = EnumSet.copyOf(storageTypes);
+        }
+
+        @Override
+        public void afterCommit() {
+            storageTypes.forEach(ResourceVersionRegistry.this::increment);
+        }
+    }
+}
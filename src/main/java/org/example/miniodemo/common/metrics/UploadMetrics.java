@@ -0,0 +1,164 @@
+package org.example.miniodemo.common.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.exception.BusinessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传全链路的 Micrometer 指标。
+ * <p>
+ * 覆盖分片接收、对象存储写入、会话表读写、分片合并、元数据持久化延迟与批量写入以及孤儿文件扫描，
+ * 统一打上 {@code storageType}（PUBLIC/PRIVATE）与 {@code outcome}（{@link ResultCode} 名称）标签，
+ * 通过 Actuator 的 {@code /actuator/prometheus} 暴露。所有耗时指标都发布百分位直方图，
+ * 便于在 Prometheus 中按任意分位数聚合，定位压力下最先饱和的环节。
+ */
+@Component
+public class UploadMetrics {
+
+    public static final String TAG_STORAGE_TYPE = "storageType";
+    public static final String TAG_OUTCOME = "outcome";
+
+    /**
+     * 无法确定存储类型（如会话不存在）时的 {@code storageType} 标签值。
+     */
+    public static final String UNKNOWN_STORAGE_TYPE = "UNKNOWN";
+
+    private final MeterRegistry registry;
+
+    public UploadMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 开始一次计时，配合各 {@code record*} 方法使用。
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * 记录一次分片上传请求（从进入服务到返回）的耗时与分片字节数。
+     */
+    public void recordChunkIngest(Timer.Sample sample, StorageType storageType, ResultCode outcome, long bytes) {
+        sample.stop(timer("upload.chunk.ingest", "分片上传请求处理耗时", storageType, outcome));
+        DistributionSummary.builder("upload.chunk.bytes")
+                .description("分片上传请求的字节数")
+                .baseUnit("bytes")
+                .tag(TAG_STORAGE_TYPE, storageType.name())
+                .tag(TAG_OUTCOME, outcome.name())
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * 记录一次写入对象存储（MinIO PUT）的耗时。
+     */
+    public void recordStoragePut(Timer.Sample sample, StorageType storageType, ResultCode outcome) {
+        sample.stop(timer("upload.storage.put", "写入对象存储的耗时", storageType, outcome));
+    }
+
+    /**
+     * 记录一次分片合并（compose）的耗时，按分片数量分段打标签，避免标签基数失控。
+     */
+    public void recordCompose(Timer.Sample sample, StorageType storageType, int chunkCount, ResultCode outcome) {
+        sample.stop(Timer.builder("upload.merge.compose")
+                .description("对象存储合并分片的耗时")
+                .tag(TAG_STORAGE_TYPE, storageType.name())
+                .tag(TAG_OUTCOME, outcome.name())
+                .tag("chunks", chunkCountBucket(chunkCount))
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * 记录一次会话表操作的耗时。
+     *
+     * @param operation   操作名，如 {@code getSession}、{@code recordChunkUploaded}。
+     * @param storageType 会话的存储类型，会话不存在时为 {@code null}，标签值为 {@value #UNKNOWN_STORAGE_TYPE}。
+     */
+    public void recordSessionDb(Timer.Sample sample, String operation, StorageType storageType, ResultCode outcome) {
+        sample.stop(Timer.builder("upload.session.db")
+                .description("上传会话表操作的耗时")
+                .tag(TAG_STORAGE_TYPE, storageType != null ? storageType.name() : UNKNOWN_STORAGE_TYPE)
+                .tag("operation", operation)
+                .tag(TAG_OUTCOME, outcome.name())
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * 记录从合并完成（事件发布）到元数据落库之间的延迟。
+     */
+    public void recordPersistenceLag(StorageType storageType, Duration lag, ResultCode outcome) {
+        timer("upload.metadata.persist.lag", "合并完成到元数据持久化的延迟", storageType, outcome)
+                .record(lag.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次元数据批量写入的耗时与条数。
+     */
+    public void recordMetadataBatch(Timer.Sample sample, int size, ResultCode outcome) {
+        sample.stop(Timer.builder("upload.metadata.batch")
+                .description("元数据批量写入一个批次的耗时")
+                .tag(TAG_OUTCOME, outcome.name())
+                .publishPercentileHistogram()
+                .register(registry));
+        DistributionSummary.builder("upload.metadata.batch.size")
+                .description("元数据批量写入单个批次的条数")
+                .tag(TAG_OUTCOME, outcome.name())
+                .register(registry)
+                .record(size);
+    }
+
+    /**
+     * 记录一次孤儿文件扫描的耗时、扫描对象数与删除对象数。
+     */
+    public void recordCleanupScan(Timer.Sample sample, StorageType storageType, ResultCode outcome,
+                                  long scanned, long deleted) {
+        sample.stop(timer("cleanup.orphan.scan", "孤儿文件扫描单个存储桶的耗时", storageType, outcome));
+        registry.counter("cleanup.orphan.objects.scanned", TAG_STORAGE_TYPE, storageType.name()).increment(scanned);
+        registry.counter("cleanup.orphan.objects.deleted", TAG_STORAGE_TYPE, storageType.name()).increment(deleted);
+    }
+
+    /**
+     * 将异常映射为结果码：业务异常取其自带的结果码，其余统一视为服务器内部错误。
+     */
+    public static ResultCode outcomeOf(Throwable e) {
+        if (e instanceof BusinessException be) {
+            return be.getResultCode();
+        }
+        return ResultCode.INTERNAL_SERVER_ERROR;
+    }
+
+    private Timer timer(String name, String description, StorageType storageType, ResultCode outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(TAG_STORAGE_TYPE, storageType.name())
+                .tag(TAG_OUTCOME, outcome.name())
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String chunkCountBucket(int chunkCount) {
+        if (chunkCount <= 1) {
+            return "1";
+        }
+        if (chunkCount <= 10) {
+            return "2-10";
+        }
+        if (chunkCount <= 100) {
+            return "11-100";
+        }
+        if (chunkCount <= 1000) {
+            return "101-1000";
+        }
+        return "1000+";
+    }
+}
@@ -18,6 +18,7 @@ public enum ResultCode {
     UNAUTHORIZED(401, "未授权"),
     FORBIDDEN(403, "禁止访问"),
     NOT_FOUND(404, "资源不存在"),
+    TOO_MANY_REQUESTS(429, "请求过多，请稍后重试"),
 
     /* 服务端错误 */
     INTERNAL_SERVER_ERROR(500, "服务器内部错误"),
@@ -53,4 +54,19 @@ public enum ResultCode {
         this.code = code;
         this.message = message;
     }
+
+    /**
+     * 根据状态码查找对应的枚举，多个枚举共用同一状态码时返回先声明的一个。
+     *
+     * @param code 状态码
+     * @return 对应的枚举，找不到时返回 {@link #INTERNAL_SERVER_ERROR}
+     */
+    public static ResultCode of(int code) {
+        for (ResultCode resultCode : values()) {
+            if (resultCode.code == code) {
+                return resultCode;
+            }
+        }
+        return INTERNAL_SERVER_ERROR;
+    }
 }
\ No newline at end of file
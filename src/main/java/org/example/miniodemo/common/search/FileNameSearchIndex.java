@@ -0,0 +1,393 @@
+package org.example.miniodemo.common.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.config.SearchConfig;
+import org.example.miniodemo.domain.StorageType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文件名与目录路径的进程内三元组（trigram）倒排索引，每种存储类型一份。
+ * <p>
+ * 每个文件以 "⟨起始符⟩⟨起始符⟩文件名⟨分隔符⟩目录路径" 的小写形式切成三元组，倒排表按加入顺序保存。
+ * 不少于三个字符的查询对各三元组的倒排表从后向前归并求交集后逐条校验子串；一到两个字符的查询借助起始符三元组做文件名前缀匹配。
+ * 候选从最新加入的文件开始校验，达到上限即停止，查询耗时取决于候选上限而不是索引总量。
+ * <p>
+ * 删除只清空条目，倒排表中的失效文档在查询时跳过，累计到与有效条目相当时整体压缩一次。
+ * 写入在事务提交后生效；索引只是加速结构，查询结果最终以数据库中的元数据为准。
+ * 搜索配置为 FULLTEXT 时索引不维护任何数据。
+ */
+@Slf4j
+@Component
+public class FileNameSearchIndex {
+
+    private static final char START = '\u0002';
+    private static final char SEPARATOR = '\u0001';
+
+    private final Map<StorageType, Shard> shards = new EnumMap<>(StorageType.class);
+    private final Set<Long> removedDuringLoad = new HashSet<>();
+    private volatile boolean loading;
+    private volatile boolean ready;
+    private final boolean enabled;
+
+    public FileNameSearchIndex(SearchConfig config) {
+        this.enabled = config.getMode() == SearchConfig.Mode.MEMORY;
+        for (StorageType storageType : StorageType.values()) {
+            shards.put(storageType, new Shard());
+        }
+    }
+
+    /**
+     * 索引是否已完成启动加载。加载完成前查询只能覆盖部分文件。
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 开始启动加载：加载期间被删除的文件不会再被加载进来。
+     */
+    public void beginLoad() {
+        synchronized (removedDuringLoad) {
+            loading = true;
+            removedDuringLoad.clear();
+        }
+    }
+
+    /**
+     * 加载一个已提交的文件（启动加载使用），已存在或加载期间已被删除的文件跳过。
+     */
+    public void load(Long id, StorageType storageType, String originalFilename, String folderPath) {
+        synchronized (removedDuringLoad) {
+            if (removedDuringLoad.contains(id)) {
+                return;
+            }
+        }
+        shards.get(storageType).add(id, originalFilename, folderPath);
+    }
+
+    /**
+     * 结束启动加载。
+     */
+    public void finishLoad() {
+        synchronized (removedDuringLoad) {
+            loading = false;
+            removedDuringLoad.clear();
+        }
+        ready = true;
+        log.info("【文件搜索】索引加载完成: {}", sizes());
+    }
+
+    /**
+     * 当前事务提交后将文件加入索引；不在事务中时立即加入。
+     */
+    public void addAfterCommit(Long id, StorageType storageType, String originalFilename, String folderPath) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> shards.get(storageType).add(id, originalFilename, folderPath));
+    }
+
+    /**
+     * 当前事务提交后将文件移出索引；不在事务中时立即移出。
+     */
+    public void removeAfterCommit(Long id, StorageType storageType) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (removedDuringLoad) {
+                if (loading) {
+                    removedDuringLoad.add(id);
+                }
+            }
+            shards.get(storageType).remove(id);
+        });
+    }
+
+    /**
+     * 搜索文件名或目录路径包含查询串的文件（一到两个字符时为文件名前缀匹配）。
+     *
+     * @param storageType   存储类型。
+     * @param query         查询串，不区分大小写。
+     * @param maxCandidates 最多校验的候选条数。
+     * @return 按相关度排序的命中结果。
+     */
+    public Hits search(StorageType storageType, String query, int maxCandidates) {
+        String q = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return new Hits(List.of(), false);
+        }
+        return shards.get(storageType).search(q, maxCandidates);
+    }
+
+    private Map<StorageType, Integer> sizes() {
+        Map<StorageType, Integer> sizes = new EnumMap<>(StorageType.class);
+        shards.forEach((type, shard) -> sizes.put(type, shard.size()));
+        return sizes;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long trigram(CharSequence s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * 搜索结果。
+     *
+     * @param ids       按相关度从高到低排列的文件ID。
+     * @param truncated 候选数达到上限，可能还有更早的文件未被校验。
+     */
+    public record Hits(List<Long> ids, boolean truncated) {
+    }
+
+    private record Scored(long id, int score, int nameLength) {
+    }
+
+    /**
+     * 单个存储类型的索引。条目按加入顺序编号（文档号），倒排表保存文档号，新增总是追加到末尾；
+     * 文件ID到文档号的映射只在删除时使用。
+     */
+    private static final class Shard {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Integer> docsByFileId = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private long[] fileIds = new long[16];
+        private String[] names = new String[16];
+        private String[] folders = new String[16];
+        private int docCount;
+        private int deletedDocs;
+
+        void add(Long id, String originalFilename, String folderPath) {
+            String name = lower(originalFilename);
+            String folder = lower(folderPath);
+            lock.writeLock().lock();
+            try {
+                if (docsByFileId.containsKey(id)) {
+                    return;
+                }
+                append(id, name, folder);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                Integer doc = docsByFileId.remove(id);
+                if (doc == null) {
+                    return;
+                }
+                names[doc] = null;
+                folders[doc] = null;
+                deletedDocs++;
+                if (deletedDocs > 1024 && deletedDocs > docsByFileId.size()) {
+                    compact();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return docsByFileId.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Hits search(String q, int maxCandidates) {
+            boolean prefixOnly = q.length() < 3;
+            String pattern = prefixOnly ? (q.length() == 1 ? "" + START + START + q : START + q) : q;
+            Set<Long> grams = new HashSet<>();
+            for (int i = 0; i + 3 <= pattern.length(); i++) {
+                grams.add(trigram(pattern, i));
+            }
+
+            List<Scored> matched = new ArrayList<>();
+            boolean truncated = false;
+            lock.readLock().lock();
+            try {
+                Postings[] lists = new Postings[grams.size()];
+                int n = 0;
+                for (Long gram : grams) {
+                    Postings list = postings.get(gram);
+                    if (list == null) {
+                        return new Hits(List.of(), false);
+                    }
+                    lists[n++] = list;
+                }
+                Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+                // 其余倒排表的游标：从最新的文档开始倒序归并，每个表只向前移动
+                int[] cursors = new int[lists.length];
+                for (int k = 1; k < lists.length; k++) {
+                    cursors[k] = lists[k].size - 1;
+                }
+                Postings smallest = lists[0];
+                candidates:
+                for (int i = smallest.size - 1; i >= 0; i--) {
+                    int doc = smallest.docs[i];
+                    for (int k = 1; k < lists.length; k++) {
+                        int c = lists[k].seekAtMost(doc, cursors[k]);
+                        cursors[k] = c;
+                        if (c < 0) {
+                            break candidates;
+                        }
+                        if (lists[k].docs[c] != doc) {
+                            continue candidates;
+                        }
+                    }
+                    String name = names[doc];
+                    if (name == null) {
+                        continue;
+                    }
+                    int score = score(name, folders[doc], q, prefixOnly);
+                    if (score < 0) {
+                        continue;
+                    }
+                    if (matched.size() >= maxCandidates) {
+                        truncated = true;
+                        break;
+                    }
+                    matched.add(new Scored(fileIds[doc], score, name.length()));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            matched.sort(Comparator.comparingInt(Scored::score).reversed()
+                    .thenComparingInt(Scored::nameLength)
+                    .thenComparing(Comparator.comparingLong(Scored::id).reversed()));
+            List<Long> ids = new ArrayList<>(matched.size());
+            for (Scored scored : matched) {
+                ids.add(scored.id());
+            }
+            return new Hits(ids, truncated);
+        }
+
+        /**
+         * 相关度：文件名完全相同 > 文件名前缀 > 文件名中以单词开头 > 文件名包含 > 仅目录路径包含；不匹配返回 -1。
+         */
+        private static int score(String name, String folder, String q, boolean prefixOnly) {
+            if (name.equals(q)) {
+                return 4;
+            }
+            if (name.startsWith(q)) {
+                return 3;
+            }
+            if (prefixOnly) {
+                return -1;
+            }
+            int at = name.indexOf(q);
+            if (at > 0) {
+                return Character.isLetterOrDigit(name.charAt(at - 1)) ? 1 : 2;
+            }
+            return folder.contains(q) ? 0 : -1;
+        }
+
+        private void append(long id, String name, String folder) {
+            if (docCount == fileIds.length) {
+                int capacity = docCount + (docCount >> 1);
+                fileIds = Arrays.copyOf(fileIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                folders = Arrays.copyOf(folders, capacity);
+            }
+            int doc = docCount++;
+            fileIds[doc] = id;
+            names[doc] = name;
+            folders[doc] = folder;
+            docsByFileId.put(id, doc);
+
+            String text = "" + START + START + name + SEPARATOR + folder;
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                postings.computeIfAbsent(trigram(text, i), g -> new Postings()).add(doc);
+            }
+        }
+
+        /**
+         * 丢弃已删除的文档并重新编号，保持原有顺序。
+         */
+        private void compact() {
+            long[] oldIds = fileIds;
+            String[] oldNames = names;
+            String[] oldFolders = folders;
+            int oldCount = docCount;
+            int live = docsByFileId.size();
+            fileIds = new long[Math.max(16, live)];
+            names = new String[fileIds.length];
+            folders = new String[fileIds.length];
+            docCount = 0;
+            deletedDocs = 0;
+            docsByFileId.clear();
+            postings.clear();
+            for (int doc = 0; doc < oldCount; doc++) {
+                if (oldNames[doc] != null) {
+                    append(oldIds[doc], oldNames[doc], oldFolders[doc]);
+                }
+            }
+        }
+
+        private static String lower(String s) {
+            return s == null ? "" : s.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * 按文档号升序排列的倒排表。文档号递增分配，新增只会追加；同一文档内重复的三元组只记一次。
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+            }
+            docs[size++] = doc;
+        }
+
+        /**
+         * 从 {@code from} 向前找到最后一个不大于 {@code doc} 的位置，没有时返回 -1。
+         */
+        int seekAtMost(int doc, int from) {
+            if (from < 0 || docs[from] <= doc) {
+                return from;
+            }
+            int at = Arrays.binarySearch(docs, 0, from, doc);
+            return at >= 0 ? at : -at - 2;
+        }
+    }
+}
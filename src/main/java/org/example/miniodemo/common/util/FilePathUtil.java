@@ -1,5 +1,9 @@
 package org.example.miniodemo.common.util;
 
+import org.example.miniodemo.config.ObjectKeyConfig;
+import org.example.miniodemo.domain.ContentLayout;
+import org.example.miniodemo.domain.FileMetadata;
+
 import java.time.LocalDate;
 
 /**
@@ -10,6 +14,21 @@ import java.time.LocalDate;
  */
 public final class FilePathUtil {
 
+    /**
+     * 共享对象的路径前缀，孤儿文件清理任务需跳过该前缀。
+     */
+    public static final String BLOB_PREFIX = "blobs/";
+
+    /**
+     * 按哈希分片布局下上传分片的路径前缀，与文件对象的两级哈希前缀区分开。
+     */
+    public static final String PART_PREFIX = "parts/";
+
+    /**
+     * 按哈希分片时用作前缀的哈希字符数，每两位一级。
+     */
+    private static final int SHARD_CHARS = 4;
+
     private FilePathUtil() {
         // 私有构造函数，防止实例化
     }
@@ -38,12 +57,138 @@ public final class FilePathUtil {
         return String.join("/", folderPath, year, month, day, fileHash, originalFileName);
     }
 
+    /**
+     * 按指定布局构建文件的存储路径。
+     *
+     * @param layout           路径布局
+     * @param folderPath       文件所在目录
+     * @param fileHash         文件的哈希值
+     * @param originalFileName 文件的原始名称
+     * @return 构建好的完整存储路径字符串
+     */
+    public static String buildFilePath(ObjectKeyConfig.Layout layout, String folderPath, String fileHash,
+                                       String originalFileName) {
+        if (layout == ObjectKeyConfig.Layout.HASH_SHARDED) {
+            return buildHashShardedPath(folderPath, fileHash, originalFileName);
+        }
+        return buildDateBasedPath(folderPath, fileHash, originalFileName);
+    }
+
+    /**
+     * 构建按哈希分片的存储路径，对象按哈希前四位均匀分散到两级前缀下。
+     * <p>
+     * 生成的路径格式为：
+     * {hash前两位}/{hash第三、四位}/{fileHash}/{folderPath}/{originalFileName}
+     * <p>
+     * 例如：
+     * "ab/c1/abc123def456/default/file.txt"
+     * <p>
+     * 目录按规范化形式写入，根目录时省略该段；哈希不足四位时退回按日期组织的路径。
+     *
+     * @param folderPath       文件所在目录
+     * @param fileHash         文件的哈希值
+     * @param originalFileName 文件的原始名称
+     * @return 构建好的完整存储路径字符串
+     */
+    public static String buildHashShardedPath(String folderPath, String fileHash, String originalFileName) {
+        if (fileHash.length() < SHARD_CHARS) {
+            return buildDateBasedPath(folderPath, fileHash, originalFileName);
+        }
+        String folder = FolderPathUtil.normalize(folderPath);
+        String prefix = shardPrefix(fileHash) + fileHash + "/";
+        return folder.isEmpty() ? prefix + originalFileName : prefix + folder + "/" + originalFileName;
+    }
+
+    /**
+     * 按指定布局构建上传分片的存储路径。
+     * <p>
+     * 按日期组织时为 {sessionId}/{chunkNumber}；按哈希分片时为 parts/{两级前缀}/{sessionId}/{chunkNumber}，
+     * 放在单独的顶级前缀下，不会与同一哈希的文件对象重名。
+     *
+     * @param layout      路径布局
+     * @param sessionId   上传会话ID
+     * @param chunkNumber 分片序号
+     * @return 分片的存储路径
+     */
+    public static String buildChunkPath(ObjectKeyConfig.Layout layout, String sessionId, int chunkNumber) {
+        if (layout == ObjectKeyConfig.Layout.HASH_SHARDED && sessionId.length() >= SHARD_CHARS) {
+            return PART_PREFIX + shardPrefix(sessionId) + sessionId + "/" + chunkNumber;
+        }
+        return sessionId + "/" + chunkNumber;
+    }
+
+    /**
+     * 判断对象路径是否为任一布局下的上传分片：{@value #PART_PREFIX} 前缀下的对象，或 {sessionId}/{chunkNumber}。
+     * 文件对象路径至少包含日期或哈希前缀的多级目录，不会只有两段且末段为数字。
+     */
+    public static boolean isChunkObject(String path) {
+        if (path.startsWith(PART_PREFIX)) {
+            return true;
+        }
+        int slash = path.indexOf('/');
+        return slash > 0 && slash == path.lastIndexOf('/') && slash < path.length() - 1
+                && path.substring(slash + 1).chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * 判断路径是否为任一布局下指定会话与序号的分片路径，布局切换前上传的分片同样匹配。
+     */
+    public static boolean isChunkPath(String path, String sessionId, int chunkNumber) {
+        for (ObjectKeyConfig.Layout layout : ObjectKeyConfig.Layout.values()) {
+            if (path.equals(buildChunkPath(layout, sessionId, chunkNumber))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断路径是否为按哈希分片的文件路径：前两段依次为第三段的前两位与第三、四位。
+     */
+    public static boolean isHashShardedPath(String path) {
+        if (path == null) {
+            return false;
+        }
+        String[] parts = path.split("/");
+        return parts.length >= 4
+                && parts[0].length() == 2
+                && parts[1].length() == 2
+                && parts[2].length() >= SHARD_CHARS
+                && parts[2].startsWith(parts[0] + parts[1]);
+    }
+
+    /**
+     * 由内容哈希推导共享对象的存储路径，按前两位分散到 256 个目录下。
+     * <p>
+     * 生成的路径格式为：blobs/{hash前两位}/{fileHash}
+     *
+     * @param fileHash 文件内容哈希
+     * @return 共享对象的存储路径
+     */
+    public static String buildBlobPath(String fileHash) {
+        return BLOB_PREFIX + fileHash.substring(0, 2) + "/" + fileHash;
+    }
+
+    /**
+     * 返回文件内容所在的对象路径。
+     * <p>
+     * BLOB 布局的文件内容在共享对象中，{@link FileMetadata#getFilePath()} 只是逻辑路径；其他布局即为文件路径。
+     *
+     * @param metadata 文件元数据
+     * @return 对象存储中的路径
+     */
+    public static String objectKeyOf(FileMetadata metadata) {
+        if (metadata.getContentLayout() == ContentLayout.BLOB) {
+            return buildBlobPath(metadata.getContentHash());
+        }
+        return metadata.getFilePath();
+    }
 
     /**
      * 从结构化的对象存储路径中提取文件的哈希值。
      * <p>
-     * 假设路径格式为 ".../{hash}/{filename}"，
-     * 其中哈希值位于倒数第二个路径段。
+     * 按哈希分片的路径 "{hh}/{hh}/{hash}/..." 中哈希值位于第三个路径段；
+     * 其他路径假设格式为 ".../{hash}/{filename}"，其中哈希值位于倒数第二个路径段。
      *
      * @param path 对象存储中的完整文件路径，不能为 null。
      * @return 返回路径中提取的哈希字符串；如果路径为空或格式不符合预期，返回 null。
@@ -52,6 +197,9 @@ public final class FilePathUtil {
         if (path == null) {
             return null;
         }
+        if (isHashShardedPath(path)) {
+            return path.split("/")[2];
+        }
         String[] parts = path.split("/");
         // 倒数第二部分通常为哈希值
         if (parts.length >= 2) {
@@ -60,4 +208,8 @@ public final class FilePathUtil {
         return null;
     }
 
+    private static String shardPrefix(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, SHARD_CHARS) + "/";
+    }
+
 } 
\ No newline at end of file
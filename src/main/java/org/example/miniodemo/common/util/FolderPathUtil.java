@@ -0,0 +1,109 @@
+package org.example.miniodemo.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 虚拟目录路径工具类。
+ * <p>
+ * 元数据中的 {@code folder_path} 由客户端提交，可能带有首尾斜杠或连续斜杠。
+ * 目录统计与浏览统一使用规范化后的形式：去掉首尾斜杠、合并连续斜杠，根目录为空字符串。
+ */
+public final class FolderPathUtil {
+
+    /**
+     * 根目录的规范化路径。
+     */
+    public static final String ROOT = "";
+
+    private FolderPathUtil() {
+        // 私有构造函数，防止实例化
+    }
+
+    /**
+     * 规范化目录路径，例如 "/user123//images/" 转换为 "user123/images"，{@code null} 视为根目录。
+     */
+    public static String normalize(String folderPath) {
+        if (folderPath == null) {
+            return ROOT;
+        }
+        StringBuilder normalized = new StringBuilder(folderPath.length());
+        for (String segment : folderPath.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (!normalized.isEmpty()) {
+                normalized.append('/');
+            }
+            normalized.append(segment);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * 从根目录到目录自身的全部路径，例如 "a/b" 返回 ["", "a", "a/b"]。
+     *
+     * @param normalizedPath 规范化后的目录路径。
+     */
+    public static List<String> selfAndAncestors(String normalizedPath) {
+        List<String> paths = new ArrayList<>();
+        paths.add(ROOT);
+        if (normalizedPath.isEmpty()) {
+            return paths;
+        }
+        int slash = normalizedPath.indexOf('/');
+        while (slash >= 0) {
+            paths.add(normalizedPath.substring(0, slash));
+            slash = normalizedPath.indexOf('/', slash + 1);
+        }
+        paths.add(normalizedPath);
+        return paths;
+    }
+
+    /**
+     * 父目录的规范化路径；根目录没有父目录，返回 {@code null}。
+     */
+    public static String parentOf(String normalizedPath) {
+        if (normalizedPath.isEmpty()) {
+            return null;
+        }
+        int slash = normalizedPath.lastIndexOf('/');
+        return slash < 0 ? ROOT : normalizedPath.substring(0, slash);
+    }
+
+    /**
+     * 目录名，即路径的最后一段；根目录为空字符串。
+     */
+    public static String nameOf(String normalizedPath) {
+        return normalizedPath.substring(normalizedPath.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * 路径 UTF-8 字节的 SHA-256，与 {@code file_metadata.folder_path_hash} 生成列的算法相同。
+     */
+    public static byte[] sha256(String path) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(path.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 路径 SHA-256 的小写十六进制形式，用作 {@code folder_stats} 的等值查询键。
+     */
+    public static String sha256Hex(String path) {
+        return HexFormat.of().formatHex(sha256(path));
+    }
+
+    /**
+     * 元数据中可能记录的同一目录的原始写法：规范化形式与带结尾斜杠的形式。
+     */
+    public static List<String> storedForms(String normalizedPath) {
+        return List.of(normalizedPath, normalizedPath + "/");
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 异步对象存储配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.async")
+public class AsyncStorageConfig {
+
+    /**
+     * 同时在途的异步存储请求上限，不应超过 {@code minio.http.max-requests-per-host}。
+     */
+    private int maxInFlight = 32;
+
+    /**
+     * 批量删除时单个请求包含的最大对象数（MinIO/S3 上限为 1000）。
+     */
+    private int deleteBatchSize = 1000;
+}
@@ -0,0 +1,29 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 按内容寻址的共享对象存储配置。
+ * <p>
+ * 开启后分片合并与直接上传的内容写入 {@code blobs/{前两位}/{hash}}，同一内容只存一份；
+ * 文件元数据以 BLOB 布局引用它，复制文件或在其他目录重复上传同一内容只增加一条元数据和一个引用。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.blob-store")
+public class BlobStoreConfig {
+
+    /**
+     * 是否把新上传的内容写入共享对象。关闭后新文件恢复为每个文件一个对象，已有的共享对象照常读取与回收。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 引用数降为 0 的共享对象至少保留这么久才会被回收，期间重新上传同一内容可直接复用。
+     */
+    private Duration gcGracePeriod = Duration.ofHours(1);
+}
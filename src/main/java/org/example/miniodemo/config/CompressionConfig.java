@@ -0,0 +1,48 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可压缩内容的透明压缩配置。
+ * <p>
+ * 开启后，文本、JSON、CSV、日志等内容在写入对象存储时以 gzip 流式压缩，对象带有 {@code Content-Encoding: gzip}，
+ * 元数据记录编码方式。代理下载时按客户端的 {@code Accept-Encoding} 决定直接透传压缩字节还是边读边解压。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.compression")
+public class CompressionConfig {
+
+    /**
+     * 是否开启透明压缩。
+     */
+    private boolean enabled = false;
+
+    /**
+     * gzip 压缩级别（1-9），越高压缩率越好、CPU 开销越大。
+     */
+    private int level = 6;
+
+    /**
+     * 小于该大小的文件不压缩，压缩收益抵不过 gzip 头尾与解压开销。
+     */
+    private DataSize minSize = DataSize.ofKilobytes(4);
+
+    /**
+     * 可压缩的MIME类型，以 {@code /*} 结尾表示匹配整个主类型。
+     */
+    private List<String> contentTypes = new ArrayList<>(List.of(
+            "text/*", "application/json", "application/x-ndjson", "application/xml", "application/javascript"));
+
+    /**
+     * 可压缩的文件扩展名（不含点）。浏览器对 .log 等文件常常不给出MIME类型，按扩展名补充判断。
+     */
+    private List<String> extensions = new ArrayList<>(List.of(
+            "txt", "log", "csv", "tsv", "json", "ndjson", "xml", "md", "html", "css", "js"));
+}
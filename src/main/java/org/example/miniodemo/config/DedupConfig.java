@@ -0,0 +1,52 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 内容定义分块（CDC）去重存储配置。
+ * <p>
+ * 开启后私有文件可以按内容定义的边界切块上传：每个块以 SHA-256 为键只存一份，
+ * 文件由一份有序的块清单描述。分块大小参数由 {@code /upload/init} 下发给客户端，
+ * 客户端与服务端必须使用同一组参数，否则同样的内容会被切出不同的边界而无法去重。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.dedup")
+public class DedupConfig {
+
+    /**
+     * 是否开启去重存储模式。
+     */
+    private boolean enabled = false;
+
+    /**
+     * 最小块大小，在此之前不检测切分点。
+     */
+    private DataSize minChunkSize = DataSize.ofKilobytes(256);
+
+    /**
+     * 期望的平均块大小，必须是 2 的幂。
+     */
+    private DataSize avgChunkSize = DataSize.ofMegabytes(1);
+
+    /**
+     * 最大块大小，到达后强制切分；服务端拒绝超过该大小的块。
+     */
+    private DataSize maxChunkSize = DataSize.ofMegabytes(4);
+
+    /**
+     * 单个文件清单允许的最大块数。
+     */
+    private int maxChunksPerFile = 100_000;
+
+    /**
+     * 未被任何清单引用的块在最后一次被上传或被 {@code /upload/init} 报告为已存在之后，
+     * 至少保留这么久才会被回收，给尚未提交清单的上传留出时间。
+     */
+    private Duration gcGracePeriod = Duration.ofHours(24);
+}
@@ -0,0 +1,29 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 本地文件系统对象存储配置，仅在 {@code storage.type=local} 时生效。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.local")
+public class LocalStorageConfig {
+
+    /**
+     * 对象存储根目录，每个存储桶对应其下的一个子目录。
+     */
+    private String rootDir = "./data/storage";
+
+    /**
+     * 本地对象访问端点的基础URL，用于拼接预签名下载链接。
+     */
+    private String endpoint = "http://localhost:902/local-storage";
+
+    /**
+     * 预签名URL的HMAC签名密钥。
+     */
+    private String presignSecret;
+}
@@ -0,0 +1,31 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 分片合并协调配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.merge")
+public class MergeConfig {
+
+    /**
+     * 会话处于 MERGING 超过这么久未更新，视为合并节点已中断，允许其他请求接管合并。应大于最大文件的合并耗时。
+     */
+    private Duration staleAfter = Duration.ofHours(1);
+
+    /**
+     * 同一会话的重复合并请求等待进行中合并结果的最长时间，超时后返回合并中，由客户端稍后重试。
+     */
+    private Duration waitTimeout = Duration.ofMinutes(5);
+
+    /**
+     * 等待其他节点的合并结果时查询会话状态的间隔。
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+}
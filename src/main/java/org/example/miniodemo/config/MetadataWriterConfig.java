@@ -0,0 +1,36 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 文件元数据批量写入配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.metadata-writer")
+public class MetadataWriterConfig {
+
+    /**
+     * 是否合并写入；关闭时每条元数据在调用线程中以独立事务写入。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单个批次的最大条数。
+     */
+    private int maxBatchSize = 200;
+
+    /**
+     * 批次中第一条元数据最多等待多久即写入，决定低负载时增加的延迟上限。
+     */
+    private Duration maxDelay = Duration.ofMillis(20);
+
+    /**
+     * 等待写入的队列容量，队列满时提交方阻塞等待。
+     */
+    private int queueCapacity = 10_000;
+}
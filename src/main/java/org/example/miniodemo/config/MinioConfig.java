@@ -1,32 +1,47 @@
 package org.example.miniodemo.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import lombok.Data;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.example.miniodemo.service.storage.HedgedReader;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "minio")
 public class MinioConfig {
-    
+
     /**
      * MinIO服务器的内部访问端点。
      */
     private String endpoint;
-    
+
     /**
      * MinIO服务器的外部（公开）访问端点。
      */
     private String publicEndpoint;
-    
+
     /**
      * 访问MinIO的Access Key。
      */
     private String accessKey;
-    
+
     /**
      * 访问MinIO的Secret Key。
      */
@@ -41,7 +56,45 @@ public class MinioConfig {
      * 孤儿分片清理任务的阈值（单位：小时）。
      */
     private Integer chunkCleanupHours;
-    
+
+    /**
+     * 内部客户端的 HTTP 传输配置（分片上传、合并、删除等全部走此客户端）。
+     */
+    private HttpClientProperties http = new HttpClientProperties();
+
+    /**
+     * 公网客户端的 HTTP 传输配置，该客户端主要用于生成预签名URL，默认规格较小。
+     */
+    private HttpClientProperties publicHttp = new HttpClientProperties(16, 8, 4);
+
+    /**
+     * 多副本端点的对冲读取配置。
+     */
+    private HedgedReadProperties hedgedRead = new HedgedReadProperties();
+
+    /**
+     * 内部客户端使用的 OkHttp 实例。
+     * <p>
+     * MinIO SDK 默认的 OkHttp 调度器每个主机最多只允许 5 个并发请求，连接池也很小，
+     * 会在不知不觉中限制并行分片上传、合并与批量删除的吞吐，因此这里按配置显式构建。
+     *
+     * @return 配置好的 {@link OkHttpClient} 实例。
+     */
+    @Bean("internalMinioHttpClient")
+    public OkHttpClient internalMinioHttpClient() {
+        return buildHttpClient(http, endpoint);
+    }
+
+    /**
+     * 公网客户端使用的 OkHttp 实例。
+     *
+     * @return 配置好的 {@link OkHttpClient} 实例。
+     */
+    @Bean("publicMinioHttpClient")
+    public OkHttpClient publicMinioHttpClient() {
+        return buildHttpClient(publicHttp, publicEndpoint);
+    }
+
     /**
      * 定义一个主要用于内部服务间通信的MinIO客户端Bean。
      *
@@ -49,10 +102,25 @@ public class MinioConfig {
      */
     @Primary
     @Bean("internalMinioClient")
-    public MinioClient internalMinioClient() {
+    public MinioClient internalMinioClient(@Qualifier("internalMinioHttpClient") OkHttpClient httpClient) {
         return MinioClient.builder()
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey)
+                .httpClient(httpClient)
+                .build();
+    }
+
+    /**
+     * 定义一个内部通信用的MinIO异步客户端Bean，与 {@code internalMinioClient} 共享同一个 HTTP 传输。
+     *
+     * @return 配置好的 {@link MinioAsyncClient} 实例。
+     */
+    @Bean("internalMinioAsyncClient")
+    public MinioAsyncClient internalMinioAsyncClient(@Qualifier("internalMinioHttpClient") OkHttpClient httpClient) {
+        return MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .httpClient(httpClient)
                 .build();
     }
 
@@ -62,10 +130,228 @@ public class MinioConfig {
      * @return 配置好的 {@link MinioClient} 实例。
      */
     @Bean("publicMinioClient")
-    public MinioClient publicMinioClient() {
+    public MinioClient publicMinioClient(@Qualifier("publicMinioHttpClient") OkHttpClient httpClient) {
         return MinioClient.builder()
                 .endpoint(publicEndpoint)
                 .credentials(accessKey, secretKey)
+                .httpClient(httpClient)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * 下载与 HEAD 使用的对冲读取器：主端点为 {@code minio.endpoint}，副本端点见 {@code minio.hedged-read.replica-endpoints}。
+     * 副本端点与主端点共用凭证和 HTTP 传输；未配置副本时读取直接走内部客户端。
+     *
+     * @return 对冲读取器。
+     */
+    @Bean(name = "minioHedgedReader", destroyMethod = "shutdown")
+    public HedgedReader minioHedgedReader(@Qualifier("internalMinioHttpClient") OkHttpClient httpClient,
+                                          @Qualifier("internalMinioClient") MinioClient internalClient,
+                                          @Qualifier("internalMinioAsyncClient") MinioAsyncClient internalAsyncClient) {
+        return buildHedgedReader(endpoint, internalClient, internalAsyncClient, hedgedRead.getReplicaEndpoints(),
+                accessKey, secretKey, httpClient, hedgedRead);
+    }
+
+    /**
+     * 按主端点的客户端与副本端点列表构建对冲读取器，多集群路由为每个 MinIO 集群各自构建一份。
+     */
+    public static HedgedReader buildHedgedReader(String primaryEndpoint, MinioClient primaryClient,
+                                                 MinioAsyncClient primaryAsyncClient, List<String> replicaEndpoints,
+                                                 String accessKey, String secretKey,
+                                                 OkHttpClient httpClient, HedgedReadProperties props) {
+        List<HedgedReader.Endpoint> endpoints = new ArrayList<>();
+        endpoints.add(new HedgedReader.Endpoint(primaryEndpoint, primaryClient, primaryAsyncClient, props));
+        if (props.isEnabled() && replicaEndpoints != null) {
+            for (String replica : replicaEndpoints) {
+                endpoints.add(new HedgedReader.Endpoint(replica,
+                        MinioClient.builder().endpoint(replica).credentials(accessKey, secretKey).httpClient(httpClient).build(),
+                        MinioAsyncClient.builder().endpoint(replica).credentials(accessKey, secretKey).httpClient(httpClient).build(),
+                        props));
+            }
+        }
+        return new HedgedReader(endpoints, props);
+    }
+
+    /**
+     * 注册对冲读取的端点延迟与对冲次数指标。
+     *
+     * @return 指标绑定器。
+     */
+    @Bean
+    public MeterBinder minioHedgedReadMetrics(@Qualifier("minioHedgedReader") HedgedReader hedgedReader) {
+        return hedgedReader::bindMetrics;
+    }
+
+    /**
+     * 将两个 MinIO 客户端的连接池与调度器状态注册为监控指标。
+     * <p>
+     * 指标以 {@code client} 标签区分 internal/public：
+     * {@code minio.http.connections.idle}、{@code minio.http.connections.active}、
+     * {@code minio.http.calls.running}、{@code minio.http.calls.queued}。
+     * 排队数持续大于 0 说明 {@code max-requests-per-host} 已成为瓶颈。
+     *
+     * @return 指标绑定器。
+     */
+    @Bean
+    public MeterBinder minioHttpClientMetrics(@Qualifier("internalMinioHttpClient") OkHttpClient internalHttpClient,
+                                              @Qualifier("publicMinioHttpClient") OkHttpClient publicHttpClient) {
+        return registry -> {
+            bindHttpClientMetrics(registry, "internal", internalHttpClient);
+            bindHttpClientMetrics(registry, "public", publicHttpClient);
+        };
+    }
+
+    private static void bindHttpClientMetrics(MeterRegistry registry, String client, OkHttpClient httpClient) {
+        ConnectionPool pool = httpClient.connectionPool();
+        Dispatcher dispatcher = httpClient.dispatcher();
+        Gauge.builder("minio.http.connections.idle", pool, ConnectionPool::idleConnectionCount)
+                .description("MinIO 客户端连接池中的空闲连接数")
+                .tag("client", client)
+                .register(registry);
+        Gauge.builder("minio.http.connections.active", pool, p -> p.connectionCount() - p.idleConnectionCount())
+                .description("MinIO 客户端连接池中正在使用的连接数")
+                .tag("client", client)
+                .register(registry);
+        Gauge.builder("minio.http.calls.running", dispatcher, Dispatcher::runningCallsCount)
+                .description("MinIO 客户端正在执行的请求数")
+                .tag("client", client)
+                .register(registry);
+        Gauge.builder("minio.http.calls.queued", dispatcher, Dispatcher::queuedCallsCount)
+                .description("MinIO 客户端因并发上限而排队等待的请求数")
+                .tag("client", client)
+                .register(registry);
+    }
+
+    /**
+     * 按传输参数构建 OkHttp 实例，多集群路由为每个 MinIO 集群各自构建一份。
+     */
+    public static OkHttpClient buildHttpClient(HttpClientProperties props, String endpoint) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(props.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(props.getMaxRequestsPerHost());
+
+        // 与 MinIO SDK 默认行为一致只使用 HTTP/1.1；开启 HTTP/2 时，
+        // HTTPS 端点通过 ALPN 协商，明文端点只能使用 prior knowledge 方式
+        List<Protocol> protocols;
+        if (!props.isHttp2()) {
+            protocols = List.of(Protocol.HTTP_1_1);
+        } else if (endpoint != null && endpoint.startsWith("https")) {
+            protocols = List.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        } else {
+            protocols = List.of(Protocol.H2_PRIOR_KNOWLEDGE);
+        }
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(props.getMaxIdleConnections(),
+                        props.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(props.getConnectTimeout())
+                .readTimeout(props.getReadTimeout())
+                .writeTimeout(props.getWriteTimeout())
+                .protocols(protocols)
+                .build();
+    }
+
+    /**
+     * 对冲读取参数。
+     */
+    @Data
+    public static class HedgedReadProperties {
+
+        /**
+         * 是否对下载与 HEAD 使用对冲读取；未配置副本端点时不生效。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 可读取同一份数据的副本端点（同一集群的其他节点或站点复制的对端），与主端点共用凭证。
+         */
+        private List<String> replicaEndpoints = new ArrayList<>();
+
+        /**
+         * 发出对冲请求前等待的延迟分位数，取当前最快端点的最近延迟。
+         */
+        private double hedgeQuantile = 0.95;
+
+        /**
+         * 对冲等待时间的下限，避免延迟很低时频繁对冲。
+         */
+        private Duration minHedgeDelay = Duration.ofMillis(10);
+
+        /**
+         * 对冲等待时间的上限；样本不足时也使用此值。端点请求失败时以此值计入其延迟。
+         */
+        private Duration maxHedgeDelay = Duration.ofSeconds(1);
+
+        /**
+         * 延迟 EWMA 的平滑系数，越大越偏向最近的样本。
+         */
+        private double ewmaAlpha = 0.2;
+
+        /**
+         * 计算分位数时保留的最近样本数。
+         */
+        private int latencyWindow = 128;
+
+        /**
+         * 端点样本数达到此值后才按分位数对冲。
+         */
+        private int minSamples = 20;
+    }
+
+    /**
+     * MinIO 客户端的 HTTP 传输参数。
+     */
+    @Data
+    public static class HttpClientProperties {
+
+        /**
+         * 所有主机合计的最大并发请求数。
+         */
+        private int maxRequests = 128;
+
+        /**
+         * 单个主机的最大并发请求数（OkHttp 默认仅为 5）。
+         */
+        private int maxRequestsPerHost = 64;
+
+        /**
+         * 连接池保留的最大空闲连接数。
+         */
+        private int maxIdleConnections = 64;
+
+        /**
+         * 空闲连接的保活时长。
+         */
+        private Duration keepAlive = Duration.ofMinutes(5);
+
+        /**
+         * 建立连接的超时时间。
+         */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 读取响应的超时时间，大文件合并耗时较长，默认与 MinIO SDK 一致为 5 分钟。
+         */
+        private Duration readTimeout = Duration.ofMinutes(5);
+
+        /**
+         * 写入请求体的超时时间。
+         */
+        private Duration writeTimeout = Duration.ofMinutes(5);
+
+        /**
+         * 是否启用 HTTP/2。
+         */
+        private boolean http2 = false;
+
+        public HttpClientProperties() {
+        }
+
+        public HttpClientProperties(int maxRequests, int maxRequestsPerHost, int maxIdleConnections) {
+            this.maxRequests = maxRequests;
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            this.maxIdleConnections = maxIdleConnections;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 对象路径布局配置。
+ * <p>
+ * 按日期组织的路径把同一天写入的对象集中在 {@code {folder}/{yyyy}/{MM}/{dd}/} 之下，列举与写入压力集中在少数前缀，
+ * 清理任务也无法均匀地分片扫描。按哈希分片的布局用内容哈希的前四位作两级前缀，对象均匀分布在 65536 个前缀下。
+ * 切换布局只影响新写入的对象，已有对象可由后台迁移任务逐步改写到新布局。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.object-key")
+public class ObjectKeyConfig {
+
+    /**
+     * 新写入的文件与分片使用的路径布局。
+     */
+    private Layout layout = Layout.DATE_BASED;
+
+    /**
+     * 布局为 {@link Layout#HASH_SHARDED} 时，是否把按日期组织的已有单对象文件迁移到新布局。
+     * 迁移会改变公共资源的访问URL与已签发的预签名URL，开启前需确认没有外部系统保存了旧URL。
+     */
+    private boolean migrateExisting = false;
+
+    /**
+     * 迁移任务每次查询的候选文件数。
+     */
+    private int migrationBatchSize = 100;
+
+    /**
+     * 单次迁移任务最多迁移的文件数。
+     */
+    private int maxMigrationsPerRun = 1000;
+
+    /**
+     * 孤儿文件清理同时列举的前缀数。清理按存储桶的顶级前缀分片，按哈希分片的布局下每个前缀的对象数大致相同。
+     */
+    private int cleanupParallelism = 8;
+
+    public enum Layout {
+        /**
+         * {@code {folder}/{yyyy}/{MM}/{dd}/{hash}/{fileName}}，分片为 {@code {sessionId}/{chunkNumber}}。
+         */
+        DATE_BASED,
+        /**
+         * {@code {hash[0,2)}/{hash[2,4)}/{hash}/{folder}/{fileName}}，
+         * 分片为 {@code parts/{sessionId[0,2)}/{sessionId[2,4)}/{sessionId}/{chunkNumber}}。
+         */
+        HASH_SHARDED
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 私有文件与公共资源之间的服务端复制配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.promotion")
+public class PromotionConfig {
+
+    /**
+     * 私有文件的 {@code /upload/init} 发现公共资源中已有同一内容（哈希与大小一致）时，是否直接在服务端复制过来、跳过上传。
+     * 公共资源本就可以公开读取，以文件哈希作为凭证不会泄露内容；公共资源的上传从不导入私有文件。
+     */
+    private boolean importOnInit = false;
+}
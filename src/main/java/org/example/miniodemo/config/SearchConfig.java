@@ -0,0 +1,49 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 文件名搜索配置。
+ * <p>
+ * 默认使用进程内的三元组（trigram）倒排索引：启动时从 {@code file_metadata} 分页加载，
+ * 之后随元数据的保存与删除增量更新。多实例部署或内存受限时可切换为 MySQL FULLTEXT，
+ * 此时需要按 README 手工创建 ngram 全文索引（H2 不支持，因此不包含在迁移脚本中）。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "search")
+public class SearchConfig {
+
+    /**
+     * 搜索实现。
+     */
+    private Mode mode = Mode.MEMORY;
+
+    /**
+     * 单次搜索最多校验并排序的候选条数，从最新的文件开始；超出时结果被截断。
+     */
+    private int maxCandidates = 10000;
+
+    /**
+     * 单页最多返回的结果数。
+     */
+    private int maxPageSize = 100;
+
+    /**
+     * 启动时加载索引的分页大小。
+     */
+    private int loadBatchSize = 5000;
+
+    public enum Mode {
+        /**
+         * 进程内三元组索引。
+         */
+        MEMORY,
+        /**
+         * MySQL FULLTEXT（ngram 解析器）。
+         */
+        FULLTEXT
+    }
+}
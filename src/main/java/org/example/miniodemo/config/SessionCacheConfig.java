@@ -0,0 +1,31 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 上传会话状态缓存配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.session-cache")
+public class SessionCacheConfig {
+
+    /**
+     * 是否缓存上传会话；关闭时每次读取都查询数据库。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的会话数，超出后淘汰最久未使用的会话。
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * 缓存项自载入或最近一次写入起的有效期，过期后重新查询数据库，也限定了其他实例写入时缓存可能滞后的时长。
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
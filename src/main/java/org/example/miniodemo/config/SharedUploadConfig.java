@@ -0,0 +1,22 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 同一文件多客户端同时上传时的协调配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.shared")
+public class SharedUploadConfig {
+
+    /**
+     * 上传者超过这么久没有上传分片，视为已中断，下一个重新初始化的等待者接管上传。
+     * 应明显大于慢速网络下单个分片的上传耗时。
+     */
+    private Duration uploaderStallTimeout = Duration.ofMinutes(2);
+}
@@ -0,0 +1,95 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多集群对象存储配置，仅在 {@code storage.type=cluster} 时生效。
+ * <p>
+ * 对象按内容哈希在一致性哈希环上分布到多个集群，每个集群按权重占有若干虚拟节点。
+ * 新增集群或调整权重后只有环上归属变化的对象需要移动，由后台任务逐步搬迁；搬迁完成前读取会回退到其他集群。
+ * 集群可以是 MinIO，也可以是本地文件系统目录，便于在单机上用多个本地目录模拟多集群。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.cluster")
+public class StorageClusterConfig {
+
+    /**
+     * 参与路由的集群，集群ID写入文件元数据，配置后不应修改。
+     */
+    private List<Cluster> clusters = new ArrayList<>();
+
+    /**
+     * 每单位权重的虚拟节点数，越大分布越均匀。
+     */
+    private int virtualNodesPerWeight = 128;
+
+    /**
+     * 是否开启后台搬迁：把不在环上归属集群的对象移过去。
+     */
+    private boolean rebalanceEnabled = true;
+
+    /**
+     * 单次搬迁任务最多移动的对象数。
+     */
+    private int maxMovesPerRun = 1000;
+
+    /**
+     * 最后修改时间晚于这么久之前的对象不搬迁，避免移动正在上传或合并的分片。
+     */
+    private Duration minObjectAge = Duration.ofHours(1);
+
+    @Data
+    public static class Cluster {
+
+        /**
+         * 集群ID，在所有集群中唯一。
+         */
+        private String id;
+
+        /**
+         * 权重，决定集群在环上的虚拟节点数；为 0 时不再接收新对象，已有对象由后台任务移走，读取照常。
+         */
+        private int weight = 1;
+
+        /**
+         * 存储实现：minio 或 local。
+         */
+        private String type = "minio";
+
+        /**
+         * MinIO 内部访问端点；local 时为本地对象访问端点的基础URL。
+         */
+        private String endpoint;
+
+        /**
+         * MinIO 外部（公开）访问端点，用于预签名URL与公共资源URL。
+         */
+        private String publicEndpoint;
+
+        /**
+         * MinIO 时可读取同一份数据的副本端点，开启 {@code minio.hedged-read.enabled} 后用于对冲读取。
+         */
+        private List<String> replicaEndpoints = new ArrayList<>();
+
+        private String accessKey;
+
+        private String secretKey;
+
+        /**
+         * local 时的对象存储根目录。
+         */
+        private String rootDir;
+
+        /**
+         * local 时预签名URL的HMAC签名密钥。
+         */
+        private String presignSecret;
+    }
+}
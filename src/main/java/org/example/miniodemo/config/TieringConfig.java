@@ -0,0 +1,61 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 私有文件冷热分层配置。
+ * <p>
+ * 开启后，定时任务把最后访问时间早于 {@link #coldAfter} 的私有文件以服务端复制的方式移动到冷存储桶，
+ * 文件再次被访问时移回私有文件存储桶。公共资源的访问URL包含存储桶名，不参与分层。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.tiering")
+public class TieringConfig {
+
+    /**
+     * 是否开启冷热分层。
+     */
+    private boolean enabled = false;
+
+    /**
+     * 冷存储桶名称，可以配置为 MinIO 上使用低成本存储层的存储桶。
+     */
+    private String coldBucket = "private-files-cold";
+
+    /**
+     * 超过这么久未被访问的文件视为冷数据。
+     */
+    private Duration coldAfter = Duration.ofDays(30);
+
+    /**
+     * 冷文件被访问时是否移回私有文件存储桶。
+     */
+    private boolean promoteOnAccess = true;
+
+    /**
+     * 每次查询的候选文件数。
+     */
+    private int batchSize = 100;
+
+    /**
+     * 单次任务最多降冷的文件数。
+     */
+    private int maxMovesPerRun = 1000;
+
+    /**
+     * 降冷复制的带宽上限（每秒），避免分层任务挤占在线上传下载的集群带宽。
+     */
+    private DataSize maxBytesPerSecond = DataSize.ofMegabytes(64);
+
+    /**
+     * 移动记录超过这么久仍未完成即视为进程中断遗留，由下一次分层任务收尾；
+     * 孤儿文件清理也只删除超过这么久的、元数据已指向另一个存储桶的副本。
+     */
+    private Duration staleMoveTimeout = Duration.ofHours(1);
+}
@@ -0,0 +1,63 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 分片上传准入控制配置。
+ * <p>
+ * 并发上限取值小于等于 0 表示不限制。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.admission")
+public class UploadAdmissionConfig {
+
+    /**
+     * 是否启用准入控制。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单个上传会话同时进行的分片上传数上限，不应小于 {@code upload.tuning.max-concurrency}。
+     */
+    private int maxConcurrentPerSession = 8;
+
+    /**
+     * 单个客户端 IP 同时进行的分片上传数上限。
+     */
+    private int maxConcurrentPerClient = 32;
+
+    /**
+     * 每种存储类型（PUBLIC/PRIVATE）同时进行的分片上传数上限，用于保护 Tomcat 线程与 MinIO 连接池。
+     */
+    private int maxConcurrentPerStorageType = 64;
+
+    /**
+     * 单个客户端 IP 每秒补充的令牌数（即持续的分片请求速率），小于等于 0 表示不限速。
+     */
+    private double clientRatePerSecond = 50;
+
+    /**
+     * 单个客户端 IP 的令牌桶容量（允许的突发请求数）。
+     */
+    private int clientBurst = 100;
+
+    /**
+     * 因并发超限被拒绝时返回的 {@code Retry-After}。
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * 是否信任 {@code X-Forwarded-For} 中的客户端地址，仅在部署于可信反向代理之后时开启。
+     */
+    private boolean trustForwardedFor = false;
+
+    /**
+     * 客户端令牌桶闲置超过该时长后被回收。
+     */
+    private Duration idleClientTimeout = Duration.ofMinutes(10);
+}
@@ -0,0 +1,45 @@
+package org.example.miniodemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 分片方案推荐配置，由 {@code /upload/init} 根据文件大小与服务端负载推荐分片大小与并发数。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload.tuning")
+public class UploadTuningConfig {
+
+    /**
+     * 最小分片大小，不能低于 S3/MinIO 的 5MiB 分段下限（最后一个分片除外）。
+     */
+    private DataSize minChunkSize = DataSize.ofMegabytes(5);
+
+    /**
+     * 最大分片大小，必须小于 {@code FileUploadConfig} 中单个 multipart 文件的大小上限。
+     */
+    private DataSize maxChunkSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 期望的分片数量，分片大小按 文件大小 / 期望分片数 计算后再限制在上下限之间。
+     */
+    private int targetChunkCount = 64;
+
+    /**
+     * 单个文件允许的最大分片数（S3/MinIO 分段上限为 10000）。
+     */
+    private int maxChunkCount = 10000;
+
+    /**
+     * 推荐给客户端的最大并发分片数。
+     */
+    private int maxConcurrency = 8;
+
+    /**
+     * 服务端同时处理的分片上传数达到该值时，推荐并发降为 1。
+     */
+    private int loadCapacity = 128;
+}
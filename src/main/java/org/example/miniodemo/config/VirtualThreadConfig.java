@@ -0,0 +1,53 @@
+package org.example.miniodemo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模式（需要 JDK 21）。
+ * <p>
+ * 分片上传、下载与合并的请求处理线程大部分时间阻塞在 MinIO 与数据库 I/O 上，
+ * 平台线程模式下并发上限等于 Tomcat 的 {@code server.tomcat.threads.max}（默认 200）。
+ * 开启后 Tomcat 请求处理与 {@code @Async} 任务都改为每任务一个虚拟线程，
+ * 并发上限转由下游资源（MinIO 调度器、数据库连接池、{@code storage.async.max-in-flight}）决定。
+ * <p>
+ * 配置项沿用 Spring Boot 3.2 的 {@code spring.threads.virtual.enabled}，默认关闭。
+ * 虚拟线程在 {@code synchronized} 块内阻塞会钉住载体线程，热点路径上的锁需使用
+ * {@link java.util.concurrent.locks.ReentrantLock}，排查时可加 {@code -Djdk.tracePinnedThreads=short}。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * 让 Tomcat 为每个请求创建一个虚拟线程。
+     *
+     * @return Tomcat 协议处理器定制器。
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("【线程模型】已启用虚拟线程执行模式");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * 替换默认的 {@code applicationTaskExecutor} 线程池，{@code @Async} 任务在虚拟线程中执行。
+     *
+     * @return 基于虚拟线程的任务执行器。
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -1,14 +1,18 @@
 package org.example.miniodemo.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.etag.ResourceVersionRegistry;
 import org.example.miniodemo.common.response.R;
 import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.common.util.FolderPathUtil;
 import org.example.miniodemo.dto.*;
 import org.example.miniodemo.service.AbstractChunkedFile;
 import org.example.miniodemo.service.ChunkUploadSessionService;
 import org.example.miniodemo.service.impl.PrivateFileServiceImpl;
 import org.example.miniodemo.service.impl.PublicAssetServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -23,9 +27,17 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public abstract class BaseFileController {
 
+    /**
+     * 批量删除单次请求的文件Hash数上限
+     */
+    private static final int MAX_BATCH_DELETE_HASHES = 10000;
+
     @Autowired
     protected ChunkUploadSessionService sessionService;
 
+    @Autowired
+    protected ResourceVersionRegistry resourceVersions;
+
     /**
      * 抽象方法，由子类实现，用于提供具体的文件服务实例。
      *
@@ -38,9 +50,8 @@ public abstract class BaseFileController {
      */
     @PostMapping("/upload/init")
     public R<UploadSessionResponseDto> initUploadSession(@RequestBody InitUploadSessionDto initDto) {
-        if (initDto.getFileName() == null || initDto.getFileHash() == null || 
-            initDto.getFileSize() == null || initDto.getTotalChunks() == null) {
-            return R.error(ResultCode.BAD_REQUEST, "文件名、哈希值、大小和分片数不能为空");
+        if (initDto.getFileName() == null || initDto.getFileHash() == null || initDto.getFileSize() == null) {
+            return R.error(ResultCode.BAD_REQUEST, "文件名、哈希值和大小不能为空");
         }
 
         return getService().initUploadSession(initDto);
@@ -48,10 +59,20 @@ public abstract class BaseFileController {
 
     /**
      * 获取上传会话状态
+     * <p>
+     * 支持条件请求：会话自上次响应后没有变化时返回 {@code 304 Not Modified}，只按主键读取会话行的版本字段。
      */
     @GetMapping("/upload/status/{sessionId}")
-    public R<UploadSessionResponseDto> getUploadStatus(@PathVariable String sessionId) {
-        return getService().getUploadStatus(sessionId);
+    public R<UploadSessionResponseDto> getUploadStatus(@PathVariable String sessionId, ServletWebRequest request) {
+        String etag = resourceVersions.sessionETag(sessionId);
+        if (etag != null && notModified(request, etag)) {
+            return null;
+        }
+        R<UploadSessionResponseDto> result = getService().getUploadStatus(sessionId);
+        if (etag == null || result.getCode() != ResultCode.SUCCESS.getCode()) {
+            doNotCache(request);
+        }
+        return result;
     }
 
     /**
@@ -61,7 +82,8 @@ public abstract class BaseFileController {
     public R<ChunkUploadResponseDto> uploadChunk(
             @RequestParam("file") MultipartFile file,
             @RequestParam("sessionId") String sessionId,
-            @RequestParam("chunkNumber") Integer chunkNumber) {
+            @RequestParam("chunkNumber") Integer chunkNumber,
+            @RequestParam(value = "uploaderToken", required = false) String uploaderToken) {
 
         // 严格验证：文件不能为空
         if (file == null || file.isEmpty()) {
@@ -90,23 +112,119 @@ public abstract class BaseFileController {
         log.info("【分片上传请求】会话ID={}, 分片序号={}, 文件大小={}", 
                 sessionId.substring(0, Math.min(8, sessionId.length())), chunkNumber, file.getSize());
 
-        return getService().uploadChunkWithSession(file, sessionId, chunkNumber);
+        return getService().uploadChunkWithSession(file, sessionId, chunkNumber, uploaderToken);
     }
 
     /**
-     * 通用的文件删除端点（基于文件Hash）。
+     * 通用的文件删除端点：按对象路径删除一个文件；未提供路径时按文件Hash删除（同一内容只有一个文件时）。
      *
+     * @param filePath 需要删除的文件的对象路径。
      * @param fileHash 需要删除的文件的哈希值。
      * @return 包含操作结果的响应体。
      */
     @DeleteMapping("/delete")
-    public R<String> deleteFile(@RequestParam(required = false) String fileHash) {
-        if (fileHash == null || fileHash.isBlank()) {
-            return R.error(ResultCode.BAD_REQUEST, "文件Hash不能为空");
+    public R<String> deleteFile(@RequestParam(required = false) String filePath,
+                                @RequestParam(required = false) String fileHash) {
+        if (filePath != null && !filePath.isBlank()) {
+            getService().deleteFile(filePath);
+        } else if (fileHash != null && !fileHash.isBlank()) {
+            getService().deleteFileByHash(fileHash);
+        } else {
+            return R.error(ResultCode.BAD_REQUEST, "文件路径与文件Hash不能同时为空");
         }
-        getService().deleteFileByHash(fileHash);
         return R.success("文件删除成功");
     }
 
+    /**
+     * 批量删除文件：按文件哈希列表或按目录前缀（含所有子目录）删除，二者只能提供其一。
+     * <p>
+     * 部分文件删除失败时仍返回成功，失败的文件及原因列在响应中。
+     *
+     * @param request 批量删除请求。
+     * @return 删除结果。
+     */
+    @PostMapping("/delete/batch")
+    public R<BatchDeleteResultDto> deleteFiles(@RequestBody BatchDeleteRequestDto request) {
+        boolean hasHashes = request.getFileHashes() != null && !request.getFileHashes().isEmpty();
+        boolean hasFolder = request.getFolderPath() != null;
+        if (hasHashes == hasFolder) {
+            return R.error(ResultCode.BAD_REQUEST, "文件Hash列表与目录必须且只能提供其一");
+        }
+        if (hasHashes && request.getFileHashes().size() > MAX_BATCH_DELETE_HASHES) {
+            return R.error(ResultCode.BAD_REQUEST, "单次最多删除 " + MAX_BATCH_DELETE_HASHES + " 个文件");
+        }
+        if (hasFolder && FolderPathUtil.normalize(request.getFolderPath()).isEmpty()) {
+            return R.error(ResultCode.BAD_REQUEST, "不允许删除根目录");
+        }
+        return R.success(getService().deleteFiles(request));
+    }
+
+    /**
+     * 复制文件：在目标目录下新增一个引用同一内容的文件，只写入元数据。
+     *
+     * @param request 复制请求。
+     * @return 目标文件的详情。
+     */
+    @PostMapping("/copy")
+    public R<FileDetailDto> copyFile(@RequestBody FileCopyRequestDto request) {
+        return R.success(getService().copyFile(request));
+    }
+
+    /**
+     * 浏览虚拟目录：返回目录及直接子目录的聚合统计（文件数、总字节数、最后修改时间），以及直接位于该目录下的一页文件。
+     *
+     * @param path    目录路径，默认根目录。
+     * @param afterId 上一页响应中的 nextAfterId，首页不传。
+     * @param limit   每页文件数，默认 100，最大 1000。
+     * @return 浏览结果。
+     */
+    @GetMapping("/browse")
+    public R<FolderBrowseDto> browse(@RequestParam(defaultValue = "") String path,
+                                     @RequestParam(required = false) Long afterId,
+                                     @RequestParam(defaultValue = "100") int limit) {
+        return R.success(getService().browse(path, afterId, limit));
+    }
+
+    /**
+     * 按原始文件名与目录路径搜索文件。
+     *
+     * @param q    查询串，不区分大小写；一到两个字符时为文件名前缀匹配。
+     * @param page 页码，从 0 开始。
+     * @param size 每页条数，默认 20。
+     * @return 按相关度排序的一页结果。
+     */
+    @GetMapping("/search")
+    public R<FileSearchResultDto> search(@RequestParam(required = false) String q,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size) {
+        if (q == null || q.isBlank()) {
+            return R.error(ResultCode.BAD_REQUEST, "搜索关键字不能为空");
+        }
+        return R.success(getService().search(q, page, size));
+    }
+
     public abstract R<?> uploadFile(MultipartFile file, FileUploadDto fileUploadDto);
+
+    /**
+     * 处理条件请求：设置 ETag 并与请求的 {@code If-None-Match} 比较。
+     * <p>
+     * 返回 {@code true} 时响应已被置为 {@code 304 Not Modified}，调用方应直接返回 {@code null}。
+     * ETag 必须在查询数据库之前取得，这样查询期间发生的写入只会让客户端多取一次，不会让它缓存旧数据。
+     *
+     * @param request 当前请求。
+     * @param etag    资源的当前版本。
+     * @return 客户端缓存是否仍然有效。
+     */
+    protected boolean notModified(ServletWebRequest request, String etag) {
+        // 允许缓存但每次使用前必须重新验证
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return request.checkNotModified(etag);
+    }
+
+    /**
+     * 错误响应不应被客户端缓存后用于重新验证。
+     */
+    protected void doNotCache(ServletWebRequest request) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
 }
\ No newline at end of file
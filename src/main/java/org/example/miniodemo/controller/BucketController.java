@@ -4,6 +4,7 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.config.TieringConfig;
 import org.example.miniodemo.common.response.R;
 import org.example.miniodemo.common.response.ResultCode;
 import org.example.miniodemo.service.BucketService;
@@ -25,11 +26,12 @@ public class BucketController {
 
     private final BucketService bucketService;
     private final MinioBucketConfig bucketConfig;
+    private final TieringConfig tieringConfig;
 
     /**
      * 初始化应用所需的存储桶。
      * <p>
-     * 此接口用于确保应用配置中定义的存储桶（私有文件桶和公共资源桶）都已存在。
+     * 此接口用于确保应用配置中定义的存储桶（私有文件桶、公共资源桶，以及开启冷热分层时的冷存储桶）都已存在。
      * 如果存储桶不存在，则会自动创建。这是一个幂等操作，重复调用不会产生副作用。
      *
      * @return 包含操作结果的统一响应体。成功时返回成功消息，失败时返回错误信息。
@@ -45,6 +47,10 @@ public class BucketController {
                 bucketService.makeBucket(bucketConfig.getPublicAssets());
                 log.info("存储桶 '{}' 创建成功。", bucketConfig.getPublicAssets());
             }
+            if (tieringConfig.isEnabled() && !bucketService.bucketExists(tieringConfig.getColdBucket())) {
+                bucketService.makeBucket(tieringConfig.getColdBucket());
+                log.info("存储桶 '{}' 创建成功。", tieringConfig.getColdBucket());
+            }
             log.info("存储桶初始化成功或已存在。");
             return R.success("存储桶初始化成功或已存在。");
         } catch (Exception e) {
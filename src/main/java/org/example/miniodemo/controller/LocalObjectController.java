@@ -0,0 +1,111 @@
+package org.example.miniodemo.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.util.PathValidationUtil;
+import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.service.storage.LocalFsObjectStorageService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+/**
+ * 本地对象存储的访问端点，替代 MinIO 提供对象下载和预签名链接访问。
+ * <p>
+ * 公共资源桶中的对象可直接访问；其他存储桶必须携带有效的预签名参数 {@code expires} 与 {@code signature}。
+ * 支持单区间的 HTTP Range 请求。仅在 {@code storage.type=local} 时启用。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/local-storage")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalObjectController {
+
+    private final LocalFsObjectStorageService localStorageService;
+    private final MinioBucketConfig bucketConfig;
+
+    /**
+     * 下载本地存储中的对象。
+     *
+     * @param bucketName 存储桶名称。
+     * @param expires    预签名过期时间（Unix 秒），公共资源可不传。
+     * @param signature  预签名签名，公共资源可不传。
+     * @param rangeHeader HTTP Range 请求头（可选）。
+     * @return 对象内容；区间请求返回 206。
+     */
+    @GetMapping("/{bucketName}/**")
+    public ResponseEntity<Resource> getObject(@PathVariable String bucketName,
+                                              @RequestParam(required = false) Long expires,
+                                              @RequestParam(required = false) String signature,
+                                              @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                                              HttpServletRequest request) {
+        String prefix = request.getContextPath() + "/local-storage/" + bucketName + "/";
+        String rawPath = request.getRequestURI().substring(prefix.length());
+        String filePath;
+        try {
+            filePath = PathValidationUtil.clean(UriUtils.decode(rawPath, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean isPublic = bucketName.equals(bucketConfig.getPublicAssets());
+        if (!isPublic && (expires == null
+                || !localStorageService.verifySignature(bucketName, filePath, expires, signature))) {
+            log.warn("【本地存储】预签名校验失败: {}/{}", bucketName, filePath);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            long size = localStorageService.objectSize(bucketName, filePath);
+            MediaType mediaType = MediaTypeFactory.getMediaType(filePath).orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+            if (rangeHeader != null) {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    HttpRange range = ranges.get(0);
+                    long start = range.getRangeStart(size);
+                    long end = range.getRangeEnd(size);
+                    long length = end - start + 1;
+                    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                            .contentType(mediaType)
+                            .contentLength(length)
+                            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                            .body(new InputStreamResource(localStorageService.download(bucketName, filePath, start, length)));
+                }
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .contentLength(size)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .body(new InputStreamResource(localStorageService.download(bucketName, filePath)));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+        } catch (Exception e) {
+            log.error("【本地存储】读取对象失败: {}/{}", bucketName, filePath, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -6,13 +6,19 @@ import org.example.miniodemo.common.response.R;
 import org.example.miniodemo.common.response.ResultCode;
 import org.example.miniodemo.common.util.PathValidationUtil;
 import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.StorageType;
 import org.example.miniodemo.dto.CheckRequestDto;
+import org.example.miniodemo.dto.DedupCommitRequestDto;
+import org.example.miniodemo.dto.DedupParamsDto;
+import org.example.miniodemo.dto.FileCopyRequestDto;
 import org.example.miniodemo.dto.FileDetailDto;
+import org.example.miniodemo.dto.FileDownloadDto;
 import org.example.miniodemo.dto.FileExistsDto;
 import org.example.miniodemo.dto.FileUploadDto;
 import org.example.miniodemo.dto.ImprovedMergeRequestDto;
 import org.example.miniodemo.dto.MergeRequestDto;
 import org.example.miniodemo.service.PrivateFileService;
+import org.example.miniodemo.service.PublicAssetService;
 import org.example.miniodemo.service.impl.AbstractChunkedFileServiceImpl;
 import org.example.miniodemo.service.impl.PrivateFileServiceImpl;
 import org.springframework.core.io.InputStreamResource;
@@ -21,9 +27,9 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -42,6 +48,7 @@ import java.util.List;
 public class PrivateFileController extends BaseFileController {
 
     private final PrivateFileService privateFileService;
+    private final PublicAssetService publicAssetService;
 
     @Override
     protected PrivateFileService getService() {
@@ -51,14 +58,30 @@ public class PrivateFileController extends BaseFileController {
     /**
      * 获取私有存储桶中所有已合并文件的列表。
      *
+     * 支持条件请求，列表未变化时返回 {@code 304 Not Modified}。
+     *
      * @return 包含所有私有文件详情的列表({@link FileDetailDto})。
      */
     @GetMapping("/list")
-    public R<List<FileDetailDto>> listPrivateFiles() {
+    public R<List<FileDetailDto>> listPrivateFiles(ServletWebRequest request) {
+        if (notModified(request, privateFileService.getListVersion())) {
+            return null;
+        }
         List<FileDetailDto> fileList = privateFileService.listPrivateFiles();
         return R.success(fileList);
     }
 
+    /**
+     * 发布私有文件：在存储端把文件复制到公共存储桶并创建公共资源的元数据，私有文件保留。
+     *
+     * @param request 源文件哈希，以及公共资源的目标目录与文件名（为空时沿用私有文件的）。
+     * @return 公共资源的详情，包含公开访问URL。
+     */
+    @PostMapping("/publish")
+    public R<FileDetailDto> publish(@RequestBody FileCopyRequestDto request) {
+        return R.success(publicAssetService.importFile(StorageType.PRIVATE, request));
+    }
+
     /**
      * 检查目标文件是否存在于私有存储桶中（用于"秒传"功能）。
      *
@@ -96,7 +119,46 @@ public class PrivateFileController extends BaseFileController {
     }
 
     /**
-     * 获取私有文件的预签名下载URL。
+     * 获取 CDC 去重上传的分块参数。客户端需按这组参数切分文件，再带上块哈希调用 {@code /upload/init}。
+     *
+     * @return 分块参数，{@code enabled=false} 时客户端应改用普通分片上传。
+     */
+    @GetMapping("/upload/dedup/params")
+    public R<DedupParamsDto> getDedupParams() {
+        return R.success(privateFileService.getDedupParams());
+    }
+
+    /**
+     * 上传一个去重数据块。服务端校验块内容的 SHA-256，块已存在时不会重复写入。
+     *
+     * @param file      块内容。
+     * @param chunkHash 块内容的 SHA-256。
+     * @return 块哈希。
+     */
+    @PostMapping("/upload/dedup/chunk")
+    public R<String> uploadDedupChunk(@RequestParam("file") MultipartFile file,
+                                      @RequestParam("chunkHash") String chunkHash) {
+        if (file == null || file.isEmpty()) {
+            return R.error(ResultCode.BAD_REQUEST, "块内容不能为空");
+        }
+        privateFileService.uploadDedupChunk(file, chunkHash);
+        return R.success(chunkHash);
+    }
+
+    /**
+     * 提交去重上传的块清单，完成文件上传。
+     *
+     * @param commitRequest 文件信息与按顺序排列的块列表。
+     * @return 包含操作结果的响应体。
+     */
+    @PostMapping("/upload/dedup/commit")
+    public R<String> commitDedupUpload(@RequestBody DedupCommitRequestDto commitRequest) {
+        FileMetadata metadata = privateFileService.commitDedupUpload(commitRequest);
+        return R.success("文件上传成功: " + metadata.getOriginalFilename());
+    }
+
+    /**
+     * 获取私有文件的预签名下载URL。CDC 去重文件没有单个对象可供预签名，返回的是 {@code /download} 代理地址。
      *
      * @param filePath 需要下载的文件的完整对象路径。
      * @return 包含预签名URL的响应体。
@@ -113,22 +175,28 @@ public class PrivateFileController extends BaseFileController {
      * <p>
      * todo: 通常不使用，已经有预签名下载 URL
      *
-     * @param filePath 需要下载的文件的完整对象路径。
+     * @param filePath       需要下载的文件的完整对象路径。
+     * @param acceptEncoding 客户端可接受的内容编码，匹配文件的存储编码时直接透传压缩字节。
      * @return 包含文件数据流的响应实体 ({@link Resource})。
      */
     @GetMapping("/download")
-    public ResponseEntity<Resource> downloadPrivateFile(@RequestParam("filePath") String filePath) {
+    public ResponseEntity<Resource> downloadPrivateFile(@RequestParam("filePath") String filePath,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         String safeFileName = PathValidationUtil.clean(filePath);
-        InputStream inputStream = privateFileService.downloadPrivateFile(safeFileName);
+        FileDownloadDto download = privateFileService.downloadPrivateFile(safeFileName, acceptEncoding);
         String encodedFileName = URLEncoder.encode(safeFileName, StandardCharsets.UTF_8).replaceAll("\\+", "%20");
 
         HttpHeaders headers = new HttpHeaders();
         headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + encodedFileName + "\"");
         headers.add(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (download.getContentEncoding() != null) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, download.getContentEncoding());
+        }
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(new InputStreamResource(inputStream));
+                .body(new InputStreamResource(download.getInputStream()));
     }
 
     /**
@@ -4,17 +4,22 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.miniodemo.common.response.R;
 import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.common.util.FilePathUtil;
 import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.StorageType;
 import org.example.miniodemo.dto.CheckRequestDto;
+import org.example.miniodemo.dto.FileCopyRequestDto;
 import org.example.miniodemo.dto.FileDetailDto;
 import org.example.miniodemo.dto.FileExistsDto;
 import org.example.miniodemo.dto.FileUploadDto;
 import org.example.miniodemo.dto.ImprovedMergeRequestDto;
 import org.example.miniodemo.dto.MergeRequestDto;
+import org.example.miniodemo.service.PrivateFileService;
 import org.example.miniodemo.service.PublicAssetService;
 import org.example.miniodemo.service.impl.AbstractChunkedFileServiceImpl;
 import org.example.miniodemo.service.impl.PublicAssetServiceImpl;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -33,6 +38,7 @@ import java.util.Optional;
 public class PublicAssetController extends BaseFileController {
 
     private final PublicAssetService publicAssetService;
+    private final PrivateFileService privateFileService;
 
     @Override
     protected PublicAssetService getService() {
@@ -42,18 +48,41 @@ public class PublicAssetController extends BaseFileController {
     /**
      * 获取公共存储桶中所有文件的列表。
      *
+     * 支持条件请求，列表未变化时返回 {@code 304 Not Modified}。
+     *
      * @return 包含所有公共文件详情的列表({@link FileDetailDto})。
      */
     @GetMapping("/list")
-    public R<List<FileDetailDto>> listPublicFiles() {
+    public R<List<FileDetailDto>> listPublicFiles(ServletWebRequest request) {
+        if (notModified(request, publicAssetService.getListVersion())) {
+            return null;
+        }
         try {
             return R.success(publicAssetService.listPublicFiles());
         } catch (Exception e) {
             log.error("获取公共文件列表时出错", e);
+            doNotCache(request);
             return R.error(ResultCode.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * 取消发布：在存储端把公共资源复制到私有存储桶（私有存储中已有时不复制），再删除该内容的公共资源。
+     *
+     * @param request 公共资源的文件哈希与可选的对象路径，以及私有文件的目标目录与文件名（为空时沿用公共资源的）。
+     * @return 私有文件的详情。
+     */
+    @PostMapping("/unpublish")
+    public R<FileDetailDto> unpublish(@RequestBody FileCopyRequestDto request) {
+        FileDetailDto privateFile = privateFileService.importFile(StorageType.PUBLIC, request);
+        if (request.getSourceFilePath() != null && !request.getSourceFilePath().isBlank()) {
+            publicAssetService.deleteFile(request.getSourceFilePath());
+        } else {
+            publicAssetService.deleteFileByHash(request.getFileHash());
+        }
+        return R.success(privateFile);
+    }
+
     /**
      * 检查目标文件是否存在于公共存储桶中（用于"秒传"功能）。
      * <p>
@@ -68,7 +97,7 @@ public class PublicAssetController extends BaseFileController {
             Optional<FileMetadata> metadataOptional = publicAssetService.checkFileExists(checkRequest.getFileHash());
             if (metadataOptional.isPresent()) {
                 FileMetadata metadata = metadataOptional.get();
-                String url = publicAssetService.getPublicUrl(metadata.getFilePath());
+                String url = publicAssetService.getPublicUrl(FilePathUtil.objectKeyOf(metadata));
                 return R.success(new FileExistsDto(true, url));
             } else {
                 return R.success(new FileExistsDto(false));
@@ -89,7 +118,7 @@ public class PublicAssetController extends BaseFileController {
     public R<String> mergePublicChunks(@RequestBody MergeRequestDto mergeRequest) {
         try {
             FileMetadata metadata = publicAssetService.mergeChunks(mergeRequest);
-            String url = publicAssetService.getPublicUrl(metadata.getFilePath());
+            String url = publicAssetService.getPublicUrl(FilePathUtil.objectKeyOf(metadata));
             return R.success(url);
         } catch (Exception e) {
             log.error("合并公共文件分片时出错: {}", e.getMessage(), e);
@@ -107,7 +136,7 @@ public class PublicAssetController extends BaseFileController {
     public R<String> mergePublicChunksV2(@RequestBody ImprovedMergeRequestDto mergeRequest) {
         try {
             FileMetadata metadata = publicAssetService.mergeChunksWithSession(mergeRequest);
-            String url = publicAssetService.getPublicUrl(metadata.getFilePath());
+            String url = publicAssetService.getPublicUrl(FilePathUtil.objectKeyOf(metadata));
             return R.success(url);
         } catch (Exception e) {
             log.error("合并公共文件分片时出错: {}", e.getMessage(), e);
@@ -133,7 +162,7 @@ public class PublicAssetController extends BaseFileController {
         try {
             log.info("【直接上传-公共】接收到文件上传请求: 文件名 [{}], 哈希 [{}]", file.getOriginalFilename(), fileUploadDto.getFileHash());
             FileMetadata metadata = getService().uploadFile(fileUploadDto.getFolderPath(),file, fileUploadDto.getFileHash());
-            String url = publicAssetService.getPublicUrl(metadata.getFilePath());
+            String url = publicAssetService.getPublicUrl(FilePathUtil.objectKeyOf(metadata));
             log.info("【直接上传-公共】文件上传成功，公开URL: {}", url);
             return R.success(url);
         } catch (Exception e) {
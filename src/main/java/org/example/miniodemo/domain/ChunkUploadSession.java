@@ -48,6 +48,16 @@ public class ChunkUploadSession extends BaseEntity {
      * 总分片数
      */
     private Integer totalChunks;
+
+    /**
+     * 分片大小（字节），由服务端在初始化时确定；为空表示由客户端自行决定（旧版客户端）
+     */
+    private Long chunkSize;
+
+    /**
+     * 当前上传者的令牌。同一文件有多个客户端同时上传时，只有持有该令牌的客户端发送分片，其余客户端等待结果
+     */
+    private String uploaderId;
     
     /**
      * 已上传的分片数
@@ -0,0 +1,24 @@
+package org.example.miniodemo.domain;
+
+/**
+ * 文件内容在对象存储中的编码（压缩）方式。元数据中为 {@code null} 表示按原始字节存储。
+ */
+public enum ContentEncoding {
+    /**
+     * gzip（RFC 1952），对应 HTTP {@code Content-Encoding: gzip}
+     */
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * HTTP {@code Content-Encoding} / {@code Accept-Encoding} 中使用的编码名。
+     */
+    public String getToken() {
+        return token;
+    }
+}
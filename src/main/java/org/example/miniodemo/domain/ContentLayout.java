@@ -0,0 +1,22 @@
+package org.example.miniodemo.domain;
+
+/**
+ * 文件内容在对象存储中的布局。
+ */
+public enum ContentLayout {
+    /**
+     * 整个文件是一个对象，路径为 {@link FileMetadata#getFilePath()}
+     */
+    OBJECT,
+
+    /**
+     * 文件由按内容定义边界切分的去重块组成，块顺序记录在 file_chunk_manifest 中
+     */
+    CDC,
+
+    /**
+     * 内容存放在按哈希寻址的共享对象中，路径见 {@link org.example.miniodemo.common.util.FilePathUtil#buildBlobPath}，
+     * 同一内容的多个文件共用一个对象，引用数记录在 file_blob 中
+     */
+    BLOB
+}
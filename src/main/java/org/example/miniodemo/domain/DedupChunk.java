@@ -0,0 +1,52 @@
+package org.example.miniodemo.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 去重数据块实体，对应 `dedup_chunk` 表。
+ * <p>
+ * 同一存储桶内相同内容的块只存一份，对象路径由块哈希推导。
+ */
+@Data
+@TableName("dedup_chunk")
+public class DedupChunk implements Serializable {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 块所在的存储桶名称
+     */
+    private String bucketName;
+
+    /**
+     * 块内容的 SHA-256（64位小写十六进制）
+     */
+    private String chunkHash;
+
+    /**
+     * 块大小（字节）
+     */
+    private Long chunkSize;
+
+    /**
+     * 首次上传时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 最后一次被上传或被报告为已存在的时间
+     */
+    private LocalDateTime lastSeenAt;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,67 @@
+package org.example.miniodemo.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 按内容寻址的共享对象，对应 `file_blob` 表。
+ * <p>
+ * 同一存储类型内相同内容只存一份，对象路径由内容哈希推导；引用它的 BLOB 布局文件元数据条数记录在 refCount 中。
+ */
+@Data
+@TableName("file_blob")
+public class FileBlob implements Serializable {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 存储类型
+     */
+    private StorageType storageType;
+
+    /**
+     * 文件内容哈希
+     */
+    private String contentHash;
+
+    /**
+     * 对象所在的存储桶
+     */
+    private String bucketName;
+
+    /**
+     * 文件原始大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 对象的内容编码，为空表示原始字节
+     */
+    private ContentEncoding contentEncoding;
+
+    /**
+     * 引用数，-1 表示正在回收
+     */
+    private Long refCount;
+
+    /**
+     * 首次写入时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 引用数降为 0 的时间
+     */
+    private LocalDateTime releasedAt;
+
+    private static final long serialVersionUID = 1L;
+}
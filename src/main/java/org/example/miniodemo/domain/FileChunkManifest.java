@@ -0,0 +1,56 @@
+package org.example.miniodemo.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * CDC 文件块清单中的一项，对应 `file_chunk_manifest` 表。
+ * <p>
+ * 按 {@code seq} 顺序拼接同一文件的所有块即得到原文件内容。
+ */
+@Data
+@TableName("file_chunk_manifest")
+public class FileChunkManifest implements Serializable {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 存储类型（PUBLIC 或 PRIVATE）
+     */
+    private StorageType storageType;
+
+    /**
+     * 文件内容哈希，与 {@link FileMetadata#getContentHash()} 对应
+     */
+    private String contentHash;
+
+    /**
+     * 块在文件中的序号，从 0 开始
+     */
+    private Integer seq;
+
+    /**
+     * 块内容的 SHA-256
+     */
+    private String chunkHash;
+
+    /**
+     * 块在文件中的起始偏移量
+     */
+    private Long chunkOffset;
+
+    /**
+     * 块大小（字节）
+     */
+    private Long chunkSize;
+
+    private static final long serialVersionUID = 1L;
+}
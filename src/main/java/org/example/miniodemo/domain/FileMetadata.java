@@ -55,11 +55,26 @@ public class FileMetadata implements Serializable {
      */
     private String contentHash;
 
+    /**
+     * 内容布局：OBJECT 为单个对象，CDC 为去重块清单，BLOB 为按哈希寻址的共享对象（后两者 filePath 只用于标识，不对应实际对象）
+     */
+    private ContentLayout contentLayout;
+
+    /**
+     * 内容编码：为空表示按原始字节存储，GZIP 表示对象内容经过 gzip 压缩（fileSize 仍为原始大小）
+     */
+    private ContentEncoding contentEncoding;
+
     /**
      * 文件所在的存储桶名称
      */
     private String bucketName;
 
+    /**
+     * 文件内容所在的存储集群（多集群存储时），单集群部署为空
+     */
+    private String clusterId;
+
     /**
      * 存储类型（PUBLIC 或 PRIVATE）
      */
@@ -0,0 +1,53 @@
+package org.example.miniodemo.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 进行中的冷热分层移动，对应 `file_tier_move` 表。
+ * <p>
+ * 复制目标对象前写入，元数据切换且多余的副本删除后移除；同一文件同时只能有一条，
+ * 防止降冷与访问触发的回迁并发移动同一个文件。
+ */
+@Data
+@TableName("file_tier_move")
+public class FileTierMove implements Serializable {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 被移动文件的 {@link FileMetadata#getId()}
+     */
+    private Long fileId;
+
+    /**
+     * 对象路径，源与目标存储桶中相同
+     */
+    private String filePath;
+
+    /**
+     * 源存储桶
+     */
+    private String sourceBucket;
+
+    /**
+     * 目标存储桶
+     */
+    private String targetBucket;
+
+    /**
+     * 开始移动的时间
+     */
+    private Date createdAt;
+
+    private static final long serialVersionUID = 1L;
+}
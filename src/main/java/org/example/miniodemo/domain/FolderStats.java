@@ -0,0 +1,68 @@
+package org.example.miniodemo.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 虚拟目录统计，对应 `folder_stats` 表。
+ * <p>
+ * 每个目录前缀一行，聚合其下（含所有子目录）的文件，随文件元数据的写入与删除增量维护。
+ * 路径为规范化形式，见 {@link org.example.miniodemo.common.util.FolderPathUtil}。
+ */
+@Data
+@TableName("folder_stats")
+public class FolderStats implements Serializable {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 存储类型（PUBLIC 或 PRIVATE）
+     */
+    private StorageType storageType;
+
+    /**
+     * 规范化目录路径，根目录为空字符串
+     */
+    private String folderPath;
+
+    /**
+     * 目录路径SHA-256(十六进制)
+     */
+    private String folderPathHash;
+
+    /**
+     * 父目录路径SHA-256(十六进制)，根目录为空
+     */
+    private String parentPathHash;
+
+    /**
+     * 目录名，即路径的最后一段
+     */
+    private String name;
+
+    /**
+     * 目录下（含子目录）的文件数
+     */
+    private Long fileCount;
+
+    /**
+     * 目录下（含子目录）的文件总字节数
+     */
+    private Long totalBytes;
+
+    /**
+     * 目录下最近一次新增或删除文件的时间
+     */
+    private Date lastModified;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -28,4 +28,14 @@ public class StorageObject {
      * 对象的大小（以字节为单位）。
      */
     private long size;
+
+    /**
+     * 对象的MIME类型，只由 {@code stat} 填充，存储实现不记录时为 {@code null}。
+     */
+    private String contentType;
+
+    /**
+     * 对象的 {@code Content-Encoding}，只由 {@code stat} 填充，未编码或存储实现不记录时为 {@code null}。
+     */
+    private String contentEncoding;
 } 
\ No newline at end of file
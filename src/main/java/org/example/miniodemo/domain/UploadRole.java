@@ -0,0 +1,16 @@
+package org.example.miniodemo.domain;
+
+/**
+ * 客户端在分片上传会话中的角色
+ */
+public enum UploadRole {
+    /**
+     * 上传者：发送分片并在全部分片上传后请求合并
+     */
+    UPLOADER,
+
+    /**
+     * 等待者：同一文件正由其他客户端上传，等待其合并结果
+     */
+    WAITER
+}
@@ -0,0 +1,30 @@
+package org.example.miniodemo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量删除中单个文件的失败原因。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchDeleteFailureDto {
+    /**
+     * 文件哈希。
+     */
+    private String fileHash;
+
+    /**
+     * 文件在存储桶中的路径；文件不存在时为空。
+     */
+    private String filePath;
+
+    /**
+     * 失败原因。
+     */
+    private String reason;
+}
@@ -0,0 +1,21 @@
+package org.example.miniodemo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量删除请求：按文件哈希列表或按目录前缀删除，二者只能提供其一。
+ */
+@Data
+public class BatchDeleteRequestDto {
+    /**
+     * 要删除的文件哈希列表。
+     */
+    private List<String> fileHashes;
+
+    /**
+     * 要删除的目录：删除该目录及其所有子目录下的文件，不能为根目录。
+     */
+    private String folderPath;
+}
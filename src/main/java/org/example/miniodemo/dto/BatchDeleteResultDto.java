@@ -0,0 +1,46 @@
+package org.example.miniodemo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量删除结果。
+ * <p>
+ * 失败的文件保留对象与元数据，可以重新提交；{@code failures} 最多列出 {@link #MAX_REPORTED_FAILURES} 条，
+ * 失败总数以 {@code failedCount} 为准。
+ */
+@Data
+public class BatchDeleteResultDto {
+
+    /**
+     * 响应中最多列出的失败条目数。
+     */
+    public static final int MAX_REPORTED_FAILURES = 1000;
+
+    /**
+     * 成功删除的文件数。
+     */
+    private int deletedCount;
+
+    /**
+     * 删除失败的文件数。
+     */
+    private int failedCount;
+
+    /**
+     * 失败的文件及原因。
+     */
+    private List<BatchDeleteFailureDto> failures = new ArrayList<>();
+
+    /**
+     * 记录一个删除失败的文件。
+     */
+    public void addFailure(String fileHash, String filePath, String reason) {
+        failedCount++;
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(new BatchDeleteFailureDto(fileHash, filePath, reason));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.miniodemo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 提交 CDC 去重上传的请求DTO：按文件内顺序列出全部数据块，服务端据此写入块清单与文件元数据。
+ */
+@Data
+public class DedupCommitRequestDto {
+    /**
+     * 完整文件的内容哈希值（与普通上传相同的 MD5）
+     */
+    private String fileHash;
+
+    /**
+     * 文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件总大小，必须等于所有块大小之和
+     */
+    private Long fileSize;
+
+    /**
+     * 文件MIME类型
+     */
+    private String contentType;
+
+    /**
+     * 目标文件夹路径
+     */
+    private String folderPath = "default";
+
+    /**
+     * 按文件内顺序排列的数据块，同一个块可以出现多次
+     */
+    private List<ChunkRef> chunks;
+
+    /**
+     * 块引用。
+     */
+    @Data
+    public static class ChunkRef {
+        /**
+         * 块内容的 SHA-256（64位小写十六进制）
+         */
+        private String hash;
+
+        /**
+         * 块大小（字节）
+         */
+        private Long size;
+    }
+}
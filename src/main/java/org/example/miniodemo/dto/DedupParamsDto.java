@@ -0,0 +1,33 @@
+package org.example.miniodemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * CDC 去重上传的分块参数，客户端必须按这组参数切分文件。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DedupParamsDto {
+    /**
+     * 服务端是否开启了去重存储模式
+     */
+    private boolean enabled;
+
+    /**
+     * 最小块大小（字节）
+     */
+    private long minChunkSize;
+
+    /**
+     * 期望的平均块大小（字节，2 的幂）
+     */
+    private long avgChunkSize;
+
+    /**
+     * 最大块大小（字节）
+     */
+    private long maxChunkSize;
+}
@@ -0,0 +1,29 @@
+package org.example.miniodemo.dto;
+
+import lombok.Data;
+
+/**
+ * 复制文件请求：在同一存储类型内复制文件，或在私有文件与公共资源之间发布、取消发布。
+ */
+@Data
+public class FileCopyRequestDto {
+    /**
+     * 源文件的内容哈希。
+     */
+    private String fileHash;
+
+    /**
+     * 源文件的对象路径，可选；同一内容有多个文件时用于指定其中一个，取消发布时只删除该文件。
+     */
+    private String sourceFilePath;
+
+    /**
+     * 目标目录；发布与取消发布时为空表示沿用源文件的目录。
+     */
+    private String targetFolderPath;
+
+    /**
+     * 目标文件名，为空时沿用源文件名。
+     */
+    private String targetFileName;
+}
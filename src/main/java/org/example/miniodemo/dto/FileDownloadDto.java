@@ -0,0 +1,25 @@
+package org.example.miniodemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.InputStream;
+
+/**
+ * 代理下载的内容流及其编码。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileDownloadDto {
+    /**
+     * 响应体内容
+     */
+    private InputStream inputStream;
+
+    /**
+     * 响应体的 {@code Content-Encoding}，为 {@code null} 表示原始字节
+     */
+    private String contentEncoding;
+}
@@ -0,0 +1,37 @@
+package org.example.miniodemo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 文件名搜索的一页结果。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FileSearchResultDto {
+    /**
+     * 当前页的文件，按相关度排序。
+     */
+    private List<FileDetailDto> items;
+
+    /**
+     * 命中总数；使用 MySQL 全文索引时不返回。
+     */
+    private Integer total;
+
+    /**
+     * 是否还有下一页。
+     */
+    private boolean hasMore;
+
+    /**
+     * 结果是否不完整：命中过多时只对最新的一部分文件排序，或索引仍在启动加载。
+     */
+    private boolean truncated;
+}
@@ -0,0 +1,37 @@
+package org.example.miniodemo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 虚拟目录浏览结果：当前目录的统计、直接子目录与直接位于该目录下的一页文件。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FolderBrowseDto {
+    /**
+     * 当前目录及其聚合统计。
+     */
+    private FolderEntryDto folder;
+
+    /**
+     * 直接子目录，按名称排序；只在第一页返回。
+     */
+    private List<FolderEntryDto> folders;
+
+    /**
+     * 直接位于当前目录下的文件，按上传顺序排列。
+     */
+    private List<FileDetailDto> files;
+
+    /**
+     * 下一页的游标，作为 afterId 参数传入；没有更多文件时为空。
+     */
+    private Long nextAfterId;
+}
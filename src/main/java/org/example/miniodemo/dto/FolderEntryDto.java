@@ -0,0 +1,42 @@
+package org.example.miniodemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 虚拟目录及其聚合统计（含所有子目录）。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FolderEntryDto {
+    /**
+     * 目录名，根目录为空字符串。
+     */
+    private String name;
+
+    /**
+     * 规范化目录路径，可直接作为下一次浏览的 path 参数。
+     */
+    private String path;
+
+    /**
+     * 目录下（含子目录）的文件数。
+     */
+    private long fileCount;
+
+    /**
+     * 目录下（含子目录）的文件总字节数。
+     */
+    private long totalBytes;
+
+    /**
+     * 目录下最近一次新增或删除文件的时间。
+     */
+    private Date lastModified;
+}
@@ -2,6 +2,8 @@ package org.example.miniodemo.dto;
 
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * 初始化上传会话请求DTO
  */
@@ -28,9 +30,21 @@ public class InitUploadSessionDto {
     private String contentType;
     
     /**
-     * 总分片数
+     * 总分片数（可选）。不传时由服务端根据文件大小推荐分片方案，
+     * 传入时沿用客户端的分片方式（兼容旧版客户端）
      */
     private Integer totalChunks;
+
+    /**
+     * CDC 去重上传时按内容定义边界切出的各块 SHA-256（可选）。传入且服务端开启去重模式时，
+     * 不创建分片会话，而是在响应的 existingChunkHashes 中返回服务端已有的块
+     */
+    private List<String> chunkHashes;
+
+    /**
+     * 上次初始化时获得的上传者令牌（可选）。断点续传时传入，可继续作为该会话的上传者
+     */
+    private String uploaderToken;
     
     /**
      * 目标文件夹路径
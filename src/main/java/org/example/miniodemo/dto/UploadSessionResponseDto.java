@@ -2,6 +2,7 @@ package org.example.miniodemo.dto;
 
 import lombok.Data;
 import org.example.miniodemo.domain.ChunkUploadStatus;
+import org.example.miniodemo.domain.UploadRole;
 
 import java.util.List;
 
@@ -19,11 +20,32 @@ public class UploadSessionResponseDto {
      * 会话状态
      */
     private ChunkUploadStatus status;
+
+    /**
+     * 调用方在该会话中的角色：UPLOADER 上传分片并合并；WAITER 表示其他客户端正在上传同一文件，
+     * 只需轮询会话直到 MERGED，并定期重新初始化以便在上传者中断时接管
+     */
+    private UploadRole role;
+
+    /**
+     * 上传者令牌，仅在 role 为 UPLOADER 时返回。上传分片时须携带，断点续传时在初始化请求中传回
+     */
+    private String uploaderToken;
     
     /**
      * 总分片数
      */
     private Integer totalChunks;
+
+    /**
+     * 分片大小（字节），客户端须按此大小切分文件；为空表示沿用客户端自己的分片大小
+     */
+    private Long chunkSize;
+
+    /**
+     * 服务端根据当前负载推荐的并发分片数
+     */
+    private Integer recommendedConcurrency;
     
     /**
      * 已上传分片数
@@ -34,4 +56,9 @@ public class UploadSessionResponseDto {
      * 已上传的分片编号列表
      */
     private List<Integer> uploadedChunkNumbers;
+
+    /**
+     * CDC 去重上传时服务端已存在的块哈希，客户端只需上传其余的块
+     */
+    private List<String> existingChunkHashes;
 }
\ No newline at end of file
@@ -2,16 +2,22 @@ package org.example.miniodemo.event;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.domain.ContentLayout;
 import org.example.miniodemo.domain.FileMetadata;
-import org.example.miniodemo.repository.FileMetadataRepository;
 import org.example.miniodemo.service.AsyncFileService;
+import org.example.miniodemo.service.BlobStoreService;
+import org.example.miniodemo.service.MetadataBatchWriter;
 import org.springframework.context.event.EventListener;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 应用事件监听器，负责处理文件相关的业务事件。
@@ -21,49 +27,68 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class FileEventListener {
 
-    private final FileMetadataRepository fileMetadataRepository;
+    /**
+     * 元数据保存的最大尝试次数
+     */
+    private static final int MAX_PERSIST_ATTEMPTS = 3;
+
+    /**
+     * 首次重试前的等待时间（毫秒），之后每次翻倍
+     */
+    private static final long RETRY_INITIAL_DELAY_MILLIS = 2000;
+
+    private final MetadataBatchWriter metadataBatchWriter;
     private final AsyncFileService asyncFileService;
+    private final UploadMetrics uploadMetrics;
+    private final BlobStoreService blobStoreService;
 
     /**
      * 监听文件合并成功事件，并持久化文件元数据。
      * <p>
-     * 此操作在一个独立的事务中执行。如果元数据保存失败，事务将回滚，
-     * 但这不会影响已经合并的文件对象。后续需要有补偿机制来清理这类"孤儿"文件。
+     * 元数据交给 {@link MetadataBatchWriter} 与其他文件合并写入，监听线程不等待写入完成。
+     * 保存失败时按指数退避重新提交，违反唯一约束等数据冲突不会因重试而成功，直接放弃。
+     * 元数据最终保存失败不会影响已经合并的文件对象，后续需要有补偿机制来清理这类"孤儿"文件；
+     * BLOB 布局的文件在放弃时归还合并前取得的共享对象引用，由回收任务处理。
      *
      * @param event 文件合并成功事件。
      */
     @EventListener
-    @Transactional
     @Async
-    @Retryable(
-            retryFor = { RuntimeException.class },
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 2000, multiplier = 2)
-    )
     public void onFileMerged(FileMergedEvent event) {
+        log.info("【事件监听 - 元数据】接收到文件合并事件，准备保存元数据。对象: '{}'", event.getFileMetadata().getFilePath());
+        persist(event, 1);
+    }
+
+    private void persist(FileMergedEvent event, int attempt) {
         FileMetadata metadata = event.getFileMetadata();
-        log.info("【事件监听 - 元数据】接收到文件合并事件，准备保存元数据。对象: '{}'", metadata.getFilePath());
-        try {
-            fileMetadataRepository.save(metadata);
-            log.info("【事件监听 - 元数据】元数据保存成功。对象: '{}'", metadata.getFilePath());
-        } catch (Exception e) {
-            log.error("【事件监听 - 元数据】保存元数据失败，将进行重试（如果未达最大次数）。对象: '{}'，错误: {}", metadata.getFilePath(), e.getMessage());
-            // 向上抛出异常，以便 @Retryable 能够捕获并触发重试
-            throw new RuntimeException("保存文件元数据失败，触发重试。", e);
-        }
+        metadataBatchWriter.submit(metadata).whenComplete((saved, error) -> {
+            if (error == null) {
+                uploadMetrics.recordPersistenceLag(metadata.getStorageType(), lagSince(event), ResultCode.SUCCESS);
+                log.info("【事件监听 - 元数据】元数据保存成功。对象: '{}'", metadata.getFilePath());
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            uploadMetrics.recordPersistenceLag(metadata.getStorageType(), lagSince(event), UploadMetrics.outcomeOf(cause));
+            if (attempt >= MAX_PERSIST_ATTEMPTS || cause instanceof DataIntegrityViolationException) {
+                log.error("【事件监听 - 元数据】元数据保存最终失败！请关注后续的孤儿文件清理任务。对象: '{}'，尝试次数: {}，最终错误: {}",
+                        metadata.getFilePath(), attempt, cause.getMessage());
+                if (metadata.getContentLayout() == ContentLayout.BLOB) {
+                    blobStoreService.release(metadata.getStorageType(), metadata.getContentHash());
+                }
+                return;
+            }
+            long delay = RETRY_INITIAL_DELAY_MILLIS << (attempt - 1);
+            log.error("【事件监听 - 元数据】保存元数据失败，{}ms 后进行第 {} 次尝试。对象: '{}'，错误: {}",
+                    delay, attempt + 1, metadata.getFilePath(), cause.getMessage());
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> persist(event, attempt + 1));
+        });
     }
 
     /**
-     * 当 @Retryable 方法达到最大重试次数后仍然失败时，将调用此恢复方法。
-     *
-     * @param e     在最后一次重试中抛出的异常。
-     * @param event 原始的事件对象。
+     * 计算事件发布（合并完成）至今的时长。
      */
-    @Recover
-    public void recover(RuntimeException e, FileMergedEvent event) {
-        FileMetadata metadata = event.getFileMetadata();
-        log.error("【恢复方法】所有重试次数已用尽，元数据保存最终失败！请关注后续的孤儿文件清理任务。对象: '{}'，最终错误: {}",
-                metadata.getFilePath(), e.getMessage());
+    private static Duration lagSince(FileMergedEvent event) {
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.getTimestamp()));
     }
 
     /**
@@ -0,0 +1,34 @@
+package org.example.miniodemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.miniodemo.domain.DedupChunk;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 去重数据块Mapper接口
+ */
+@Mapper
+public interface DedupChunkMapper extends BaseMapper<DedupChunk> {
+
+    /**
+     * 查询指定存储桶中宽限期已过、且不被任何块清单引用的数据块。
+     *
+     * @param bucketName  存储桶名称。
+     * @param storageType 存储桶对应的存储类型，块清单按存储类型区分。
+     * @param seenBefore  最后一次被使用的时间早于该值的块才会被选中。
+     * @param limit       本次最多返回的块数。
+     */
+    @Select("SELECT c.* FROM dedup_chunk c WHERE c.bucket_name = #{bucketName} AND c.last_seen_at < #{seenBefore}"
+            + " AND NOT EXISTS (SELECT 1 FROM file_chunk_manifest m"
+            + " WHERE m.storage_type = #{storageType} AND m.chunk_hash = c.chunk_hash)"
+            + " ORDER BY c.id LIMIT #{limit}")
+    List<DedupChunk> selectUnreferenced(@Param("bucketName") String bucketName,
+                                        @Param("storageType") String storageType,
+                                        @Param("seenBefore") LocalDateTime seenBefore,
+                                        @Param("limit") int limit);
+}
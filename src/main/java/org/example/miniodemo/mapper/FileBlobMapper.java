@@ -0,0 +1,52 @@
+package org.example.miniodemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+import org.example.miniodemo.domain.FileBlob;
+
+import java.time.LocalDateTime;
+
+/**
+ * 共享对象Mapper接口
+ */
+@Mapper
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    /**
+     * 为未在回收的共享对象增加引用，并清除释放时间。
+     *
+     * @return 受影响的行数，为 0 表示对象不存在或正在回收。
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count + 1, released_at = NULL"
+            + " WHERE storage_type = #{storageType} AND content_hash = #{contentHash} AND ref_count >= 0")
+    int addReference(@Param("storageType") String storageType, @Param("contentHash") String contentHash);
+
+    /**
+     * 释放引用。释放时间按更新前的引用数计算（MySQL 按书写顺序赋值，H2 使用更新前的值，两者结果相同），
+     * 引用数降为 0 时记录释放时间。
+     *
+     * @param count      释放的引用数。
+     * @param releasedAt 释放时间。
+     */
+    @Update("UPDATE file_blob SET released_at = CASE WHEN ref_count <= #{count} THEN #{releasedAt} ELSE released_at END,"
+            + " ref_count = GREATEST(ref_count - #{count}, 0)"
+            + " WHERE storage_type = #{storageType} AND content_hash = #{contentHash} AND ref_count > 0")
+    int release(@Param("storageType") String storageType, @Param("contentHash") String contentHash,
+                @Param("count") long count, @Param("releasedAt") LocalDateTime releasedAt);
+
+    /**
+     * 把引用数为 0 且释放时间早于宽限期的对象标记为正在回收，之后不能再增加引用。
+     *
+     * @return 是否标记成功。
+     */
+    @Update("UPDATE file_blob SET ref_count = -1 WHERE id = #{id} AND ref_count = 0 AND released_at < #{releasedBefore}")
+    int markCollecting(@Param("id") Long id, @Param("releasedBefore") LocalDateTime releasedBefore);
+
+    /**
+     * 删除对象失败时撤销回收标记，引用数恢复为 0，下次回收时重试。
+     */
+    @Update("UPDATE file_blob SET ref_count = 0 WHERE id = #{id} AND ref_count = -1")
+    int abortCollecting(@Param("id") Long id);
+}
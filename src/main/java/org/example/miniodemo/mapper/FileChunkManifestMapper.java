@@ -0,0 +1,12 @@
+package org.example.miniodemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.miniodemo.domain.FileChunkManifest;
+
+/**
+ * CDC 文件块清单Mapper接口
+ */
+@Mapper
+public interface FileChunkManifestMapper extends BaseMapper<FileChunkManifest> {
+}
@@ -3,6 +3,11 @@ package org.example.miniodemo.mapper;
 import org.example.miniodemo.domain.FileMetadata;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.miniodemo.domain.FolderStats;
+
+import java.util.List;
 
 /**
  * 针对 `file_metadata` 表的MyBatis-Plus数据访问接口。
@@ -16,6 +21,26 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface FileMetadataMapper extends BaseMapper<FileMetadata> {
 
+    /**
+     * 按存储类型与原始目录路径聚合文件数、总字节数与最近创建时间，用于回填目录统计。
+     */
+    @Select("SELECT storage_type, folder_path, COUNT(*) AS file_count, SUM(file_size) AS total_bytes,"
+            + " MAX(created_at) AS last_modified FROM file_metadata GROUP BY storage_type, folder_path")
+    List<FolderStats> aggregateByFolder();
+
+    /**
+     * MySQL 全文检索，按相关度排序。依赖手工创建的 ngram 全文索引 {@code ft_file_metadata_name_folder}。
+     *
+     * @param query 布尔模式查询串，调用方负责转义。
+     */
+    @Select("SELECT * FROM file_metadata WHERE storage_type = #{storageType}"
+            + " AND MATCH (original_filename, folder_path) AGAINST (#{query} IN BOOLEAN MODE)"
+            + " ORDER BY MATCH (original_filename, folder_path) AGAINST (#{query} IN BOOLEAN MODE) DESC, id DESC"
+            + " LIMIT #{limit} OFFSET #{offset}")
+    List<FileMetadata> searchFullText(@Param("storageType") String storageType,
+                                      @Param("query") String query,
+                                      @Param("offset") int offset,
+                                      @Param("limit") int limit);
 }
 
 
@@ -0,0 +1,12 @@
+package org.example.miniodemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.miniodemo.domain.FileTierMove;
+
+/**
+ * 冷热分层移动记录Mapper接口
+ */
+@Mapper
+public interface FileTierMoveMapper extends BaseMapper<FileTierMove> {
+}
@@ -0,0 +1,61 @@
+package org.example.miniodemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.miniodemo.domain.FolderStats;
+
+import java.util.Date;
+
+/**
+ * 虚拟目录统计Mapper接口
+ */
+@Mapper
+public interface FolderStatsMapper extends BaseMapper<FolderStats> {
+
+    /**
+     * 将增量累加到一个目录的统计行上，行不存在时插入。
+     *
+     * @param fileDelta  文件数增量，删除时为负数。
+     * @param bytesDelta 字节数增量，删除时为负数。
+     * @param modifiedAt 本次变化的时间，最后修改时间只会前进。
+     */
+    @Insert("INSERT INTO folder_stats (storage_type, folder_path, folder_path_hash, parent_path_hash, name,"
+            + " file_count, total_bytes, last_modified)"
+            + " VALUES (#{storageType}, #{folderPath}, #{folderPathHash}, #{parentPathHash}, #{name},"
+            + " #{fileDelta}, #{bytesDelta}, #{modifiedAt})"
+            + " ON DUPLICATE KEY UPDATE file_count = file_count + VALUES(file_count),"
+            + " total_bytes = total_bytes + VALUES(total_bytes),"
+            + " last_modified = GREATEST(COALESCE(last_modified, VALUES(last_modified)), VALUES(last_modified))")
+    int upsertDelta(@Param("storageType") String storageType,
+                    @Param("folderPath") String folderPath,
+                    @Param("folderPathHash") String folderPathHash,
+                    @Param("parentPathHash") String parentPathHash,
+                    @Param("name") String name,
+                    @Param("fileDelta") long fileDelta,
+                    @Param("bytesDelta") long bytesDelta,
+                    @Param("modifiedAt") Date modifiedAt);
+
+    /**
+     * 删除已经没有文件的目录统计行。
+     */
+    @Delete("DELETE FROM folder_stats WHERE storage_type = #{storageType}"
+            + " AND folder_path_hash = #{folderPathHash} AND file_count <= 0")
+    int deleteIfEmpty(@Param("storageType") String storageType, @Param("folderPathHash") String folderPathHash);
+
+    /**
+     * 汇总一个目录的直接子目录的统计，没有子目录时各列为空。
+     */
+    @Select("SELECT SUM(file_count) AS file_count, SUM(total_bytes) AS total_bytes, MAX(last_modified) AS last_modified"
+            + " FROM folder_stats WHERE storage_type = #{storageType} AND parent_path_hash = #{parentPathHash}")
+    FolderStats sumChildren(@Param("storageType") String storageType, @Param("parentPathHash") String parentPathHash);
+
+    /**
+     * 插入回填标记，标记已存在时抛出唯一键冲突。
+     */
+    @Insert("INSERT INTO folder_stats_backfill (id, completed_at) VALUES (1, #{completedAt})")
+    int insertBackfillMarker(@Param("completedAt") Date completedAt);
+}
@@ -0,0 +1,25 @@
+package org.example.miniodemo.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 资源版本号Mapper接口
+ */
+@Mapper
+public interface ResourceVersionMapper {
+
+    /**
+     * 读取资源的当前版本号，资源未登记时为 {@code null}。
+     */
+    @Select("SELECT version FROM resource_version WHERE resource_key = #{resourceKey}")
+    Long selectVersion(@Param("resourceKey") String resourceKey);
+
+    /**
+     * 递增资源的版本号。
+     */
+    @Update("UPDATE resource_version SET version = version + 1 WHERE resource_key = #{resourceKey}")
+    int increment(@Param("resourceKey") String resourceKey);
+}
@@ -0,0 +1,76 @@
+package org.example.miniodemo.repository;
+
+import org.example.miniodemo.domain.FileBlob;
+import org.example.miniodemo.domain.StorageType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 共享对象引用计数仓储接口。
+ * <p>
+ * 引用在写入对象之前增加（保证回收任务不会删除正在写入的对象），在删除文件元数据的同一事务内释放，
+ * 见 {@link FileMetadataRepository}。
+ */
+public interface FileBlobRepository {
+
+    /**
+     * 查找共享对象。
+     *
+     * @param storageType 存储类型。
+     * @param contentHash 文件内容哈希。
+     * @return 共享对象，包括正在回收的。
+     */
+    Optional<FileBlob> find(StorageType storageType, String contentHash);
+
+    /**
+     * 为已存在且未在回收的共享对象增加一个引用。
+     *
+     * @return 是否增加成功；对象不存在或正在回收时返回 {@code false}。
+     */
+    boolean addReference(StorageType storageType, String contentHash);
+
+    /**
+     * 登记一个新的共享对象，引用数为 1。
+     *
+     * @param blob 共享对象，保存后回填主键。
+     * @return 是否登记成功；同一内容已登记（包括正在回收）时返回 {@code false}。
+     */
+    boolean insert(FileBlob blob);
+
+    /**
+     * 释放引用，引用数降为 0 时记录释放时间。
+     *
+     * @param storageType 存储类型。
+     * @param counts      各内容哈希释放的引用数。
+     */
+    void release(StorageType storageType, Map<String, Long> counts);
+
+    /**
+     * 按主键顺序查找可回收的共享对象：引用数为 0 且释放时间早于 {@code releasedBefore}，或上次回收在删除对象后中断（正在回收）。
+     *
+     * @param releasedBefore 释放时间上限（不含）。
+     * @param limit          最多返回的条数。
+     * @return 共享对象列表。
+     */
+    List<FileBlob> findCollectable(LocalDateTime releasedBefore, int limit);
+
+    /**
+     * 把可回收的共享对象标记为正在回收；期间被重新引用的对象不会被标记。
+     *
+     * @return 是否标记成功。
+     */
+    boolean markCollecting(Long id, LocalDateTime releasedBefore);
+
+    /**
+     * 删除对象失败时撤销回收标记，对象恢复为可引用、可回收。
+     */
+    void abortCollecting(Long id);
+
+    /**
+     * 删除正在回收的共享对象登记记录。
+     */
+    void deleteCollected(Long id);
+}
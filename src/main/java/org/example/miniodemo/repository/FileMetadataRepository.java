@@ -1,8 +1,11 @@
 package org.example.miniodemo.repository;
 
 import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.FolderStats;
 import org.example.miniodemo.domain.StorageType;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +14,8 @@ import java.util.Optional;
  * <p>
  * 定义了与文件元数据持久化相关的、与具体ORM框架无关的通用操作。
  * 这是业务逻辑与数据访问层之间的契约。
+ * <p>
+ * 保存与删除会在同一事务内同步维护 {@link FolderStatsRepository} 中的目录统计。
  */
 public interface FileMetadataRepository {
 
@@ -22,8 +27,19 @@ public interface FileMetadataRepository {
      */
     boolean save(FileMetadata metadata);
 
+    /**
+     * 以 JDBC 批处理在调用方的事务内保存多条元数据，按存储类型与目录合并更新目录统计。
+     * 任意一条失败时抛出异常，由调用方回滚整批。
+     *
+     * @param batch 要保存的元数据，保存后回填主键。
+     */
+    void saveAll(List<FileMetadata> batch);
+
     /**
      * 根据内容哈希和存储类型查找文件元数据。
+     * <p>
+     * 同一内容可能有多条文件元数据（不同目录或文件名，见 {@link FileBlobRepository}），此时返回其中任意一条。
+     * 只用于只关心内容的查询（如秒传检查），需要定位某个文件时使用 {@link #findByPath}。
      *
      * @param hash        文件内容哈希。
      * @param storageType 存储类型 (PUBLIC 或 PRIVATE)。
@@ -32,12 +48,60 @@ public interface FileMetadataRepository {
     Optional<FileMetadata> findByHash(String hash, StorageType storageType);
 
     /**
-     * 根据内容哈希和存储类型删除文件元数据。
+     * 查找同一内容在指定目录下、指定文件名的文件元数据。
+     *
+     * @param hash             文件内容哈希。
+     * @param storageType      存储类型。
+     * @param folderPath       目录路径。
+     * @param originalFilename 原始文件名。
+     * @return 一个包含元数据的Optional，如果找不到则为空。
+     */
+    Optional<FileMetadata> findByHashAndName(String hash, StorageType storageType, String folderPath,
+                                             String originalFilename);
+
+    /**
+     * 按对象路径查找一条文件元数据，走 (bucket_name, file_path_hash) 唯一索引。
+     * <p>
+     * 对象路径是文件的逻辑标识：同一内容的多条元数据内容哈希相同，对象路径各不相同。
+     *
+     * @param storageType 存储类型。
+     * @param bucketNames 文件可能所在的存储桶。
+     * @param filePath    对象路径。
+     * @return 一个包含元数据的Optional，如果找不到则为空。
+     */
+    Optional<FileMetadata> findByPath(StorageType storageType, Collection<String> bucketNames, String filePath);
+
+    /**
+     * 按内容哈希与对象路径查找一条文件元数据，不限存储桶（冷热分层后文件可能位于冷存储桶）。
      *
      * @param hash        文件内容哈希。
      * @param storageType 存储类型。
+     * @param filePath    对象路径。
+     * @return 一个包含元数据的Optional，如果找不到则为空。
+     */
+    Optional<FileMetadata> findByHashAndPath(String hash, StorageType storageType, String filePath);
+
+    /**
+     * 根据内容哈希批量查找文件元数据，走 (bucket_name, content_hash) 索引。
+     *
+     * @param storageType 存储类型。
+     * @param bucketNames 文件可能所在的存储桶。
+     * @param hashes      文件内容哈希。
+     * @return 文件元数据列表，不保证顺序。
+     */
+    List<FileMetadata> findByHashes(StorageType storageType, Collection<String> bucketNames, Collection<String> hashes);
+
+    /**
+     * 在一个 {@code IN} 语句中批量删除文件元数据，并按目录合并更新目录统计。
+     * <p>
+     * 删除前在调用方的事务内锁定这些行，目录统计按锁定时读到的目录与大小扣减，已被并发删除的行不会重复扣减；
+     * 其中 BLOB 布局的文件在同一事务内释放对共享对象的引用。
+     *
+     * @param storageType 存储类型。
+     * @param ids         主键ID。
+     * @return 实际删除的行数。
      */
-    void deleteByHash(String hash, StorageType storageType);
+    int deleteByIds(StorageType storageType, Collection<Long> ids);
 
     /**
      * 查找指定存储类型的所有文件元数据。
@@ -54,4 +118,146 @@ public interface FileMetadataRepository {
      * @return 受影响的行数。
      */
     Integer update(FileMetadata metadata);
+
+    /**
+     * 根据主键查找文件元数据。
+     *
+     * @param id 主键ID。
+     * @return 一个包含元数据的Optional，如果找不到则为空。
+     */
+    Optional<FileMetadata> findById(Long id);
+
+    /**
+     * 记录一次访问：更新最后访问时间并将访问次数加一，不覆盖其他字段。
+     *
+     * @param id         主键ID。
+     * @param accessedAt 访问时间。
+     * @return 受影响的行数。
+     */
+    int recordAccess(Long id, Date accessedAt);
+
+    /**
+     * 按 (last_accessed_at, id) 顺序分页查找某个存储桶中最后访问时间早于指定时间的单对象文件。
+     *
+     * @param storageType    存储类型。
+     * @param bucketName     文件当前所在的存储桶。
+     * @param accessedBefore 最后访问时间上限（不含）。
+     * @param afterAccessed  上一页最后一条的最后访问时间，首页为 {@code null}。
+     * @param afterId        上一页最后一条的主键ID，首页为 {@code null}。
+     * @param limit          最多返回的条数。
+     * @return 文件元数据列表。
+     */
+    List<FileMetadata> findLeastRecentlyAccessed(StorageType storageType, String bucketName, Date accessedBefore,
+                                                 Date afterAccessed, Long afterId, int limit);
+
+    /**
+     * 在一条语句中原子地把文件切换到另一个存储桶与对象路径。
+     *
+     * @param id             主键ID。
+     * @param fromBucket     期望的当前存储桶，不一致时不更新。
+     * @param toBucket       目标存储桶。
+     * @param toFilePath     目标对象路径。
+     * @param accessedBefore 不为 {@code null} 时，要求最后访问时间仍早于该时间（期间被访问过的文件不再降冷）。
+     * @return 是否更新成功。
+     */
+    boolean switchBucket(Long id, String fromBucket, String toBucket, String toFilePath, Date accessedBefore);
+
+    /**
+     * 在一条语句中原子地把文件切换到同一存储桶中的另一个对象路径。
+     *
+     * @param id           主键ID。
+     * @param bucketName   期望的当前存储桶，不一致时不更新（例如期间被冷热分层移动）。
+     * @param fromFilePath 期望的当前对象路径，不一致时不更新。
+     * @param toFilePath   目标对象路径。
+     * @return 是否更新成功。
+     */
+    boolean switchFilePath(Long id, String bucketName, String fromFilePath, String toFilePath);
+
+    /**
+     * 按主键顺序分页查找对象路径不是按哈希分片布局的单对象文件，供对象路径迁移使用。
+     * <p>
+     * 以 {@code file_path NOT LIKE '__/__/%'} 粗筛，结果仍可能包含个别形似分片前缀的旧路径，调用方需再次判断。
+     *
+     * @param afterId 上一页最后一条的主键ID，首页为 {@code null}。
+     * @param limit   最多返回的条数。
+     * @return 文件元数据列表。
+     */
+    List<FileMetadata> findLegacyObjectKeys(Long afterId, int limit);
+
+    /**
+     * 判断存储桶中是否有文件元数据的对象路径为指定路径，走 (bucket_name, file_path_hash) 唯一索引。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePath   对象路径。
+     * @return 是否存在。
+     */
+    boolean existsByPath(String bucketName, String filePath);
+
+    /**
+     * 记录对象所在的存储集群：共享对象路径更新引用它的所有 BLOB 布局文件，其他路径更新对象路径为该路径的文件。
+     *
+     * @param bucketName 存储桶名称。
+     * @param objectKey  对象路径。
+     * @param clusterId  集群ID。
+     * @return 更新的条数。
+     */
+    int updateClusterId(String bucketName, String objectKey, String clusterId);
+
+    /**
+     * 按主键顺序分页查找直接位于某个目录下的文件，走 (bucket_name, storage_type, folder_path_hash) 索引。
+     *
+     * @param storageType 存储类型。
+     * @param bucketNames 文件可能所在的存储桶。
+     * @param folderPath  规范化目录路径；元数据中带结尾斜杠的写法同样匹配。
+     * @param afterId     上一页最后一条的主键ID，首页为 {@code null}。
+     * @param limit       最多返回的条数。
+     * @return 文件元数据列表。
+     */
+    List<FileMetadata> findInFolder(StorageType storageType, Collection<String> bucketNames, String folderPath,
+                                    Long afterId, int limit);
+
+    /**
+     * 按主键顺序分页查找某个目录及其所有子目录下的文件，走 (bucket_name, storage_type, folder_path) 前缀索引。
+     *
+     * @param storageType 存储类型。
+     * @param bucketNames 文件可能所在的存储桶。
+     * @param folderPath  规范化目录路径，不能为根目录；元数据中带结尾斜杠的写法同样匹配。
+     * @param afterId     上一页最后一条的主键ID，首页为 {@code null}。
+     * @param limit       最多返回的条数。
+     * @return 文件元数据列表。
+     */
+    List<FileMetadata> findInFolderTree(StorageType storageType, Collection<String> bucketNames, String folderPath,
+                                        Long afterId, int limit);
+
+    /**
+     * 按存储类型与原始目录路径聚合全部文件，用于回填目录统计。
+     *
+     * @return 每个原始目录路径一行，只填充存储类型、目录路径、文件数、总字节数与最后修改时间。
+     */
+    List<FolderStats> aggregateByFolder();
+
+    /**
+     * 按主键顺序分页读取搜索索引所需的字段（主键、存储类型、原始文件名、目录路径）。
+     *
+     * @param afterId 上一页最后一条的主键ID，首页为 {@code null}。
+     * @param limit   最多返回的条数。
+     * @return 只填充了上述字段的元数据列表。
+     */
+    List<FileMetadata> findSearchFields(Long afterId, int limit);
+
+    /**
+     * 按主键批量查找文件元数据，不保证顺序。
+     */
+    List<FileMetadata> findByIds(Collection<Long> ids);
+
+    /**
+     * 使用 MySQL 全文索引搜索原始文件名与目录路径，按相关度排序。
+     *
+     * @param storageType 存储类型。
+     * @param query       用户输入的查询串。
+     * @param offset      跳过的条数。
+     * @param limit       最多返回的条数。
+     * @return 文件元数据列表。
+     */
+    List<FileMetadata> searchFullText(StorageType storageType, String query, int offset, int limit);
 }
\ No newline at end of file
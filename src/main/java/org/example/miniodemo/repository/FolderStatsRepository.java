@@ -0,0 +1,67 @@
+package org.example.miniodemo.repository;
+
+import org.example.miniodemo.domain.FolderStats;
+import org.example.miniodemo.domain.StorageType;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 虚拟目录统计仓储接口。
+ * <p>
+ * 目录路径均为规范化形式，见 {@link org.example.miniodemo.common.util.FolderPathUtil}。
+ */
+public interface FolderStatsRepository {
+
+    /**
+     * 将一个文件的新增或删除累加到其所在目录及全部上级目录的统计上。
+     * <p>
+     * 根目录只累加直接位于根目录的文件，根目录的汇总在 {@link #findByPath} 时由一级子目录求和。
+     *
+     * @param storageType 存储类型。
+     * @param folderPath  文件元数据中记录的目录路径（未规范化）。
+     * @param fileDelta   文件数增量，新增为 1，删除为 -1。
+     * @param bytesDelta  字节数增量，删除时为负数。
+     * @param modifiedAt  变化发生的时间。
+     */
+    void applyFileDelta(StorageType storageType, String folderPath, long fileDelta, long bytesDelta, Date modifiedAt);
+
+    /**
+     * 查找一个目录的统计，根目录的统计在读取时汇总。
+     *
+     * @param storageType 存储类型。
+     * @param folderPath  规范化目录路径。
+     * @return 目录统计，目录下没有文件时为空。
+     */
+    Optional<FolderStats> findByPath(StorageType storageType, String folderPath);
+
+    /**
+     * 按名称顺序查找一个目录的直接子目录。
+     *
+     * @param storageType 存储类型。
+     * @param folderPath  规范化目录路径。
+     * @param limit       最多返回的条数。
+     * @return 子目录统计列表。
+     */
+    List<FolderStats> findChildren(StorageType storageType, String folderPath, int limit);
+
+    /**
+     * 插入回填标记。
+     *
+     * @return 插入成功返回 true；标记已存在（已回填，或其他节点正在回填）时返回 false。
+     */
+    boolean markBackfilled(Date completedAt);
+
+    /**
+     * 查找全部目录统计行（根目录行只含直接位于根目录的文件），用于回填时与元数据的聚合对账。
+     */
+    List<FolderStats> findAll();
+
+    /**
+     * 将一行的文件数与字节数作为增量累加到该目录自身的统计上，不传播到上级目录；行不存在时插入，累加后为空时删除。
+     *
+     * @param delta 目录及其增量，{@code fileCount}、{@code totalBytes} 可以为负数。
+     */
+    void applyDelta(FolderStats delta);
+}
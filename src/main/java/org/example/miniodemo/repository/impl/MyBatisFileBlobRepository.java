@@ -0,0 +1,84 @@
+package org.example.miniodemo.repository.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.RequiredArgsConstructor;
+import org.example.miniodemo.domain.FileBlob;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.mapper.FileBlobMapper;
+import org.example.miniodemo.repository.FileBlobRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link FileBlobRepository} 接口的MyBatis-Plus实现。
+ * <p>
+ * 引用数的增减都是单行条件 UPDATE，并发的增减不会互相覆盖。
+ */
+@Repository
+@RequiredArgsConstructor
+public class MyBatisFileBlobRepository implements FileBlobRepository {
+
+    private final FileBlobMapper fileBlobMapper;
+
+    @Override
+    public Optional<FileBlob> find(StorageType storageType, String contentHash) {
+        return Optional.ofNullable(fileBlobMapper.selectOne(new LambdaQueryWrapper<FileBlob>()
+                .eq(FileBlob::getStorageType, storageType)
+                .eq(FileBlob::getContentHash, contentHash)));
+    }
+
+    @Override
+    public boolean addReference(StorageType storageType, String contentHash) {
+        return fileBlobMapper.addReference(storageType.getDbValue(), contentHash) > 0;
+    }
+
+    @Override
+    public boolean insert(FileBlob blob) {
+        blob.setRefCount(1L);
+        blob.setCreatedAt(LocalDateTime.now());
+        blob.setReleasedAt(null);
+        try {
+            return fileBlobMapper.insert(blob) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(StorageType storageType, Map<String, Long> counts) {
+        LocalDateTime now = LocalDateTime.now();
+        counts.forEach((contentHash, count) ->
+                fileBlobMapper.release(storageType.getDbValue(), contentHash, count, now));
+    }
+
+    @Override
+    public List<FileBlob> findCollectable(LocalDateTime releasedBefore, int limit) {
+        return fileBlobMapper.selectList(new LambdaQueryWrapper<FileBlob>()
+                .and(w -> w.le(FileBlob::getRefCount, 0).lt(FileBlob::getReleasedAt, releasedBefore)
+                        .or().lt(FileBlob::getRefCount, 0))
+                .orderByAsc(FileBlob::getId)
+                .last("LIMIT " + limit));
+    }
+
+    @Override
+    public boolean markCollecting(Long id, LocalDateTime releasedBefore) {
+        return fileBlobMapper.markCollecting(id, releasedBefore) > 0;
+    }
+
+    @Override
+    public void abortCollecting(Long id) {
+        fileBlobMapper.abortCollecting(id);
+    }
+
+    @Override
+    public void deleteCollected(Long id) {
+        fileBlobMapper.delete(new LambdaQueryWrapper<FileBlob>()
+                .eq(FileBlob::getId, id)
+                .lt(FileBlob::getRefCount, 0));
+    }
+}
@@ -1,21 +1,38 @@
 package org.example.miniodemo.repository.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.etag.ResourceVersionRegistry;
+import org.example.miniodemo.common.search.FileNameSearchIndex;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.common.util.FolderPathUtil;
+import org.example.miniodemo.domain.ContentLayout;
 import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.FolderStats;
 import org.example.miniodemo.domain.StorageType;
 import org.example.miniodemo.mapper.FileMetadataMapper;
+import org.example.miniodemo.repository.FileBlobRepository;
 import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.repository.FolderStatsRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * {@link FileMetadataRepository} 接口的MyBatis-Plus实现。
  * <p>
  * 封装了所有基于 MyBatis-Plus 的数据库操作，将 ORM 框架的细节与业务逻辑隔离。
+ * 每次写操作后递增 {@link ResourceVersionRegistry} 中对应存储类型的列表版本号；
+ * 保存与删除同时更新 {@link FolderStatsRepository} 中的目录统计，调用方的事务保证两者一致；
+ * 提交后再同步到 {@link FileNameSearchIndex}。删除 BLOB 布局的文件时在同一事务内释放 {@link FileBlobRepository} 中的引用。
  */
 @Repository // 使用@Repository注解标记这是一个数据访问组件
 @RequiredArgsConstructor
@@ -23,10 +40,56 @@ import java.util.Optional;
 public class MyBatisFileMetadataRepository implements FileMetadataRepository {
 
     private final FileMetadataMapper fileMetadataMapper;
+    private final ResourceVersionRegistry resourceVersions;
+    private final FolderStatsRepository folderStatsRepository;
+    private final FileNameSearchIndex fileNameSearchIndex;
+    private final FileBlobRepository fileBlobRepository;
 
     @Override
     public boolean save(FileMetadata metadata) {
-        return fileMetadataMapper.insert(metadata) > 0;
+        // 新文件以创建时间作为最后访问时间，冷热分层按最后访问时间筛选时无需处理空值
+        if (metadata.getLastAccessedAt() == null) {
+            metadata.setLastAccessedAt(new Date());
+        }
+        boolean saved = fileMetadataMapper.insert(metadata) > 0;
+        if (saved) {
+            folderStatsRepository.applyFileDelta(metadata.getStorageType(), metadata.getFolderPath(),
+                    1, sizeOf(metadata), new Date());
+            fileNameSearchIndex.addAfterCommit(metadata.getId(), metadata.getStorageType(),
+                    metadata.getOriginalFilename(), metadata.getFolderPath());
+        }
+        resourceVersions.bumpListing(metadata.getStorageType());
+        return saved;
+    }
+
+    @Override
+    public void saveAll(List<FileMetadata> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        for (FileMetadata metadata : batch) {
+            if (metadata.getLastAccessedAt() == null) {
+                metadata.setLastAccessedAt(now);
+            }
+        }
+        // 批处理执行器：连接串开启 rewriteBatchedStatements 后驱动将其改写为多行 INSERT
+        fileMetadataMapper.insert(batch);
+
+        Map<StorageType, Map<String, long[]>> deltas = new EnumMap<>(StorageType.class);
+        for (FileMetadata metadata : batch) {
+            long[] delta = deltas.computeIfAbsent(metadata.getStorageType(), key -> new HashMap<>())
+                    .computeIfAbsent(FolderPathUtil.normalize(metadata.getFolderPath()), key -> new long[2]);
+            delta[0]++;
+            delta[1] += sizeOf(metadata);
+            fileNameSearchIndex.addAfterCommit(metadata.getId(), metadata.getStorageType(),
+                    metadata.getOriginalFilename(), metadata.getFolderPath());
+        }
+        deltas.forEach((storageType, folders) -> {
+            folders.forEach((folderPath, delta) ->
+                    folderStatsRepository.applyFileDelta(storageType, folderPath, delta[0], delta[1], now));
+            resourceVersions.bumpListing(storageType);
+        });
     }
 
     @Override
@@ -34,16 +97,93 @@ public class MyBatisFileMetadataRepository implements FileMetadataRepository {
         LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
                 .eq(FileMetadata::getContentHash, hash)
                 .eq(FileMetadata::getStorageType, storageType);
+        // 同一内容可能有多条 BLOB 布局的文件元数据
+        queryWrapper.last("LIMIT 1");
         FileMetadata fileMetadata = fileMetadataMapper.selectOne(queryWrapper);
         return Optional.ofNullable(fileMetadata);
     }
 
     @Override
-    public void deleteByHash(String hash, StorageType storageType) {
+    public Optional<FileMetadata> findByHashAndName(String hash, StorageType storageType, String folderPath,
+                                                    String originalFilename) {
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .eq(FileMetadata::getContentHash, hash)
+                .eq(FileMetadata::getStorageType, storageType)
+                .eq(FileMetadata::getFolderPath, folderPath)
+                .eq(FileMetadata::getOriginalFilename, originalFilename)
+                .last("LIMIT 1");
+        return Optional.ofNullable(fileMetadataMapper.selectOne(queryWrapper));
+    }
+
+    @Override
+    public Optional<FileMetadata> findByPath(StorageType storageType, Collection<String> bucketNames, String filePath) {
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .in(FileMetadata::getBucketName, bucketNames)
+                .apply("file_path_hash = {0}", FolderPathUtil.sha256(filePath))
+                .eq(FileMetadata::getFilePath, filePath)
+                .eq(FileMetadata::getStorageType, storageType)
+                .last("LIMIT 1");
+        return Optional.ofNullable(fileMetadataMapper.selectOne(queryWrapper));
+    }
+
+    @Override
+    public Optional<FileMetadata> findByHashAndPath(String hash, StorageType storageType, String filePath) {
         LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
                 .eq(FileMetadata::getContentHash, hash)
+                .eq(FileMetadata::getStorageType, storageType)
+                .apply("file_path_hash = {0}", FolderPathUtil.sha256(filePath))
+                .eq(FileMetadata::getFilePath, filePath)
+                .last("LIMIT 1");
+        return Optional.ofNullable(fileMetadataMapper.selectOne(queryWrapper));
+    }
+
+    @Override
+    public List<FileMetadata> findByHashes(StorageType storageType, Collection<String> bucketNames,
+                                           Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return List.of();
+        }
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .in(FileMetadata::getBucketName, bucketNames)
+                .in(FileMetadata::getContentHash, hashes)
                 .eq(FileMetadata::getStorageType, storageType);
-        fileMetadataMapper.delete(queryWrapper);
+        return fileMetadataMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public int deleteByIds(StorageType storageType, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<FileMetadata> locked = fileMetadataMapper.selectList(new LambdaQueryWrapper<FileMetadata>()
+                .select(FileMetadata::getId, FileMetadata::getFolderPath, FileMetadata::getFileSize,
+                        FileMetadata::getContentHash, FileMetadata::getContentLayout)
+                .in(FileMetadata::getId, ids)
+                .eq(FileMetadata::getStorageType, storageType)
+                .last("FOR UPDATE"));
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        int deleted = fileMetadataMapper.deleteByIds(locked.stream().map(FileMetadata::getId).toList());
+
+        // 同一目录的文件合并为一次增量，目录统计的更新次数与目录数有关，与文件数无关
+        Map<String, long[]> deltas = new HashMap<>();
+        Map<String, Long> blobReferences = new HashMap<>();
+        for (FileMetadata metadata : locked) {
+            long[] delta = deltas.computeIfAbsent(FolderPathUtil.normalize(metadata.getFolderPath()), key -> new long[2]);
+            delta[0]--;
+            delta[1] -= sizeOf(metadata);
+            fileNameSearchIndex.removeAfterCommit(metadata.getId(), storageType);
+            if (metadata.getContentLayout() == ContentLayout.BLOB) {
+                blobReferences.merge(metadata.getContentHash(), 1L, Long::sum);
+            }
+        }
+        Date now = new Date();
+        deltas.forEach((folderPath, delta) ->
+                folderStatsRepository.applyFileDelta(storageType, folderPath, delta[0], delta[1], now));
+        fileBlobRepository.release(storageType, blobReferences);
+        resourceVersions.bumpListing(storageType);
+        return deleted;
     }
 
     @Override
@@ -56,6 +196,189 @@ public class MyBatisFileMetadataRepository implements FileMetadataRepository {
     @Override
     public Integer update(FileMetadata metadata) {
         log.info("正在更新文件元数据：{}", metadata);
-        return fileMetadataMapper.updateById(metadata);
+        int rows = fileMetadataMapper.updateById(metadata);
+        if (rows > 0) {
+            // 按主键的部分更新可能不带存储类型，此时无法确定受影响的列表
+            if (metadata.getStorageType() != null) {
+                resourceVersions.bumpListing(metadata.getStorageType());
+            } else {
+                resourceVersions.bumpAllListings();
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public Optional<FileMetadata> findById(Long id) {
+        return Optional.ofNullable(fileMetadataMapper.selectById(id));
+    }
+
+    @Override
+    public int recordAccess(Long id, Date accessedAt) {
+        int rows = fileMetadataMapper.update(null, new LambdaUpdateWrapper<FileMetadata>()
+                .set(FileMetadata::getLastAccessedAt, accessedAt)
+                .setSql("visit_count = visit_count + 1")
+                .eq(FileMetadata::getId, id));
+        // 只有私有文件记录访问，私有文件列表中包含访问次数
+        if (rows > 0) {
+            resourceVersions.bumpListing(StorageType.PRIVATE);
+        }
+        return rows;
+    }
+
+    @Override
+    public List<FileMetadata> findLeastRecentlyAccessed(StorageType storageType, String bucketName, Date accessedBefore,
+                                                        Date afterAccessed, Long afterId, int limit) {
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .eq(FileMetadata::getStorageType, storageType)
+                .eq(FileMetadata::getBucketName, bucketName)
+                .lt(FileMetadata::getLastAccessedAt, accessedBefore)
+                .eq(FileMetadata::getContentLayout, ContentLayout.OBJECT)
+                .and(afterAccessed != null, w -> w.gt(FileMetadata::getLastAccessedAt, afterAccessed)
+                        .or(x -> x.eq(FileMetadata::getLastAccessedAt, afterAccessed).gt(FileMetadata::getId, afterId)))
+                .orderByAsc(FileMetadata::getLastAccessedAt, FileMetadata::getId)
+                .last("LIMIT " + limit);
+        return fileMetadataMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public boolean switchBucket(Long id, String fromBucket, String toBucket, String toFilePath, Date accessedBefore) {
+        boolean switched = fileMetadataMapper.update(null, new LambdaUpdateWrapper<FileMetadata>()
+                .set(FileMetadata::getBucketName, toBucket)
+                .set(FileMetadata::getFilePath, toFilePath)
+                .eq(FileMetadata::getId, id)
+                .eq(FileMetadata::getBucketName, fromBucket)
+                .lt(accessedBefore != null, FileMetadata::getLastAccessedAt, accessedBefore)) > 0;
+        // 只有私有文件参与冷热分层，私有文件列表中的预签名URL随存储桶变化
+        if (switched) {
+            resourceVersions.bumpListing(StorageType.PRIVATE);
+        }
+        return switched;
+    }
+
+    @Override
+    public boolean switchFilePath(Long id, String bucketName, String fromFilePath, String toFilePath) {
+        boolean switched = fileMetadataMapper.update(null, new LambdaUpdateWrapper<FileMetadata>()
+                .set(FileMetadata::getFilePath, toFilePath)
+                .eq(FileMetadata::getId, id)
+                .eq(FileMetadata::getBucketName, bucketName)
+                .eq(FileMetadata::getFilePath, fromFilePath)) > 0;
+        // 公共资源URL与列表中的预签名URL随对象路径变化
+        if (switched) {
+            resourceVersions.bumpAllListings();
+        }
+        return switched;
+    }
+
+    @Override
+    public List<FileMetadata> findLegacyObjectKeys(Long afterId, int limit) {
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .eq(FileMetadata::getContentLayout, ContentLayout.OBJECT)
+                .notLikeRight(FileMetadata::getFilePath, "__/__/")
+                .gt(afterId != null, FileMetadata::getId, afterId)
+                .orderByAsc(FileMetadata::getId)
+                .last("LIMIT " + limit);
+        return fileMetadataMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public boolean existsByPath(String bucketName, String filePath) {
+        return fileMetadataMapper.exists(new LambdaQueryWrapper<FileMetadata>()
+                .eq(FileMetadata::getBucketName, bucketName)
+                .apply("file_path_hash = {0}", FolderPathUtil.sha256(filePath))
+                .eq(FileMetadata::getFilePath, filePath));
+    }
+
+    @Override
+    public int updateClusterId(String bucketName, String objectKey, String clusterId) {
+        LambdaUpdateWrapper<FileMetadata> updateWrapper = new LambdaUpdateWrapper<FileMetadata>()
+                .set(FileMetadata::getClusterId, clusterId)
+                .eq(FileMetadata::getBucketName, bucketName);
+        if (objectKey.startsWith(FilePathUtil.BLOB_PREFIX)) {
+            updateWrapper.eq(FileMetadata::getContentLayout, ContentLayout.BLOB)
+                    .eq(FileMetadata::getContentHash, objectKey.substring(objectKey.lastIndexOf('/') + 1));
+        } else {
+            updateWrapper.apply("file_path_hash = {0}", FolderPathUtil.sha256(objectKey))
+                    .eq(FileMetadata::getFilePath, objectKey)
+                    .ne(FileMetadata::getContentLayout, ContentLayout.CDC);
+        }
+        int updated = fileMetadataMapper.update(null, updateWrapper);
+        // 公共资源URL随集群变化
+        if (updated > 0) {
+            resourceVersions.bumpAllListings();
+        }
+        return updated;
+    }
+
+    @Override
+    public List<FileMetadata> findInFolder(StorageType storageType, Collection<String> bucketNames, String folderPath,
+                                           Long afterId, int limit) {
+        List<String> forms = FolderPathUtil.storedForms(folderPath);
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .in(FileMetadata::getBucketName, bucketNames)
+                .eq(FileMetadata::getStorageType, storageType)
+                .apply("folder_path_hash IN ({0}, {1})",
+                        FolderPathUtil.sha256(forms.get(0)), FolderPathUtil.sha256(forms.get(1)))
+                .gt(afterId != null, FileMetadata::getId, afterId)
+                .orderByAsc(FileMetadata::getId)
+                .last("LIMIT " + limit);
+        return fileMetadataMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public List<FileMetadata> findInFolderTree(StorageType storageType, Collection<String> bucketNames, String folderPath,
+                                               Long afterId, int limit) {
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .in(FileMetadata::getBucketName, bucketNames)
+                .eq(FileMetadata::getStorageType, storageType)
+                // "a/b/%" 同时覆盖带结尾斜杠的写法与所有子目录
+                .and(w -> w.eq(FileMetadata::getFolderPath, folderPath)
+                        .or().likeRight(FileMetadata::getFolderPath, escapeLike(folderPath) + "/"))
+                .gt(afterId != null, FileMetadata::getId, afterId)
+                .orderByAsc(FileMetadata::getId)
+                .last("LIMIT " + limit);
+        return fileMetadataMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public List<FolderStats> aggregateByFolder() {
+        return fileMetadataMapper.aggregateByFolder();
+    }
+
+    @Override
+    public List<FileMetadata> findSearchFields(Long afterId, int limit) {
+        LambdaQueryWrapper<FileMetadata> queryWrapper = new LambdaQueryWrapper<FileMetadata>()
+                .select(FileMetadata::getId, FileMetadata::getStorageType,
+                        FileMetadata::getOriginalFilename, FileMetadata::getFolderPath)
+                .gt(afterId != null, FileMetadata::getId, afterId)
+                .orderByAsc(FileMetadata::getId)
+                .last("LIMIT " + limit);
+        return fileMetadataMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public List<FileMetadata> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return fileMetadataMapper.selectByIds(ids);
+    }
+
+    @Override
+    public List<FileMetadata> searchFullText(StorageType storageType, String query, int offset, int limit) {
+        // 整个查询作为一个短语，ngram 解析器下相当于子串匹配；去掉会破坏短语的双引号
+        String phrase = "\"" + query.replace("\"", " ").strip() + "\"";
+        return fileMetadataMapper.searchFullText(storageType.getDbValue(), phrase, offset, limit);
+    }
+
+    /**
+     * 转义 LIKE 通配符，目录名中的 "_" 与 "%" 按字面匹配。
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static long sizeOf(FileMetadata metadata) {
+        return metadata.getFileSize() == null ? 0 : metadata.getFileSize();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package org.example.miniodemo.repository.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.RequiredArgsConstructor;
+import org.example.miniodemo.common.util.FolderPathUtil;
+import org.example.miniodemo.domain.FolderStats;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.mapper.FolderStatsMapper;
+import org.example.miniodemo.repository.FolderStatsRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link FolderStatsRepository} 接口的MyBatis-Plus实现。
+ * <p>
+ * 一个文件的增删按从一级目录到所在目录的顺序逐行 upsert，所有事务以相同顺序加行锁，不会互相死锁。
+ * 根目录若也逐次累加，所有写入都会争用这一行，因此根目录一行只记录直接位于根目录的文件，
+ * 读取根目录时再加上一级子目录的合计（一级子目录数远小于文件数）。
+ * 统计仍应在元数据写入事务的末尾更新，尽量缩短持锁时间。
+ */
+@Repository
+@RequiredArgsConstructor
+public class MyBatisFolderStatsRepository implements FolderStatsRepository {
+
+    /**
+     * 目录名列的长度上限，超出时只截断用于展示的名称，路径与哈希保持完整。
+     */
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final FolderStatsMapper folderStatsMapper;
+
+    @Override
+    public void applyFileDelta(StorageType storageType, String folderPath, long fileDelta, long bytesDelta, Date modifiedAt) {
+        String normalized = FolderPathUtil.normalize(folderPath);
+        String parentHash = null;
+        for (String path : FolderPathUtil.selfAndAncestors(normalized)) {
+            String pathHash = FolderPathUtil.sha256Hex(path);
+            if (countsIn(path, normalized)) {
+                folderStatsMapper.upsertDelta(storageType.getDbValue(), path, pathHash, parentHash, displayName(path),
+                        fileDelta, bytesDelta, modifiedAt);
+                if (fileDelta < 0) {
+                    folderStatsMapper.deleteIfEmpty(storageType.getDbValue(), pathHash);
+                }
+            }
+            parentHash = pathHash;
+        }
+    }
+
+    /**
+     * 所在目录为 {@code folderPath} 的文件是否累加到目录 {@code path} 的统计行上：根目录行只累加直接位于根目录的文件。
+     *
+     * @param path       文件所在目录自身或其上级目录。
+     * @param folderPath 文件所在目录。
+     */
+    private static boolean countsIn(String path, String folderPath) {
+        return !path.isEmpty() || folderPath.isEmpty();
+    }
+
+    @Override
+    public Optional<FolderStats> findByPath(StorageType storageType, String folderPath) {
+        String pathHash = FolderPathUtil.sha256Hex(folderPath);
+        Optional<FolderStats> stored = Optional.ofNullable(folderStatsMapper.selectOne(new LambdaQueryWrapper<FolderStats>()
+                .eq(FolderStats::getStorageType, storageType)
+                .eq(FolderStats::getFolderPathHash, pathHash)));
+        if (!folderPath.isEmpty()) {
+            return stored;
+        }
+
+        FolderStats root = stored.orElseGet(() -> {
+            FolderStats created = new FolderStats();
+            created.setStorageType(storageType);
+            created.setFolderPath(folderPath);
+            created.setFolderPathHash(pathHash);
+            created.setName("");
+            created.setFileCount(0L);
+            created.setTotalBytes(0L);
+            return created;
+        });
+        FolderStats children = folderStatsMapper.sumChildren(storageType.getDbValue(), pathHash);
+        if (children != null && children.getFileCount() != null) {
+            root.setFileCount(root.getFileCount() + children.getFileCount());
+            root.setTotalBytes(root.getTotalBytes() + (children.getTotalBytes() == null ? 0 : children.getTotalBytes()));
+            if (root.getLastModified() == null
+                    || (children.getLastModified() != null && children.getLastModified().after(root.getLastModified()))) {
+                root.setLastModified(children.getLastModified());
+            }
+        }
+        return root.getFileCount() > 0 ? Optional.of(root) : Optional.empty();
+    }
+
+    @Override
+    public List<FolderStats> findChildren(StorageType storageType, String folderPath, int limit) {
+        return folderStatsMapper.selectList(new LambdaQueryWrapper<FolderStats>()
+                .eq(FolderStats::getStorageType, storageType)
+                .eq(FolderStats::getParentPathHash, FolderPathUtil.sha256Hex(folderPath))
+                .orderByAsc(FolderStats::getName)
+                .last("LIMIT " + limit));
+    }
+
+    @Override
+    public boolean markBackfilled(Date completedAt) {
+        try {
+            return folderStatsMapper.insertBackfillMarker(completedAt) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public List<FolderStats> findAll() {
+        return folderStatsMapper.selectList(new LambdaQueryWrapper<FolderStats>());
+    }
+
+    @Override
+    public void applyDelta(FolderStats delta) {
+        folderStatsMapper.upsertDelta(delta.getStorageType().getDbValue(), delta.getFolderPath(), delta.getFolderPathHash(),
+                delta.getParentPathHash(), displayName(delta.getFolderPath()), delta.getFileCount(), delta.getTotalBytes(),
+                delta.getLastModified());
+        if (delta.getFileCount() < 0 || delta.getTotalBytes() < 0) {
+            folderStatsMapper.deleteIfEmpty(delta.getStorageType().getDbValue(), delta.getFolderPathHash());
+        }
+    }
+
+    private static String displayName(String path) {
+        String name = FolderPathUtil.nameOf(path);
+        return name.length() <= MAX_NAME_LENGTH ? name : name.substring(0, MAX_NAME_LENGTH);
+    }
+}
@@ -2,6 +2,7 @@ package org.example.miniodemo.service;
 
 import org.example.miniodemo.common.response.R;
 import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.StorageType;
 import org.example.miniodemo.dto.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -24,8 +25,11 @@ public interface AbstractChunkedFile {
     
     /**
      * 基于会话的分片上传
+     *
+     * @param uploaderToken 初始化时获得的上传者令牌；为空时不校验（旧版客户端）。
      */
-    R<ChunkUploadResponseDto> uploadChunkWithSession(MultipartFile file, String sessionId, Integer chunkNumber);
+    R<ChunkUploadResponseDto> uploadChunkWithSession(MultipartFile file, String sessionId, Integer chunkNumber,
+                                                     String uploaderToken);
     
     /**
      * 改进的合并分片方法
@@ -47,12 +51,37 @@ public interface AbstractChunkedFile {
     void deleteFile(String filePath);
 
     /**
-     * 根据文件哈希值删除文件及其元数据。
+     * 根据文件哈希值删除文件及其元数据；同一内容有多个文件时拒绝删除，需按对象路径删除。
      *
      * @param fileHash 文件的哈希值
      */
     void deleteFileByHash(String fileHash);
 
+    /**
+     * 按文件哈希列表或目录前缀批量删除文件及其元数据。
+     *
+     * @param request 批量删除请求，哈希列表与目录二选一。
+     * @return 删除成功的文件数与每个失败文件的原因。
+     */
+    BatchDeleteResultDto deleteFiles(BatchDeleteRequestDto request);
+
+    /**
+     * 复制文件：在目标目录下新增一条引用同一共享对象的元数据，不复制对象数据。
+     *
+     * @param request 复制请求。
+     * @return 目标文件的详情；目标目录下已有同名的同一内容时返回已有的文件。
+     */
+    FileDetailDto copyFile(FileCopyRequestDto request);
+
+    /**
+     * 从另一种存储类型导入文件：在存储端复制内容（数据不经过客户端），新增本存储类型的文件元数据。
+     *
+     * @param sourceType 源文件的存储类型，不能与本服务相同。
+     * @param request    导入请求，目标目录为空时沿用源文件的目录。
+     * @return 导入后的文件详情；本存储类型的目标目录下已有同名的同一内容时返回已有的文件。
+     */
+    FileDetailDto importFile(StorageType sourceType, FileCopyRequestDto request);
+
     /**
      * 直接上传单个文件，适用于小文件。
      *
@@ -61,4 +90,24 @@ public interface AbstractChunkedFile {
      * @return 文件的元数据
      */
     FileMetadata uploadFile(String folderPath, MultipartFile file, String fileHash);
+
+    /**
+     * 浏览虚拟目录：返回目录的聚合统计、直接子目录与直接位于该目录下的一页文件。
+     *
+     * @param path    目录路径，空字符串表示根目录。
+     * @param afterId 上一页返回的游标，首页为 {@code null}。
+     * @param limit   每页文件数。
+     * @return 浏览结果。
+     */
+    FolderBrowseDto browse(String path, Long afterId, int limit);
+
+    /**
+     * 按原始文件名与目录路径搜索文件，结果按相关度排序。
+     *
+     * @param query 查询串：一到两个字符时为文件名前缀匹配，更长时为子串匹配。
+     * @param page  页码，从 0 开始。
+     * @param size  每页条数。
+     * @return 一页搜索结果。
+     */
+    FileSearchResultDto search(String query, int page, int size);
 }
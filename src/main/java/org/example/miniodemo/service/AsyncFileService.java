@@ -6,10 +6,11 @@ import org.example.miniodemo.common.util.FilePathUtil;
 import org.example.miniodemo.config.MinioBucketConfig;
 import org.example.miniodemo.domain.StorageType;
 import org.example.miniodemo.repository.FileMetadataRepository;
-import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.example.miniodemo.service.storage.AsyncObjectStorageService;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
 import java.util.List;
 
 @Service
@@ -18,13 +19,14 @@ import java.util.List;
 public class AsyncFileService {
 
     private final FileMetadataRepository fileMetadataRepository;
-    private final ObjectStorageService objectStorageService;
+    private final AsyncObjectStorageService asyncObjectStorageService;
+    private final StorageTieringService storageTieringService;
 
     /**
      * 异步更新文件的最后访问时间。
      * <p>
      * 使用 @Async 注解，此方法将在独立的线程中执行，
-     * 不会阻塞主调用线程（如文件下载请求）。
+     * 不会阻塞主调用线程（如文件下载请求）。文件位于冷存储桶时随后将其移回私有文件存储桶。
      *
      * @param filePath 文件的对象路径。
      */
@@ -36,23 +38,25 @@ public class AsyncFileService {
             return;
         }
 
-        fileMetadataRepository.findByHash(hash, StorageType.PRIVATE).ifPresent(metadata -> {
-            metadata.setLastAccessedAt(new java.util.Date());
-            metadata.setVisitCount(metadata.getVisitCount() + 1);
-            // 注意：这里我们依然需要一个更新方法
-            // 我们将暂时假设 update 方法存在于 repository
-            int updatedRows = fileMetadataRepository.update(metadata);
+        fileMetadataRepository.findByHashAndPath(hash, StorageType.PRIVATE, filePath).ifPresent(metadata -> {
+            // 只更新访问字段，避免用读到的旧值覆盖分层任务并发修改的存储桶
+            int updatedRows = fileMetadataRepository.recordAccess(metadata.getId(), new Date());
             if (updatedRows > 0) {
                 log.info("【异步任务】文件 '{}' 的最后访问时间已更新。", filePath);
             } else {
                 log.warn("【异步任务】更新文件 '{}' 的最后访问时间失败，未找到对应记录或更新失败。", filePath);
             }
+            if (storageTieringService.shouldPromote(metadata)) {
+                storageTieringService.promote(metadata);
+            }
         });
     }
 
 
     /**
      * 异步删除公共存储桶中的临时分片文件。
+     * <p>
+     * 分片较多时会被拆分成多个批量删除请求并发执行。
      * @param batchId 批次ID，主要用于日志记录。
      * @param filePaths 要删除的分片对象路径列表。
      * @param bucketName 存储桶名称。
@@ -60,10 +64,14 @@ public class AsyncFileService {
     @Async
     public void deleteTemporaryChunks(String batchId, List<String> filePaths, String bucketName) {
         try {
-            objectStorageService.delete(bucketName, filePaths);
-            log.info("【异步任务】成功删除{}库批次 '{}' 的 {} 个临时分片。", bucketName,batchId, filePaths.size());
+            List<String> failed = asyncObjectStorageService.delete(bucketName, filePaths).join();
+            if (failed.isEmpty()) {
+                log.info("【异步任务】成功删除{}库批次 '{}' 的 {} 个临时分片。", bucketName, batchId, filePaths.size());
+            } else {
+                log.error("【异步任务】删除{}库批次 '{}' 的临时分片部分失败: {}/{}。", bucketName, batchId, failed.size(), filePaths.size());
+            }
         } catch (Exception e) {
-            log.error("【异步任务】删除{}库批次 '{}' 的临时分片失败。", bucketName,batchId, e);
+            log.error("【异步任务】删除{}库批次 '{}' 的临时分片失败。", bucketName, batchId, e);
         }
     }
 
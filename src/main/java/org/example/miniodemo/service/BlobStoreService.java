@@ -0,0 +1,202 @@
+package org.example.miniodemo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.config.BlobStoreConfig;
+import org.example.miniodemo.domain.ContentEncoding;
+import org.example.miniodemo.domain.FileBlob;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.exception.BusinessException;
+import org.example.miniodemo.repository.FileBlobRepository;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按内容寻址的共享对象存储服务。
+ * <p>
+ * 同一存储类型内相同内容只在 {@link FilePathUtil#buildBlobPath} 存一份，由 {@code file_blob} 表登记并记录引用数；
+ * 每条 BLOB 布局的文件元数据是一个引用。写入内容之前先通过 {@link #acquire} 取得引用，
+ * 内容已存在时调用方只需保存元数据；删除元数据时在同一事务内释放引用（见 {@link FileBlobRepository}）。
+ * 引用数为 0 且超过宽限期的对象由定时任务回收：先把引用数标记为 -1，使其不能再被引用，再删除对象与登记记录。
+ */
+@Slf4j
+@Service
+public class BlobStoreService {
+
+    private static final int QUERY_BATCH_SIZE = 1000;
+
+    /**
+     * 共享对象正在回收时等待回收完成的重试次数与间隔
+     */
+    private static final int ACQUIRE_ATTEMPTS = 5;
+    private static final long ACQUIRE_RETRY_MILLIS = 200;
+
+    private final BlobStoreConfig config;
+    private final FileBlobRepository fileBlobRepository;
+    private final ObjectStorageService objectStorageService;
+    private final MeterRegistry registry;
+
+    public BlobStoreService(BlobStoreConfig config,
+                            FileBlobRepository fileBlobRepository,
+                            ObjectStorageService objectStorageService,
+                            MeterRegistry registry) {
+        this.config = config;
+        this.fileBlobRepository = fileBlobRepository;
+        this.objectStorageService = objectStorageService;
+        this.registry = registry;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 为即将保存的一条文件元数据取得共享对象的一个引用。
+     * <p>
+     * 对象已登记时增加引用并沿用其存储桶与内容编码；对象未登记时以 {@code encoding} 登记一个新对象。
+     * 返回的 {@link Lease#needsWrite()} 为 {@code true} 时调用方必须按 {@link Lease#blob()} 中的编码写入内容，
+     * 写入失败或元数据保存失败时必须调用 {@link #release} 归还引用。
+     *
+     * @param storageType 存储类型。
+     * @param bucketName  新对象所在的存储桶。
+     * @param contentHash 文件内容哈希。
+     * @param fileSize    文件原始大小。
+     * @param encoding    新对象的内容编码，为 {@code null} 表示原始字节。
+     * @return 取得的引用。
+     */
+    public Lease acquire(StorageType storageType, String bucketName, String contentHash, long fileSize,
+                         ContentEncoding encoding) {
+        for (int attempt = 1; attempt <= ACQUIRE_ATTEMPTS; attempt++) {
+            if (fileBlobRepository.addReference(storageType, contentHash)) {
+                try {
+                    FileBlob blob = fileBlobRepository.find(storageType, contentHash)
+                            .orElseThrow(() -> new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "共享对象登记记录丢失"));
+                    // 登记者可能仍在写入或写入失败：对象不存在时由本次重新写入，相同内容覆盖写入没有副作用
+                    boolean needsWrite = !exists(blob);
+                    recordAcquire(storageType, !needsWrite);
+                    return new Lease(blob, needsWrite);
+                } catch (RuntimeException e) {
+                    release(storageType, contentHash);
+                    throw e;
+                }
+            }
+
+            FileBlob blob = new FileBlob();
+            blob.setStorageType(storageType);
+            blob.setContentHash(contentHash);
+            blob.setBucketName(bucketName);
+            blob.setFileSize(fileSize);
+            blob.setContentEncoding(encoding);
+            if (fileBlobRepository.insert(blob)) {
+                recordAcquire(storageType, false);
+                return new Lease(blob, true);
+            }
+
+            // 登记记录存在但不能增加引用：正在回收，等待回收任务删除登记记录后重新登记
+            log.info("【共享对象 - {}】对象正在回收，稍后重试: {}, 第 {} 次", storageType, contentHash, attempt);
+            try {
+                Thread.sleep(ACQUIRE_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "等待共享对象回收被中断", e);
+            }
+        }
+        throw new BusinessException(ResultCode.TOO_MANY_REQUESTS, "文件内容正在清理，请稍后重试");
+    }
+
+    /**
+     * 归还 {@link #acquire} 取得的引用。在保存元数据之前失败时调用；已保存的元数据由删除操作释放引用。
+     */
+    public void release(StorageType storageType, String contentHash) {
+        try {
+            fileBlobRepository.release(storageType, Map.of(contentHash, 1L));
+        } catch (Exception e) {
+            // 引用数偏大只会让对象晚些回收，不影响正确性
+            log.error("【共享对象 - {}】归还引用失败: {}", storageType, contentHash, e);
+        }
+    }
+
+    /**
+     * 回收引用数为 0 且超过宽限期的共享对象。
+     * <p>
+     * 先把登记记录标记为正在回收（期间被重新引用的对象标记失败而跳过），再删除对象，最后删除登记记录。
+     * 对象删除失败时撤销标记，下次回收时重试。
+     *
+     * @return 回收的对象数。
+     */
+    public int collectGarbage() {
+        LocalDateTime releasedBefore = LocalDateTime.now().minus(config.getGcGracePeriod());
+        int collected = 0;
+        Long lastId = null;
+        while (true) {
+            List<FileBlob> candidates = fileBlobRepository.findCollectable(releasedBefore, QUERY_BATCH_SIZE);
+            // 撤销标记的对象会被再次选出，主键不再前进时结束本轮
+            if (candidates.isEmpty() || candidates.get(candidates.size() - 1).getId().equals(lastId)) {
+                break;
+            }
+            lastId = candidates.get(candidates.size() - 1).getId();
+
+            Map<String, List<FileBlob>> byBucket = new HashMap<>();
+            for (FileBlob blob : candidates) {
+                if (blob.getRefCount() < 0 || fileBlobRepository.markCollecting(blob.getId(), releasedBefore)) {
+                    byBucket.computeIfAbsent(blob.getBucketName(), key -> new ArrayList<>()).add(blob);
+                }
+            }
+            for (Map.Entry<String, List<FileBlob>> entry : byBucket.entrySet()) {
+                List<FileBlob> blobs = entry.getValue();
+                try {
+                    objectStorageService.delete(entry.getKey(), blobs.stream()
+                            .map(blob -> FilePathUtil.buildBlobPath(blob.getContentHash()))
+                            .toList());
+                } catch (Exception e) {
+                    log.error("【定时任务】删除共享对象失败，下次重试: 存储桶={}, 数量={}", entry.getKey(), blobs.size(), e);
+                    blobs.forEach(blob -> fileBlobRepository.abortCollecting(blob.getId()));
+                    continue;
+                }
+                blobs.forEach(blob -> fileBlobRepository.deleteCollected(blob.getId()));
+                collected += blobs.size();
+            }
+            if (candidates.size() < QUERY_BATCH_SIZE) {
+                break;
+            }
+        }
+        return collected;
+    }
+
+    private boolean exists(FileBlob blob) {
+        try {
+            return objectStorageService.stat(blob.getBucketName(), FilePathUtil.buildBlobPath(blob.getContentHash()))
+                    .isPresent();
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "查询共享对象失败", e);
+        }
+    }
+
+    private void recordAcquire(StorageType storageType, boolean reused) {
+        Counter.builder("upload.blob.references")
+                .description("新增的共享对象引用数，reused=true 表示内容已存在、未重复写入")
+                .tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name())
+                .tag("reused", String.valueOf(reused))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 取得的共享对象引用。
+     *
+     * @param blob       共享对象，写入内容时使用其中的存储桶与内容编码。
+     * @param needsWrite 对象尚不存在，调用方需要写入内容。
+     */
+    public record Lease(FileBlob blob, boolean needsWrite) {
+    }
+}
@@ -4,8 +4,10 @@ import org.example.miniodemo.domain.ChunkUploadSession;
 import org.example.miniodemo.domain.ChunkUploadStatus;
 import org.example.miniodemo.domain.StorageType;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 分片上传会话服务接口
@@ -14,10 +16,15 @@ public interface ChunkUploadSessionService {
     
     /**
      * 创建或获取上传会话
+     * <p>
+     * 同一文件已有进行中的会话时不重建：调用方尝试以 {@code uploaderId} 认领上传者，会话尚无上传者或
+     * 上传者超过 {@code uploaderStallTimeout} 没有上传分片时认领成功。返回会话的 uploaderId 与传入值相同即为上传者，
+     * 否则为等待者。
      */
     ChunkUploadSession createOrGetSession(String sessionId, String fileName, String fileHash, 
                                         Long fileSize, String contentType, String folderPath, 
-                                        Integer totalChunks, String bucketName, StorageType storageType);
+                                        Integer totalChunks, Long chunkSize, String bucketName, StorageType storageType,
+                                        String uploaderId, Duration uploaderStallTimeout);
     
     /**
      * 记录分片上传成功
@@ -44,6 +51,26 @@ public interface ChunkUploadSessionService {
      */
     void updateSessionStatus(String sessionId, ChunkUploadStatus status);
     
+    /**
+     * 条件更新会话状态：仅当当前状态属于 {@code from} 时更新，多个调用方并发时只有一个成功。
+     *
+     * @return 是否更新成功。
+     */
+    boolean transitionStatus(String sessionId, Set<ChunkUploadStatus> from, ChunkUploadStatus to);
+
+    /**
+     * 抢占合并：把 READY_TO_MERGE 的会话，或处于 MERGING 但超过 {@code staleAfter} 未更新（合并节点已中断）的会话改为 MERGING。
+     * 基于数据库条件更新，跨节点同一会话只有一个调用方能成功。
+     *
+     * @return 是否抢占成功。
+     */
+    boolean tryStartMerge(String sessionId, Duration staleAfter);
+
+    /**
+     * 跳过缓存从数据库重新读取会话，用于等待其他节点的写入。
+     */
+    Optional<ChunkUploadSession> reloadSession(String sessionId);
+
     /**
      * 删除会话（合并完成后清理）
      */
@@ -0,0 +1,162 @@
+package org.example.miniodemo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.config.CompressionConfig;
+import org.example.miniodemo.domain.ContentEncoding;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.service.storage.GzipCompressingInputStream;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 透明压缩服务：写入对象存储前判断内容是否值得压缩并流式压缩，代理下载时协商编码并按需流式解压。
+ * <p>
+ * 压缩与解压都在读取过程中逐块进行，任意大小的文件都只占用固定大小的缓冲区。
+ * 存储实现不支持记录 {@code Content-Encoding} 时（如本地文件系统）不压缩，保证直接访问URL的客户端总能拿到可用的内容。
+ * <p>
+ * 指标：{@code upload.compression.bytes}（{@code stage} 标签：{@code raw} 原始字节、{@code stored} 压缩后字节）。
+ */
+@Slf4j
+@Service
+public class ContentCompressionService {
+
+    private static final int DECOMPRESS_BUFFER_SIZE = 64 * 1024;
+
+    private final CompressionConfig config;
+    private final ObjectStorageService objectStorageService;
+    private final MeterRegistry registry;
+
+    public ContentCompressionService(CompressionConfig config,
+                                     ObjectStorageService objectStorageService,
+                                     MeterRegistry registry) {
+        this.config = config;
+        this.objectStorageService = objectStorageService;
+        this.registry = registry;
+    }
+
+    /**
+     * 决定一个文件写入对象存储时使用的编码。
+     *
+     * @param contentType 客户端声明的MIME类型，可以为空。
+     * @param fileName    原始文件名，用于按扩展名判断。
+     * @param size        原始大小。
+     * @return 应使用的编码；{@code null} 表示按原始字节存储。
+     */
+    public ContentEncoding chooseEncoding(String contentType, String fileName, long size) {
+        if (!config.isEnabled()
+                || size < config.getMinSize().toBytes()
+                || !objectStorageService.supportsCompression()) {
+            return null;
+        }
+        return isCompressibleType(contentType) || isCompressibleExtension(fileName) ? ContentEncoding.GZIP : null;
+    }
+
+    /**
+     * 将原始内容流式压缩后写入对象存储，对象带有对应的 {@code Content-Encoding}。
+     *
+     * @param bucketName  存储桶名称。
+     * @param filePath    对象路径。
+     * @param source      原始内容，本方法负责关闭。
+     * @param contentType 原始内容的MIME类型。
+     * @param encoding    {@link #chooseEncoding} 选出的编码。
+     * @param storageType 存储类型，用于指标标签。
+     * @throws Exception 如果读取源内容或上传失败。
+     */
+    public void uploadEncoded(String bucketName, String filePath, InputStream source, String contentType,
+                              ContentEncoding encoding, StorageType storageType) throws Exception {
+        try (GzipCompressingInputStream compressed = new GzipCompressingInputStream(source, config.getLevel())) {
+            objectStorageService.upload(bucketName, filePath, compressed, -1, contentType, encoding.getToken());
+            bytesCounter("raw", storageType).increment(compressed.getRawBytes());
+            bytesCounter("stored", storageType).increment(compressed.getCompressedBytes());
+            log.info("【透明压缩 - {}】对象已压缩存储: 路径={}, 原始={}B, 存储={}B",
+                    storageType, filePath, compressed.getRawBytes(), compressed.getCompressedBytes());
+        }
+    }
+
+    /**
+     * 将对象存储中读出的字节还原为原始内容。
+     *
+     * @param stored   对象存储中读出的字节。
+     * @param encoding 元数据中记录的编码，为 {@code null} 时原样返回。
+     */
+    public InputStream decode(InputStream stored, ContentEncoding encoding) throws IOException {
+        if (encoding == null) {
+            return stored;
+        }
+        return new GZIPInputStream(stored, DECOMPRESS_BUFFER_SIZE);
+    }
+
+    /**
+     * 判断客户端的 {@code Accept-Encoding} 是否接受指定编码（忽略 {@code q=0} 的条目）。
+     */
+    public static boolean accepts(String acceptEncoding, ContentEncoding encoding) {
+        if (acceptEncoding == null || encoding == null) {
+            return false;
+        }
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String token = parts[0].trim();
+            if (!token.equalsIgnoreCase(encoding.getToken()) && !"*".equals(token)) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressibleType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return false;
+        }
+        int semicolon = contentType.indexOf(';');
+        String mime = (semicolon < 0 ? contentType : contentType.substring(0, semicolon)).trim().toLowerCase(Locale.ROOT);
+        for (String pattern : config.getContentTypes()) {
+            String p = pattern.toLowerCase(Locale.ROOT);
+            if (p.endsWith("/*") ? mime.startsWith(p.substring(0, p.length() - 1)) : mime.equals(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressibleExtension(String fileName) {
+        if (fileName == null) {
+            return false;
+        }
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot == fileName.length() - 1) {
+            return false;
+        }
+        String extension = fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return config.getExtensions().stream().anyMatch(extension::equalsIgnoreCase);
+    }
+
+    private Counter bytesCounter(String stage, StorageType storageType) {
+        return Counter.builder("upload.compression.bytes")
+                .description("透明压缩处理的字节数：raw 为原始大小，stored 为压缩后写入对象存储的大小")
+                .tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name())
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
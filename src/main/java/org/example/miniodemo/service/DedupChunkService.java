@@ -0,0 +1,422 @@
+package org.example.miniodemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.config.DedupConfig;
+import org.example.miniodemo.config.ObjectKeyConfig;
+import org.example.miniodemo.domain.ContentLayout;
+import org.example.miniodemo.domain.DedupChunk;
+import org.example.miniodemo.domain.FileChunkManifest;
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.dto.DedupCommitRequestDto;
+import org.example.miniodemo.dto.DedupParamsDto;
+import org.example.miniodemo.exception.BusinessException;
+import org.example.miniodemo.mapper.DedupChunkMapper;
+import org.example.miniodemo.mapper.FileChunkManifestMapper;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.service.storage.ManifestInputStream;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 内容定义分块（CDC）去重存储服务。
+ * <p>
+ * 客户端按 {@link DedupConfig} 中的参数以 FastCDC 切分文件，在 {@code /upload/init} 中提交各块的 SHA-256，
+ * 服务端返回已存在的块；客户端只上传缺少的块，最后提交按顺序排列的块清单。
+ * 每个块在存储桶内以 {@code cdc/{前两位}/{hash}} 存一份，由 {@code dedup_chunk} 表登记；
+ * 文件内容由 {@code file_chunk_manifest} 中的有序块列表描述，读取时通过 {@link ManifestInputStream} 流式拼接。
+ * 不被任何清单引用且超过宽限期的块由定时任务回收。
+ */
+@Slf4j
+@Service
+public class DedupChunkService {
+
+    /**
+     * 去重块对象的路径前缀，孤儿文件清理任务需跳过该前缀。
+     */
+    public static final String CHUNK_PREFIX = "cdc/";
+
+    private static final Pattern CHUNK_HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final int QUERY_BATCH_SIZE = 1000;
+
+    private final DedupConfig config;
+    private final ObjectKeyConfig objectKeyConfig;
+    private final DedupChunkMapper dedupChunkMapper;
+    private final FileChunkManifestMapper manifestMapper;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final ObjectStorageService objectStorageService;
+    private final MeterRegistry registry;
+
+    public DedupChunkService(DedupConfig config,
+                             ObjectKeyConfig objectKeyConfig,
+                             DedupChunkMapper dedupChunkMapper,
+                             FileChunkManifestMapper manifestMapper,
+                             FileMetadataRepository fileMetadataRepository,
+                             ObjectStorageService objectStorageService,
+                             MeterRegistry registry) {
+        this.config = config;
+        this.objectKeyConfig = objectKeyConfig;
+        this.dedupChunkMapper = dedupChunkMapper;
+        this.manifestMapper = manifestMapper;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.objectStorageService = objectStorageService;
+        this.registry = registry;
+    }
+
+    /**
+     * 由块哈希推导块对象路径，按前两位分散到 256 个目录下。
+     */
+    public static String chunkObjectPath(String chunkHash) {
+        return CHUNK_PREFIX + chunkHash.substring(0, 2) + "/" + chunkHash;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 返回客户端分块所需的参数。
+     */
+    public DedupParamsDto params() {
+        return new DedupParamsDto(config.isEnabled(),
+                config.getMinChunkSize().toBytes(),
+                config.getAvgChunkSize().toBytes(),
+                config.getMaxChunkSize().toBytes());
+    }
+
+    /**
+     * 找出存储桶中已存在的块，并刷新它们的最后使用时间，避免在客户端提交清单前被回收。
+     *
+     * @param bucketName  存储桶名称。
+     * @param chunkHashes 客户端切出的块哈希，可以重复。
+     * @return 已存在的块哈希（去重后）。
+     */
+    public List<String> findExistingChunks(String bucketName, List<String> chunkHashes) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(chunkHashes));
+        if (distinct.size() > config.getMaxChunksPerFile()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST,
+                    String.format("块数 %d 超过上限 %d", distinct.size(), config.getMaxChunksPerFile()));
+        }
+        distinct.forEach(DedupChunkService::requireValidHash);
+
+        List<String> existing = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (List<String> batch : partition(distinct)) {
+            List<DedupChunk> found = dedupChunkMapper.selectList(new LambdaQueryWrapper<DedupChunk>()
+                    .select(DedupChunk::getChunkHash)
+                    .eq(DedupChunk::getBucketName, bucketName)
+                    .in(DedupChunk::getChunkHash, batch));
+            if (!found.isEmpty()) {
+                List<String> hashes = found.stream().map(DedupChunk::getChunkHash).toList();
+                touch(bucketName, hashes, now);
+                existing.addAll(hashes);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * 保存一个数据块。先按请求体校验 SHA-256，块已存在时只刷新最后使用时间。
+     *
+     * @param bucketName  存储桶名称。
+     * @param storageType 存储类型，仅用于指标标签。
+     * @param file        块内容。
+     * @param chunkHash   客户端声明的块哈希。
+     * @return {@code true} 表示新写入了对象，{@code false} 表示复用了已有的块。
+     */
+    public boolean storeChunk(String bucketName, StorageType storageType, MultipartFile file, String chunkHash) {
+        requireValidHash(chunkHash);
+        long size = file.getSize();
+        if (size <= 0 || size > config.getMaxChunkSize().toBytes()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST,
+                    String.format("块大小 %d 无效，必须在 1-%d 字节之间", size, config.getMaxChunkSize().toBytes()));
+        }
+        String actualHash = sha256Of(file);
+        if (!actualHash.equals(chunkHash)) {
+            log.warn("【去重上传 - {}】块哈希不匹配: 声明={}, 实际={}", storageType, chunkHash, actualHash);
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "块哈希不匹配");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (touch(bucketName, List.of(chunkHash), now) > 0) {
+            recordChunk(storageType, false, size);
+            return false;
+        }
+
+        try (InputStream inputStream = file.getInputStream()) {
+            objectStorageService.upload(bucketName, chunkObjectPath(chunkHash), inputStream, size,
+                    "application/octet-stream");
+        } catch (Exception e) {
+            log.error("【去重上传 - {}】写入数据块失败: {}", storageType, chunkHash, e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "写入数据块失败", e);
+        }
+
+        DedupChunk chunk = new DedupChunk();
+        chunk.setBucketName(bucketName);
+        chunk.setChunkHash(chunkHash);
+        chunk.setChunkSize(size);
+        chunk.setCreatedAt(now);
+        chunk.setLastSeenAt(now);
+        try {
+            dedupChunkMapper.insert(chunk);
+        } catch (DuplicateKeyException e) {
+            // 并发上传了同一个块，对象内容相同，保留先登记的记录即可
+            log.debug("【去重上传 - {}】数据块已由并发请求登记: {}", storageType, chunkHash);
+        }
+        recordChunk(storageType, true, size);
+        return true;
+    }
+
+    /**
+     * 提交文件的块清单并保存文件元数据。
+     * <p>
+     * 所有引用的块必须已经存在且大小一致、块大小之和必须等于文件大小。刷新块的最后使用时间会锁住这些块记录，
+     * 与回收任务的条件删除互斥：要么回收在前、这里发现块缺失而拒绝提交，要么回收看到新的时间而跳过。
+     *
+     * @return 文件元数据；文件已存在时直接返回已有的元数据。
+     */
+    @Transactional
+    public FileMetadata commit(String bucketName, StorageType storageType, DedupCommitRequestDto request) {
+        validateCommit(request);
+
+        Optional<FileMetadata> existing = fileMetadataRepository.findByHash(request.getFileHash(), storageType);
+        if (existing.isPresent()) {
+            log.info("【去重上传 - {}】文件已存在，直接返回: {}", storageType, request.getFileHash());
+            return existing.get();
+        }
+
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(
+                request.getChunks().stream().map(DedupCommitRequestDto.ChunkRef::getHash).toList()));
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> storedSizes = new HashMap<>(distinct.size() * 2);
+        for (List<String> batch : partition(distinct)) {
+            touch(bucketName, batch, now);
+            dedupChunkMapper.selectList(new LambdaQueryWrapper<DedupChunk>()
+                            .select(DedupChunk::getChunkHash, DedupChunk::getChunkSize)
+                            .eq(DedupChunk::getBucketName, bucketName)
+                            .in(DedupChunk::getChunkHash, batch))
+                    .forEach(chunk -> storedSizes.put(chunk.getChunkHash(), chunk.getChunkSize()));
+        }
+        long missing = distinct.stream().filter(hash -> !storedSizes.containsKey(hash)).count();
+        if (missing > 0) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, String.format("缺少 %d 个数据块，请先上传", missing));
+        }
+
+        List<FileChunkManifest> manifest = new ArrayList<>(request.getChunks().size());
+        long offset = 0;
+        for (DedupCommitRequestDto.ChunkRef ref : request.getChunks()) {
+            if (!storedSizes.get(ref.getHash()).equals(ref.getSize())) {
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "数据块大小不匹配: " + ref.getHash());
+            }
+            FileChunkManifest entry = new FileChunkManifest();
+            entry.setStorageType(storageType);
+            entry.setContentHash(request.getFileHash());
+            entry.setSeq(manifest.size());
+            entry.setChunkHash(ref.getHash());
+            entry.setChunkOffset(offset);
+            entry.setChunkSize(ref.getSize());
+            manifest.add(entry);
+            offset += ref.getSize();
+        }
+        // 清掉之前提交失败残留的清单
+        deleteManifest(storageType, request.getFileHash());
+        manifestMapper.insert(manifest);
+
+        FileMetadata metadata = new FileMetadata();
+        metadata.setFolderPath(request.getFolderPath());
+        metadata.setFilePath(FilePathUtil.buildFilePath(objectKeyConfig.getLayout(),
+                request.getFolderPath(), request.getFileHash(), request.getFileName()));
+        metadata.setOriginalFilename(request.getFileName());
+        metadata.setFileSize(request.getFileSize());
+        metadata.setContentType(request.getContentType());
+        metadata.setContentHash(request.getFileHash());
+        metadata.setContentLayout(ContentLayout.CDC);
+        metadata.setBucketName(bucketName);
+        metadata.setStorageType(storageType);
+        fileMetadataRepository.save(metadata);
+
+        log.info("【去重上传 - {}】块清单提交成功: 文件={}, 块数={}, 不同块数={}, 大小={}",
+                storageType, request.getFileHash(), manifest.size(), distinct.size(), request.getFileSize());
+        return metadata;
+    }
+
+    /**
+     * 按块清单打开 CDC 文件的输入流。
+     */
+    public InputStream openStream(FileMetadata metadata) {
+        List<String> paths = manifestMapper.selectList(new LambdaQueryWrapper<FileChunkManifest>()
+                        .select(FileChunkManifest::getChunkHash)
+                        .eq(FileChunkManifest::getStorageType, metadata.getStorageType())
+                        .eq(FileChunkManifest::getContentHash, metadata.getContentHash())
+                        .orderByAsc(FileChunkManifest::getSeq))
+                .stream()
+                .map(entry -> chunkObjectPath(entry.getChunkHash()))
+                .toList();
+        if (paths.isEmpty()) {
+            throw new BusinessException(ResultCode.FILE_NOT_EXIST, "文件块清单不存在");
+        }
+        return new ManifestInputStream(objectStorageService, metadata.getBucketName(), paths);
+    }
+
+    /**
+     * 删除文件的块清单。块本身由回收任务在宽限期后删除。
+     */
+    public void deleteManifest(StorageType storageType, String contentHash) {
+        manifestMapper.delete(new LambdaQueryWrapper<FileChunkManifest>()
+                .eq(FileChunkManifest::getStorageType, storageType)
+                .eq(FileChunkManifest::getContentHash, contentHash));
+    }
+
+    /**
+     * 在一条语句中删除多个文件的块清单。
+     */
+    public void deleteManifests(StorageType storageType, Collection<String> contentHashes) {
+        if (contentHashes.isEmpty()) {
+            return;
+        }
+        manifestMapper.delete(new LambdaQueryWrapper<FileChunkManifest>()
+                .eq(FileChunkManifest::getStorageType, storageType)
+                .in(FileChunkManifest::getContentHash, contentHashes));
+    }
+
+    /**
+     * 回收存储桶中超过宽限期且不被任何块清单引用的数据块：先按条件删除登记记录，再删除对象。
+     *
+     * @return 回收的块数。
+     */
+    public int collectGarbage(String bucketName, StorageType storageType) {
+        LocalDateTime seenBefore = LocalDateTime.now().minus(config.getGcGracePeriod());
+        int collected = 0;
+        while (true) {
+            List<DedupChunk> candidates = dedupChunkMapper.selectUnreferenced(
+                    bucketName, storageType.name(), seenBefore, QUERY_BATCH_SIZE);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            List<String> paths = new ArrayList<>(candidates.size());
+            for (DedupChunk chunk : candidates) {
+                // 条件删除：选出后又被 /upload/init 或提交刷新了时间的块会被跳过
+                int deleted = dedupChunkMapper.delete(new LambdaQueryWrapper<DedupChunk>()
+                        .eq(DedupChunk::getId, chunk.getId())
+                        .lt(DedupChunk::getLastSeenAt, seenBefore));
+                if (deleted > 0) {
+                    paths.add(chunkObjectPath(chunk.getChunkHash()));
+                }
+            }
+            try {
+                objectStorageService.delete(bucketName, paths);
+            } catch (Exception e) {
+                // 登记记录已删除，残留对象可由重新上传同一块覆盖
+                log.error("【定时任务】删除去重数据块对象失败: 存储桶={}, 数量={}", bucketName, paths.size(), e);
+            }
+            collected += paths.size();
+            if (candidates.size() < QUERY_BATCH_SIZE) {
+                break;
+            }
+        }
+        return collected;
+    }
+
+    private void validateCommit(DedupCommitRequestDto request) {
+        if (request.getFileHash() == null || request.getFileHash().isBlank()
+                || request.getFileName() == null || request.getFileName().isBlank()
+                || request.getFileSize() == null) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "文件名、哈希值和大小不能为空");
+        }
+        List<DedupCommitRequestDto.ChunkRef> chunks = request.getChunks();
+        if (chunks == null || chunks.isEmpty()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "块清单不能为空");
+        }
+        if (chunks.size() > config.getMaxChunksPerFile()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST,
+                    String.format("块数 %d 超过上限 %d", chunks.size(), config.getMaxChunksPerFile()));
+        }
+        long total = 0;
+        for (DedupCommitRequestDto.ChunkRef ref : chunks) {
+            requireValidHash(ref.getHash());
+            if (ref.getSize() == null || ref.getSize() <= 0) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "块大小无效: " + ref.getHash());
+            }
+            total += ref.getSize();
+        }
+        if (total != request.getFileSize()) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED,
+                    String.format("块大小之和 %d 与文件大小 %d 不一致", total, request.getFileSize()));
+        }
+    }
+
+    private int touch(String bucketName, List<String> chunkHashes, LocalDateTime now) {
+        return dedupChunkMapper.update(null, new LambdaUpdateWrapper<DedupChunk>()
+                .set(DedupChunk::getLastSeenAt, now)
+                .eq(DedupChunk::getBucketName, bucketName)
+                .in(DedupChunk::getChunkHash, chunkHashes));
+    }
+
+    private void recordChunk(StorageType storageType, boolean stored, long bytes) {
+        String reused = String.valueOf(!stored);
+        Counter.builder("upload.dedup.chunks")
+                .description("去重上传收到的数据块数，reused=true 表示块已存在、未重复写入")
+                .tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name())
+                .tag("reused", reused)
+                .register(registry)
+                .increment();
+        Counter.builder("upload.dedup.bytes")
+                .description("去重上传收到的数据块字节数")
+                .baseUnit("bytes")
+                .tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name())
+                .tag("reused", reused)
+                .register(registry)
+                .increment(bytes);
+    }
+
+    private static void requireValidHash(String chunkHash) {
+        if (chunkHash == null || !CHUNK_HASH_PATTERN.matcher(chunkHash).matches()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "块哈希必须是64位小写十六进制 SHA-256");
+        }
+    }
+
+    private static String sha256Of(MultipartFile file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "读取数据块失败", e);
+        }
+    }
+
+    private static List<List<String>> partition(List<String> values) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += QUERY_BATCH_SIZE) {
+            batches.add(values.subList(i, Math.min(values.size(), i + QUERY_BATCH_SIZE)));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.miniodemo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.search.FileNameSearchIndex;
+import org.example.miniodemo.config.SearchConfig;
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 文件名搜索服务。
+ * <p>
+ * MEMORY 模式下由 {@link FileNameSearchIndex} 给出排好序的文件ID，当前页再按主键回表取元数据，
+ * 回表时已不存在的文件直接跳过；FULLTEXT 模式下直接查询 MySQL 全文索引。两种方式都不扫描整张表。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileSearchService {
+
+    private final SearchConfig config;
+    private final FileNameSearchIndex index;
+    private final FileMetadataRepository fileMetadataRepository;
+
+    /**
+     * 应用启动完成后在后台按主键分页加载索引；加载期间的新增与删除直接作用于索引。
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        if (config.getMode() != SearchConfig.Mode.MEMORY) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        index.beginLoad();
+        try {
+            Long afterId = null;
+            while (true) {
+                List<FileMetadata> page = fileMetadataRepository.findSearchFields(afterId, config.getLoadBatchSize());
+                for (FileMetadata metadata : page) {
+                    index.load(metadata.getId(), metadata.getStorageType(),
+                            metadata.getOriginalFilename(), metadata.getFolderPath());
+                }
+                if (page.size() < config.getLoadBatchSize()) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("【文件搜索】索引加载失败，搜索结果将不完整", e);
+        } finally {
+            index.finishLoad();
+            log.info("【文件搜索】索引加载耗时 {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    /**
+     * 搜索文件名或目录路径。
+     *
+     * @param storageType 存储类型。
+     * @param query       查询串。
+     * @param page        页码，从 0 开始。
+     * @param size        每页条数。
+     * @return 一页搜索结果。
+     */
+    public SearchPage search(StorageType storageType, String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, config.getMaxPageSize()));
+        int offset = Math.max(0, page) * pageSize;
+
+        if (config.getMode() == SearchConfig.Mode.FULLTEXT) {
+            List<FileMetadata> rows = fileMetadataRepository.searchFullText(storageType, query, offset, pageSize + 1);
+            boolean hasMore = rows.size() > pageSize;
+            return new SearchPage(hasMore ? rows.subList(0, pageSize) : rows, null, hasMore, false);
+        }
+
+        FileNameSearchIndex.Hits hits = index.search(storageType, query, config.getMaxCandidates());
+        List<Long> ids = hits.ids();
+        int from = Math.min(offset, ids.size());
+        int to = Math.min(from + pageSize, ids.size());
+        List<Long> pageIds = ids.subList(from, to);
+        Map<Long, FileMetadata> byId = fileMetadataRepository.findByIds(pageIds).stream()
+                .filter(metadata -> metadata.getStorageType() == storageType)
+                .collect(Collectors.toMap(FileMetadata::getId, Function.identity()));
+        List<FileMetadata> files = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            FileMetadata metadata = byId.get(id);
+            if (metadata != null) {
+                files.add(metadata);
+            }
+        }
+        return new SearchPage(files, ids.size(), to < ids.size(), hits.truncated() || !index.isReady());
+    }
+
+    /**
+     * 一页搜索结果。
+     *
+     * @param files     当前页的文件元数据，按相关度排序。
+     * @param total     命中总数；FULLTEXT 模式下为 {@code null}。
+     * @param hasMore   是否还有下一页。
+     * @param truncated 结果是否不完整（候选数达到上限，或索引仍在加载）。
+     */
+    public record SearchPage(List<FileMetadata> files, Integer total, boolean hasMore, boolean truncated) {
+    }
+}
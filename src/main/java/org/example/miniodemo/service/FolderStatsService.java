@@ -0,0 +1,125 @@
+package org.example.miniodemo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.util.FolderPathUtil;
+import org.example.miniodemo.domain.FolderStats;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.repository.FolderStatsRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 虚拟目录统计回填服务。
+ * <p>
+ * 目录统计随元数据的写入增量维护，但引入 {@code folder_stats} 之前已有的文件没有统计。
+ * 应用启动完成时若还没有回填标记，按原始目录路径分组聚合一次（分组数远小于文件数），在内存中累加到各级上级目录，
+ * 与同一快照中已有的统计行对账，只把差额作为增量累加上去。回填期间并发写入的增量不在快照中，差额也不包含它们，
+ * 因此不会重复计数；唯一键冲突由 upsert 吸收。回填标记与差额在同一事务内写入，
+ * 多个节点同时启动时只有插入标记成功的节点回填，回填失败回滚后标记随之撤销，下次启动重试。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FolderStatsService {
+
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FolderStatsRepository folderStatsRepository;
+
+    /**
+     * 应用启动完成后检查并回填目录统计。可重复读隔离级别保证聚合与已有统计取自同一快照。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void backfillIfNeeded() {
+        Date now = new Date();
+        if (!folderStatsRepository.markBackfilled(now)) {
+            return;
+        }
+        List<FolderStats> aggregates = fileMetadataRepository.aggregateByFolder();
+
+        Map<String, FolderStats> expected = new LinkedHashMap<>();
+        for (FolderStats aggregate : aggregates) {
+            StorageType storageType = aggregate.getStorageType();
+            String folderPath = FolderPathUtil.normalize(aggregate.getFolderPath());
+            String parentHash = null;
+            for (String path : FolderPathUtil.selfAndAncestors(folderPath)) {
+                String pathHash = FolderPathUtil.sha256Hex(path);
+                // 与增量维护一致，根目录行只累加直接位于根目录的文件
+                if (!path.isEmpty() || folderPath.isEmpty()) {
+                    FolderStats folder = expected.computeIfAbsent(keyOf(storageType, pathHash),
+                            key -> emptyRow(storageType, path, pathHash));
+                    folder.setParentPathHash(parentHash);
+                    folder.setFileCount(folder.getFileCount() + aggregate.getFileCount());
+                    folder.setTotalBytes(folder.getTotalBytes() + (aggregate.getTotalBytes() == null ? 0 : aggregate.getTotalBytes()));
+                    folder.setLastModified(later(folder.getLastModified(), aggregate.getLastModified()));
+                }
+                parentHash = pathHash;
+            }
+        }
+
+        Map<String, FolderStats> current = new HashMap<>();
+        for (FolderStats row : folderStatsRepository.findAll()) {
+            current.put(keyOf(row.getStorageType(), row.getFolderPathHash()), row);
+        }
+        int adjusted = 0;
+        for (FolderStats folder : expected.values()) {
+            FolderStats row = current.remove(keyOf(folder.getStorageType(), folder.getFolderPathHash()));
+            if (row != null) {
+                folder.setFileCount(folder.getFileCount() - row.getFileCount());
+                folder.setTotalBytes(folder.getTotalBytes() - row.getTotalBytes());
+                folder.setLastModified(later(folder.getLastModified(), row.getLastModified()));
+            }
+            adjusted += applyIfChanged(folder, now);
+        }
+        // 快照中有统计、元数据中却没有文件的目录，整行抵消
+        for (FolderStats row : current.values()) {
+            row.setFileCount(-row.getFileCount());
+            row.setTotalBytes(-row.getTotalBytes());
+            adjusted += applyIfChanged(row, now);
+        }
+        log.info("【目录统计】回填完成: 原始目录数={}, 调整的目录统计行数={}", aggregates.size(), adjusted);
+    }
+
+    private int applyIfChanged(FolderStats delta, Date now) {
+        if (delta.getFileCount() == 0 && delta.getTotalBytes() == 0) {
+            return 0;
+        }
+        if (delta.getLastModified() == null) {
+            delta.setLastModified(now);
+        }
+        folderStatsRepository.applyDelta(delta);
+        return 1;
+    }
+
+    private static FolderStats emptyRow(StorageType storageType, String path, String pathHash) {
+        FolderStats created = new FolderStats();
+        created.setStorageType(storageType);
+        created.setFolderPath(path);
+        created.setFolderPathHash(pathHash);
+        created.setFileCount(0L);
+        created.setTotalBytes(0L);
+        return created;
+    }
+
+    private static String keyOf(StorageType storageType, String pathHash) {
+        return storageType + ":" + pathHash;
+    }
+
+    private static Date later(Date a, Date b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.after(b) ? a : b;
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.miniodemo.service;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.config.MetadataWriterConfig;
+import org.example.miniodemo.domain.ContentLayout;
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件元数据合并写入器。
+ * <p>
+ * 合并完成与直接上传产生的元数据先进入队列，由单个写入线程凑满 {@code max-batch-size} 条或等待
+ * {@code max-delay} 后，在一个事务内以 JDBC 批处理写入。批量大量小文件时，事务与提交次数从每个文件一次降为每批一次。
+ * 整批失败（例如某一条违反唯一约束）时回滚，再逐条以独立事务重试，只有出错的那一条失败。
+ * <p>
+ * 提交方通过返回的 {@link CompletableFuture} 得知各自的结果，完成时元数据已提交并回填主键。
+ * 多集群存储时，提交方线程在入队前记下文件内容所在的集群。
+ */
+@Slf4j
+@Service
+public class MetadataBatchWriter {
+
+    /**
+     * 写入线程空闲时检查停止标志的间隔（毫秒）
+     */
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    private final FileMetadataRepository fileMetadataRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MetadataWriterConfig config;
+    private final UploadMetrics uploadMetrics;
+    private final ObjectStorageService objectStorageService;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    public MetadataBatchWriter(FileMetadataRepository fileMetadataRepository, TransactionTemplate transactionTemplate,
+                               MetadataWriterConfig config, UploadMetrics uploadMetrics,
+                               ObjectStorageService objectStorageService) {
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+        this.uploadMetrics = uploadMetrics;
+        this.objectStorageService = objectStorageService;
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+        this.writerThread = Thread.ofPlatform().name("metadata-batch-writer").daemon().unstarted(this::runWriter);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (config.isEnabled()) {
+            running = true;
+            writerThread.start();
+            log.info("【元数据写入】已启用合并写入: 批次上限={}, 最长等待={}", config.getMaxBatchSize(), config.getMaxDelay());
+        }
+    }
+
+    /**
+     * 停止接收新的批次，写完队列中剩余的元数据后退出。
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * 提交一条待保存的元数据。
+     *
+     * @param metadata 尚未持久化的元数据。
+     * @return 元数据提交后完成；保存失败时以异常完成。
+     */
+    public CompletableFuture<FileMetadata> submit(FileMetadata metadata) {
+        recordCluster(metadata);
+        if (!running) {
+            // 未启用或正在停止：在调用线程中直接写入
+            return saveNow(metadata);
+        }
+        PendingWrite pending = new PendingWrite(metadata, new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        // 入队期间写入线程已退出时，自行取回写入
+        if (!writerThread.isAlive() && queue.remove(pending)) {
+            return saveNow(metadata);
+        }
+        return pending.future();
+    }
+
+    /**
+     * 记下文件内容所在的集群，查询失败时留空，由后台搬迁任务在移动或核对对象时补上。
+     * CDC 文件的内容分散在各个块中，不记录集群。
+     */
+    private void recordCluster(FileMetadata metadata) {
+        if (metadata.getClusterId() != null || metadata.getContentLayout() == ContentLayout.CDC) {
+            return;
+        }
+        String objectKey = FilePathUtil.objectKeyOf(metadata);
+        try {
+            metadata.setClusterId(objectStorageService.clusterOf(metadata.getBucketName(), objectKey));
+        } catch (Exception e) {
+            log.warn("【元数据写入】查询文件所在集群失败，集群留空: 存储桶={}, 路径={}", metadata.getBucketName(), objectKey, e);
+        }
+    }
+
+    private CompletableFuture<FileMetadata> saveNow(FileMetadata metadata) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> fileMetadataRepository.save(metadata));
+            return CompletableFuture.completedFuture(metadata);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void runWriter() {
+        int maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        long maxDelayNanos = config.getMaxDelay().toNanos();
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    // 先取走已在排队的，队列为空时才等待到截止时间
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+                return;
+            } catch (Throwable t) {
+                log.error("【元数据写入】写入线程异常，本批次 {} 条元数据写入失败", batch.size(), t);
+                batch.forEach(pending -> pending.future().completeExceptionally(t));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在一个事务内写入整批；失败时回滚并逐条重试。
+     */
+    private void flush(List<PendingWrite> batch) {
+        List<FileMetadata> rows = batch.stream().map(PendingWrite::metadata).toList();
+        Timer.Sample sample = uploadMetrics.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> fileMetadataRepository.saveAll(rows));
+            uploadMetrics.recordMetadataBatch(sample, rows.size(), ResultCode.SUCCESS);
+            batch.forEach(pending -> pending.future().complete(pending.metadata()));
+            log.debug("【元数据写入】批量写入成功: 条数={}", rows.size());
+            return;
+        } catch (Exception e) {
+            uploadMetrics.recordMetadataBatch(sample, rows.size(), UploadMetrics.outcomeOf(e));
+            // 回滚的批次可能已回填主键，提交方重试或逐条写入前需清除
+            rows.forEach(metadata -> metadata.setId(null));
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(e);
+                return;
+            }
+            log.warn("【元数据写入】批量写入失败，改为逐条写入: 条数={}, 错误={}", rows.size(), e.getMessage());
+        }
+
+        for (PendingWrite pending : batch) {
+            FileMetadata metadata = pending.metadata();
+            saveNow(metadata).whenComplete((saved, error) -> {
+                if (error == null) {
+                    pending.future().complete(saved);
+                } else {
+                    pending.future().completeExceptionally(error);
+                }
+            });
+        }
+    }
+
+    private record PendingWrite(FileMetadata metadata, CompletableFuture<FileMetadata> future) {
+    }
+}
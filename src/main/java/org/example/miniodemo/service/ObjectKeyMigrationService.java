@@ -0,0 +1,125 @@
+package org.example.miniodemo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.config.ObjectKeyConfig;
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 对象路径迁移服务：把按日期组织的已有单对象文件改写到按哈希分片的布局。
+ * <p>
+ * 每个文件依次服务端复制到新路径、用一条带条件的 UPDATE 切换 file_path、删除旧对象。
+ * 复制期间文件被删除或被冷热分层移到其他存储桶时条件不成立，新副本留给孤儿文件清理任务删除；
+ * 进程在切换前后中断遗留的副本同样没有元数据引用，由孤儿文件清理任务在超过
+ * {@code storage.tiering.stale-move-timeout} 后删除。
+ * <p>
+ * 共享对象与 CDC 文件的 file_path 只用于标识，不对应实际对象，不参与迁移。
+ * <p>
+ * 指标：{@code storage.object-key.migrations}（{@code outcome} 标签）。
+ */
+@Slf4j
+@Service
+public class ObjectKeyMigrationService {
+
+    private final ObjectKeyConfig config;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final ObjectStorageService objectStorageService;
+    private final MeterRegistry registry;
+
+    /**
+     * 上一次任务停止处的主键ID，下一次从这里继续，失败的文件不会反复占用单次上限；扫描到末尾后从头开始。
+     */
+    private volatile Long resumeAfterId;
+
+    public ObjectKeyMigrationService(ObjectKeyConfig config,
+                                     FileMetadataRepository fileMetadataRepository,
+                                     ObjectStorageService objectStorageService,
+                                     MeterRegistry registry) {
+        this.config = config;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.objectStorageService = objectStorageService;
+        this.registry = registry;
+    }
+
+    public boolean isEnabled() {
+        return config.getLayout() == ObjectKeyConfig.Layout.HASH_SHARDED && config.isMigrateExisting();
+    }
+
+    /**
+     * 执行一次迁移：从上次停止处按主键顺序找出旧布局的单对象文件并逐个迁移，直到没有候选或达到单次上限。
+     *
+     * @return 本次迁移的文件数。
+     */
+    public int migrateLegacyKeys() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        int migrated = 0;
+        int failed = 0;
+        Long afterId = resumeAfterId;
+        while (migrated + failed < config.getMaxMigrationsPerRun()) {
+            int limit = config.getMigrationBatchSize();
+            List<FileMetadata> candidates = fileMetadataRepository.findLegacyObjectKeys(afterId, limit);
+            for (FileMetadata candidate : candidates) {
+                afterId = candidate.getId();
+                if (FilePathUtil.isHashShardedPath(candidate.getFilePath()) || candidate.getContentHash() == null) {
+                    continue;
+                }
+                if (migrate(candidate)) {
+                    migrated++;
+                } else {
+                    failed++;
+                }
+            }
+            if (candidates.size() < limit) {
+                afterId = null;
+                break;
+            }
+        }
+        resumeAfterId = afterId;
+        log.info("【对象路径迁移】迁移完成: 文件数={}, 失败={}", migrated, failed);
+        return migrated;
+    }
+
+    /**
+     * 迁移一个文件：服务端复制、条件切换元数据、删除旧对象。
+     */
+    private boolean migrate(FileMetadata metadata) {
+        String bucketName = metadata.getBucketName();
+        String fromPath = metadata.getFilePath();
+        String toPath = FilePathUtil.buildHashShardedPath(
+                metadata.getFolderPath(), metadata.getContentHash(), metadata.getOriginalFilename());
+
+        boolean switched = false;
+        try {
+            objectStorageService.copy(bucketName, fromPath, bucketName, toPath);
+            switched = fileMetadataRepository.switchFilePath(metadata.getId(), bucketName, fromPath, toPath);
+        } catch (Exception e) {
+            log.error("【对象路径迁移】迁移文件失败: 存储桶={}, 路径={} -> {}", bucketName, fromPath, toPath, e);
+        }
+
+        // 未切换时新路径上可能是其他文件元数据引用的对象，不在此删除
+        if (switched) {
+            try {
+                objectStorageService.delete(bucketName, fromPath);
+            } catch (Exception e) {
+                log.warn("【对象路径迁移】删除旧对象失败，留给孤儿文件清理任务: 存储桶={}, 路径={}", bucketName, fromPath, e);
+            }
+            log.debug("【对象路径迁移】文件已迁移: 存储桶={}, 路径={} -> {}", bucketName, fromPath, toPath);
+        }
+
+        Counter.builder("storage.object-key.migrations")
+                .description("对象路径迁移的文件数，SKIPPED 表示复制失败或期间文件被删除、移动")
+                .tag("outcome", switched ? "MIGRATED" : "SKIPPED")
+                .register(registry)
+                .increment();
+        return switched;
+    }
+}
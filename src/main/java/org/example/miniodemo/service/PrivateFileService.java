@@ -1,9 +1,12 @@
 package org.example.miniodemo.service;
 
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.dto.DedupCommitRequestDto;
+import org.example.miniodemo.dto.DedupParamsDto;
 import org.example.miniodemo.dto.FileDetailDto;
+import org.example.miniodemo.dto.FileDownloadDto;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
 import java.util.List;
 
 public interface PrivateFileService extends AbstractChunkedFile {
@@ -11,9 +14,21 @@ public interface PrivateFileService extends AbstractChunkedFile {
     //列出私有存储桶中所有最终合并完成的文件。
     List<FileDetailDto> listPrivateFiles();
 
+    // 获取私有文件列表的当前版本（强ETag），列表内容或其中的预签名URL变化后随之改变。
+    String getListVersion();
+
     // 获取私有文件的预签名下载URL（推荐的下载方式）。
     String getPresignedPrivateDownloadUrl(String objectName) ;
 
-    // 获取用于代理下载的私有文件输入流。
-    InputStream downloadPrivateFile(String filePath);
+    // 获取用于代理下载的私有文件内容流；客户端接受文件的存储编码时直接返回压缩字节，否则边读边解压。
+    FileDownloadDto downloadPrivateFile(String filePath, String acceptEncoding);
+
+    // 获取 CDC 去重上传的分块参数。
+    DedupParamsDto getDedupParams();
+
+    // 上传一个去重数据块，返回是否新写入了对象。
+    boolean uploadDedupChunk(MultipartFile file, String chunkHash);
+
+    // 提交去重上传的块清单。
+    FileMetadata commitDedupUpload(DedupCommitRequestDto commitRequest);
 }
@@ -25,4 +25,7 @@ public interface PublicAssetService extends AbstractChunkedFile{
 
     // 获取公共存储桶中所有文件的列表。
     List<FileDetailDto> listPublicFiles();
+
+    // 获取公共文件列表的当前版本（强ETag），列表内容变化后随之改变。
+    String getListVersion();
 }
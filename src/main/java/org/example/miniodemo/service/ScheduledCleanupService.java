@@ -1,19 +1,30 @@
 package org.example.miniodemo.service;
 
 import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.common.response.ResultCode;
 import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.config.ObjectKeyConfig;
+import org.example.miniodemo.config.TieringConfig;
+import org.example.miniodemo.domain.FileMetadata;
 import org.example.miniodemo.domain.StorageObject;
 import org.example.miniodemo.domain.StorageType;
 import org.example.miniodemo.common.util.FilePathUtil;
 import org.example.miniodemo.repository.FileMetadataRepository;
-import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.example.miniodemo.service.storage.AsyncObjectStorageService;
 import org.example.miniodemo.service.ChunkUploadSessionService;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 后台定时任务服务，用于执行周期性的清理和维护操作。
@@ -23,60 +34,242 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ScheduledCleanupService {
 
-    private final ObjectStorageService objectStorageService;
+    private final AsyncObjectStorageService asyncObjectStorageService;
     private final FileMetadataRepository fileMetadataRepository;
     private final MinioBucketConfig bucketConfig;
     private final ChunkUploadSessionService sessionService;
+    private final UploadMetrics uploadMetrics;
+    private final DedupChunkService dedupChunkService;
+    private final BlobStoreService blobStoreService;
+    private final StorageTieringService storageTieringService;
+    private final TieringConfig tieringConfig;
+    private final ObjectKeyConfig objectKeyConfig;
+    private final ObjectKeyMigrationService objectKeyMigrationService;
+    private final StorageRebalanceService storageRebalanceService;
 
     /**
      * 定时清理MinIO中的孤儿文件。
      * <p>
      * “孤儿文件”是指在对象存储中存在，但在数据库中没有对应元数据记录的文件。
-     * 这种情况可能在文件合并成功后，数据库写入失败时发生。
+     * 这种情况可能在文件合并成功后，数据库写入失败时发生。同一哈希有元数据、但没有任何元数据引用该对象路径，
+     * 且超过 {@code storage.tiering.stale-move-timeout} 的对象是冷热分层或对象路径迁移中断后遗留的副本，同样视为孤儿文件。
      * <p>
-     * 此任务每一小时执行一次。
+     * 各存储桶先列举顶级前缀，再按前缀分片扫描，同时列举 {@code upload.object-key.cleanup-parallelism} 个前缀，
+     * 内存中只保留这些前缀的列举结果；按哈希分片的布局下各前缀的对象数大致相同。去重数据块、共享对象与上传分片的前缀整体跳过；
+     * 旧布局下的上传分片（{@code {sessionId}/{chunkNumber}}）逐个跳过，分片随会话过期清理。
+     * 发现的孤儿文件按批并发删除。此任务每一小时执行一次。
      */
     @Scheduled(cron = "${minio.cleanup-cron}") // 每小时执行一次
     public void cleanupOrphanMinioFiles() {
         log.info("【定时任务】开始执行MinIO孤儿文件清理任务...");
-        Map<String, StorageType> bucketsToScan = Map.of(
-                bucketConfig.getPublicAssets(), StorageType.PUBLIC,
-                bucketConfig.getPrivateFiles(), StorageType.PRIVATE
-        );
+        Map<String, StorageType> bucketsToScan = new LinkedHashMap<>();
+        bucketsToScan.put(bucketConfig.getPublicAssets(), StorageType.PUBLIC);
+        bucketsToScan.put(bucketConfig.getPrivateFiles(), StorageType.PRIVATE);
+        if (tieringConfig.isEnabled()) {
+            bucketsToScan.put(tieringConfig.getColdBucket(), StorageType.PRIVATE);
+        }
+        ZonedDateTime staleCopyBefore = ZonedDateTime.now().minus(tieringConfig.getStaleMoveTimeout());
+        int parallelism = Math.max(1, objectKeyConfig.getCleanupParallelism());
+
+        // 先并发发出所有存储桶的顶级列举请求
+        Map<String, CompletableFuture<List<StorageObject>>> topLevels = new LinkedHashMap<>();
+        Map<String, Timer.Sample> samples = new LinkedHashMap<>();
+        for (String bucketName : bucketsToScan.keySet()) {
+            log.info("【定时任务】正在扫描存储桶: '{}' (类型: {})", bucketName, bucketsToScan.get(bucketName));
+            samples.put(bucketName, uploadMetrics.start());
+            topLevels.put(bucketName, asyncObjectStorageService.listObjects(bucketName, "", false));
+        }
 
         for (Map.Entry<String, StorageType> entry : bucketsToScan.entrySet()) {
             String bucketName = entry.getKey();
             StorageType storageType = entry.getValue();
-            log.info("【定时任务】正在扫描存储桶: '{}' (类型: {})", bucketName, storageType);
 
+            ResultCode outcome = ResultCode.SUCCESS;
+            long scanned = 0;
+            long deleted = 0;
             try {
-                List<StorageObject> objects = objectStorageService.listObjects(bucketName, "", true);
-                for (StorageObject object : objects) {
+                List<StorageObject> rootObjects = new ArrayList<>();
+                List<String> prefixes = new ArrayList<>();
+                for (StorageObject object : topLevels.get(bucketName).join()) {
                     String objectName = object.getFilePath();
-                    // 尝试从路径中提取哈希。如果能提取到，说明它是一个本应有元数据的最终文件。
-                    String hash = FilePathUtil.extractHashFromPath(objectName);
-
-                    if (hash != null) {
-                        // 检查数据库中是否存在对应的元数据
-                        boolean metadataExists = fileMetadataRepository.findByHash(hash, storageType).isPresent();
-                        if (!metadataExists) {
-                            log.warn("【定时任务】发现孤儿文件！准备删除。存储桶: '{}', 对象: '{}'", bucketName, objectName);
-                            try {
-                                objectStorageService.delete(bucketName, objectName);
-                                log.info("【定时任务】成功删除孤儿文件: '{}'", objectName);
-                            } catch (Exception e) {
-                                log.error("【定时任务】删除孤儿文件 '{}' 失败。", objectName, e);
-                            }
-                        }
+                    if (!objectName.endsWith("/")) {
+                        rootObjects.add(object);
+                    } else if (!objectName.equals(DedupChunkService.CHUNK_PREFIX)
+                            && !objectName.equals(FilePathUtil.BLOB_PREFIX)
+                            && !objectName.equals(FilePathUtil.PART_PREFIX)) {
+                        prefixes.add(objectName);
+                    }
+                }
+                scanned += rootObjects.size();
+                deleted += deleteOrphans(bucketName, storageType, rootObjects, staleCopyBefore);
+
+                for (int from = 0; from < prefixes.size(); from += parallelism) {
+                    List<CompletableFuture<List<StorageObject>>> listings = prefixes
+                            .subList(from, Math.min(from + parallelism, prefixes.size())).stream()
+                            .map(prefix -> asyncObjectStorageService.listObjects(bucketName, prefix, true))
+                            .toList();
+                    for (CompletableFuture<List<StorageObject>> listing : listings) {
+                        List<StorageObject> objects = listing.join();
+                        scanned += objects.size();
+                        deleted += deleteOrphans(bucketName, storageType, objects, staleCopyBefore);
                     }
                 }
+                log.info("【定时任务】存储桶 '{}' 扫描完成: 前缀数={}, 扫描={}, 删除孤儿文件={}",
+                        bucketName, prefixes.size(), scanned, deleted);
             } catch (Exception e) {
+                outcome = UploadMetrics.outcomeOf(e);
                 log.error("【定时任务】扫描存储桶 '{}' 时发生错误。", bucketName, e);
+            } finally {
+                uploadMetrics.recordCleanupScan(samples.get(bucketName), storageType, outcome, scanned, deleted);
             }
         }
         log.info("【定时任务】MinIO孤儿文件清理任务执行完毕。");
     }
 
+    /**
+     * 找出一批对象中的孤儿文件并按批删除。
+     *
+     * @return 删除成功的孤儿文件数。
+     */
+    private int deleteOrphans(String bucketName, StorageType storageType, List<StorageObject> objects,
+                              ZonedDateTime staleCopyBefore) {
+        List<String> orphans = new ArrayList<>();
+        for (StorageObject object : objects) {
+            String objectName = object.getFilePath();
+            // 去重数据块与共享对象按引用关系单独回收，不按文件哈希判断
+            if (objectName.startsWith(DedupChunkService.CHUNK_PREFIX)
+                    || objectName.startsWith(FilePathUtil.BLOB_PREFIX)) {
+                continue;
+            }
+            // 上传分片在合并前没有元数据，随会话过期清理，不能按孤儿文件删除
+            if (FilePathUtil.isChunkObject(objectName)) {
+                continue;
+            }
+            // 尝试从路径中提取哈希。如果能提取到，说明它是一个本应有元数据的最终文件。
+            String hash = FilePathUtil.extractHashFromPath(objectName);
+            if (hash == null) {
+                continue;
+            }
+            // 检查数据库中是否存在对应的元数据，以及是否有元数据引用本存储桶中的这个对象路径
+            Optional<FileMetadata> metadata = fileMetadataRepository.findByHash(hash, storageType);
+            if (metadata.isEmpty()) {
+                log.warn("【定时任务】发现孤儿文件！准备删除。存储桶: '{}', 对象: '{}'", bucketName, objectName);
+                orphans.add(objectName);
+            } else if (object.getLastModified() != null
+                    && object.getLastModified().isBefore(staleCopyBefore)
+                    && !fileMetadataRepository.existsByPath(bucketName, objectName)) {
+                log.warn("【定时任务】发现无元数据引用的遗留副本！准备删除。存储桶: '{}', 对象: '{}', 元数据所在存储桶: '{}'",
+                        bucketName, objectName, metadata.get().getBucketName());
+                orphans.add(objectName);
+            }
+        }
+        if (orphans.isEmpty()) {
+            return 0;
+        }
+
+        List<String> failed = asyncObjectStorageService.delete(bucketName, orphans).join();
+        if (!failed.isEmpty()) {
+            log.error("【定时任务】存储桶 '{}' 中有 {} 个孤儿文件删除失败: {}", bucketName, failed.size(), failed);
+        }
+        return orphans.size() - failed.size();
+    }
+
+    /**
+     * 定时回收不再被任何文件块清单引用的去重数据块。
+     * <p>
+     * 块在最后一次被上传或被 {@code /upload/init} 报告为已存在之后，至少保留 {@code upload.dedup.gc-grace-period}，
+     * 避免删掉客户端正准备提交清单的块。未开启去重模式时也会执行，以回收关闭前遗留的块。
+     */
+    @Scheduled(cron = "${minio.cleanup-cron}")
+    public void cleanupUnreferencedDedupChunks() {
+        Map<String, StorageType> buckets = Map.of(
+                bucketConfig.getPublicAssets(), StorageType.PUBLIC,
+                bucketConfig.getPrivateFiles(), StorageType.PRIVATE
+        );
+        for (Map.Entry<String, StorageType> entry : buckets.entrySet()) {
+            try {
+                int collected = dedupChunkService.collectGarbage(entry.getKey(), entry.getValue());
+                if (collected > 0) {
+                    log.info("【定时任务】存储桶 '{}' 回收去重数据块 {} 个", entry.getKey(), collected);
+                }
+            } catch (Exception e) {
+                log.error("【定时任务】回收存储桶 '{}' 的去重数据块失败。", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * 定时回收引用数为 0 的共享对象。
+     * <p>
+     * 引用数降为 0 后至少保留 {@code upload.blob-store.gc-grace-period}，期间重新上传同一内容可直接复用。
+     * 未开启共享对象存储时也会执行，以回收关闭前遗留的对象。
+     */
+    @Scheduled(cron = "${minio.cleanup-cron}")
+    public void cleanupUnreferencedBlobs() {
+        try {
+            int collected = blobStoreService.collectGarbage();
+            if (collected > 0) {
+                log.info("【定时任务】回收共享对象 {} 个", collected);
+            }
+        } catch (Exception e) {
+            log.error("【定时任务】回收共享对象失败。", e);
+        }
+    }
+
+    /**
+     * 定时执行私有文件冷热分层：收尾中断的移动，再把超过 {@code storage.tiering.cold-after} 未被访问的文件移到冷存储桶。
+     * 移动数与复制带宽受配置限制，未开启分层时不执行。
+     */
+    @Scheduled(cron = "${storage.tiering.cron}")
+    public void tierColdFiles() {
+        if (!storageTieringService.isEnabled()) {
+            return;
+        }
+        log.info("【定时任务】开始执行冷热分层任务...");
+        try {
+            int moved = storageTieringService.demoteColdFiles();
+            log.info("【定时任务】冷热分层任务执行完毕，降冷文件 {} 个。", moved);
+        } catch (Exception e) {
+            log.error("【定时任务】冷热分层任务执行失败。", e);
+        }
+    }
+
+    /**
+     * 定时把按日期组织的已有单对象文件迁移到按哈希分片的布局。单次迁移数受配置限制，
+     * 布局不是 {@code HASH_SHARDED} 或未开启 {@code upload.object-key.migrate-existing} 时不执行。
+     */
+    @Scheduled(cron = "${upload.object-key.migration-cron}")
+    public void migrateLegacyObjectKeys() {
+        if (!objectKeyMigrationService.isEnabled()) {
+            return;
+        }
+        log.info("【定时任务】开始执行对象路径迁移任务...");
+        try {
+            int migrated = objectKeyMigrationService.migrateLegacyKeys();
+            log.info("【定时任务】对象路径迁移任务执行完毕，迁移文件 {} 个。", migrated);
+        } catch (Exception e) {
+            log.error("【定时任务】对象路径迁移任务执行失败。", e);
+        }
+    }
+
+    /**
+     * 定时把多集群存储中不在归属集群的对象移过去。单次移动数受配置限制，
+     * 未使用多集群存储或未开启 {@code storage.cluster.rebalance-enabled} 时不执行。
+     */
+    @Scheduled(cron = "${storage.cluster.rebalance-cron}")
+    public void rebalanceStorageClusters() {
+        if (!storageRebalanceService.isEnabled()) {
+            return;
+        }
+        log.info("【定时任务】开始执行多集群搬迁任务...");
+        try {
+            int moved = storageRebalanceService.rebalance();
+            log.info("【定时任务】多集群搬迁任务执行完毕，移动对象 {} 个。", moved);
+        } catch (Exception e) {
+            log.error("【定时任务】多集群搬迁任务执行失败。", e);
+        }
+    }
+
     /**
      * 定时清理过期的分片上传会话（数据库记录）。
      * <p>
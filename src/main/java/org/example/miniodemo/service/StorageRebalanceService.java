@@ -0,0 +1,167 @@
+package org.example.miniodemo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.config.StorageClusterConfig;
+import org.example.miniodemo.config.TieringConfig;
+import org.example.miniodemo.domain.StorageObject;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.example.miniodemo.service.storage.RoutingObjectStorageService;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 多集群存储的后台搬迁服务：把不在一致性哈希环上归属集群的对象移过去。
+ * <p>
+ * 新增集群或调整权重后，环上归属变化的对象仍留在原集群，读取经回退访问原集群。本任务逐个集群、逐个存储桶列举对象，
+ * 对每个归属已变化的对象依次：流式复制到归属集群、更新文件元数据记录的集群、删除原集群上的对象。
+ * 中断后两个集群上都有副本，读取与删除都不受影响，下一次任务会跳过复制直接完成切换。
+ * 最后修改时间晚于 {@code storage.cluster.min-object-age} 的对象不移动，以免移走正在合并的文件。
+ * 上传分片不移动：合并在第一个分片所在的集群上进行，单次上限可能在一个会话的分片中途截断，分开移动会使合并找不到其余分片；
+ * 分片在合并后即被删除，过期会话的分片由清理任务删除，不需要搬迁。
+ * <p>
+ * 指标：{@code storage.cluster.rebalance.moves}（{@code outcome} 标签）、{@code storage.cluster.rebalance.bytes}。
+ */
+@Slf4j
+@Service
+public class StorageRebalanceService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final StorageClusterConfig config;
+    private final MinioBucketConfig bucketConfig;
+    private final TieringConfig tieringConfig;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final ObjectStorageService objectStorageService;
+    private final MeterRegistry registry;
+
+    public StorageRebalanceService(StorageClusterConfig config,
+                                   MinioBucketConfig bucketConfig,
+                                   TieringConfig tieringConfig,
+                                   FileMetadataRepository fileMetadataRepository,
+                                   ObjectStorageService objectStorageService,
+                                   MeterRegistry registry) {
+        this.config = config;
+        this.bucketConfig = bucketConfig;
+        this.tieringConfig = tieringConfig;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.objectStorageService = objectStorageService;
+        this.registry = registry;
+    }
+
+    public boolean isEnabled() {
+        return objectStorageService instanceof RoutingObjectStorageService && config.isRebalanceEnabled();
+    }
+
+    /**
+     * 执行一次搬迁，直到所有集群扫描完毕或达到单次上限。
+     *
+     * @return 本次移动的对象数。
+     */
+    public int rebalance() throws Exception {
+        if (!isEnabled()) {
+            return 0;
+        }
+        RoutingObjectStorageService router = (RoutingObjectStorageService) objectStorageService;
+        List<String> buckets = new ArrayList<>(List.of(bucketConfig.getPublicAssets(), bucketConfig.getPrivateFiles()));
+        if (tieringConfig.isEnabled()) {
+            buckets.add(tieringConfig.getColdBucket());
+        }
+        ZonedDateTime movableBefore = ZonedDateTime.now().minus(config.getMinObjectAge());
+
+        int moved = 0;
+        int failed = 0;
+        for (String clusterId : router.clusterIds()) {
+            ObjectStorageService cluster = router.cluster(clusterId);
+            for (String bucketName : buckets) {
+                // 先列举顶级前缀，再逐个前缀递归列举，内存中只保留一个前缀的列举结果
+                for (StorageObject topLevel : cluster.listObjects(bucketName, "", false)) {
+                    if (topLevel.getFilePath().equals(FilePathUtil.PART_PREFIX)) {
+                        continue;
+                    }
+                    List<StorageObject> objects = topLevel.getFilePath().endsWith("/")
+                            ? cluster.listObjects(bucketName, topLevel.getFilePath(), true)
+                            : List.of(topLevel);
+                    for (StorageObject object : objects) {
+                        if (moved + failed >= config.getMaxMovesPerRun()) {
+                            log.info("【多集群搬迁】达到单次上限: 移动={}, 失败={}", moved, failed);
+                            return moved;
+                        }
+                        if (FilePathUtil.isChunkObject(object.getFilePath())
+                                || object.getLastModified() == null || object.getLastModified().isAfter(movableBefore)) {
+                            continue;
+                        }
+                        String owner = router.ownerOf(object.getFilePath());
+                        if (owner.equals(clusterId)) {
+                            continue;
+                        }
+                        if (move(router, bucketName, object.getFilePath(), clusterId, owner)) {
+                            moved++;
+                        } else {
+                            failed++;
+                        }
+                    }
+                }
+            }
+        }
+        log.info("【多集群搬迁】搬迁完成: 移动={}, 失败={}", moved, failed);
+        return moved;
+    }
+
+    /**
+     * 把一个对象从原集群移到归属集群：复制（归属集群上已有同样大小的副本时跳过）、更新元数据、删除原对象。
+     */
+    private boolean move(RoutingObjectStorageService router, String bucketName, String filePath,
+                         String fromCluster, String toCluster) {
+        ObjectStorageService from = router.cluster(fromCluster);
+        ObjectStorageService to = router.cluster(toCluster);
+        boolean switched = false;
+        long copiedBytes = 0;
+        try {
+            Optional<StorageObject> source = from.stat(bucketName, filePath);
+            if (source.isPresent() && source.get().getContentEncoding() != null && !to.supportsCompression()) {
+                log.warn("【多集群搬迁】归属集群不支持存储压缩内容，跳过: 存储桶={}, 路径={}, {} -> {}",
+                        bucketName, filePath, fromCluster, toCluster);
+            } else if (source.isPresent()) {
+                StorageObject object = source.get();
+                Optional<StorageObject> existing = to.stat(bucketName, filePath);
+                if (existing.isEmpty() || existing.get().getSize() != object.getSize()) {
+                    String contentType = object.getContentType() != null ? object.getContentType() : DEFAULT_CONTENT_TYPE;
+                    try (InputStream stream = from.download(bucketName, filePath)) {
+                        to.upload(bucketName, filePath, stream, object.getSize(), contentType, object.getContentEncoding());
+                    }
+                    copiedBytes = object.getSize();
+                }
+                fileMetadataRepository.updateClusterId(bucketName, filePath, toCluster);
+                from.delete(bucketName, filePath);
+                switched = true;
+                log.debug("【多集群搬迁】对象已移动: 存储桶={}, 路径={}, {} -> {}", bucketName, filePath, fromCluster, toCluster);
+            }
+        } catch (Exception e) {
+            log.error("【多集群搬迁】移动对象失败: 存储桶={}, 路径={}, {} -> {}", bucketName, filePath, fromCluster, toCluster, e);
+        }
+
+        Counter.builder("storage.cluster.rebalance.moves")
+                .description("多集群搬迁的对象数，SKIPPED 表示复制失败、期间对象被删除或归属集群不支持压缩内容")
+                .tag("outcome", switched ? "MOVED" : "SKIPPED")
+                .register(registry)
+                .increment();
+        if (copiedBytes > 0) {
+            Counter.builder("storage.cluster.rebalance.bytes")
+                    .description("多集群搬迁复制的字节数")
+                    .baseUnit("bytes")
+                    .register(registry)
+                    .increment(copiedBytes);
+        }
+        return switched;
+    }
+}
@@ -0,0 +1,258 @@
+package org.example.miniodemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.config.TieringConfig;
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.FileTierMove;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.mapper.FileTierMoveMapper;
+import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 私有文件冷热分层服务。
+ * <p>
+ * 降冷：按 (last_accessed_at, id) 走索引分页找出超过 {@code cold-after} 未被访问的文件，
+ * 依次服务端复制到冷存储桶、用一条带条件的 UPDATE 切换 bucket_name 与 file_path、删除源对象；
+ * 复制期间文件被访问过则条件不成立，删除冷副本后放弃。每次任务的移动数与复制带宽都有上限。
+ * <p>
+ * 回迁：冷文件被访问时以同样的步骤移回私有文件存储桶。回迁完成前访问直接读取冷存储桶中的对象。
+ * <p>
+ * 每次移动前写入 {@code file_tier_move} 记录作为检查点，移动结束后删除。进程中断遗留的记录由下一次任务
+ * 按元数据当前所在的存储桶收尾：保留元数据指向的副本，删除另一个。同一文件同时只能有一条记录，
+ * 降冷与回迁不会并发移动同一个文件。
+ * <p>
+ * 指标：{@code storage.tiering.moves}（{@code direction}、{@code outcome} 标签）、{@code storage.tiering.bytes}。
+ */
+@Slf4j
+@Service
+public class StorageTieringService {
+
+    private static final String DIRECTION_DEMOTE = "DEMOTE";
+    private static final String DIRECTION_PROMOTE = "PROMOTE";
+
+    private final TieringConfig config;
+    private final MinioBucketConfig bucketConfig;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FileTierMoveMapper moveMapper;
+    private final ObjectStorageService objectStorageService;
+    private final MeterRegistry registry;
+
+    public StorageTieringService(TieringConfig config,
+                                 MinioBucketConfig bucketConfig,
+                                 FileMetadataRepository fileMetadataRepository,
+                                 FileTierMoveMapper moveMapper,
+                                 ObjectStorageService objectStorageService,
+                                 MeterRegistry registry) {
+        this.config = config;
+        this.bucketConfig = bucketConfig;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.moveMapper = moveMapper;
+        this.objectStorageService = objectStorageService;
+        this.registry = registry;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public String getColdBucket() {
+        return config.getColdBucket();
+    }
+
+    /**
+     * 文件是否位于冷存储桶，且访问时应当移回。
+     */
+    public boolean shouldPromote(FileMetadata metadata) {
+        return config.isPromoteOnAccess()
+                && metadata.getStorageType() == StorageType.PRIVATE
+                && config.getColdBucket().equals(metadata.getBucketName());
+    }
+
+    /**
+     * 执行一次降冷：先收尾遗留的移动，再按最后访问时间从旧到新移动冷文件，直到没有候选或达到单次上限。
+     *
+     * @return 本次降冷的文件数。
+     */
+    public int demoteColdFiles() {
+        if (!config.isEnabled()) {
+            return 0;
+        }
+        recoverStaleMoves();
+
+        String hotBucket = bucketConfig.getPrivateFiles();
+        String coldBucket = config.getColdBucket();
+        Date cutoff = new Date(System.currentTimeMillis() - config.getColdAfter().toMillis());
+        BandwidthThrottle throttle = new BandwidthThrottle(config.getMaxBytesPerSecond().toBytes());
+        int moved = 0;
+        long movedBytes = 0;
+        Date afterAccessed = null;
+        Long afterId = null;
+
+        while (moved < config.getMaxMovesPerRun()) {
+            int limit = Math.min(config.getBatchSize(), config.getMaxMovesPerRun() - moved);
+            List<FileMetadata> candidates = fileMetadataRepository.findLeastRecentlyAccessed(
+                    StorageType.PRIVATE, hotBucket, cutoff, afterAccessed, afterId, limit);
+            for (FileMetadata candidate : candidates) {
+                afterAccessed = candidate.getLastAccessedAt();
+                afterId = candidate.getId();
+                if (move(candidate, hotBucket, coldBucket, cutoff, DIRECTION_DEMOTE)) {
+                    moved++;
+                    long size = candidate.getFileSize() == null ? 0 : candidate.getFileSize();
+                    movedBytes += size;
+                    throttle.acquire(size);
+                }
+            }
+            if (candidates.size() < limit) {
+                break;
+            }
+        }
+        log.info("【冷热分层】降冷完成: 文件数={}, 字节数={}, 截止访问时间={}", moved, movedBytes, cutoff);
+        return moved;
+    }
+
+    /**
+     * 将冷文件移回私有文件存储桶。已有其他移动在进行时直接返回。
+     *
+     * @param metadata 文件元数据。
+     * @return 是否移回成功。
+     */
+    public boolean promote(FileMetadata metadata) {
+        if (!shouldPromote(metadata)) {
+            return false;
+        }
+        return move(metadata, config.getColdBucket(), bucketConfig.getPrivateFiles(), null, DIRECTION_PROMOTE);
+    }
+
+    /**
+     * 收尾进程中断遗留的移动记录：保留元数据当前指向的副本，删除另一个。
+     *
+     * @return 收尾的记录数。
+     */
+    public int recoverStaleMoves() {
+        Date staleBefore = new Date(System.currentTimeMillis() - config.getStaleMoveTimeout().toMillis());
+        List<FileTierMove> staleMoves = moveMapper.selectList(new LambdaQueryWrapper<FileTierMove>()
+                .lt(FileTierMove::getCreatedAt, staleBefore));
+        int recovered = 0;
+        for (FileTierMove move : staleMoves) {
+            Optional<FileMetadata> current = fileMetadataRepository.findById(move.getFileId());
+            String liveBucket = current.map(FileMetadata::getBucketName).orElse(null);
+            boolean cleaned = true;
+            if (!move.getTargetBucket().equals(liveBucket)) {
+                cleaned = deleteQuietly(move.getTargetBucket(), move.getFilePath());
+            }
+            // 元数据已不存在时源对象留给孤儿文件清理任务，避免误删同路径的新上传
+            if (current.isPresent() && !move.getSourceBucket().equals(liveBucket)) {
+                cleaned &= deleteQuietly(move.getSourceBucket(), move.getFilePath());
+            }
+            if (cleaned) {
+                moveMapper.deleteById(move.getId());
+                recovered++;
+            }
+            log.warn("【冷热分层】收尾遗留移动: 文件ID={}, 路径={}, {} -> {}, 当前存储桶={}, 已清理={}",
+                    move.getFileId(), move.getFilePath(), move.getSourceBucket(), move.getTargetBucket(), liveBucket, cleaned);
+        }
+        return recovered;
+    }
+
+    /**
+     * 移动一个文件：写检查点、服务端复制、条件切换元数据、删除多余副本、删除检查点。
+     */
+    private boolean move(FileMetadata metadata, String fromBucket, String toBucket, Date accessedBefore, String direction) {
+        String filePath = metadata.getFilePath();
+        FileTierMove checkpoint = new FileTierMove();
+        checkpoint.setFileId(metadata.getId());
+        checkpoint.setFilePath(filePath);
+        checkpoint.setSourceBucket(fromBucket);
+        checkpoint.setTargetBucket(toBucket);
+        checkpoint.setCreatedAt(new Date());
+        try {
+            moveMapper.insert(checkpoint);
+        } catch (DuplicateKeyException e) {
+            log.debug("【冷热分层】文件已有移动在进行，跳过: 文件ID={}", metadata.getId());
+            return false;
+        }
+
+        boolean switched = false;
+        try {
+            objectStorageService.copy(fromBucket, filePath, toBucket, filePath);
+            switched = fileMetadataRepository.switchBucket(metadata.getId(), fromBucket, toBucket, filePath, accessedBefore);
+        } catch (Exception e) {
+            log.error("【冷热分层】移动文件失败: 路径={}, {} -> {}", filePath, fromBucket, toBucket, e);
+        }
+
+        // 切换成功删除源对象，否则删除目标副本；删除失败时保留检查点，由下一次任务收尾
+        if (deleteQuietly(switched ? fromBucket : toBucket, filePath)) {
+            moveMapper.deleteById(checkpoint.getId());
+        }
+
+        String outcome = switched ? "MOVED" : "SKIPPED";
+        Counter.builder("storage.tiering.moves")
+                .description("冷热分层移动的文件数，SKIPPED 表示复制期间文件被访问或移动失败")
+                .tag("direction", direction)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+        if (switched) {
+            Counter.builder("storage.tiering.bytes")
+                    .description("冷热分层移动的字节数")
+                    .tag("direction", direction)
+                    .register(registry)
+                    .increment(metadata.getFileSize() == null ? 0 : metadata.getFileSize());
+            metadata.setBucketName(toBucket);
+            log.info("【冷热分层】文件已移动: 方向={}, 路径={}, {} -> {}", direction, filePath, fromBucket, toBucket);
+        }
+        return switched;
+    }
+
+    private boolean deleteQuietly(String bucketName, String filePath) {
+        try {
+            objectStorageService.delete(bucketName, filePath);
+            return true;
+        } catch (Exception e) {
+            log.warn("【冷热分层】删除副本失败: 存储桶={}, 路径={}", bucketName, filePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * 按累计字节数限速：复制得比限速快时睡眠补足差额。
+     */
+    private static final class BandwidthThrottle {
+
+        private final long bytesPerSecond;
+        private final long startNanos = System.nanoTime();
+        private long totalBytes;
+
+        private BandwidthThrottle(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        private void acquire(long bytes) {
+            if (bytesPerSecond <= 0) {
+                return;
+            }
+            totalBytes += bytes;
+            long expectedNanos = (long) ((double) totalBytes / bytesPerSecond * TimeUnit.SECONDS.toNanos(1));
+            long aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+            if (aheadNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
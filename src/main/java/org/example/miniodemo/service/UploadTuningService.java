@@ -0,0 +1,117 @@
+package org.example.miniodemo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.config.UploadTuningConfig;
+import org.example.miniodemo.exception.BusinessException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分片方案推荐服务。
+ * <p>
+ * 根据文件大小计算分片大小与分片数：分片大小先按 {@code targetChunkCount} 均分，再限制在
+ * [{@code minChunkSize}, {@code maxChunkSize}] 之间，并按整块数重新均分以免末尾出现过小的分片，
+ * 使大文件不会被切成上万个分片、小文件也不会被切成几个零碎分片。
+ * 并发数根据服务端当前正在处理的分片上传数动态下调，负载越高推荐的并发越低。
+ */
+@Service
+public class UploadTuningService {
+
+    /**
+     * 分片大小按 1MiB 对齐。
+     */
+    private static final long CHUNK_ALIGNMENT = 1024L * 1024;
+
+    private final UploadTuningConfig config;
+    private final AtomicInteger chunkUploadsInFlight = new AtomicInteger();
+
+    public UploadTuningService(UploadTuningConfig config, MeterRegistry registry) {
+        this.config = config;
+        Gauge.builder("upload.chunk.inflight", chunkUploadsInFlight, AtomicInteger::get)
+                .description("服务端正在处理的分片上传请求数")
+                .register(registry);
+    }
+
+    /**
+     * 计算文件的分片方案。
+     *
+     * @param fileSize 文件大小（字节）。
+     * @return 分片大小与分片数。
+     * @throws BusinessException 如果按最大分片大小切分后仍超过最大分片数。
+     */
+    public ChunkPlan plan(long fileSize) {
+        long minChunkSize = config.getMinChunkSize().toBytes();
+        long maxChunkSize = config.getMaxChunkSize().toBytes();
+        if (fileSize <= 0) {
+            return new ChunkPlan(minChunkSize, 1);
+        }
+
+        long chunkSize = ceilDiv(fileSize, Math.max(1, config.getTargetChunkCount()));
+        chunkSize = Math.max(minChunkSize, Math.min(maxChunkSize, chunkSize));
+        // 按整块数重新均分：例如 6MB 的文件直接作为一个分片，而不是 5MB + 1MB
+        long wholeChunks = Math.max(1, fileSize / chunkSize);
+        chunkSize = Math.min(maxChunkSize, roundUp(ceilDiv(fileSize, wholeChunks), CHUNK_ALIGNMENT));
+
+        long totalChunks = ceilDiv(fileSize, chunkSize);
+        if (totalChunks > config.getMaxChunkCount()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST,
+                    String.format("文件过大，按最大分片 %dMiB 切分需要 %d 个分片，超过上限 %d",
+                            maxChunkSize / CHUNK_ALIGNMENT, totalChunks, config.getMaxChunkCount()));
+        }
+        return new ChunkPlan(chunkSize, (int) totalChunks);
+    }
+
+    /**
+     * 根据服务端当前负载推荐客户端的并发分片数。
+     *
+     * @param remainingChunks 尚未上传的分片数，推荐值不会超过它。
+     * @return 推荐的并发数，至少为 1。
+     */
+    public int recommendConcurrency(int remainingChunks) {
+        int maxConcurrency = Math.max(1, config.getMaxConcurrency());
+        double headroom = 1.0 - (double) chunkUploadsInFlight.get() / Math.max(1, config.getLoadCapacity());
+        int concurrency = (int) Math.ceil(maxConcurrency * Math.max(0, headroom));
+        return Math.max(1, Math.min(concurrency, Math.max(1, remainingChunks)));
+    }
+
+    /**
+     * 是否允许客户端自行声明的分片数。
+     */
+    public boolean isChunkCountAllowed(int totalChunks) {
+        return totalChunks >= 1 && totalChunks <= config.getMaxChunkCount();
+    }
+
+    /**
+     * 标记一个分片上传请求开始处理。
+     */
+    public void chunkUploadStarted() {
+        chunkUploadsInFlight.incrementAndGet();
+    }
+
+    /**
+     * 标记一个分片上传请求处理结束。
+     */
+    public void chunkUploadFinished() {
+        chunkUploadsInFlight.decrementAndGet();
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private static long roundUp(long value, long alignment) {
+        return ceilDiv(value, alignment) * alignment;
+    }
+
+    /**
+     * 分片方案。
+     *
+     * @param chunkSize   分片大小（字节），最后一个分片可以小于该值。
+     * @param totalChunks 分片总数。
+     */
+    public record ChunkPlan(long chunkSize, int totalChunks) {
+    }
+}
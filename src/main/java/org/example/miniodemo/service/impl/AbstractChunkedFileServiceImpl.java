@@ -1,33 +1,68 @@
 package org.example.miniodemo.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.etag.ResourceVersionRegistry;
+import org.example.miniodemo.common.metrics.UploadMetrics;
 import org.example.miniodemo.common.response.R;
 import org.example.miniodemo.common.response.ResultCode;
 import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.common.util.FolderPathUtil;
+import org.example.miniodemo.config.MergeConfig;
+import org.example.miniodemo.config.ObjectKeyConfig;
+import org.example.miniodemo.config.PromotionConfig;
+import org.example.miniodemo.config.SharedUploadConfig;
 import org.example.miniodemo.domain.ChunkUploadSession;
 import org.example.miniodemo.domain.ChunkUploadStatus;
+import org.example.miniodemo.domain.ContentEncoding;
+import org.example.miniodemo.domain.ContentLayout;
 import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.FolderStats;
 import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.domain.UploadRole;
 import org.example.miniodemo.dto.*;
 import org.example.miniodemo.event.EventPublisher;
 import org.example.miniodemo.event.FileMergedEvent;
 import org.example.miniodemo.exception.BusinessException;
 import org.example.miniodemo.repository.FileMetadataRepository;
+import org.example.miniodemo.repository.FolderStatsRepository;
 import org.example.miniodemo.service.AbstractChunkedFile;
 import org.example.miniodemo.service.AsyncFileService;
+import org.example.miniodemo.service.BlobStoreService;
 import org.example.miniodemo.service.ChunkUploadSessionService;
+import org.example.miniodemo.service.ContentCompressionService;
+import org.example.miniodemo.service.DedupChunkService;
+import org.example.miniodemo.service.FileSearchService;
+import org.example.miniodemo.service.MetadataBatchWriter;
+import org.example.miniodemo.service.UploadTuningService;
+import org.example.miniodemo.service.storage.AsyncObjectStorageService;
+import org.example.miniodemo.service.storage.ManifestInputStream;
 import org.example.miniodemo.service.storage.ObjectStorageService;
 import org.example.miniodemo.domain.StorageObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +80,71 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
     @Autowired
     protected ChunkUploadSessionService sessionService;
 
+    @Autowired
+    protected UploadMetrics uploadMetrics;
+
+    @Autowired
+    protected AsyncObjectStorageService asyncObjectStorageService;
+
+    @Autowired
+    protected UploadTuningService uploadTuningService;
+
+    @Autowired
+    protected DedupChunkService dedupChunkService;
+
+    @Autowired
+    protected ContentCompressionService contentCompressionService;
+
+    @Autowired
+    protected ResourceVersionRegistry resourceVersions;
+
+    @Autowired
+    protected FolderStatsRepository folderStatsRepository;
+
+    @Autowired
+    protected FileSearchService fileSearchService;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    protected MetadataBatchWriter metadataBatchWriter;
+
+    @Autowired
+    protected MergeConfig mergeConfig;
+
+    @Autowired
+    protected SharedUploadConfig sharedUploadConfig;
+
+    @Autowired
+    protected BlobStoreService blobStoreService;
+
+    @Autowired
+    protected PromotionConfig promotionConfig;
+
+    @Autowired
+    protected ObjectKeyConfig objectKeyConfig;
+
+    /**
+     * 本实例内进行中的合并，键为会话ID
+     */
+    private final Map<String, CompletableFuture<FileMetadata>> inFlightMerges = new ConcurrentHashMap<>();
+
+    /**
+     * 目录浏览单页文件数上限
+     */
+    private static final int MAX_BROWSE_PAGE_SIZE = 1000;
+
+    /**
+     * 目录浏览返回的子目录数上限
+     */
+    private static final int MAX_BROWSE_CHILD_FOLDERS = 1000;
+
+    /**
+     * 批量删除每页处理的文件数，与一次多对象删除请求的对象数上限一致
+     */
+    private static final int BATCH_DELETE_PAGE_SIZE = 1000;
+
     // --- 抽象方法，由子类实现 ---
 
     /**
@@ -57,24 +157,88 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
      */
     protected abstract StorageType getStorageType();
 
+    /**
+     * 将文件元数据转换为返回给客户端的文件详情，访问URL的生成方式由存储类型决定。
+     */
+    protected abstract FileDetailDto toFileDetail(FileMetadata metadata);
+
+    /**
+     * 当前服务的文件可能位于的全部存储桶，默认只有 {@link #getBucketName()}。
+     */
+    protected Collection<String> getMetadataBucketNames() {
+        return List.of(getBucketName());
+    }
+
+    /**
+     * 当前服务是否接受 CDC 去重上传，默认不接受。
+     */
+    protected boolean isDedupEnabled() {
+        return false;
+    }
+
     // --- 新的会话管理方法实现 ---
 
     @Override
     public R<UploadSessionResponseDto> initUploadSession(InitUploadSessionDto initDto) {
         try {
-            // 先检查文件是否已存在（秒传）
+            // 确定分片方案：客户端未声明分片数时由服务端推荐，声明了则沿用（兼容旧版客户端）
+            Integer totalChunks = initDto.getTotalChunks();
+            Long chunkSize = null;
+            if (totalChunks == null) {
+                UploadTuningService.ChunkPlan plan = uploadTuningService.plan(initDto.getFileSize());
+                totalChunks = plan.totalChunks();
+                chunkSize = plan.chunkSize();
+            } else if (!uploadTuningService.isChunkCountAllowed(totalChunks)) {
+                return R.error(ResultCode.BAD_REQUEST, "分片数无效: " + totalChunks);
+            }
+
+            // 先检查文件是否已存在（秒传）；内容已存在但目录或文件名不同时，只新增一条引用同一内容的元数据
             Optional<FileMetadata> existingFile = checkFileExists(initDto.getFileHash());
             if (existingFile.isPresent()) {
+                if (canReference(existingFile.get()) && initDto.getFolderPath() != null
+                        && fileMetadataRepository.findByHashAndName(initDto.getFileHash(),
+                        getStorageType(), initDto.getFolderPath(), initDto.getFileName()).isEmpty()) {
+                    createReference(existingFile.get(), initDto.getFolderPath(), initDto.getFileName(),
+                            initDto.getContentType());
+                }
                 log.info("【会话初始化 - {}】文件已存在，支持秒传: {}", getStorageType(), initDto.getFileHash());
+                return R.success(mergedResponse(initDto.getFileHash(), totalChunks, chunkSize));
+            }
+
+            // 公共资源中已有同一内容时，在存储端复制到私有存储，不再上传；
+            // 反方向不导入：文件哈希不能作为读取私有文件的凭证，否则知道哈希与大小即可把私有文件复制到公共存储桶
+            if (promotionConfig.isImportOnInit() && getStorageType() == StorageType.PRIVATE
+                    && initDto.getFolderPath() != null) {
+                Optional<FileMetadata> otherCopy = fileMetadataRepository.findByHash(initDto.getFileHash(), otherStorageType())
+                        .filter(source -> initDto.getFileSize().equals(source.getFileSize()));
+                if (otherCopy.isPresent()) {
+                    importFrom(otherCopy.get(), initDto.getFolderPath(), initDto.getFileName(), initDto.getContentType());
+                    log.info("【会话初始化 - {}】{} 中已有同一文件，已在服务端复制: {}", getStorageType(),
+                            otherStorageType(), initDto.getFileHash());
+                    return R.success(mergedResponse(initDto.getFileHash(), totalChunks, chunkSize));
+                }
+            }
+
+            // CDC 去重上传：不创建分片会话，只告诉客户端哪些块已经存在
+            if (initDto.getChunkHashes() != null && isDedupEnabled()) {
+                List<String> existingChunks = dedupChunkService.findExistingChunks(getBucketName(), initDto.getChunkHashes());
                 UploadSessionResponseDto response = new UploadSessionResponseDto();
                 response.setSessionId(initDto.getFileHash());
-                response.setStatus(ChunkUploadStatus.MERGED);
-                response.setTotalChunks(initDto.getTotalChunks());
-                response.setUploadedChunks(initDto.getTotalChunks());
+                response.setStatus(ChunkUploadStatus.INIT);
+                response.setTotalChunks(initDto.getChunkHashes().size());
+                response.setUploadedChunks(existingChunks.size());
+                response.setExistingChunkHashes(existingChunks);
+                response.setRecommendedConcurrency(uploadTuningService.recommendConcurrency(
+                        initDto.getChunkHashes().size() - existingChunks.size()));
+                log.info("【会话初始化 - {}】去重上传: 文件={}，块数={}，已存在={}", getStorageType(),
+                        initDto.getFileHash(), initDto.getChunkHashes().size(), existingChunks.size());
                 return R.success(response);
             }
 
-            // 创建或获取上传会话
+            // 创建或获取上传会话；复用已有会话时沿用其分片方案，保证断点续传的分片边界不变。
+            // 同一文件已有客户端在上传时，调用方以等待者身份加入，不重复发送分片
+            String uploaderToken = initDto.getUploaderToken() != null && !initDto.getUploaderToken().isBlank()
+                    ? initDto.getUploaderToken() : UUID.randomUUID().toString();
             ChunkUploadSession session = sessionService.createOrGetSession(
                 initDto.getFileHash(), // 使用文件哈希作为会话ID
                 initDto.getFileName(),
@@ -82,17 +246,28 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
                 initDto.getFileSize(),
                 initDto.getContentType(),
                 initDto.getFolderPath(),
-                initDto.getTotalChunks(),
+                totalChunks,
+                chunkSize,
                 getBucketName(),
-                getStorageType()
+                getStorageType(),
+                uploaderToken,
+                sharedUploadConfig.getUploaderStallTimeout()
             );
+            UploadRole role = uploaderToken.equals(session.getUploaderId()) ? UploadRole.UPLOADER : UploadRole.WAITER;
 
             // 构建响应
             UploadSessionResponseDto response = new UploadSessionResponseDto();
             response.setSessionId(session.getSessionId());
             response.setStatus(session.getStatus());
+            response.setRole(role);
+            if (role == UploadRole.UPLOADER) {
+                response.setUploaderToken(uploaderToken);
+            }
             response.setTotalChunks(session.getTotalChunks());
             response.setUploadedChunks(session.getUploadedChunks());
+            response.setChunkSize(session.getChunkSize());
+            response.setRecommendedConcurrency(uploadTuningService.recommendConcurrency(
+                    session.getTotalChunks() - session.getUploadedChunks()));
             
             // 获取已上传的分片编号
             List<String> uploadedPaths = sessionService.getUploadedChunkPaths(session.getSessionId());
@@ -104,15 +279,41 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
             }
             response.setUploadedChunkNumbers(uploadedChunkNumbers);
 
-            log.info("【会话初始化 - {}】会话创建成功: {}", getStorageType(), session.getSessionId());
+            log.info("【会话初始化 - {}】会话创建成功: {}，角色={}，分片大小={}，分片数={}，推荐并发={}", getStorageType(),
+                    session.getSessionId(), role, session.getChunkSize(), session.getTotalChunks(), response.getRecommendedConcurrency());
             return R.success(response);
             
+        } catch (BusinessException e) {
+            log.warn("【会话初始化 - {}】初始化上传会话被拒绝: {}", getStorageType(), e.getMessage());
+            return R.error(e.getResultCode(), e.getMessage());
         } catch (Exception e) {
             log.error("【会话初始化 - {}】初始化上传会话失败", getStorageType(), e);
             return R.error(ResultCode.UPLOAD_SESSION_INIT_FAILED, "初始化上传会话失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 文件已存在、无需上传时的初始化响应。
+     */
+    private static UploadSessionResponseDto mergedResponse(String fileHash, Integer totalChunks, Long chunkSize) {
+        UploadSessionResponseDto response = new UploadSessionResponseDto();
+        response.setSessionId(fileHash);
+        response.setStatus(ChunkUploadStatus.MERGED);
+        response.setTotalChunks(totalChunks);
+        response.setUploadedChunks(totalChunks);
+        response.setChunkSize(chunkSize);
+        return response;
+    }
+
+    private boolean isCurrentUploader(ChunkUploadSession session, String uploaderToken) {
+        if (session.getUploaderId() == null || uploaderToken.equals(session.getUploaderId())) {
+            return true;
+        }
+        return sessionService.reloadSession(session.getSessionId())
+                .map(latest -> latest.getUploaderId() == null || uploaderToken.equals(latest.getUploaderId()))
+                .orElse(false);
+    }
+
     @Override
     public R<UploadSessionResponseDto> getUploadStatus(String sessionId) {
         try {
@@ -127,6 +328,7 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
             response.setStatus(session.getStatus());
             response.setTotalChunks(session.getTotalChunks());
             response.setUploadedChunks(session.getUploadedChunks());
+            response.setChunkSize(session.getChunkSize());
 
             // 获取已上传的分片编号
             List<String> uploadedPaths = sessionService.getUploadedChunkPaths(session.getSessionId());
@@ -147,7 +349,26 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
     }
 
     @Override
-    public R<ChunkUploadResponseDto> uploadChunkWithSession(MultipartFile file, String sessionId, Integer chunkNumber) {
+    public R<ChunkUploadResponseDto> uploadChunkWithSession(MultipartFile file, String sessionId, Integer chunkNumber,
+                                                            String uploaderToken) {
+        Timer.Sample sample = uploadMetrics.start();
+        uploadTuningService.chunkUploadStarted();
+        ResultCode outcome = ResultCode.SUCCESS;
+        try {
+            R<ChunkUploadResponseDto> result = doUploadChunkWithSession(file, sessionId, chunkNumber, uploaderToken);
+            outcome = ResultCode.of(result.getCode());
+            return result;
+        } catch (RuntimeException e) {
+            outcome = UploadMetrics.outcomeOf(e);
+            throw e;
+        } finally {
+            uploadTuningService.chunkUploadFinished();
+            uploadMetrics.recordChunkIngest(sample, getStorageType(), outcome, file.getSize());
+        }
+    }
+
+    private R<ChunkUploadResponseDto> doUploadChunkWithSession(MultipartFile file, String sessionId, Integer chunkNumber,
+                                                               String uploaderToken) {
         try {
             // 第一层验证：会话ID必须存在（双重验证，确保安全）
             if (sessionId == null || sessionId.isBlank()) {
@@ -189,8 +410,29 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
                     String.format("分片编号无效，必须在1-%d之间", session.getTotalChunks()));
             }
 
+            // 第六层验证：服务端确定了分片大小时，分片字节数必须与方案一致（最后一个分片为剩余字节）
+            if (session.getChunkSize() != null) {
+                long expectedSize = expectedChunkSize(session, chunkNumber);
+                if (file.getSize() != expectedSize) {
+                    log.warn("【安全拦截 - {}】分片大小不符合会话方案: 会话={}, 分片={}, 期望={}, 实际={}",
+                        getStorageType(), sessionId, chunkNumber, expectedSize, file.getSize());
+                    return R.error(ResultCode.BAD_REQUEST,
+                        String.format("分片大小无效，分片 %d 应为 %d 字节", chunkNumber, expectedSize));
+                }
+            }
+
+            // 第七层验证：同一文件由多个客户端同时上传时只接受当前上传者的分片（未携带令牌的旧版客户端不限制）；
+            // 上传者可能刚在其他实例上由等待者接管，本地缓存不一致时以数据库为准
+            if (uploaderToken != null && !isCurrentUploader(session, uploaderToken)) {
+                log.warn("【安全拦截 - {}】非当前上传者的分片: 会话={}, 分片={}", getStorageType(), sessionId, chunkNumber);
+                return R.error(ResultCode.UPLOAD_SESSION_STATE_MISMATCH,
+                    "该文件已由其他客户端接管上传，请重新初始化会话并等待其结果");
+            }
+
             // 上传分片
-            String chunkPath = sessionId + "/" + chunkNumber;
+            String chunkPath = FilePathUtil.buildChunkPath(objectKeyConfig.getLayout(), sessionId, chunkNumber);
+            Timer.Sample putSample = uploadMetrics.start();
+            ResultCode putOutcome = ResultCode.SUCCESS;
             try (InputStream inputStream = file.getInputStream()) {
                 objectStorageService.upload(
                     getBucketName(),
@@ -199,6 +441,11 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
                     file.getSize(),
                     file.getContentType()
                 );
+            } catch (Exception e) {
+                putOutcome = ResultCode.FILE_UPLOAD_FAILED;
+                throw e;
+            } finally {
+                uploadMetrics.recordStoragePut(putSample, getStorageType(), putOutcome);
             }
 
             // 记录分片上传成功
@@ -213,10 +460,39 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
         }
     }
 
+    /**
+     * 合并分片（单次执行）。
+     * <p>
+     * 同一会话的并发合并请求只执行一次：本实例内的重复请求等待进行中的合并结果；
+     * 跨实例由会话状态的条件更新（READY_TO_MERGE → MERGING）决定唯一的执行者，其余请求轮询会话直到合并完成。
+     */
     @Override
     public FileMetadata mergeChunksWithSession(ImprovedMergeRequestDto mergeRequestDto) {
         String sessionId = mergeRequestDto.getSessionId();
-        
+        CompletableFuture<FileMetadata> inFlight = new CompletableFuture<>();
+        CompletableFuture<FileMetadata> existing = inFlightMerges.putIfAbsent(sessionId, inFlight);
+        if (existing != null) {
+            log.info("【文件合并 - {}】会话正在合并，等待合并结果: 会话={}", getStorageType(), sessionId);
+            return awaitLocalMerge(sessionId, existing);
+        }
+        try {
+            FileMetadata metadata = doMergeChunksWithSession(mergeRequestDto);
+            inFlight.complete(metadata);
+            return metadata;
+        } catch (RuntimeException e) {
+            inFlight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightMerges.remove(sessionId, inFlight);
+        }
+    }
+
+    private FileMetadata doMergeChunksWithSession(ImprovedMergeRequestDto mergeRequestDto) {
+        String sessionId = mergeRequestDto.getSessionId();
+        boolean claimed = false;
+        // 已取得、尚未交给元数据保存流程的共享对象引用，失败时归还
+        BlobStoreService.Lease lease = null;
+
         try {
             // 验证会话
             Optional<ChunkUploadSession> sessionOpt = sessionService.getSession(sessionId);
@@ -235,8 +511,12 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
                 throw new BusinessException(ResultCode.VALIDATE_FAILED, "文件哈希不匹配");
             }
 
+            // 已在合并或已合并时不再校验分片，直接参与下面的抢占，失败则等待合并结果
+            ChunkUploadStatus status = session.getStatus();
+            boolean mergeStarted = status == ChunkUploadStatus.MERGING || status == ChunkUploadStatus.MERGED;
+
             // 验证会话状态
-            boolean readyToMerge = sessionService.isReadyToMerge(sessionId);
+            boolean readyToMerge = mergeStarted || sessionService.isReadyToMerge(sessionId);
             // 重新获取最新会话状态用于日志对比
             Optional<ChunkUploadSession> latestSessionOpt = sessionService.getSession(sessionId);
             ChunkUploadSession latestSession = latestSessionOpt.orElse(session);
@@ -249,8 +529,12 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
                                 latestSession.getStatus(), latestSession.getUploadedChunks(), latestSession.getTotalChunks()));
             }
 
-            // 更新会话状态为合并中
-            sessionService.updateSessionStatus(sessionId, ChunkUploadStatus.MERGING);
+            // 条件更新为合并中：跨实例只有一个请求成功，其余等待其合并结果
+            if (!sessionService.tryStartMerge(sessionId, mergeConfig.getStaleAfter())) {
+                log.info("【文件合并 - {}】会话已由其他请求合并，等待合并结果: 会话={}", getStorageType(), sessionId);
+                return awaitRemoteMerge(sessionId);
+            }
+            claimed = true;
 
             // 获取所有分片路径
             List<String> chunkPaths = sessionService.getUploadedChunkPaths(sessionId);
@@ -274,15 +558,10 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
                 String path = chunkPaths.get(i);
                 if (path == null || path.isEmpty()) {
                     missingIndices.add(i + 1);
-                } else {
-                    String expectedPrefix = sessionId + "/";
-                    if (!path.startsWith(expectedPrefix)) {
-                        log.warn("【文件合并 - {}】分片路径前缀异常: 会话={}, 索引={}, 路径={}", getStorageType(), sessionId, i + 1, path);
-                    }
-                    String expectedExact = expectedPrefix + (i + 1);
-                    if (!path.equals(expectedExact)) {
-                        log.warn("【文件合并 - {}】分片路径与预期编号不一致: 期望={}, 实际={}", expectedExact, path);
-                    }
+                } else if (!FilePathUtil.isChunkPath(path, sessionId, i + 1)) {
+                    // 布局切换前上传的分片沿用旧布局的路径，两种布局都视为正常
+                    log.warn("【文件合并 - {}】分片路径与预期编号不一致: 会话={}, 索引={}, 路径={}",
+                            getStorageType(), sessionId, i + 1, path);
                 }
             }
             if (!missingIndices.isEmpty()) {
@@ -290,24 +569,9 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
                         String.format("分片缺失，编号: %s", missingIndices));
             }
 
-            // 通过对象存储校验分片确实存在
+            // 通过对象存储校验分片确实存在且大小正确。按会话记录的路径校验，即合并时实际读取的对象
             try {
-                List<StorageObject> storedChunks = objectStorageService.listObjects(getBucketName(), sessionId + "/", true);
-                java.util.Set<String> existingPaths = storedChunks.stream()
-                        .map(StorageObject::getFilePath)
-                        .collect(java.util.stream.Collectors.toSet());
-                List<Integer> notFound = new ArrayList<>();
-                for (int i = 1; i <= session.getTotalChunks(); i++) {
-                    String expectedPath = sessionId + "/" + i;
-                    if (!existingPaths.contains(expectedPath)) {
-                        notFound.add(i);
-                    }
-                }
-                if (!notFound.isEmpty()) {
-                    log.error("【文件合并 - {}】对象存储缺少分片: 会话={}, 缺失编号={}", getStorageType(), sessionId, notFound);
-                    throw new BusinessException(ResultCode.VALIDATE_FAILED,
-                            String.format("对象存储缺少分片，编号: %s", notFound));
-                }
+                verifyStoredChunks(session, chunkPaths);
             } catch (BusinessException e) {
                 throw e;
             } catch (Exception e) {
@@ -316,22 +580,50 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
             }
 
             // 构建最终文件路径
-            String finalFilePath = FilePathUtil.buildDateBasedPath(
+            String finalFilePath = FilePathUtil.buildFilePath(objectKeyConfig.getLayout(),
                 mergeRequestDto.getFolderPath(), 
                 mergeRequestDto.getFileHash(), 
                 mergeRequestDto.getFileName()
             );
 
-            // 执行合并
-            objectStorageService.compose(getBucketName(), chunkPaths, finalFilePath);
-            log.info("【文件合并 - {}】对象存储操作成功。最终对象: '{}'。", getStorageType(), finalFilePath);
+            // 执行合并；开启共享对象存储时写入按哈希寻址的对象，内容已存在则跳过合并，沿用已有对象的编码
+            ContentEncoding encoding = contentCompressionService.chooseEncoding(
+                    session.getContentType(), session.getFileName(), session.getFileSize());
+            String objectKey = finalFilePath;
+            if (blobStoreService.isEnabled()) {
+                lease = blobStoreService.acquire(getStorageType(), getBucketName(), session.getFileHash(),
+                        session.getFileSize(), encoding);
+                encoding = lease.blob().getContentEncoding();
+                objectKey = FilePathUtil.buildBlobPath(session.getFileHash());
+            }
+            if (lease == null || lease.needsWrite()) {
+                Timer.Sample composeSample = uploadMetrics.start();
+                ResultCode composeOutcome = ResultCode.SUCCESS;
+                try {
+                    assembleObject(chunkPaths, objectKey, session.getContentType(), encoding);
+                } catch (Exception e) {
+                    composeOutcome = ResultCode.MERGE_FAILED;
+                    throw e;
+                } finally {
+                    uploadMetrics.recordCompose(composeSample, getStorageType(), chunkPaths.size(), composeOutcome);
+                }
+                log.info("【文件合并 - {}】对象存储操作成功。最终对象: '{}'。", getStorageType(), objectKey);
+            } else {
+                log.info("【文件合并 - {}】内容已存在，跳过合并。共享对象: '{}'。", getStorageType(), objectKey);
+            }
 
             // 构建文件元数据
             FileMetadata metadata = buildFileMetadataFromSession(session, finalFilePath);
+            metadata.setContentEncoding(encoding);
+            if (lease != null) {
+                metadata.setContentLayout(ContentLayout.BLOB);
+                metadata.setBucketName(lease.blob().getBucketName());
+            }
 
-            // 发布文件合并成功事件
+            // 发布文件合并成功事件，引用随元数据交给事件监听器，保存最终失败时由其归还
             FileMergedEvent event = new FileMergedEvent(this, metadata, sessionId, chunkPaths);
             eventPublisher.publish(event);
+            lease = null;
 
             // 更新会话状态为已合并
             sessionService.updateSessionStatus(sessionId, ChunkUploadStatus.MERGED);
@@ -342,17 +634,130 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
             return metadata;
             
         } catch (BusinessException e) {
-            // 业务异常直接重新抛出，不更新会话状态（因为可能是验证失败等）
+            // 抢占合并之前的业务异常（验证失败等）不更新会话状态；抢占之后必须释放 MERGING，否则会话在超时接管前无法重试
+            if (claimed) {
+                sessionService.updateSessionStatus(sessionId, ChunkUploadStatus.FAILED);
+            }
+            releaseLease(lease);
             log.error("【文件合并 - {}】业务异常: 会话={}, 错误={}", getStorageType(), sessionId, e.getMessage());
             throw e;
         } catch (Exception e) {
-            // 其他异常（如IO异常、MinIO异常等）更新会话状态为失败
-            sessionService.updateSessionStatus(sessionId, ChunkUploadStatus.FAILED);
+            // 其他异常（如IO异常、MinIO异常等）更新会话状态为失败；未抢占时会话由其他请求合并，不能覆盖其状态
+            if (claimed) {
+                sessionService.updateSessionStatus(sessionId, ChunkUploadStatus.FAILED);
+            }
+            releaseLease(lease);
             log.error("【文件合并 - {}】文件合并失败: 会话={}", getStorageType(), sessionId, e);
             throw new BusinessException(ResultCode.UPLOAD_SESSION_STATE_MISMATCH, "文件合并失败: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * 等待本实例内同一会话进行中的合并。
+     */
+    private FileMetadata awaitLocalMerge(String sessionId, CompletableFuture<FileMetadata> inFlight) {
+        try {
+            return inFlight.get(mergeConfig.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException be) {
+                throw be;
+            }
+            throw new BusinessException(ResultCode.MERGE_FAILED, "文件合并失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new BusinessException(ResultCode.UPLOAD_SESSION_STATE_MISMATCH, "文件正在合并中，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.MERGE_FAILED, "等待合并结果被中断", e);
+        }
+    }
+
+    /**
+     * 校验会话记录的分片都在对象存储中；服务端确定了分片方案时同时校验大小。
+     * <p>
+     * 按分片所在的目录列举，而不是逐个 HEAD：一个会话的分片在同一目录下（布局切换前后上传的分片最多两个目录），
+     * 上万个分片也只需按页列举的几次请求。
+     *
+     * @throws BusinessException 分片缺失或大小不符。
+     */
+    private void verifyStoredChunks(ChunkUploadSession session, List<String> chunkPaths) {
+        Map<String, Long> storedSizes = listStoredSizes(chunkPaths);
+
+        List<Integer> notFound = new ArrayList<>();
+        List<Integer> wrongSize = new ArrayList<>();
+        for (int i = 0; i < chunkPaths.size(); i++) {
+            Long size = storedSizes.get(chunkPaths.get(i));
+            if (size == null) {
+                notFound.add(i + 1);
+            } else if (session.getChunkSize() != null && size != expectedChunkSize(session, i + 1)) {
+                wrongSize.add(i + 1);
+            }
+        }
+        if (!notFound.isEmpty()) {
+            log.error("【文件合并 - {}】对象存储缺少分片: 会话={}, 缺失编号={}", getStorageType(), session.getSessionId(), notFound);
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, String.format("对象存储缺少分片，编号: %s", notFound));
+        }
+        if (!wrongSize.isEmpty()) {
+            log.error("【文件合并 - {}】分片大小不符合会话方案: 会话={}, 编号={}", getStorageType(), session.getSessionId(), wrongSize);
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, String.format("分片大小不正确，编号: %s", wrongSize));
+        }
+    }
+
+    /**
+     * 按分片所在的目录列举对象存储，返回其中对象的路径到大小的映射。
+     * 结果包含同目录下的其他对象，调用方按分片路径取值，不存在的分片取不到值。
+     */
+    private Map<String, Long> listStoredSizes(List<String> chunkPaths) {
+        Map<String, CompletableFuture<List<StorageObject>>> listings = new HashMap<>();
+        for (String path : chunkPaths) {
+            int slash = path.lastIndexOf('/');
+            String prefix = slash < 0 ? path : path.substring(0, slash + 1);
+            listings.computeIfAbsent(prefix, p -> asyncObjectStorageService.listObjects(getBucketName(), p, true));
+        }
+        Map<String, Long> storedSizes = new HashMap<>(chunkPaths.size() * 2);
+        listings.values().forEach(listing -> listing.join()
+                .forEach(object -> storedSizes.put(object.getFilePath(), object.getSize())));
+        return storedSizes;
+    }
+
+    /**
+     * 服务端确定分片方案时第 {@code chunkNumber} 个分片的字节数，最后一个分片为剩余字节。
+     */
+    private static long expectedChunkSize(ChunkUploadSession session, int chunkNumber) {
+        return chunkNumber < session.getTotalChunks()
+                ? session.getChunkSize()
+                : session.getFileSize() - (long) (session.getTotalChunks() - 1) * session.getChunkSize();
+    }
+
+    /**
+     * 等待其他请求（可能在其他实例上）执行的合并：轮询会话直到 MERGED，再读取已持久化的元数据。
+     * <p>
+     * 元数据在合并完成后异步写入，会话变为 MERGED 后可能还需片刻才能查到。
+     */
+    private FileMetadata awaitRemoteMerge(String sessionId) {
+        long deadline = System.nanoTime() + mergeConfig.getWaitTimeout().toNanos();
+        while (true) {
+            ChunkUploadSession session = sessionService.reloadSession(sessionId)
+                    .orElseThrow(() -> new BusinessException(ResultCode.UPLOAD_SESSION_NOT_FOUND, "上传会话不存在"));
+            if (session.getStatus() == ChunkUploadStatus.MERGED) {
+                Optional<FileMetadata> metadata = fileMetadataRepository.findByHash(session.getFileHash(), getStorageType());
+                if (metadata.isPresent()) {
+                    return metadata.get();
+                }
+            } else if (session.getStatus() != ChunkUploadStatus.MERGING) {
+                throw new BusinessException(ResultCode.MERGE_FAILED, "文件合并失败，请重试。当前状态: " + session.getStatus());
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new BusinessException(ResultCode.UPLOAD_SESSION_STATE_MISMATCH, "文件正在合并中，请稍后重试");
+            }
+            try {
+                Thread.sleep(mergeConfig.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ResultCode.MERGE_FAILED, "等待合并结果被中断", e);
+            }
+        }
+    }
+
 
     /**
      * 检查文件是否存在
@@ -372,7 +777,7 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
      * @param chunkNumber 分片序号
      */
     public String uploadChunk(MultipartFile file, String batchId, Integer chunkNumber) {
-        String filePath = batchId + "/" + chunkNumber;
+        String filePath = FilePathUtil.buildChunkPath(objectKeyConfig.getLayout(), batchId, chunkNumber);
         try (InputStream inputStream = file.getInputStream()) {
             objectStorageService.upload(
                     getBucketName(),
@@ -408,11 +813,19 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
         }
 
         // 2. 构建最终对象路径并合并
-        String finalFilePath = FilePathUtil.buildDateBasedPath(mergeRequestDto.getFolderPath(), mergeRequestDto.getFileHash(), mergeRequestDto.getFileName());
+        String finalFilePath = FilePathUtil.buildFilePath(objectKeyConfig.getLayout(), mergeRequestDto.getFolderPath(), mergeRequestDto.getFileHash(), mergeRequestDto.getFileName());
+        // 旧接口的请求不一定带文件大小，以对象存储中分片的总大小（即合并后对象的原始大小）为准
+        Map<String, Long> storedSizes = listStoredSizes(sourceObjectNames);
+        long fileSize = sourceObjectNames.stream().mapToLong(path -> storedSizes.getOrDefault(path, 0L)).sum();
+        ContentEncoding encoding = contentCompressionService.chooseEncoding(mergeRequestDto.getContentType(),
+                mergeRequestDto.getFileName(), fileSize);
+        Timer.Sample composeSample = uploadMetrics.start();
         try {
-            objectStorageService.compose(getBucketName(), sourceObjectNames, finalFilePath);
+            assembleObject(sourceObjectNames, finalFilePath, mergeRequestDto.getContentType(), encoding);
+            uploadMetrics.recordCompose(composeSample, getStorageType(), sourceObjectNames.size(), ResultCode.SUCCESS);
             log.info("【文件合并 - {}】对象存储操作成功。最终对象: '{}'。", getStorageType(), finalFilePath);
         } catch (Exception e) {
+            uploadMetrics.recordCompose(composeSample, getStorageType(), sourceObjectNames.size(), ResultCode.MERGE_FAILED);
             log.error("【文件合并 - {}】对象存储操作失败。最终对象: '{}'。", getStorageType(), finalFilePath, e);
             // 优雅地处理 MinIO 特定异常
             if (e instanceof io.minio.errors.ErrorResponseException) {
@@ -430,6 +843,8 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
 
         // 3. 构建元数据对象
         FileMetadata metadata = this.buildFileMetadata(mergeRequestDto, finalFilePath);
+        metadata.setFileSize(fileSize);
+        metadata.setContentEncoding(encoding);
 
         // 4. 发布文件合并成功事件
         FileMergedEvent event = new FileMergedEvent(this, metadata, mergeRequestDto.getBatchId(), sourceObjectNames);
@@ -441,24 +856,23 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
 
     /**
      * 删除一个文件及其元数据。
+     * <p>
+     * 只删除对象路径对应的一条元数据；同一内容的其他文件不受影响，BLOB 文件只释放一个引用。
      *
      * @param filePath 需要删除的文件的对象路径。
      */
     @Transactional
     public void deleteFile(String filePath) {
+        Optional<FileMetadata> metadata = fileMetadataRepository.findByPath(
+                getStorageType(), getMetadataBucketNames(), filePath);
+        if (metadata.isPresent()) {
+            deleteEntry(metadata.get());
+            return;
+        }
+        // 没有元数据的对象（如旧版本遗留）只删除对象本身
         try {
-            // 1. 从对象存储中删除文件
             objectStorageService.delete(getBucketName(), filePath);
-
-            // 2. 从数据库中删除元数据
-            String hash = FilePathUtil.extractHashFromPath(filePath);
-            if (hash != null) {
-                fileMetadataRepository.deleteByHash(hash, getStorageType());
-                log.info("【文件删除 - {}】成功删除文件元数据，Hash: {}", getStorageType(), hash);
-            } else {
-                log.warn("【文件删除 - {}】无法从路径中提取Hash，可能未删除元数据: {}", getStorageType(), filePath);
-            }
-            log.info("【文件删除 - {}】成功删除对象: {}", getStorageType(), filePath);
+            log.warn("【文件删除 - {}】未找到文件元数据，仅删除对象: {}", getStorageType(), filePath);
         } catch (Exception e) {
             log.error("【文件删除 - {}】删除对象存储文件失败: '{}'", getStorageType(), filePath, e);
             throw new BusinessException(ResultCode.FILE_DELETE_FAILED, "文件删除失败", e);
@@ -467,70 +881,425 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
 
     /**
      * 根据文件哈希值删除文件及其元数据。
+     * <p>
+     * 同一内容在不同目录或以不同文件名保存了多条元数据时无法确定删除哪一条，需改用 {@link #deleteFile} 按对象路径删除。
      *
      * @param fileHash 文件的哈希值
      */
     @Override
     @Transactional
     public void deleteFileByHash(String fileHash) {
+        List<FileMetadata> entries = fileMetadataRepository.findByHashes(
+                getStorageType(), getMetadataBucketNames(), List.of(fileHash));
+        if (entries.isEmpty()) {
+            log.warn("【文件删除 - {}】未找到文件元数据，Hash: {}", getStorageType(), fileHash);
+            throw new BusinessException(ResultCode.NOT_FOUND, "文件不存在");
+        }
+        if (entries.size() > 1) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "同一内容有多个文件，请按文件路径删除");
+        }
+        deleteEntry(entries.get(0));
+    }
+
+    /**
+     * 删除一条文件元数据及其独占的存储内容，调用方提供事务。
+     * <p>
+     * 单对象文件删除对象；BLOB 文件随元数据删除释放一个引用，共享对象由回收任务在引用归零后删除；
+     * CDC 文件在同一内容的最后一条元数据删除后才删除块清单，块由回收任务在不再被引用后删除。
+     */
+    private void deleteEntry(FileMetadata metadata) {
         try {
-            // 1. 根据哈希值查询文件元数据
-            Optional<FileMetadata> metadataOpt = fileMetadataRepository.findByHash(fileHash, getStorageType());
-            if (metadataOpt.isEmpty()) {
-                log.warn("【文件删除 - {}】未找到文件元数据，Hash: {}", getStorageType(), fileHash);
+            if (metadata.getContentLayout() == ContentLayout.OBJECT) {
+                objectStorageService.delete(metadata.getBucketName(), metadata.getFilePath());
+            }
+            if (fileMetadataRepository.deleteByIds(getStorageType(), List.of(metadata.getId())) == 0) {
                 throw new BusinessException(ResultCode.NOT_FOUND, "文件不存在");
             }
+            if (metadata.getContentLayout() == ContentLayout.CDC
+                    && fileMetadataRepository.findByHashes(getStorageType(), getMetadataBucketNames(),
+                            List.of(metadata.getContentHash())).isEmpty()) {
+                dedupChunkService.deleteManifest(getStorageType(), metadata.getContentHash());
+            }
+            log.info("【文件删除 - {}】成功删除文件: {}, Hash: {}", getStorageType(),
+                    metadata.getFilePath(), metadata.getContentHash());
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("【文件删除 - {}】删除文件失败: '{}'", getStorageType(), metadata.getFilePath(), e);
+            throw new BusinessException(ResultCode.FILE_DELETE_FAILED, "文件删除失败", e);
+        }
+    }
 
-            FileMetadata metadata = metadataOpt.get();
-            String filePath = metadata.getFilePath();
 
-            // 2. 从对象存储中删除文件
-            objectStorageService.delete(getBucketName(), filePath);
+    /**
+     * 批量删除文件。
+     * <p>
+     * 每页最多 {@value #BATCH_DELETE_PAGE_SIZE} 个文件：单对象文件按存储桶分组，经一次多对象删除请求删除，
+     * 各存储桶并发执行；随后在一个事务内批量删除 CDC 文件的块清单与全部删除成功的元数据。
+     * 对象删除失败的文件保留元数据并计入失败列表，可以重新提交。每页使用独立事务，不会因大批量删除长时间持有行锁。
+     */
+    @Override
+    public BatchDeleteResultDto deleteFiles(BatchDeleteRequestDto request) {
+        BatchDeleteResultDto result = new BatchDeleteResultDto();
+        long startTime = System.currentTimeMillis();
+        if (request.getFileHashes() != null && !request.getFileHashes().isEmpty()) {
+            List<String> hashes = request.getFileHashes().stream()
+                    .filter(hash -> hash != null && !hash.isBlank())
+                    .distinct()
+                    .toList();
+            for (int from = 0; from < hashes.size(); from += BATCH_DELETE_PAGE_SIZE) {
+                List<String> batch = hashes.subList(from, Math.min(from + BATCH_DELETE_PAGE_SIZE, hashes.size()));
+                List<FileMetadata> page = fileMetadataRepository.findByHashes(
+                        getStorageType(), getMetadataBucketNames(), batch);
+                Set<String> found = page.stream().map(FileMetadata::getContentHash).collect(Collectors.toSet());
+                for (String hash : batch) {
+                    if (!found.contains(hash)) {
+                        result.addFailure(hash, null, "文件不存在");
+                    }
+                }
+                deletePage(page, result);
+            }
+        } else {
+            String folderPath = FolderPathUtil.normalize(request.getFolderPath());
+            Long afterId = null;
+            while (true) {
+                List<FileMetadata> page = fileMetadataRepository.findInFolderTree(
+                        getStorageType(), getMetadataBucketNames(), folderPath, afterId, BATCH_DELETE_PAGE_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+                deletePage(page, result);
+                if (page.size() < BATCH_DELETE_PAGE_SIZE) {
+                    break;
+                }
+                // 失败的文件保留在表中，按主键游标前进，不会被重复读取
+                afterId = page.get(page.size() - 1).getId();
+            }
+        }
+        log.info("【批量删除 - {}】完成: 成功={}, 失败={}, 耗时={}ms", getStorageType(),
+                result.getDeletedCount(), result.getFailedCount(), System.currentTimeMillis() - startTime);
+        return result;
+    }
 
-            // 3. 从数据库中删除元数据
-            fileMetadataRepository.deleteByHash(fileHash, getStorageType());
-            
-            log.info("【文件删除 - {}】成功通过Hash删除文件，Hash: {}, 路径: {}", getStorageType(), fileHash, filePath);
+    /**
+     * 删除一页文件：先删对象，再在一个事务内删除块清单与元数据（同时释放共享对象引用）。
+     */
+    private void deletePage(List<FileMetadata> page, BatchDeleteResultDto result) {
+        List<FileMetadata> deletable = new ArrayList<>();
+        Map<String, List<FileMetadata>> objectsByBucket = new HashMap<>();
+        for (FileMetadata metadata : page) {
+            if (metadata.getContentLayout() != ContentLayout.OBJECT) {
+                // CDC 文件只删除块清单，块由回收任务在不再被引用后删除；BLOB 文件只释放引用
+                deletable.add(metadata);
+            } else {
+                objectsByBucket.computeIfAbsent(metadata.getBucketName(), key -> new ArrayList<>()).add(metadata);
+            }
+        }
+
+        Map<String, CompletableFuture<List<String>>> pending = new HashMap<>();
+        objectsByBucket.forEach((bucketName, files) -> pending.put(bucketName, asyncObjectStorageService.delete(
+                bucketName, files.stream().map(FileMetadata::getFilePath).toList())));
+        for (Map.Entry<String, List<FileMetadata>> entry : objectsByBucket.entrySet()) {
+            Set<String> failedPaths;
+            try {
+                failedPaths = new HashSet<>(pending.get(entry.getKey()).join());
+            } catch (CompletionException e) {
+                log.error("【批量删除 - {}】对象删除请求失败，存储桶: {}", getStorageType(), entry.getKey(), e.getCause());
+                failedPaths = entry.getValue().stream().map(FileMetadata::getFilePath).collect(Collectors.toSet());
+            }
+            for (FileMetadata metadata : entry.getValue()) {
+                if (failedPaths.contains(metadata.getFilePath())) {
+                    result.addFailure(metadata.getContentHash(), metadata.getFilePath(), "对象删除失败");
+                } else {
+                    deletable.add(metadata);
+                }
+            }
+        }
+        if (deletable.isEmpty()) {
+            return;
+        }
+
+        List<String> manifestHashes = deletable.stream()
+                .filter(metadata -> metadata.getContentLayout() == ContentLayout.CDC)
+                .map(FileMetadata::getContentHash)
+                .toList();
+        List<Long> ids = deletable.stream().map(FileMetadata::getId).toList();
+        try {
+            Integer deleted = transactionTemplate.execute(status -> {
+                dedupChunkService.deleteManifests(getStorageType(), manifestHashes);
+                return fileMetadataRepository.deleteByIds(getStorageType(), ids);
+            });
+            result.setDeletedCount(result.getDeletedCount() + (deleted == null ? 0 : deleted));
+        } catch (Exception e) {
+            // 对象已删除但元数据仍在，与单个删除失败时的状态相同，可以重新提交
+            log.error("【批量删除 - {}】元数据删除失败，文件数: {}", getStorageType(), ids.size(), e);
+            deletable.forEach(metadata ->
+                    result.addFailure(metadata.getContentHash(), metadata.getFilePath(), "元数据删除失败"));
+        }
+    }
+
+    /**
+     * 复制文件：只新增一条 BLOB 布局的元数据并增加共享对象的引用。
+     * <p>
+     * 源文件是旧的单对象文件时，先在服务端把其对象复制为共享对象，之后的复制都只写元数据。
+     * CDC 文件的块清单按内容哈希共享，删除任一文件都会删除清单，因此不支持复制。
+     */
+    @Override
+    public FileDetailDto copyFile(FileCopyRequestDto request) {
+        if (!blobStoreService.isEnabled()) {
+            throw new BusinessException(ResultCode.FORBIDDEN, "服务端未开启共享对象存储");
+        }
+        if (request.getFileHash() == null || request.getFileHash().isBlank() || request.getTargetFolderPath() == null) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "文件Hash与目标目录不能为空");
+        }
+        FileMetadata source = findSource(getStorageType(), request)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "文件不存在"));
+        if (!canReference(source)) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "去重存储的文件不支持复制");
+        }
+        String fileName = request.getTargetFileName() == null || request.getTargetFileName().isBlank()
+                ? source.getOriginalFilename() : request.getTargetFileName();
+        FileMetadata copy = fileMetadataRepository.findByHashAndName(source.getContentHash(), getStorageType(),
+                        request.getTargetFolderPath(), fileName)
+                .orElseGet(() -> createReference(source, request.getTargetFolderPath(), fileName, source.getContentType()));
+        log.info("【文件复制 - {}】复制成功: Hash={}, 目标={}", getStorageType(), source.getContentHash(), copy.getFilePath());
+        return toFileDetail(copy);
+    }
+
+    /**
+     * 从另一种存储类型导入文件。对象在存储端跨存储桶复制（超过 5GiB 时分段复制），数据不经过客户端与应用；
+     * 开启共享对象存储且本存储类型中已有同一内容时只新增元数据。
+     */
+    @Override
+    public FileDetailDto importFile(StorageType sourceType, FileCopyRequestDto request) {
+        if (sourceType == getStorageType()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "源存储类型与目标相同");
+        }
+        if (request.getFileHash() == null || request.getFileHash().isBlank()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "文件Hash不能为空");
+        }
+        FileMetadata source = findSource(sourceType, request)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "源文件不存在"));
+        String folderPath = request.getTargetFolderPath() != null ? request.getTargetFolderPath() : source.getFolderPath();
+        String fileName = request.getTargetFileName() == null || request.getTargetFileName().isBlank()
+                ? source.getOriginalFilename() : request.getTargetFileName();
+        long startTime = System.currentTimeMillis();
+        FileMetadata imported = fileMetadataRepository.findByHashAndName(source.getContentHash(), getStorageType(),
+                        folderPath, fileName)
+                .orElseGet(() -> importFrom(source, folderPath, fileName, source.getContentType()));
+        log.info("【跨存储复制 - {}】导入成功: 源={}, Hash={}, 目标={}, 耗时={}ms", getStorageType(), sourceType,
+                source.getContentHash(), imported.getFilePath(), System.currentTimeMillis() - startTime);
+        return toFileDetail(imported);
+    }
+
+
+    // --- 私有辅助方法 ---
+
+    /**
+     * 复制或导入的源文件：指定了源文件路径时取该文件，否则取同一内容的任意一个文件（内容相同，只影响默认的目录与文件名）。
+     */
+    private Optional<FileMetadata> findSource(StorageType sourceType, FileCopyRequestDto request) {
+        if (request.getSourceFilePath() != null && !request.getSourceFilePath().isBlank()) {
+            return fileMetadataRepository.findByHashAndPath(request.getFileHash(), sourceType, request.getSourceFilePath());
+        }
+        return fileMetadataRepository.findByHash(request.getFileHash(), sourceType);
+    }
+
+    /**
+     * 已有文件的内容能否被新的元数据引用：开启共享对象存储且不是 CDC 文件。
+     */
+    private boolean canReference(FileMetadata existing) {
+        return blobStoreService.isEnabled() && existing.getContentLayout() != ContentLayout.CDC;
+    }
+
+    /**
+     * 新增一条引用已有内容的 BLOB 布局元数据。
+     * <p>
+     * 共享对象尚不存在（已有文件是旧的单对象文件，或来自另一种存储类型）时先按 {@link #copyContent} 写入，
+     * 已有文件的存储桶可能与共享对象不同（例如已降冷）。元数据保存失败时归还引用。
+     *
+     * @param existing    同一内容的已有文件，可以属于另一种存储类型。
+     * @param folderPath  新文件的目录。
+     * @param fileName    新文件的文件名。
+     * @param contentType 新文件的 MIME 类型，为空时沿用已有文件的类型。
+     * @return 已保存的元数据。
+     */
+    private FileMetadata createReference(FileMetadata existing, String folderPath, String fileName, String contentType) {
+        String fileHash = existing.getContentHash();
+        BlobStoreService.Lease lease = blobStoreService.acquire(getStorageType(), getBucketName(), fileHash,
+                existing.getFileSize(), encodingOf(existing));
+        try {
+            if (lease.needsWrite()) {
+                copyContent(existing, lease.blob().getBucketName(), FilePathUtil.buildBlobPath(fileHash),
+                        lease.blob().getContentEncoding());
+                log.info("【共享对象 - {}】已将已有文件复制为共享对象: {} '{}'", getStorageType(),
+                        existing.getStorageType(), existing.getFilePath());
+            }
+
+            FileMetadata metadata = buildCopyMetadata(existing, folderPath, fileName, contentType);
+            metadata.setContentLayout(ContentLayout.BLOB);
+            metadata.setContentEncoding(lease.blob().getContentEncoding());
+            metadata.setBucketName(lease.blob().getBucketName());
+            metadataBatchWriter.submit(metadata).join();
+            log.info("【共享对象 - {}】新增文件引用: Hash={}, 路径='{}'", getStorageType(), fileHash, metadata.getFilePath());
+            return metadata;
         } catch (BusinessException e) {
+            releaseLease(lease);
             throw e;
+        } catch (CompletionException e) {
+            releaseLease(lease);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件元数据保存失败", e.getCause());
         } catch (Exception e) {
-            log.error("【文件删除 - {}】通过Hash删除文件失败，Hash: '{}'", getStorageType(), fileHash, e);
-            throw new BusinessException(ResultCode.FILE_DELETE_FAILED, "文件删除失败", e);
+            releaseLease(lease);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "复制共享对象失败", e);
         }
     }
 
+    /**
+     * 把另一种存储类型中的文件复制为本存储类型的文件：开启共享对象存储时新增引用，否则复制为单对象文件。
+     */
+    private FileMetadata importFrom(FileMetadata source, String folderPath, String fileName, String contentType) {
+        if (blobStoreService.isEnabled()) {
+            return createReference(source, folderPath, fileName, contentType);
+        }
+        FileMetadata metadata = buildCopyMetadata(source, folderPath, fileName, contentType);
+        metadata.setContentLayout(ContentLayout.OBJECT);
+        metadata.setContentEncoding(encodingOf(source));
+        metadata.setBucketName(getBucketName());
+        try {
+            copyContent(source, getBucketName(), metadata.getFilePath(), metadata.getContentEncoding());
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "复制文件失败", e);
+        }
+        try {
+            metadataBatchWriter.submit(metadata).join();
+        } catch (CompletionException e) {
+            // 已复制的对象没有元数据，由孤儿文件清理任务删除
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件元数据保存失败", e.getCause());
+        }
+        log.info("【跨存储复制 - {}】已从 {} 复制文件: '{}'", getStorageType(), source.getStorageType(), metadata.getFilePath());
+        return metadata;
+    }
 
-    // --- 私有辅助方法 ---
+    /**
+     * 把已有文件的内容写入目标对象：单对象与共享对象在存储端复制，数据不经过应用；
+     * CDC 文件没有单个对象可供复制，按块清单流式读出后写入。
+     *
+     * @param targetEncoding 目标对象应有的内容编码，必须与源内容的编码一致。
+     */
+    private void copyContent(FileMetadata source, String targetBucket, String targetKey,
+                             ContentEncoding targetEncoding) throws Exception {
+        if (!Objects.equals(encodingOf(source), targetEncoding)) {
+            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "已有内容的编码与目标对象不一致");
+        }
+        if (source.getContentLayout() == ContentLayout.CDC) {
+            try (InputStream inputStream = dedupChunkService.openStream(source)) {
+                objectStorageService.upload(targetBucket, targetKey, inputStream, source.getFileSize(),
+                        source.getContentType());
+            }
+            return;
+        }
+        String sourceKey = FilePathUtil.objectKeyOf(source);
+        if (source.getBucketName().equals(targetBucket) && sourceKey.equals(targetKey)) {
+            // 源文件就是引用这个共享对象的文件，对象本身已丢失
+            throw new BusinessException(ResultCode.FILE_NOT_EXIST, "文件内容不存在，请重新上传");
+        }
+        objectStorageService.copy(source.getBucketName(), sourceKey, targetBucket, targetKey);
+    }
+
+    /**
+     * 已有文件内容的编码；CDC 文件按原始字节读出。
+     */
+    private static ContentEncoding encodingOf(FileMetadata source) {
+        return source.getContentLayout() == ContentLayout.CDC ? null : source.getContentEncoding();
+    }
+
+    /**
+     * 构建复制得到的文件元数据，存储桶、布局与编码由调用方设置。
+     */
+    private FileMetadata buildCopyMetadata(FileMetadata source, String folderPath, String fileName, String contentType) {
+        FileMetadata metadata = new FileMetadata();
+        metadata.setFolderPath(folderPath);
+        metadata.setFilePath(FilePathUtil.buildFilePath(objectKeyConfig.getLayout(), folderPath, source.getContentHash(), fileName));
+        metadata.setOriginalFilename(fileName);
+        metadata.setFileSize(source.getFileSize());
+        metadata.setContentType(contentType != null ? contentType : source.getContentType());
+        metadata.setContentHash(source.getContentHash());
+        metadata.setStorageType(getStorageType());
+        return metadata;
+    }
+
+    /**
+     * 另一种存储类型。
+     */
+    private StorageType otherStorageType() {
+        return getStorageType() == StorageType.PUBLIC ? StorageType.PRIVATE : StorageType.PUBLIC;
+    }
+
+    /**
+     * 归还尚未交给元数据保存的共享对象引用。
+     */
+    private void releaseLease(BlobStoreService.Lease lease) {
+        if (lease != null) {
+            blobStoreService.release(lease.blob().getStorageType(), lease.blob().getContentHash());
+        }
+    }
 
     /**
      * 直接上传单个文件，适用于小文件。
+     * <p>
+     * 元数据经 {@link MetadataBatchWriter} 与并发上传的其他文件合并写入。此方法不开启事务，
+     * 等待写入期间不占用数据库连接。开启共享对象存储时内容写入按哈希寻址的对象，内容已存在则不再写入。
      *
      * @param file     上传的文件
      * @param fileHash 文件的哈希值
      * @return 文件的元数据
      */
     @Override
-    @Transactional
     public FileMetadata uploadFile(String folderPath, MultipartFile file, String fileHash) {
         log.info("【直接上传 - {}】开始处理直接上传请求，文件名: {}，哈希: {}", getStorageType(), file.getOriginalFilename(), fileHash);
 
         // 1. 构建最终对象路径
-        String finalFilePath = FilePathUtil.buildDateBasedPath(folderPath, fileHash, file.getOriginalFilename());
+        String finalFilePath = FilePathUtil.buildFilePath(objectKeyConfig.getLayout(), folderPath, fileHash, file.getOriginalFilename());
         log.debug("【直接上传 - {}】构建最终文件路径: {}", getStorageType(), finalFilePath);
 
-        // 2. 上传文件到对象存储
-        try (InputStream inputStream = file.getInputStream()) {
-            objectStorageService.upload(
-                    getBucketName(),
-                    finalFilePath,
-                    inputStream,
-                    file.getSize(),
-                    file.getContentType()
-            );
-            log.info("【直接上传 - {}】文件已成功上传到对象存储。最终对象: '{}'。", getStorageType(), finalFilePath);
-        } catch (Exception e) {
-            log.error("【直接上传 - {}】文件上传到对象存储时失败。最终对象: '{}'。", getStorageType(), finalFilePath, e);
-            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件上传失败", e);
+        // 2. 上传文件到对象存储，可压缩的内容边读边压缩
+        ContentEncoding encoding = contentCompressionService.chooseEncoding(
+                file.getContentType(), file.getOriginalFilename(), file.getSize());
+        String objectKey = finalFilePath;
+        BlobStoreService.Lease lease = null;
+        if (blobStoreService.isEnabled()) {
+            lease = blobStoreService.acquire(getStorageType(), getBucketName(), fileHash, file.getSize(), encoding);
+            encoding = lease.blob().getContentEncoding();
+            objectKey = FilePathUtil.buildBlobPath(fileHash);
+        }
+        if (lease == null || lease.needsWrite()) {
+            Timer.Sample putSample = uploadMetrics.start();
+            try (InputStream inputStream = file.getInputStream()) {
+                if (encoding != null) {
+                    contentCompressionService.uploadEncoded(getBucketName(), objectKey, inputStream,
+                            file.getContentType(), encoding, getStorageType());
+                } else {
+                    objectStorageService.upload(
+                            getBucketName(),
+                            objectKey,
+                            inputStream,
+                            file.getSize(),
+                            file.getContentType()
+                    );
+                }
+                uploadMetrics.recordStoragePut(putSample, getStorageType(), ResultCode.SUCCESS);
+                log.info("【直接上传 - {}】文件已成功上传到对象存储。最终对象: '{}'。", getStorageType(), objectKey);
+            } catch (Exception e) {
+                uploadMetrics.recordStoragePut(putSample, getStorageType(), ResultCode.FILE_UPLOAD_FAILED);
+                releaseLease(lease);
+                log.error("【直接上传 - {}】文件上传到对象存储时失败。最终对象: '{}'。", getStorageType(), objectKey, e);
+                throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件上传失败", e);
+            }
+        } else {
+            log.info("【直接上传 - {}】内容已存在，跳过上传。共享对象: '{}'。", getStorageType(), objectKey);
         }
 
         // 3. 构建并保存文件元数据
@@ -541,15 +1310,89 @@ public abstract class AbstractChunkedFileServiceImpl implements AbstractChunkedF
         metadata.setFileSize(file.getSize());
         metadata.setContentType(file.getContentType());
         metadata.setContentHash(fileHash);
+        metadata.setContentEncoding(encoding);
         metadata.setBucketName(getBucketName());
         metadata.setStorageType(getStorageType());
+        if (lease != null) {
+            metadata.setContentLayout(ContentLayout.BLOB);
+            metadata.setBucketName(lease.blob().getBucketName());
+        }
 
-        fileMetadataRepository.save(metadata);
+        try {
+            metadataBatchWriter.submit(metadata).join();
+        } catch (CompletionException e) {
+            releaseLease(lease);
+            log.error("【直接上传 - {}】文件元数据保存失败。最终对象: '{}'。", getStorageType(), finalFilePath, e.getCause());
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件元数据保存失败", e.getCause());
+        }
         log.info("【直接上传 - {}】文件元数据已成功保存到数据库。最终对象路径: '{}'。", getStorageType(), finalFilePath);
 
         return metadata;
     }
 
+    /**
+     * 将按顺序排列的分片拼成最终对象。不压缩时由对象存储服务端合并；需要压缩时按顺序读出分片、边压缩边上传，
+     * 压缩后的数据无法按原分片边界切分，也不满足服务端合并对分段大小的要求，因此不能先压缩分片再合并。
+     */
+    private void assembleObject(List<String> chunkPaths, String finalFilePath, String contentType,
+                                ContentEncoding encoding) throws Exception {
+        if (encoding == null) {
+            objectStorageService.compose(getBucketName(), chunkPaths, finalFilePath);
+            return;
+        }
+        contentCompressionService.uploadEncoded(getBucketName(), finalFilePath,
+                new ManifestInputStream(objectStorageService, getBucketName(), chunkPaths),
+                contentType, encoding, getStorageType());
+    }
+
+    /**
+     * 浏览虚拟目录。
+     * <p>
+     * 目录与子目录的统计直接读取 {@code folder_stats}，文件按主键游标分页读取，
+     * 耗时只与返回的条数有关，与目录下的文件总数无关。子目录只在第一页返回。
+     */
+    @Override
+    public FolderBrowseDto browse(String path, Long afterId, int limit) {
+        String folderPath = FolderPathUtil.normalize(path);
+        int pageSize = Math.max(1, Math.min(limit, MAX_BROWSE_PAGE_SIZE));
+
+        FolderEntryDto folder = folderStatsRepository.findByPath(getStorageType(), folderPath)
+                .map(this::toFolderEntry)
+                .orElseGet(() -> FolderEntryDto.builder()
+                        .name(FolderPathUtil.nameOf(folderPath))
+                        .path(folderPath)
+                        .build());
+        List<FolderEntryDto> folders = null;
+        if (afterId == null) {
+            folders = folderStatsRepository.findChildren(getStorageType(), folderPath, MAX_BROWSE_CHILD_FOLDERS).stream()
+                    .map(this::toFolderEntry)
+                    .collect(Collectors.toList());
+        }
+
+        List<FileMetadata> page = fileMetadataRepository.findInFolder(
+                getStorageType(), getMetadataBucketNames(), folderPath, afterId, pageSize);
+        List<FileDetailDto> files = page.stream().map(this::toFileDetail).collect(Collectors.toList());
+        Long nextAfterId = page.size() < pageSize ? null : page.get(page.size() - 1).getId();
+        return new FolderBrowseDto(folder, folders, files, nextAfterId);
+    }
+
+    @Override
+    public FileSearchResultDto search(String query, int page, int size) {
+        FileSearchService.SearchPage result = fileSearchService.search(getStorageType(), query, page, size);
+        List<FileDetailDto> items = result.files().stream().map(this::toFileDetail).collect(Collectors.toList());
+        return new FileSearchResultDto(items, result.total(), result.hasMore(), result.truncated());
+    }
+
+    private FolderEntryDto toFolderEntry(FolderStats stats) {
+        return FolderEntryDto.builder()
+                .name(stats.getName())
+                .path(stats.getFolderPath())
+                .fileCount(stats.getFileCount() == null ? 0 : stats.getFileCount())
+                .totalBytes(stats.getTotalBytes() == null ? 0 : stats.getTotalBytes())
+                .lastModified(stats.getLastModified())
+                .build();
+    }
+
     /**
      * 构建文件元数据
      *
@@ -5,47 +5,93 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.cache.UploadSessionCache;
+import org.example.miniodemo.common.etag.ResourceVersionRegistry;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.common.response.ResultCode;
 import org.example.miniodemo.domain.ChunkUploadSession;
 import org.example.miniodemo.domain.ChunkUploadStatus;
 import org.example.miniodemo.domain.StorageType;
 import org.example.miniodemo.mapper.ChunkUploadSessionMapper;
 import org.example.miniodemo.service.ChunkUploadSessionService;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 分片上传会话服务实现
+ * <p>
+ * {@code /upload/status} 的 ETag 由 {@link ResourceVersionRegistry} 从会话行本身得出，写入无需另行登记版本号。
+ * 读取经 {@link UploadSessionCache}，写入后同步更新缓存：一次分片上传只剩一次 UPDATE，
+ * 合并前的校验与状态轮询不再查询数据库。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService {
-    
+
+    /**
+     * 会话级条带锁数量，须为 2 的幂。
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * 可以转为 READY_TO_MERGE 的状态：上传中，或上次合并失败
+     */
+    private static final Set<ChunkUploadStatus> PRE_MERGE_STATUSES = EnumSet.of(
+            ChunkUploadStatus.INIT, ChunkUploadStatus.UPLOADING, ChunkUploadStatus.FAILED);
+
+    /**
+     * 可以认领上传者的状态：上传中，或分片已齐但上传者尚未请求合并
+     */
+    private static final Set<ChunkUploadStatus> CLAIMABLE_STATUSES = EnumSet.of(
+            ChunkUploadStatus.INIT, ChunkUploadStatus.UPLOADING, ChunkUploadStatus.READY_TO_MERGE);
+
     private final ChunkUploadSessionMapper sessionMapper;
     private final ObjectMapper objectMapper;
+    private final UploadMetrics uploadMetrics;
+    private final UploadSessionCache sessionCache;
+
+    /**
+     * 按会话ID分条带的锁，保证同一会话的分片记录串行执行（读-改-写 chunk_paths_json），
+     * 不同会话之间互不阻塞。使用 {@link ReentrantLock} 而不是 {@code synchronized}，
+     * 以免虚拟线程在持锁期间执行 JDBC 调用时钉住载体线程。
+     */
+    private final ReentrantLock[] sessionLocks = createLocks();
     
     @Override
     public ChunkUploadSession createOrGetSession(String sessionId, String fileName, String fileHash, 
                                                Long fileSize, String contentType, String folderPath, 
-                                               Integer totalChunks, String bucketName, StorageType storageType) {
+                                               Integer totalChunks, Long chunkSize, String bucketName, StorageType storageType,
+                                               String uploaderId, Duration uploaderStallTimeout) {
         
         // 先尝试获取已存在的会话
         Optional<ChunkUploadSession> existingSession = getSession(sessionId);
         if (existingSession.isPresent()) {
             ChunkUploadSession session = existingSession.get();
-            // 仅当会话未过期且仍处于可上传状态时复用；
-            // 对于 MERGED/READY_TO_MERGE/MERGING/FAILED/EXPIRED 等状态不再复用，直接删除并创建新会话。
+            // 未过期且仍在上传或合并中的会话复用，调用方成为上传者或等待者；
+            // 对于 MERGED/FAILED/EXPIRED 等状态不再复用，直接删除并创建新会话。
             boolean notExpired = session.getExpiresAt().isAfter(LocalDateTime.now());
-            boolean reusableStatus = session.getStatus() == ChunkUploadStatus.UPLOADING
-                    || session.getStatus() == ChunkUploadStatus.INIT;
-            if (notExpired && reusableStatus) {
+            if (notExpired && session.getStatus() == ChunkUploadStatus.MERGING) {
+                log.info("【会话管理】会话正在合并，作为等待者加入: {}", sessionId);
+                return session;
+            }
+            if (notExpired && CLAIMABLE_STATUSES.contains(session.getStatus())) {
                 log.info("【会话管理】找到可复用的上传会话: {}", sessionId);
+                if (!uploaderId.equals(session.getUploaderId())) {
+                    claimUploader(session, uploaderId, uploaderStallTimeout);
+                }
                 return session;
             } else {
                 log.info("【会话管理】旧会话不可复用，删除并重建: {}，状态={}，过期={}", sessionId, session.getStatus(), !notExpired);
@@ -62,6 +108,8 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
         session.setContentType(contentType);
         session.setFolderPath(folderPath);
         session.setTotalChunks(totalChunks);
+        session.setChunkSize(chunkSize);
+        session.setUploaderId(uploaderId);
         session.setUploadedChunks(0);
         session.setChunkPathsJson("[]"); // 初始化为空数组
         session.setBucketName(bucketName);
@@ -71,13 +119,72 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
         session.setCreatedAt(LocalDateTime.now());
         session.setUpdatedAt(LocalDateTime.now());
         
-        sessionMapper.insert(session);
+        try {
+            sessionMapper.insert(session);
+        } catch (DuplicateKeyException e) {
+            // 其他客户端同时初始化了同一文件并先创建了会话，作为等待者加入
+            log.info("【会话管理】会话已由其他客户端创建，作为等待者加入: {}", sessionId);
+            return reloadSession(sessionId).orElseThrow(() -> e);
+        }
+        sessionCache.put(session);
         log.info("【会话管理】创建新的上传会话: {}", sessionId);
         return session;
     }
+
+    /**
+     * 认领会话的上传者：会话尚无上传者（旧会话），或上传者超过 {@code stallTimeout} 没有上传分片（updated_at 未更新）。
+     * 条件更新保证并发认领只有一个成功；成功时把 {@code session} 的上传者改为调用方，失败时保持原上传者。
+     */
+    private void claimUploader(ChunkUploadSession session, String uploaderId, Duration stallTimeout) {
+        String sessionId = session.getSessionId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime stalledBefore = now.minus(stallTimeout);
+        boolean claimed = sessionMapper.update(null, new LambdaUpdateWrapper<ChunkUploadSession>()
+                .eq(ChunkUploadSession::getSessionId, sessionId)
+                .in(ChunkUploadSession::getStatus, CLAIMABLE_STATUSES)
+                .and(w -> w.isNull(ChunkUploadSession::getUploaderId)
+                        .or().lt(ChunkUploadSession::getUpdatedAt, stalledBefore))
+                .set(ChunkUploadSession::getUploaderId, uploaderId)
+                .set(ChunkUploadSession::getUpdatedAt, now)) > 0;
+        if (!claimed) {
+            log.info("【会话管理】会话正由其他客户端上传，作为等待者加入: {}", sessionId);
+            return;
+        }
+        sessionCache.update(sessionId, cached -> {
+            cached.setUploaderId(uploaderId);
+            cached.setUpdatedAt(now);
+        });
+        log.info("【会话管理】认领会话上传者: 会话={}, 原上传者{}", sessionId,
+                session.getUploaderId() == null ? "为空" : "已中断");
+        session.setUploaderId(uploaderId);
+        session.setUpdatedAt(now);
+    }
     
     @Override
-    public synchronized void recordChunkUploaded(String sessionId, Integer chunkNumber, String chunkPath) {
+    public void recordChunkUploaded(String sessionId, Integer chunkNumber, String chunkPath) {
+        // 计时包含等待锁的时间，并发上传同一会话时的锁竞争也会体现在该指标中
+        Timer.Sample sample = uploadMetrics.start();
+        ResultCode outcome = ResultCode.SUCCESS;
+        StorageType storageType = null;
+        try {
+            // 存储类型不会改变，从缓存读取即可，不需要在锁内
+            storageType = getSession(sessionId).map(ChunkUploadSession::getStorageType).orElse(null);
+            ReentrantLock lock = lockFor(sessionId);
+            lock.lock();
+            try {
+                doRecordChunkUploaded(sessionId, chunkNumber, chunkPath);
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            outcome = UploadMetrics.outcomeOf(e);
+            throw e;
+        } finally {
+            uploadMetrics.recordSessionDb(sample, "recordChunkUploaded", storageType, outcome);
+        }
+    }
+
+    private void doRecordChunkUploaded(String sessionId, Integer chunkNumber, String chunkPath) {
         Optional<ChunkUploadSession> sessionOpt = getSession(sessionId);
         if (sessionOpt.isEmpty()) {
             log.error("【会话管理】会话不存在: {}", sessionId);
@@ -105,21 +212,32 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
         
         // 计算已上传分片数
         int uploadedCount = (int) chunkPaths.stream().filter(path -> path != null && !path.isEmpty()).count();
+        boolean allUploaded = uploadedCount == session.getTotalChunks();
+        String chunkPathsJson = serializeChunkPaths(chunkPaths);
+        LocalDateTime now = LocalDateTime.now();
         
         // 更新会话
         LambdaUpdateWrapper<ChunkUploadSession> updateWrapper = new LambdaUpdateWrapper<>();
         updateWrapper.eq(ChunkUploadSession::getSessionId, sessionId)
-                    .set(ChunkUploadSession::getChunkPathsJson, serializeChunkPaths(chunkPaths))
+                    .set(ChunkUploadSession::getChunkPathsJson, chunkPathsJson)
                     .set(ChunkUploadSession::getUploadedChunks, uploadedCount)
-                    .set(ChunkUploadSession::getUpdatedAt, LocalDateTime.now());
+                    .set(ChunkUploadSession::getUpdatedAt, now);
         
         // 如果所有分片都已上传，更新状态为准备合并
-        if (uploadedCount == session.getTotalChunks()) {
+        if (allUploaded) {
             updateWrapper.set(ChunkUploadSession::getStatus, ChunkUploadStatus.READY_TO_MERGE);
             log.info("【会话管理】所有分片已上传，更新状态为READY_TO_MERGE: 会话={}", sessionId);
         }
         
         sessionMapper.update(null, updateWrapper);
+        sessionCache.update(sessionId, cached -> {
+            cached.setChunkPathsJson(chunkPathsJson);
+            cached.setUploadedChunks(uploadedCount);
+            cached.setUpdatedAt(now);
+            if (allUploaded) {
+                cached.setStatus(ChunkUploadStatus.READY_TO_MERGE);
+            }
+        });
         log.info("【会话管理】记录分片上传: 会话={}, 分片={}, 已上传={}/{}, 状态={}", 
                 sessionId, chunkNumber, uploadedCount, session.getTotalChunks(),
                 uploadedCount == session.getTotalChunks() ? "READY_TO_MERGE" : "UPLOADING");
@@ -127,10 +245,28 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
     
     @Override
     public Optional<ChunkUploadSession> getSession(String sessionId) {
-        LambdaQueryWrapper<ChunkUploadSession> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ChunkUploadSession::getSessionId, sessionId);
-        ChunkUploadSession session = sessionMapper.selectOne(queryWrapper);
-        return Optional.ofNullable(session);
+        return Optional.ofNullable(sessionCache.get(sessionId, this::loadSession));
+    }
+
+    /**
+     * 从数据库读取会话，只在缓存未命中时调用。
+     */
+    private ChunkUploadSession loadSession(String sessionId) {
+        Timer.Sample sample = uploadMetrics.start();
+        ResultCode outcome = ResultCode.SUCCESS;
+        ChunkUploadSession session = null;
+        try {
+            LambdaQueryWrapper<ChunkUploadSession> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(ChunkUploadSession::getSessionId, sessionId);
+            session = sessionMapper.selectOne(queryWrapper);
+            return session;
+        } catch (RuntimeException e) {
+            outcome = UploadMetrics.outcomeOf(e);
+            throw e;
+        } finally {
+            uploadMetrics.recordSessionDb(sample, "getSession",
+                    session != null ? session.getStorageType() : null, outcome);
+        }
     }
     
     @Override
@@ -193,10 +329,11 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
             return false;
         }
         
-        // 如果所有分片都已上传但状态还不是READY_TO_MERGE，则更新状态（允许从FAILED恢复）
+        // 如果所有分片都已上传但状态还不是READY_TO_MERGE，则更新状态（允许从FAILED恢复）；
+        // 条件更新，不会覆盖其他请求刚写入的 MERGING
         if (allChunksUploaded && session.getStatus() != ChunkUploadStatus.READY_TO_MERGE) {
             log.info("【会话管理】所有分片已上传，更新会话状态为READY_TO_MERGE: {}", sessionId);
-            updateSessionStatus(sessionId, ChunkUploadStatus.READY_TO_MERGE);
+            transitionStatus(sessionId, PRE_MERGE_STATUSES, ChunkUploadStatus.READY_TO_MERGE);
         }
         
         log.info("【会话管理】检查合并状态: 会话={}, 已上传={}/{}, 状态={}, 可合并={}", 
@@ -208,20 +345,75 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
     
     @Override
     public void updateSessionStatus(String sessionId, ChunkUploadStatus status) {
+        LocalDateTime now = LocalDateTime.now();
         LambdaUpdateWrapper<ChunkUploadSession> updateWrapper = new LambdaUpdateWrapper<>();
         updateWrapper.eq(ChunkUploadSession::getSessionId, sessionId)
                     .set(ChunkUploadSession::getStatus, status)
-                    .set(ChunkUploadSession::getUpdatedAt, LocalDateTime.now());
+                    .set(ChunkUploadSession::getUpdatedAt, now);
         
         sessionMapper.update(null, updateWrapper);
+        sessionCache.update(sessionId, cached -> {
+            cached.setStatus(status);
+            cached.setUpdatedAt(now);
+        });
         log.info("【会话管理】更新会话状态: 会话={}, 状态={}", sessionId, status);
     }
     
+    @Override
+    public boolean transitionStatus(String sessionId, Set<ChunkUploadStatus> from, ChunkUploadStatus to) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean updated = sessionMapper.update(null, new LambdaUpdateWrapper<ChunkUploadSession>()
+                .eq(ChunkUploadSession::getSessionId, sessionId)
+                .in(ChunkUploadSession::getStatus, from)
+                .set(ChunkUploadSession::getStatus, to)
+                .set(ChunkUploadSession::getUpdatedAt, now)) > 0;
+        afterTransition(sessionId, updated, to, now);
+        log.info("【会话管理】条件更新会话状态: 会话={}, {} -> {}, 成功={}", sessionId, from, to, updated);
+        return updated;
+    }
+
+    @Override
+    public boolean tryStartMerge(String sessionId, Duration staleAfter) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(staleAfter);
+        boolean updated = sessionMapper.update(null, new LambdaUpdateWrapper<ChunkUploadSession>()
+                .eq(ChunkUploadSession::getSessionId, sessionId)
+                .and(w -> w.eq(ChunkUploadSession::getStatus, ChunkUploadStatus.READY_TO_MERGE)
+                        .or(x -> x.eq(ChunkUploadSession::getStatus, ChunkUploadStatus.MERGING)
+                                .lt(ChunkUploadSession::getUpdatedAt, staleBefore)))
+                .set(ChunkUploadSession::getStatus, ChunkUploadStatus.MERGING)
+                .set(ChunkUploadSession::getUpdatedAt, now)) > 0;
+        afterTransition(sessionId, updated, ChunkUploadStatus.MERGING, now);
+        log.info("【会话管理】抢占合并: 会话={}, 成功={}", sessionId, updated);
+        return updated;
+    }
+
+    @Override
+    public Optional<ChunkUploadSession> reloadSession(String sessionId) {
+        sessionCache.invalidate(sessionId);
+        return getSession(sessionId);
+    }
+
+    /**
+     * 条件更新之后同步缓存：成功时写穿；失败说明缓存中的状态已过时（通常是其他节点写入），直接失效。
+     */
+    private void afterTransition(String sessionId, boolean updated, ChunkUploadStatus to, LocalDateTime now) {
+        if (!updated) {
+            sessionCache.invalidate(sessionId);
+            return;
+        }
+        sessionCache.update(sessionId, cached -> {
+            cached.setStatus(to);
+            cached.setUpdatedAt(now);
+        });
+    }
+
     @Override
     public void deleteSession(String sessionId) {
         LambdaQueryWrapper<ChunkUploadSession> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(ChunkUploadSession::getSessionId, sessionId);
         sessionMapper.delete(queryWrapper);
+        sessionCache.invalidate(sessionId);
         log.info("【会话管理】删除会话: {}", sessionId);
     }
     
@@ -237,14 +429,15 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
         List<ChunkUploadSession> expiredSessions = sessionMapper.selectList(queryWrapper);
         if (!expiredSessions.isEmpty()) {
             sessionMapper.delete(queryWrapper);
+            expiredSessions.forEach(session -> sessionCache.invalidate(session.getSessionId()));
             log.info("【会话管理】清理非进行中的会话记录: {} 个", expiredSessions.size());
         }
     }
     
     /**
-     * 解析分片路径JSON字符串
+     * 解析分片路径JSON字符串（包级可见，供基准测试直接调用）
      */
-    private List<String> parseChunkPaths(String chunkPathsJson) {
+    List<String> parseChunkPaths(String chunkPathsJson) {
         try {
             if (chunkPathsJson == null || chunkPathsJson.trim().isEmpty()) {
                 return new ArrayList<>();
@@ -257,9 +450,9 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
     }
     
     /**
-     * 序列化分片路径为JSON字符串
+     * 序列化分片路径为JSON字符串（包级可见，供基准测试直接调用）
      */
-    private String serializeChunkPaths(List<String> chunkPaths) {
+    String serializeChunkPaths(List<String> chunkPaths) {
         try {
             return objectMapper.writeValueAsString(chunkPaths);
         } catch (JsonProcessingException e) {
@@ -267,4 +460,17 @@ public class ChunkUploadSessionServiceImpl implements ChunkUploadSessionService
             return "[]";
         }
     }
-}
\ No newline at end of file
+
+    private ReentrantLock lockFor(String sessionId) {
+        int hash = sessionId.hashCode();
+        return sessionLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -3,22 +3,35 @@ package org.example.miniodemo.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.domain.ContentEncoding;
+import org.example.miniodemo.domain.ContentLayout;
 import org.example.miniodemo.domain.FileMetadata;
 import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.dto.DedupCommitRequestDto;
+import org.example.miniodemo.dto.DedupParamsDto;
 import org.example.miniodemo.dto.FileDetailDto;
+import org.example.miniodemo.dto.FileDownloadDto;
 import org.example.miniodemo.repository.FileMetadataRepository;
 import org.example.miniodemo.service.AsyncFileService;
+import org.example.miniodemo.service.ContentCompressionService;
 import org.example.miniodemo.service.PrivateFileService;
 import org.example.miniodemo.common.response.ResultCode;
 import org.example.miniodemo.exception.BusinessException;
 import org.example.miniodemo.service.storage.ObjectStorageService;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 import org.example.miniodemo.config.MinioConfig;
+import org.example.miniodemo.config.TieringConfig;
 import org.example.miniodemo.event.EventPublisher;
 
 import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -33,18 +46,26 @@ import java.util.stream.Collectors;
 @Service
 public class PrivateFileServiceImpl extends AbstractChunkedFileServiceImpl implements PrivateFileService {
 
+    /**
+     * CDC 文件没有对应的单个对象，无法预签名，改为返回后端代理下载地址。
+     */
+    private static final String PROXY_DOWNLOAD_PATH = "/minio/private/download?filePath=";
+
     private final MinioBucketConfig bucketConfig;
     private final MinioConfig minioConfig;
+    private final TieringConfig tieringConfig;
 
     public PrivateFileServiceImpl(ObjectStorageService objectStorageService,
                                   FileMetadataRepository fileMetadataRepository,
                                   AsyncFileService asyncFileService,
                                   EventPublisher eventPublisher,
                                   MinioBucketConfig bucketConfig,
-                                  MinioConfig minioConfig) {
+                                  MinioConfig minioConfig,
+                                  TieringConfig tieringConfig) {
         super(objectStorageService, fileMetadataRepository, asyncFileService, eventPublisher);
         this.bucketConfig = bucketConfig;
         this.minioConfig = minioConfig;
+        this.tieringConfig = tieringConfig;
     }
 
     @Override
@@ -57,13 +78,30 @@ public class PrivateFileServiceImpl extends AbstractChunkedFileServiceImpl imple
         return StorageType.PRIVATE;
     }
 
+    @Override
+    protected boolean isDedupEnabled() {
+        return dedupChunkService.isEnabled();
+    }
+
+    /**
+     * 私有文件列表的版本。
+     * <p>
+     * 列表中的预签名URL会过期，版本号后附加以有效期一半为长度的时间窗口序号：
+     * 客户端缓存的列表最迟在URL有效期过半后失效，缓存中的URL始终至少还有一半有效期。
+     */
+    @Override
+    public String getListVersion() {
+        long windowMillis = Math.max(1L, minioConfig.getUrlExpiryMinutes() * 60_000L / 2);
+        return resourceVersions.listingETag(getStorageType()) + "-" + System.currentTimeMillis() / windowMillis;
+    }
+
     /**
      * 列出所有私有存储的文件详情。
      * <p>
      * 从数据库中查询指定存储类型下所有文件的元数据，
      * 并转换为文件详情 DTO 列表返回。
      * <p>
-     * 注意：私有文件不会生成访问 URL，因此返回的 DTO 中不包含 URL 信息。
+     * 列表中的预签名URL按文件当前所在的存储桶生成，列出文件不计为访问。
      *
      * @return 包含文件名、路径、大小、内容类型和访问次数的文件详情列表
      */
@@ -73,27 +111,38 @@ public class PrivateFileServiceImpl extends AbstractChunkedFileServiceImpl imple
 
         return metadataList.stream()
                 .filter(Objects::nonNull)
-                .map(metadata -> {
-                    String url = null;
-                    try {
-                        url = getPresignedPrivateDownloadUrl(metadata.getFilePath());
-                    } catch (BusinessException e) {
-                        log.error("获取文件 {} 的预签名URL失败", metadata.getFilePath(), e);
-                        // 即使某个URL获取失败，也返回文件的其他信息
-                    }
-                    return FileDetailDto.builder()
-                            .name(metadata.getOriginalFilename())
-                            .filePath(metadata.getFilePath())
-                            .size(metadata.getFileSize())
-                            .contentType(metadata.getContentType())
-                            .visitCount(metadata.getVisitCount())
-                            .contentHash(metadata.getContentHash())
-                            .url(url) // URL可能为null
-                            .build();
-                })
+                .map(this::toFileDetail)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    protected FileDetailDto toFileDetail(FileMetadata metadata) {
+        String url = null;
+        try {
+            url = downloadUrlOf(metadata);
+        } catch (Exception e) {
+            log.error("获取文件 {} 的预签名URL失败", metadata.getFilePath(), e);
+            // 即使某个URL获取失败，也返回文件的其他信息
+        }
+        return FileDetailDto.builder()
+                .name(metadata.getOriginalFilename())
+                .filePath(metadata.getFilePath())
+                .size(metadata.getFileSize())
+                .contentType(metadata.getContentType())
+                .visitCount(metadata.getVisitCount())
+                .contentHash(metadata.getContentHash())
+                .url(url) // URL可能为null
+                .build();
+    }
+
+    /**
+     * 冷热分层后私有文件也可能位于冷存储桶（关闭分层后已降冷的文件仍留在那里）。
+     */
+    @Override
+    protected Collection<String> getMetadataBucketNames() {
+        return List.of(getBucketName(), tieringConfig.getColdBucket());
+    }
+
 
     /**
      * 获取私有文件的预签名下载URL（推荐的下载方式）。
@@ -107,6 +156,10 @@ public class PrivateFileServiceImpl extends AbstractChunkedFileServiceImpl imple
             // 异步更新最后访问时间
             asyncFileService.updateLastAccessedTime(objectName);
 
+            Optional<FileMetadata> metadata = findMetadata(objectName);
+            if (metadata.isPresent()) {
+                return downloadUrlOf(metadata.get());
+            }
             return objectStorageService.getPresignedDownloadUrl(
                     getBucketName(),
                     objectName,
@@ -123,22 +176,87 @@ public class PrivateFileServiceImpl extends AbstractChunkedFileServiceImpl imple
      * 下载私有存储中的文件并异步更新该文件的最后访问时间。
      *
      * <p>方法首先异步触发对文件最后访问时间的更新，保证访问记录及时刷新，
-     * 随后调用对象存储服务下载指定路径的文件数据流。
+     * 随后调用对象存储服务下载指定路径的文件数据流。压缩存储的文件在客户端的 {@code Accept-Encoding}
+     * 接受该编码时原样返回压缩字节，否则边读边解压。
      *
-     * @param filePath 文件在存储桶中的相对路径。
-     * @return 返回文件内容的输入流。
+     * @param filePath       文件在存储桶中的相对路径。
+     * @param acceptEncoding 客户端请求头 {@code Accept-Encoding}，可以为空。
+     * @return 返回文件内容的输入流及其编码。
      */
     @Override
-    public InputStream downloadPrivateFile(String filePath) {
+    public FileDownloadDto downloadPrivateFile(String filePath, String acceptEncoding) {
         try {
             // 异步更新文件最后访问时间，避免阻塞下载操作
             asyncFileService.updateLastAccessedTime(filePath);
-            // 从对象存储服务获取文件输入流
-            return objectStorageService.download(getBucketName(), filePath);
+            // CDC 文件按块清单流式拼接，其余文件直接从对象存储服务获取输入流
+            Optional<FileMetadata> metadata = findMetadata(filePath);
+            if (metadata.isPresent() && metadata.get().getContentLayout() == ContentLayout.CDC) {
+                return new FileDownloadDto(dedupChunkService.openStream(metadata.get()), null);
+            }
+            // 冷文件在回迁完成前直接从冷存储桶读取；BLOB 文件读取共享对象
+            String bucketName = metadata.map(FileMetadata::getBucketName).orElse(getBucketName());
+            String objectKey = metadata.map(FilePathUtil::objectKeyOf).orElse(filePath);
+            InputStream stored = objectStorageService.download(bucketName, objectKey);
+            ContentEncoding encoding = metadata.map(FileMetadata::getContentEncoding).orElse(null);
+            if (encoding == null || ContentCompressionService.accepts(acceptEncoding, encoding)) {
+                return new FileDownloadDto(stored, encoding == null ? null : encoding.getToken());
+            }
+            return new FileDownloadDto(contentCompressionService.decode(stored, encoding), null);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("下载私有文件 '{}' 时出错", filePath, e);
             throw new BusinessException(ResultCode.FILE_DOWNLOAD_FAILED, "文件下载失败");
         }
     }
 
-}
\ No newline at end of file
+    @Override
+    public DedupParamsDto getDedupParams() {
+        return dedupChunkService.params();
+    }
+
+    @Override
+    public boolean uploadDedupChunk(MultipartFile file, String chunkHash) {
+        requireDedupEnabled();
+        return dedupChunkService.storeChunk(getBucketName(), getStorageType(), file, chunkHash);
+    }
+
+    @Override
+    public FileMetadata commitDedupUpload(DedupCommitRequestDto commitRequest) {
+        requireDedupEnabled();
+        return dedupChunkService.commit(getBucketName(), getStorageType(), commitRequest);
+    }
+
+    private void requireDedupEnabled() {
+        if (!isDedupEnabled()) {
+            throw new BusinessException(ResultCode.FORBIDDEN, "服务端未开启去重存储模式");
+        }
+    }
+
+    /**
+     * 按对象路径查询文件元数据，冷热分层后文件可能位于冷存储桶。
+     */
+    private Optional<FileMetadata> findMetadata(String filePath) {
+        return fileMetadataRepository.findByPath(getStorageType(), getMetadataBucketNames(), filePath);
+    }
+
+    /**
+     * 生成文件的下载地址：CDC 文件为后端代理地址，其余为文件内容所在对象的预签名URL。
+     */
+    private String downloadUrlOf(FileMetadata metadata) throws Exception {
+        if (metadata.getContentLayout() == ContentLayout.CDC) {
+            return proxyDownloadUrl(metadata.getFilePath());
+        }
+        return objectStorageService.getPresignedDownloadUrl(
+                metadata.getBucketName(),
+                FilePathUtil.objectKeyOf(metadata),
+                metadata.getClusterId(),
+                minioConfig.getUrlExpiryMinutes(),
+                TimeUnit.MINUTES
+        );
+    }
+
+    private static String proxyDownloadUrl(String filePath) {
+        return PROXY_DOWNLOAD_PATH + URLEncoder.encode(filePath, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
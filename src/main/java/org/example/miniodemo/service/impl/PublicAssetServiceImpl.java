@@ -1,6 +1,7 @@
 package org.example.miniodemo.service.impl;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.common.util.FilePathUtil;
 import org.example.miniodemo.config.MinioBucketConfig;
 import org.example.miniodemo.config.MinioConfig;
 import org.example.miniodemo.domain.FileMetadata;
@@ -54,7 +55,7 @@ public class PublicAssetServiceImpl extends AbstractChunkedFileServiceImpl imple
 
     @Override
     public String getPublicUrl(String bucketName, String filePath) {
-        return minioConfig.getPublicEndpoint() + "/" + bucketName + "/" + filePath;
+        return publicUrlOf(bucketName, filePath, null);
     }
 
     @Override
@@ -62,6 +63,22 @@ public class PublicAssetServiceImpl extends AbstractChunkedFileServiceImpl imple
         return getPublicUrl(getBucketName(), filePath);
     }
 
+    /**
+     * 多集群存储时端点取决于对象所在的集群，{@code clusterId} 为元数据记录的集群。
+     */
+    private String publicUrlOf(String bucketName, String filePath, String clusterId) {
+        String endpoint = objectStorageService.publicEndpointOf(filePath, clusterId);
+        if (endpoint == null) {
+            endpoint = minioConfig.getPublicEndpoint();
+        }
+        return endpoint + "/" + bucketName + "/" + filePath;
+    }
+
+    @Override
+    public String getListVersion() {
+        return resourceVersions.listingETag(getStorageType());
+    }
+
     /**
      * 列出所有公开存储的文件详情。
      *
@@ -76,15 +93,20 @@ public class PublicAssetServiceImpl extends AbstractChunkedFileServiceImpl imple
 
         return metadataList.stream()
                 .filter(Objects::nonNull)
-                .map(metadata -> FileDetailDto.builder()
-                        .name(metadata.getOriginalFilename())
-                        .filePath(metadata.getFilePath())
-                        .size(metadata.getFileSize())
-                        .url(getPublicUrl(getBucketName(), metadata.getFilePath()))  // 生成文件的公网访问URL
-                        .contentType(metadata.getContentType())
-                        .contentHash(metadata.getContentHash())
-                        .build())
+                .map(this::toFileDetail)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    protected FileDetailDto toFileDetail(FileMetadata metadata) {
+        return FileDetailDto.builder()
+                .name(metadata.getOriginalFilename())
+                .filePath(metadata.getFilePath())
+                .size(metadata.getFileSize())
+                .url(publicUrlOf(getBucketName(), FilePathUtil.objectKeyOf(metadata), metadata.getClusterId()))  // 生成文件的公网访问URL
+                .contentType(metadata.getContentType())
+                .contentHash(metadata.getContentHash())
+                .build();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package org.example.miniodemo.service.storage;
+
+import org.example.miniodemo.domain.StorageObject;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步对象存储服务接口。
+ * <p>
+ * 与 {@link ObjectStorageService} 对应，所有方法立即返回 {@link CompletableFuture}，
+ * 便于对多个对象的操作（批量删除、并行 HEAD 校验、多个存储桶的扫描）并发发出，
+ * 使整体耗时接近一次往返而不是 n 次。实现必须限制同时在途的请求数，
+ * 超出上限时调用方会在提交时阻塞等待，以此形成背压。
+ */
+public interface AsyncObjectStorageService {
+
+    /**
+     * 异步上传一个对象。
+     *
+     * @param bucketName  存储桶名称。
+     * @param filePath    对象的完整路径和名称。
+     * @param stream      文件的输入流。
+     * @param size        文件大小。
+     * @param contentType 文件的MIME类型。
+     * @return 上传完成时结束的 future。
+     */
+    CompletableFuture<Void> upload(String bucketName, String filePath, InputStream stream, long size, String contentType);
+
+    /**
+     * 异步合并多个源对象。
+     *
+     * @param bucketName        存储桶名称。
+     * @param sourceObjectNames 有序的源对象（分片）列表。
+     * @param targetObjectName  最终合并后的对象名称。
+     * @return 合并完成时结束的 future。
+     */
+    CompletableFuture<Void> compose(String bucketName, List<String> sourceObjectNames, String targetObjectName);
+
+    /**
+     * 异步列出指定存储桶和前缀下的所有对象。
+     *
+     * @param bucketName 存储桶名称。
+     * @param prefix     对象名称前缀。
+     * @param recursive  是否递归。
+     * @return 存储对象信息列表。
+     */
+    CompletableFuture<List<StorageObject>> listObjects(String bucketName, String prefix, boolean recursive);
+
+    /**
+     * 异步获取单个对象的元信息。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePath   对象名称。
+     * @return 对象信息，对象不存在时为空。
+     */
+    CompletableFuture<Optional<StorageObject>> stat(String bucketName, String filePath);
+
+    /**
+     * 异步删除单个对象。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePath   对象名称。
+     * @return 删除完成时结束的 future。
+     */
+    CompletableFuture<Void> delete(String bucketName, String filePath);
+
+    /**
+     * 异步批量删除多个对象，大批量会被拆分成多个请求并发执行。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePaths  要删除的对象名称列表。
+     * @return 删除失败的对象名称列表，全部成功时为空列表。
+     */
+    CompletableFuture<List<String>> delete(String bucketName, List<String> filePaths);
+}
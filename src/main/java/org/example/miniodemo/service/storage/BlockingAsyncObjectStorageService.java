@@ -0,0 +1,128 @@
+package org.example.miniodemo.service.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.config.AsyncStorageConfig;
+import org.example.miniodemo.domain.StorageObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 将同步 {@link ObjectStorageService} 适配为 {@link AsyncObjectStorageService} 的实现。
+ * <p>
+ * 用于没有原生异步客户端的存储实现（本地文件系统等），在固定大小的线程池中执行同步调用，
+ * 线程数即在途请求上限。存储类型为 minio 时由 {@link MinioAsyncObjectStorageService} 代替。
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression("'${storage.type:minio}' != 'minio'")
+public class BlockingAsyncObjectStorageService implements AsyncObjectStorageService {
+
+    private final ObjectStorageService objectStorageService;
+    private final AsyncStorageConfig asyncStorageConfig;
+    private final InFlightLimiter limiter;
+    private final ExecutorService executor;
+
+    public BlockingAsyncObjectStorageService(ObjectStorageService objectStorageService,
+                                             AsyncStorageConfig asyncStorageConfig) {
+        this.objectStorageService = objectStorageService;
+        this.asyncStorageConfig = asyncStorageConfig;
+        int maxInFlight = Math.max(1, asyncStorageConfig.getMaxInFlight());
+        this.limiter = new InFlightLimiter(maxInFlight);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "storage-async-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(String bucketName, String filePath, InputStream stream, long size, String contentType) {
+        return run(() -> {
+            objectStorageService.upload(bucketName, filePath, stream, size, contentType);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> compose(String bucketName, List<String> sourceObjectNames, String targetObjectName) {
+        return run(() -> {
+            objectStorageService.compose(bucketName, sourceObjectNames, targetObjectName);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<StorageObject>> listObjects(String bucketName, String prefix, boolean recursive) {
+        return run(() -> objectStorageService.listObjects(bucketName, prefix, recursive));
+    }
+
+    @Override
+    public CompletableFuture<Optional<StorageObject>> stat(String bucketName, String filePath) {
+        return run(() -> objectStorageService.stat(bucketName, filePath));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String bucketName, String filePath) {
+        return run(() -> {
+            objectStorageService.delete(bucketName, filePath);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<String>> delete(String bucketName, List<String> filePaths) {
+        if (filePaths.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        int batchSize = Math.max(1, asyncStorageConfig.getDeleteBatchSize());
+        List<CompletableFuture<List<String>>> batches = new ArrayList<>();
+        for (int from = 0; from < filePaths.size(); from += batchSize) {
+            List<String> batch = filePaths.subList(from, Math.min(from + batchSize, filePaths.size()));
+            batches.add(run(() -> {
+                try {
+                    objectStorageService.delete(bucketName, batch);
+                    return List.<String>of();
+                } catch (Exception e) {
+                    log.error("批量删除请求失败。存储桶: {}, 对象数: {}", bucketName, batch.size(), e);
+                    return batch;
+                }
+            }));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> batches.stream()
+                        .flatMap(future -> future.join().stream())
+                        .toList());
+    }
+
+    private <T> CompletableFuture<T> run(BlockingCall<T> call) {
+        return limiter.submit(() -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.execute();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor));
+    }
+
+    @FunctionalInterface
+    private interface BlockingCall<T> {
+        T execute() throws Exception;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.miniodemo.service.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 带权重虚拟节点的一致性哈希环，不可变，集群配置变化时整体重建。
+ * <p>
+ * 每个节点按权重占有 {@code weight * virtualNodesPerWeight} 个虚拟节点，虚拟节点与键都取 SHA-256 的前 8 字节作为环上位置，
+ * 键归属于顺时针方向的第一个虚拟节点。增删节点或调整权重时只有相邻区间的键改变归属。
+ */
+final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    /**
+     * @param weights               节点ID到权重的映射，权重为 0 的节点不在环上。
+     * @param virtualNodesPerWeight 每单位权重的虚拟节点数。
+     */
+    ConsistentHashRing(Map<String, Integer> weights, int virtualNodesPerWeight) {
+        weights.forEach((node, weight) -> {
+            for (int i = 0; i < weight * virtualNodesPerWeight; i++) {
+                // 位置冲突时保留ID较小的节点，使环与配置顺序无关
+                ring.merge(position(node + "#" + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        });
+        if (ring.isEmpty()) {
+            throw new IllegalArgumentException("一致性哈希环上至少需要一个权重大于 0 的节点");
+        }
+    }
+
+    /**
+     * 键在环上的归属节点。
+     */
+    String nodeOf(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(position(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    private static long position(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest, 0, Long.BYTES).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.miniodemo.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 读取时即时压缩的 gzip 输入流。
+ * <p>
+ * 与 {@link java.util.zip.GZIPOutputStream} 相反，调用方从本流读取的就是压缩后的字节，
+ * 可以直接交给只接受 {@link InputStream} 的上传接口，不需要额外的线程或管道，也不会缓冲整个文件。
+ * 输出为标准的单成员 gzip 格式（RFC 1952）。
+ */
+public class GzipCompressingInputStream extends InputStream {
+
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+    private static final int TRAILER_SIZE = 8;
+
+    private final InputStream source;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] readBuffer;
+    private final byte[] trailer = new byte[TRAILER_SIZE];
+    private int headerPos;
+    private int trailerPos = -1;
+    private boolean sourceExhausted;
+    private long rawBytes;
+    private long compressedBytes;
+
+    /**
+     * @param source 原始内容。
+     * @param level  压缩级别（0-9）。
+     */
+    public GzipCompressingInputStream(InputStream source, int level) {
+        this.source = source;
+        this.deflater = new Deflater(level, true);
+        this.readBuffer = new byte[64 * 1024];
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int n;
+        if (headerPos < HEADER.length) {
+            n = Math.min(length, HEADER.length - headerPos);
+            System.arraycopy(HEADER, headerPos, buffer, offset, n);
+            headerPos += n;
+        } else if (trailerPos < 0) {
+            n = deflate(buffer, offset, length);
+            if (n == 0) {
+                // 压缩数据已全部输出，转入尾部
+                writeTrailer();
+                return read(buffer, offset, length);
+            }
+        } else if (trailerPos < TRAILER_SIZE) {
+            n = Math.min(length, TRAILER_SIZE - trailerPos);
+            System.arraycopy(trailer, trailerPos, buffer, offset, n);
+            trailerPos += n;
+        } else {
+            return -1;
+        }
+        compressedBytes += n;
+        return n;
+    }
+
+    /**
+     * 已读取的原始字节数。
+     */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * 已输出的压缩字节数（含 gzip 头尾）。
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        source.close();
+    }
+
+    /**
+     * 输出压缩数据，必要时从源读取更多内容；返回 0 表示压缩数据已全部输出。
+     */
+    private int deflate(byte[] buffer, int offset, int length) throws IOException {
+        while (true) {
+            int n = deflater.deflate(buffer, offset, length);
+            if (n > 0) {
+                return n;
+            }
+            if (deflater.finished()) {
+                return 0;
+            }
+            if (deflater.needsInput()) {
+                if (sourceExhausted) {
+                    deflater.finish();
+                    continue;
+                }
+                int read = source.read(readBuffer);
+                if (read < 0) {
+                    sourceExhausted = true;
+                    deflater.finish();
+                } else if (read > 0) {
+                    crc.update(readBuffer, 0, read);
+                    rawBytes += read;
+                    deflater.setInput(readBuffer, 0, read);
+                }
+            }
+        }
+    }
+
+    private void writeTrailer() {
+        writeIntLe((int) crc.getValue(), 0);
+        writeIntLe((int) rawBytes, 4);
+        trailerPos = 0;
+    }
+
+    private void writeIntLe(int value, int offset) {
+        trailer[offset] = (byte) value;
+        trailer[offset + 1] = (byte) (value >> 8);
+        trailer[offset + 2] = (byte) (value >> 16);
+        trailer[offset + 3] = (byte) (value >> 24);
+    }
+}
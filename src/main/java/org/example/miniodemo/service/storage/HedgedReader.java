@@ -0,0 +1,572 @@
+package org.example.miniodemo.service.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.config.MinioConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 面向多个副本端点的对冲读取。
+ * <p>
+ * 同一份数据可经多个端点读取（MinIO 多节点或站点复制）时，单个慢节点会决定下载与 HEAD 的尾延迟。
+ * 每个端点以 EWMA 记录响应延迟（下载为收到响应头的时间），读取先发往 EWMA 最低的端点；
+ * 超过该端点最近延迟的 p95 仍未返回时，向次快的端点发出一份相同的请求，采用先返回的结果并取消另一份。
+ * 正常情况下只有约 5% 的读取会多发一次请求，中位数路径上没有额外负载。
+ * <p>
+ * 失败的处理：对象存储对请求本身给出的 4xx 答复（如 {@code NoSuchKey}、{@code AccessDenied}）换一个端点结果相同，直接返回给调用方；
+ * 连接失败、超时、5xx 以及 {@code SlowDown} 等表示该端点暂时不可用的错误立即改由下一个端点读取，
+ * 并以 {@code max-hedge-delay} 计入该端点的延迟，使其排到后面。
+ * 被取消的请求以已经等待的时长计入延迟，它至少这么慢。
+ * <p>
+ * 只配置一个端点时直接调用，不统计延迟、不经过额外线程。
+ * <p>
+ * 指标：{@code minio.read.hedges}（{@code outcome} 标签：HEDGE_WON、PRIMARY_WON、FAILOVER）、
+ * {@code minio.read.latency.ewma} / {@code minio.read.latency.p95}（{@code endpoint} 标签，毫秒）。
+ */
+@Slf4j
+public class HedgedReader {
+
+    /**
+     * 表示端点暂时不可用的 S3 错误码，即使 HTTP 状态码为 4xx 也改由其他端点读取。
+     */
+    private static final Set<String> RETRYABLE_ERROR_CODES = Set.of(
+            "SlowDown", "SlowDownRead", "RequestTimeout", "RequestTimeTooSkewed", "InternalError",
+            "ServiceUnavailable", "XMinioServerNotInitialized", "XMinioReadQuorum");
+
+    private final List<Endpoint> endpoints;
+    private final MinioConfig.HedgedReadProperties props;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private volatile MeterRegistry registry;
+
+    /**
+     * @param endpoints 可读取同一份数据的端点，第一个为主端点，尚无延迟数据时优先使用。
+     * @param props     对冲读取参数。
+     */
+    public HedgedReader(List<Endpoint> endpoints, MinioConfig.HedgedReadProperties props) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个读取端点");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.props = props;
+        if (endpoints.size() > 1) {
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "minio-hedge-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * 主端点，写入与列举等非读取操作使用。
+     */
+    public Endpoint primary() {
+        return endpoints.get(0);
+    }
+
+    public boolean isHedging() {
+        return endpoints.size() > 1;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 注册各端点的延迟指标与对冲计数。
+     */
+    public void bindMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        if (!isHedging()) {
+            return;
+        }
+        for (Endpoint endpoint : endpoints) {
+            Gauge.builder("minio.read.latency.ewma", endpoint.latency, LatencyStats::ewmaMillis)
+                    .description("MinIO 读取端点响应延迟的指数加权移动平均（毫秒）")
+                    .tag("endpoint", endpoint.name)
+                    .register(registry);
+            Gauge.builder("minio.read.latency.p95", endpoint.latency, LatencyStats::p95Millis)
+                    .description("MinIO 读取端点最近响应延迟的 p95（毫秒），即对冲等待时间")
+                    .tag("endpoint", endpoint.name)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 同步读取，在调用线程中等待结果。
+     *
+     * @param read    在指定端点上执行的读取。
+     * @param discard 释放未被采用的结果（如关闭输入流）。
+     * @return 最先成功返回的结果。
+     * @throws Exception 所有端点都失败时抛出最后一个错误；请求本身的错误（4xx）直接抛出。
+     */
+    public <T> T read(BlockingRead<T> read, Consumer<T> discard) throws Exception {
+        if (!isHedging()) {
+            return read.execute(primary());
+        }
+        List<Endpoint> ranked = ranked();
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Attempt<T>> attempts = new ArrayList<>(2);
+        attempts.add(start(completion, ranked.get(0), read, discard));
+
+        Exception failure = null;
+        int failures = 0;
+        try {
+            Future<T> done = completion.poll(hedgeDelayMillis(ranked.get(0)), TimeUnit.MILLISECONDS);
+            while (true) {
+                if (done == null) {
+                    // 主请求超过 p95 仍未返回，发出对冲请求
+                    if (attempts.size() < ranked.size() && attempts.size() < 2) {
+                        attempts.add(start(completion, ranked.get(attempts.size()), read, discard));
+                    }
+                    done = completion.take();
+                }
+                Attempt<T> attempt = attemptOf(attempts, done);
+                try {
+                    T result = done.get();
+                    attempt.endpoint.latency.record(System.nanoTime() - attempt.startNanos);
+                    cancelOthers(attempts, attempt, discard);
+                    countHedge(attempts.size() > 1, attempt == attempts.get(0), failure != null);
+                    return result;
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ex ? ex : e;
+                    if (isFinal(cause)) {
+                        attempt.endpoint.latency.record(System.nanoTime() - attempt.startNanos);
+                        cancelOthers(attempts, attempt, discard);
+                        throw cause;
+                    }
+                    attempt.endpoint.latency.record(TimeUnit.MILLISECONDS.toNanos(props.getMaxHedgeDelay().toMillis()));
+                    log.warn("【对冲读取】端点读取失败，改由其他端点读取: 端点={}", attempt.endpoint.name, cause);
+                    failure = cause;
+                    failures++;
+                    // 失败后立即改由下一个端点读取，不等待对冲延迟
+                    if (attempts.size() < ranked.size()) {
+                        attempts.add(start(completion, ranked.get(attempts.size()), read, discard));
+                    }
+                    // 每个失败的请求都会从 completion 中取出一次，全部取完才以最后一个错误结束
+                    if (failures == attempts.size()) {
+                        throw failure;
+                    }
+                    done = completion.take();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelOthers(attempts, null, discard);
+            throw e;
+        }
+    }
+
+    /**
+     * 异步读取，对冲请求由定时器发出。异步结果不持有需要释放的资源（如 HEAD 的响应），
+     * 被取消的请求即使之后完成也直接丢弃。
+     *
+     * @param read 在指定端点上发起的异步读取。
+     * @return 最先成功返回的结果。
+     */
+    public <T> CompletableFuture<T> readAsync(AsyncRead<T> read) {
+        if (!isHedging()) {
+            return callAsync(read, primary());
+        }
+        AsyncHedge<T> hedge = new AsyncHedge<>(ranked(), read);
+        hedge.startNext(false);
+        ScheduledFuture<?> timer = scheduler.schedule(() -> hedge.startNext(true),
+                hedgeDelayMillis(hedge.ranked.get(0)), TimeUnit.MILLISECONDS);
+        hedge.result.whenComplete((value, error) -> {
+            timer.cancel(false);
+            hedge.cancelAll();
+        });
+        return hedge.result;
+    }
+
+    /**
+     * 按 EWMA 从低到高排序端点；尚无延迟数据的端点 EWMA 为 0，会被优先尝试。
+     */
+    private List<Endpoint> ranked() {
+        // 先取快照再排序，排序期间其他线程更新延迟不会破坏比较的一致性
+        Map<Endpoint, Double> ewma = new IdentityHashMap<>();
+        endpoints.forEach(endpoint -> ewma.put(endpoint, endpoint.latency.ewmaMillis()));
+        List<Endpoint> ranked = new ArrayList<>(endpoints);
+        ranked.sort(Comparator.comparingDouble(ewma::get));
+        return ranked;
+    }
+
+    /**
+     * 对冲等待时间：端点最近延迟的 p95，限制在 [min-hedge-delay, max-hedge-delay] 之内；样本不足时取上限。
+     */
+    private long hedgeDelayMillis(Endpoint endpoint) {
+        long min = props.getMinHedgeDelay().toMillis();
+        long max = props.getMaxHedgeDelay().toMillis();
+        if (endpoint.latency.sampleCount() < props.getMinSamples()) {
+            return max;
+        }
+        return Math.max(min, Math.min(max, Math.round(endpoint.latency.quantileMillis(props.getHedgeQuantile()))));
+    }
+
+    /**
+     * 在虚拟线程中发起一次读取。结果与取消通过 {@link Attempt#state} 的 CAS 二选一：
+     * 已被取消的请求返回结果后由自身释放，不会因为取消与完成同时发生而泄漏输入流。
+     */
+    private <T> Attempt<T> start(CompletionService<T> completion, Endpoint endpoint, BlockingRead<T> read,
+                                 Consumer<T> discard) {
+        Attempt<T> attempt = new Attempt<>(endpoint, System.nanoTime());
+        attempt.future = completion.submit(() -> {
+            T value;
+            try {
+                value = read.execute(endpoint);
+            } catch (Exception e) {
+                attempt.state.compareAndSet(Attempt.RUNNING, Attempt.FAILED);
+                throw e;
+            }
+            if (!attempt.state.compareAndSet(Attempt.RUNNING, Attempt.SUCCEEDED)) {
+                discard.accept(value);
+                throw new CancellationException("对冲读取已取消");
+            }
+            return value;
+        });
+        return attempt;
+    }
+
+    private static <T> Attempt<T> attemptOf(List<Attempt<T>> attempts, Future<T> future) {
+        for (Attempt<T> attempt : attempts) {
+            if (attempt.future == future) {
+                return attempt;
+            }
+        }
+        throw new IllegalStateException("未知的读取请求");
+    }
+
+    /**
+     * 取消其余请求：仍在进行的中断其线程（虚拟线程中的阻塞套接字读写随之关闭）并以已等待的时长计入延迟，
+     * 已经成功返回的释放其结果。
+     */
+    private static <T> void cancelOthers(List<Attempt<T>> attempts, Attempt<T> winner, Consumer<T> discard) {
+        for (Attempt<T> attempt : attempts) {
+            if (attempt == winner) {
+                continue;
+            }
+            if (attempt.state.compareAndSet(Attempt.RUNNING, Attempt.CANCELLED)) {
+                attempt.future.cancel(true);
+                attempt.endpoint.latency.record(System.nanoTime() - attempt.startNanos);
+            } else if (attempt.state.get() == Attempt.SUCCEEDED) {
+                // 已经成功返回但未被采用，释放其结果
+                try {
+                    discard.accept(attempt.future.get());
+                } catch (Exception ignored) {
+                    // 结果已无法取得时也无需释放
+                }
+            }
+        }
+    }
+
+    private void countHedge(boolean hedged, boolean primaryWon, boolean failedOver) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null || (!hedged && !failedOver)) {
+            return;
+        }
+        String outcome = failedOver ? "FAILOVER" : primaryWon ? "PRIMARY_WON" : "HEDGE_WON";
+        Counter.builder("minio.read.hedges")
+                .description("发出第二份读取请求的次数，按最终采用的请求区分")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 是否为换一个端点也会得到相同答复的错误：HTTP 4xx 的 {@link ErrorResponseException}，
+     * 但请求超时（408）、限流（429）与 {@link #RETRYABLE_ERROR_CODES} 中的错误码表示端点暂时不可用，仍改由其他端点读取。
+     */
+    private static boolean isFinal(Throwable error) {
+        if (!(error instanceof ErrorResponseException e)) {
+            return false;
+        }
+        String code = e.errorResponse() != null ? e.errorResponse().code() : null;
+        if (code != null && RETRYABLE_ERROR_CODES.contains(code)) {
+            return false;
+        }
+        int status = e.response() != null ? e.response().code() : 0;
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    private static <T> CompletableFuture<T> callAsync(AsyncRead<T> read, Endpoint endpoint) {
+        try {
+            return read.execute(endpoint);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface BlockingRead<T> {
+        T execute(Endpoint endpoint) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface AsyncRead<T> {
+        CompletableFuture<T> execute(Endpoint endpoint) throws Exception;
+    }
+
+    /**
+     * 一次异步对冲读取的状态。发起请求由定时器与失败回调并发触发，用锁保证每个端点只请求一次。
+     */
+    private final class AsyncHedge<T> {
+        private final List<Endpoint> ranked;
+        private final AsyncRead<T> read;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<CompletableFuture<T>> attempts = new ArrayList<>(2);
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean hedged;
+
+        private AsyncHedge(List<Endpoint> ranked, AsyncRead<T> read) {
+            this.ranked = ranked;
+            this.read = read;
+        }
+
+        /**
+         * 向下一个端点发起请求。
+         *
+         * @param hedge 为 {@code true} 时是定时器触发的对冲，已有两份请求或已有结果时不再发出。
+         */
+        private void startNext(boolean hedge) {
+            Endpoint endpoint;
+            int index;
+            lock.lock();
+            try {
+                index = attempts.size();
+                if (result.isDone() || index >= ranked.size() || (hedge && index >= 2)) {
+                    return;
+                }
+                hedged |= hedge;
+                endpoint = ranked.get(index);
+                // 先占位，请求在锁外发起
+                attempts.add(null);
+            } finally {
+                lock.unlock();
+            }
+            long startNanos = System.nanoTime();
+            CompletableFuture<T> attempt = callAsync(read, endpoint);
+            lock.lock();
+            try {
+                attempts.set(index, attempt);
+            } finally {
+                lock.unlock();
+            }
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+            attempt.whenComplete((value, error) -> onComplete(endpoint, index, startNanos, value, error));
+        }
+
+        private void onComplete(Endpoint endpoint, int index, long startNanos, T value, Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null || cause instanceof CancellationException || isFinal(cause)) {
+                endpoint.latency.record(System.nanoTime() - startNanos);
+            } else {
+                endpoint.latency.record(TimeUnit.MILLISECONDS.toNanos(props.getMaxHedgeDelay().toMillis()));
+            }
+            if (cause == null) {
+                boolean hedgedNow;
+                int started;
+                lock.lock();
+                try {
+                    hedgedNow = hedged;
+                    started = attempts.size();
+                } finally {
+                    lock.unlock();
+                }
+                if (result.complete(value)) {
+                    countHedge(started > 1, index == 0, started > 1 && !hedgedNow);
+                }
+            } else if (isFinal(cause)) {
+                result.completeExceptionally(cause);
+            } else if (!(cause instanceof CancellationException)) {
+                log.warn("【对冲读取】端点读取失败，改由其他端点读取: 端点={}", endpoint.name, cause);
+                if (!finishIfExhausted(cause)) {
+                    startNext(false);
+                }
+            }
+        }
+
+        /**
+         * 所有端点都已请求过且都已结束时以最后的错误结束。
+         *
+         * @return 是否已没有可请求的端点，为 {@code false} 时调用方应向下一个端点发起请求。
+         */
+        private boolean finishIfExhausted(Throwable cause) {
+            lock.lock();
+            try {
+                if (attempts.size() < ranked.size()) {
+                    return false;
+                }
+                if (attempts.stream().allMatch(attempt -> attempt != null && attempt.isDone())) {
+                    result.completeExceptionally(cause);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void cancelAll() {
+            List<CompletableFuture<T>> started;
+            lock.lock();
+            try {
+                started = new ArrayList<>(attempts);
+            } finally {
+                lock.unlock();
+            }
+            started.stream().filter(attempt -> attempt != null).forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private static final class Attempt<T> {
+        private static final int RUNNING = 0;
+        private static final int SUCCEEDED = 1;
+        private static final int FAILED = 2;
+        private static final int CANCELLED = 3;
+
+        private final Endpoint endpoint;
+        private final long startNanos;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private Future<T> future;
+
+        private Attempt(Endpoint endpoint, long startNanos) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * 一个读取端点及其同步、异步客户端与延迟统计。
+     */
+    public static final class Endpoint {
+        private final String name;
+        private final MinioClient client;
+        private final MinioAsyncClient asyncClient;
+        private final LatencyStats latency;
+
+        public Endpoint(String name, MinioClient client, MinioAsyncClient asyncClient,
+                        MinioConfig.HedgedReadProperties props) {
+            this.name = name;
+            this.client = client;
+            this.asyncClient = asyncClient;
+            this.latency = new LatencyStats(props.getEwmaAlpha(), props.getLatencyWindow());
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public MinioClient client() {
+            return client;
+        }
+
+        public MinioAsyncClient asyncClient() {
+            return asyncClient;
+        }
+    }
+
+    /**
+     * 端点延迟统计：EWMA 用于排序，最近 {@code latency-window} 个样本用于计算分位数。
+     * 读取可能运行在虚拟线程中，使用 {@link ReentrantLock} 而不是 {@code synchronized}。
+     */
+    static final class LatencyStats {
+        /**
+         * 分位数缓存每新增这么多个样本重新计算一次，避免每次读取都排序。
+         */
+        private static final int QUANTILE_REFRESH_INTERVAL = 16;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double alpha;
+        private final long[] window;
+        private int size;
+        private int next;
+        private long samples;
+        private double ewmaNanos;
+        private long[] sorted = new long[0];
+        private int sinceSort;
+
+        LatencyStats(double alpha, int windowSize) {
+            this.alpha = alpha;
+            this.window = new long[Math.max(1, windowSize)];
+        }
+
+        void record(long nanos) {
+            lock.lock();
+            try {
+                ewmaNanos = samples == 0 ? nanos : alpha * nanos + (1 - alpha) * ewmaNanos;
+                samples++;
+                window[next] = nanos;
+                next = (next + 1) % window.length;
+                size = Math.min(size + 1, window.length);
+                sinceSort++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long sampleCount() {
+            lock.lock();
+            try {
+                return samples;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        double ewmaMillis() {
+            lock.lock();
+            try {
+                return ewmaNanos / 1_000_000d;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        double p95Millis() {
+            return quantileMillis(0.95);
+        }
+
+        double quantileMillis(double quantile) {
+            lock.lock();
+            try {
+                if (size == 0) {
+                    return 0;
+                }
+                if (sorted.length != size || sinceSort >= QUANTILE_REFRESH_INTERVAL) {
+                    sorted = Arrays.copyOf(window, size);
+                    Arrays.sort(sorted);
+                    sinceSort = 0;
+                }
+                int index = (int) Math.min(size - 1, Math.ceil(quantile * size) - 1);
+                return sorted[Math.max(0, index)] / 1_000_000d;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.miniodemo.service.storage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 异步存储请求的在途数量限制器。
+ * <p>
+ * 提交时获取许可，future 结束（无论成功或失败）时归还；许可耗尽时提交线程阻塞等待。
+ */
+final class InFlightLimiter {
+
+    private final Semaphore permits;
+
+    InFlightLimiter(int maxInFlight) {
+        this.permits = new Semaphore(Math.max(1, maxInFlight));
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = task.get();
+        } catch (Throwable e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> permits.release());
+    }
+}
@@ -0,0 +1,390 @@
+package org.example.miniodemo.service.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.config.LocalStorageConfig;
+import org.example.miniodemo.domain.StorageObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 基于本地文件系统的对象存储服务实现。
+ * <p>
+ * 每个存储桶对应根目录下的一个子目录，对象路径直接映射为相对文件路径。
+ * 适用于单节点部署以及无需 MinIO 的离线测试、基准测试场景。
+ * <ul>
+ *   <li>写入先落到根目录下的临时目录，再原子地移动到目标位置，读者不会看到半写文件。</li>
+ *   <li>合并通过 {@link FileChannel#transferTo} 顺序拼接分片，数据不经过用户态缓冲。</li>
+ *   <li>预签名URL由本地端点 {@code /local-storage} 提供，使用 HMAC-SHA256 签名校验。</li>
+ * </ul>
+ * 通过 {@code storage.type=local} 启用。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalFsObjectStorageService implements ObjectStorageService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String TEMP_DIR = ".tmp";
+    private static final Pattern BUCKET_NAME_PATTERN = Pattern.compile("^[a-z0-9][a-z0-9.-]{1,61}[a-z0-9]$");
+
+    private final LocalStorageConfig localStorageConfig;
+    private Path rootDir;
+    private Path tempDir;
+    private SecretKeySpec signingKey;
+
+    public LocalFsObjectStorageService(LocalStorageConfig localStorageConfig) {
+        this.localStorageConfig = localStorageConfig;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        this.rootDir = Paths.get(localStorageConfig.getRootDir()).toAbsolutePath().normalize();
+        this.tempDir = rootDir.resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+
+        String secret = localStorageConfig.getPresignSecret();
+        if (secret == null || secret.isBlank()) {
+            // 未配置密钥时使用随机密钥，重启后旧的预签名链接随之失效
+            secret = UUID.randomUUID().toString();
+            log.warn("【本地存储】未配置 storage.local.presign-secret，已生成随机签名密钥，重启后预签名链接将失效。");
+        }
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        log.info("【本地存储】本地对象存储已启用，根目录: {}", rootDir);
+    }
+
+    @Override
+    public void upload(String bucketName, String filePath, InputStream stream, long size, String contentType) throws Exception {
+        Path target = resolveObject(bucketName, filePath);
+        Path temp = createTempFile();
+        try {
+            Files.copy(stream, temp, StandardCopyOption.REPLACE_EXISTING);
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void compose(String bucketName, List<String> sourceObjectNames, String targetObjectName) throws Exception {
+        Path target = resolveObject(bucketName, targetObjectName);
+        Path temp = createTempFile();
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (String source : sourceObjectNames) {
+                    Path sourcePath = resolveExistingObject(bucketName, source);
+                    try (FileChannel in = FileChannel.open(sourcePath, StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = in.size();
+                        // transferTo 单次可能只传输部分字节，需要循环直到完整
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+                out.force(true);
+            }
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void copy(String sourceBucket, String sourcePath, String targetBucket, String targetPath) throws Exception {
+        Path source = resolveExistingObject(sourceBucket, sourcePath);
+        Path target = resolveObject(targetBucket, targetPath);
+        Path temp = createTempFile();
+        try {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public List<StorageObject> listObjects(String bucketName, String prefix, boolean recursive) throws Exception {
+        Path bucketDir = resolveBucket(bucketName);
+        if (!Files.isDirectory(bucketDir)) {
+            return List.of();
+        }
+        String safePrefix = prefix == null ? "" : prefix;
+        // 只从前缀中最深的目录开始遍历，避免扫描整个存储桶
+        int lastSlash = safePrefix.lastIndexOf('/');
+        Path startDir = lastSlash < 0 ? bucketDir : resolveObject(bucketName, safePrefix.substring(0, lastSlash));
+        if (!Files.isDirectory(startDir)) {
+            return List.of();
+        }
+
+        int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+        // Files.walk 按需惰性遍历目录树，不会预先加载整个目录结构
+        try (Stream<Path> paths = Files.walk(startDir, maxDepth)) {
+            return paths
+                    .filter(path -> !path.equals(startDir))
+                    .filter(path -> !recursive || Files.isRegularFile(path))
+                    .map(path -> toStorageObject(bucketDir, path))
+                    .filter(obj -> obj != null && obj.getFilePath().startsWith(safePrefix))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public InputStream download(String bucketName, String filePath) throws Exception {
+        return Files.newInputStream(resolveExistingObject(bucketName, filePath));
+    }
+
+    @Override
+    public InputStream download(String bucketName, String filePath, long offset, long length) throws Exception {
+        FileChannel channel = FileChannel.open(resolveExistingObject(bucketName, filePath), StandardOpenOption.READ);
+        return new RangeInputStream(channel, offset, Math.min(length, Math.max(0, channel.size() - offset)));
+    }
+
+    @Override
+    public Optional<StorageObject> stat(String bucketName, String filePath) throws Exception {
+        Path path = resolveObject(bucketName, filePath);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(toStorageObject(resolveBucket(bucketName), path));
+    }
+
+    @Override
+    public void delete(String bucketName, String filePath) throws Exception {
+        Path bucketDir = resolveBucket(bucketName);
+        Path target = resolveObject(bucketName, filePath);
+        Files.deleteIfExists(target);
+        pruneEmptyParents(bucketDir, target.getParent());
+    }
+
+    @Override
+    public void delete(String bucketName, List<String> filePaths) throws Exception {
+        for (String filePath : filePaths) {
+            try {
+                delete(bucketName, filePath);
+            } catch (Exception e) {
+                log.error("批量删除对象时发生错误。对象: {}, 消息: {}", filePath, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String getPresignedDownloadUrl(String bucketName, String filePath, int duration, TimeUnit unit) throws Exception {
+        long expires = Instant.now().getEpochSecond() + unit.toSeconds(duration);
+        String encodedPath = URLEncoder.encode(filePath, StandardCharsets.UTF_8)
+                .replace("+", "%20")
+                .replace("%2F", "/");
+        return localStorageConfig.getEndpoint() + "/" + bucketName + "/" + encodedPath
+                + "?expires=" + expires + "&signature=" + sign(bucketName, filePath, expires);
+    }
+
+    @Override
+    public boolean bucketExists(String bucketName) throws Exception {
+        return Files.isDirectory(resolveBucket(bucketName));
+    }
+
+    @Override
+    public void makeBucket(String bucketName) throws Exception {
+        Files.createDirectories(resolveBucket(bucketName));
+    }
+
+    // --- 供本地对象访问端点使用的方法 ---
+
+    /**
+     * 校验预签名URL的签名与有效期。
+     *
+     * @param bucketName 存储桶名称
+     * @param filePath   对象路径
+     * @param expires    过期时间（Unix 秒）
+     * @param signature  URL 中携带的签名
+     * @return 签名有效且未过期时返回 {@code true}
+     */
+    public boolean verifySignature(String bucketName, String filePath, long expires, String signature) {
+        if (signature == null || expires < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        byte[] expected = sign(bucketName, filePath, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 获取对象大小。
+     *
+     * @return 对象字节数
+     * @throws IOException 对象不存在或读取失败时抛出
+     */
+    public long objectSize(String bucketName, String filePath) throws IOException {
+        return Files.size(resolveExistingObject(bucketName, filePath));
+    }
+
+    // --- 私有辅助方法 ---
+
+    private String sign(String bucketName, String filePath, long expires) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            String payload = bucketName + "\n" + filePath + "\n" + expires;
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("生成预签名签名失败", e);
+        }
+    }
+
+    private Path resolveBucket(String bucketName) {
+        if (bucketName == null || !BUCKET_NAME_PATTERN.matcher(bucketName).matches()) {
+            throw new IllegalArgumentException("无效的存储桶名称: " + bucketName);
+        }
+        return rootDir.resolve(bucketName);
+    }
+
+    /**
+     * 将对象路径解析为文件路径，并确保结果仍位于存储桶目录内，防止目录遍历。
+     */
+    private Path resolveObject(String bucketName, String filePath) {
+        Path bucketDir = resolveBucket(bucketName);
+        Path resolved = bucketDir.resolve(filePath).normalize();
+        if (!resolved.startsWith(bucketDir)) {
+            throw new IllegalArgumentException("无效的对象路径: " + filePath);
+        }
+        return resolved;
+    }
+
+    private Path resolveExistingObject(String bucketName, String filePath) throws NoSuchFileException {
+        Path path = resolveObject(bucketName, filePath);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(bucketName + "/" + filePath);
+        }
+        return path;
+    }
+
+    private Path createTempFile() throws IOException {
+        return Files.createTempFile(tempDir, "upload-", ".part");
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void pruneEmptyParents(Path bucketDir, Path dir) {
+        Path current = dir;
+        while (current != null && current.startsWith(bucketDir) && !current.equals(bucketDir)) {
+            try (Stream<Path> children = Files.list(current)) {
+                if (children.findAny().isPresent()) {
+                    return;
+                }
+            } catch (IOException e) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(current);
+            } catch (IOException e) {
+                // 可能被并发写入重新填充，忽略即可
+                return;
+            }
+            current = current.getParent();
+        }
+    }
+
+    private StorageObject toStorageObject(Path bucketDir, Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            String key = bucketDir.relativize(path).toString().replace('\\', '/');
+            if (attrs.isDirectory()) {
+                key = key + "/";
+            }
+            return StorageObject.builder()
+                    .filePath(key)
+                    .size(attrs.isDirectory() ? 0 : attrs.size())
+                    .lastModified(ZonedDateTime.ofInstant(attrs.lastModifiedTime().toInstant(), ZoneId.systemDefault()))
+                    .build();
+        } catch (IOException e) {
+            // 遍历过程中文件可能已被删除
+            log.debug("【本地存储】读取文件属性失败，跳过: {}", path);
+            return null;
+        }
+    }
+
+    /**
+     * 基于 {@link FileChannel} 定位读取的区间输入流，不改变通道的共享位置，适合并发的 Range 请求。
+     */
+    private static final class RangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        RangeInputStream(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int toRead = (int) Math.min(len, remaining);
+            int n = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (n <= 0) {
+                return -1;
+            }
+            position += n;
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.min(n, remaining);
+            position += skipped;
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.miniodemo.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 按块清单顺序拼接多个对象的输入流。
+ * <p>
+ * 每次只打开一个块对象，读完即关闭再打开下一个，任意大小的文件都只占用一个对象连接，
+ * 读取方中途关闭流时也只需释放当前块。
+ */
+public class ManifestInputStream extends InputStream {
+
+    private final ObjectStorageService objectStorageService;
+    private final String bucketName;
+    private final Iterator<String> objectPaths;
+    private InputStream current;
+    private boolean closed;
+
+    /**
+     * @param objectStorageService 对象存储服务。
+     * @param bucketName           块所在的存储桶。
+     * @param objectPaths          按文件内顺序排列的块对象路径。
+     */
+    public ManifestInputStream(ObjectStorageService objectStorageService, String bucketName, List<String> objectPaths) {
+        this.objectStorageService = objectStorageService;
+        this.bucketName = bucketName;
+        this.objectPaths = objectPaths.iterator();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("流已关闭");
+        }
+        if (length == 0) {
+            return 0;
+        }
+        while (true) {
+            if (current == null && !openNext()) {
+                return -1;
+            }
+            int n = current.read(buffer, offset, length);
+            if (n >= 0) {
+                return n;
+            }
+            current.close();
+            current = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    private boolean openNext() throws IOException {
+        if (!objectPaths.hasNext()) {
+            return false;
+        }
+        String path = objectPaths.next();
+        try {
+            current = objectStorageService.download(bucketName, path);
+            return true;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("读取数据块失败: " + bucketName + "/" + path, e);
+        }
+    }
+}
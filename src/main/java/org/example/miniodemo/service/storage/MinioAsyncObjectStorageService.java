@@ -0,0 +1,217 @@
+package org.example.miniodemo.service.storage;
+
+import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.config.AsyncStorageConfig;
+import org.example.miniodemo.domain.StorageObject;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于 {@link MinioAsyncClient} 的异步对象存储服务实现。
+ * <p>
+ * 上传、合并、HEAD、单对象删除直接使用 SDK 的异步接口，请求由 OkHttp 调度器并发发出；
+ * SDK 中列举与批量删除返回的是惰性分页的 {@link Iterable}，因此放到专用线程池中迭代。
+ * 所有请求都经过 {@link InFlightLimiter} 限制在途数量。HEAD 经 {@link HedgedReader} 对冲读取，
+ * 对冲出的第二份请求与第一份共用一个在途名额。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "minio", matchIfMissing = true)
+public class MinioAsyncObjectStorageService implements AsyncObjectStorageService {
+
+    private final MinioAsyncClient minioAsyncClient;
+    private final HedgedReader hedgedReader;
+    private final AsyncStorageConfig asyncStorageConfig;
+    private final InFlightLimiter limiter;
+    private final ExecutorService iterationExecutor;
+
+    public MinioAsyncObjectStorageService(@Qualifier("internalMinioAsyncClient") MinioAsyncClient minioAsyncClient,
+                                          @Qualifier("minioHedgedReader") HedgedReader hedgedReader,
+                                          AsyncStorageConfig asyncStorageConfig) {
+        this.minioAsyncClient = minioAsyncClient;
+        this.hedgedReader = hedgedReader;
+        this.asyncStorageConfig = asyncStorageConfig;
+        this.limiter = new InFlightLimiter(asyncStorageConfig.getMaxInFlight());
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.iterationExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "minio-async-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        iterationExecutor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(String bucketName, String filePath, InputStream stream, long size, String contentType) {
+        return limiter.submit(() -> call(() -> minioAsyncClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(filePath)
+                        .stream(stream, size, -1)
+                        .contentType(contentType)
+                        .build()
+        )).thenApply(response -> null));
+    }
+
+    @Override
+    public CompletableFuture<Void> compose(String bucketName, List<String> sourceObjectNames, String targetObjectName) {
+        List<ComposeSource> sources = sourceObjectNames.stream()
+                .map(obj -> ComposeSource.builder().bucket(bucketName).object(obj).build())
+                .toList();
+        return limiter.submit(() -> call(() -> minioAsyncClient.composeObject(
+                ComposeObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(targetObjectName)
+                        .sources(sources)
+                        .build()
+        )).thenApply(response -> null));
+    }
+
+    @Override
+    public CompletableFuture<List<StorageObject>> listObjects(String bucketName, String prefix, boolean recursive) {
+        return limiter.submit(() -> CompletableFuture.supplyAsync(() -> {
+            Iterable<Result<Item>> results = minioAsyncClient.listObjects(
+                    ListObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .prefix(prefix)
+                            .recursive(recursive)
+                            .build()
+            );
+            List<StorageObject> objects = new ArrayList<>();
+            for (Result<Item> result : results) {
+                try {
+                    Item item = result.get();
+                    objects.add(StorageObject.builder()
+                            .filePath(item.objectName())
+                            .size(item.size())
+                            .lastModified(item.isDir() ? null : item.lastModified())
+                            .build());
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }
+            return objects;
+        }, iterationExecutor));
+    }
+
+    @Override
+    public CompletableFuture<Optional<StorageObject>> stat(String bucketName, String filePath) {
+        return limiter.submit(() -> hedgedReader.readAsync(endpoint -> endpoint.asyncClient().statObject(
+                StatObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(filePath)
+                        .build()
+        )).handle((response, error) -> {
+            if (error == null) {
+                return Optional.of(StorageObject.builder()
+                        .filePath(response.object())
+                        .size(response.size())
+                        .lastModified(response.lastModified())
+                        .build());
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof ErrorResponseException ere && MinioObjectStorageService.isNotFound(ere)) {
+                return Optional.empty();
+            }
+            throw new CompletionException(cause);
+        }));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String bucketName, String filePath) {
+        return limiter.submit(() -> call(() -> minioAsyncClient.removeObject(
+                RemoveObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(filePath)
+                        .build()
+        )));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> delete(String bucketName, List<String> filePaths) {
+        if (filePaths.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        int batchSize = Math.max(1, asyncStorageConfig.getDeleteBatchSize());
+        List<CompletableFuture<List<String>>> batches = new ArrayList<>();
+        for (int from = 0; from < filePaths.size(); from += batchSize) {
+            List<String> batch = filePaths.subList(from, Math.min(from + batchSize, filePaths.size()));
+            batches.add(limiter.submit(() -> CompletableFuture.supplyAsync(() -> deleteBatch(bucketName, batch), iterationExecutor)));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> batches.stream()
+                        .flatMap(future -> future.join().stream())
+                        .toList());
+    }
+
+    /**
+     * 执行一次多对象删除请求，返回删除失败的对象名称。
+     */
+    private List<String> deleteBatch(String bucketName, List<String> batch) {
+        List<DeleteObject> toDelete = batch.stream().map(DeleteObject::new).toList();
+        Iterable<Result<DeleteError>> errors = minioAsyncClient.removeObjects(
+                RemoveObjectsArgs.builder()
+                        .bucket(bucketName)
+                        .objects(toDelete)
+                        .build()
+        );
+        List<String> failed = new ArrayList<>();
+        try {
+            for (Result<DeleteError> errorResult : errors) {
+                DeleteError error = errorResult.get();
+                log.error("批量删除对象时发生错误。对象: {}, 消息: {}", error.objectName(), error.message());
+                failed.add(error.objectName());
+            }
+        } catch (Exception e) {
+            // 请求本身失败时无法得知哪些对象已删除，整批视为失败
+            log.error("批量删除请求失败。存储桶: {}, 对象数: {}", bucketName, batch.size(), e);
+            return batch;
+        }
+        return failed;
+    }
+
+    /**
+     * 调用 SDK 的异步方法，将其同步抛出的受检异常转换为失败的 future。
+     */
+    private static <T> CompletableFuture<T> call(AsyncCall<T> call) {
+        try {
+            return call.execute();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while (current instanceof CompletionException && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    @FunctionalInterface
+    private interface AsyncCall<T> {
+        CompletableFuture<T> execute() throws Exception;
+    }
+}
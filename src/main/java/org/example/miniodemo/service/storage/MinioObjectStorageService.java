@@ -1,6 +1,7 @@
 package org.example.miniodemo.service.storage;
 
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
 import io.minio.messages.DeleteError;
 import io.minio.messages.DeleteObject;
@@ -9,10 +10,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.miniodemo.config.MinioConfig;
 import org.example.miniodemo.domain.StorageObject;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -22,11 +26,18 @@ import java.util.stream.StreamSupport;
  *
  * 该服务封装了所有与 MinIO 交互的具体逻辑，
  * 将 MinIO SDK 的调用与业务逻辑隔离，便于维护和替换存储实现。
+ * 默认启用；当 {@code storage.type} 配置为其他实现时不会被装配。
  */
 @Slf4j
 @Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "minio", matchIfMissing = true)
 public class MinioObjectStorageService implements ObjectStorageService {
 
+    /**
+     * 对象大小未知时的分段大小（S3/MinIO 分段下限为 5MiB）。
+     */
+    private static final long UNKNOWN_SIZE_PART_SIZE = 16L * 1024 * 1024;
+
     /**
      * 内部使用的 MinIO 客户端，通常用于私有访问。
      */
@@ -36,19 +47,27 @@ public class MinioObjectStorageService implements ObjectStorageService {
      * 公网访问的 MinIO 客户端，主要用于生成对外公开的访问链接（预签名 URL）。
      */
     private final MinioClient publicMinioClient;
+
+    /**
+     * 下载与 HEAD 使用的对冲读取器，未配置副本端点时直接使用内部客户端。
+     */
+    private final HedgedReader hedgedReader;
     private final MinioConfig minioConfig;
 
     /**
      * 构造方法，注入两个不同配置的 MinIO 客户端实例。
      * @param internalMinioClient 内部访问客户端
      * @param publicMinioClient 公网访问客户端
+     * @param hedgedReader 读取使用的对冲读取器
      */
     public MinioObjectStorageService(
             @Qualifier("internalMinioClient") MinioClient internalMinioClient,
             @Qualifier("publicMinioClient") MinioClient publicMinioClient,
+            @Qualifier("minioHedgedReader") HedgedReader hedgedReader,
             MinioConfig minioConfig) {
         this.internalMinioClient = internalMinioClient;
         this.publicMinioClient = publicMinioClient;
+        this.hedgedReader = hedgedReader;
         this.minioConfig = minioConfig;
     }
 
@@ -63,14 +82,30 @@ public class MinioObjectStorageService implements ObjectStorageService {
      */
     @Override
     public void upload(String bucketName, String filePath, InputStream stream, long size, String contentType) throws Exception {
-        internalMinioClient.putObject(
-                PutObjectArgs.builder()
-                        .bucket(bucketName)
-                        .object(filePath)
-                        .stream(stream, size, -1)
-                        .contentType(contentType)
-                        .build()
-        );
+        upload(bucketName, filePath, stream, size, contentType, null);
+    }
+
+    /**
+     * 上传文件并在对象元数据中记录 {@code Content-Encoding}。大小未知（流式压缩）时按固定分段大小分段上传，
+     * 内存中只缓冲一个分段。
+     */
+    @Override
+    public void upload(String bucketName, String filePath, InputStream stream, long size, String contentType,
+                       String contentEncoding) throws Exception {
+        PutObjectArgs.Builder builder = PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(filePath)
+                .stream(stream, size, size < 0 ? UNKNOWN_SIZE_PART_SIZE : -1)
+                .contentType(contentType);
+        if (contentEncoding != null) {
+            builder.headers(Map.of("Content-Encoding", contentEncoding));
+        }
+        internalMinioClient.putObject(builder.build());
+    }
+
+    @Override
+    public boolean supportsCompression() {
+        return true;
     }
 
     /**
@@ -99,6 +134,20 @@ public class MinioObjectStorageService implements ObjectStorageService {
         );
     }
 
+    /**
+     * 服务端复制对象。超过单次复制上限（5GiB）的对象由 SDK 自动改为分段复制。
+     */
+    @Override
+    public void copy(String sourceBucket, String sourcePath, String targetBucket, String targetPath) throws Exception {
+        internalMinioClient.copyObject(
+                CopyObjectArgs.builder()
+                        .bucket(targetBucket)
+                        .object(targetPath)
+                        .source(CopySource.builder().bucket(sourceBucket).object(sourcePath).build())
+                        .build()
+        );
+    }
+
     /**
      * 列出指定存储桶下符合条件的对象列表。
      * @param bucketName 存储桶名称
@@ -145,12 +194,83 @@ public class MinioObjectStorageService implements ObjectStorageService {
      */
     @Override
     public InputStream download(String bucketName, String filePath) throws Exception {
-        return internalMinioClient.getObject(
+        return hedgedReader.read(endpoint -> endpoint.client().getObject(
                 GetObjectArgs.builder()
                         .bucket(bucketName)
                         .object(filePath)
                         .build()
-        );
+        ), MinioObjectStorageService::closeQuietly);
+    }
+
+    /**
+     * 按字节区间下载指定存储桶中的对象。
+     * @param bucketName 存储桶名称
+     * @param filePath 对象路径（文件名）
+     * @param offset 起始字节偏移量
+     * @param length 读取的字节数
+     * @return 指定区间内容的输入流
+     * @throws Exception 下载失败时抛出异常
+     */
+    @Override
+    public InputStream download(String bucketName, String filePath, long offset, long length) throws Exception {
+        return hedgedReader.read(endpoint -> endpoint.client().getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(filePath)
+                        .offset(offset)
+                        .length(length)
+                        .build()
+        ), MinioObjectStorageService::closeQuietly);
+    }
+
+    /**
+     * 关闭对冲读取中未被采用的响应，释放其连接。
+     */
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (Exception e) {
+            log.debug("关闭未采用的下载响应失败", e);
+        }
+    }
+
+    /**
+     * 获取指定对象的元信息。
+     * @param bucketName 存储桶名称
+     * @param filePath 对象路径
+     * @return 对象信息，对象不存在时返回空
+     * @throws Exception 查询失败时抛出异常
+     */
+    @Override
+    public Optional<StorageObject> stat(String bucketName, String filePath) throws Exception {
+        try {
+            StatObjectResponse response = hedgedReader.read(endpoint -> endpoint.client().statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(filePath)
+                            .build()
+            ), ignored -> { });
+            return Optional.of(StorageObject.builder()
+                    .filePath(response.object())
+                    .size(response.size())
+                    .lastModified(response.lastModified())
+                    .contentType(response.contentType())
+                    .contentEncoding(response.headers().get("Content-Encoding"))
+                    .build());
+        } catch (ErrorResponseException e) {
+            if (isNotFound(e)) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 判断 MinIO 错误响应是否表示对象不存在。
+     */
+    static boolean isNotFound(ErrorResponseException e) {
+        String code = e.errorResponse().code();
+        return "NoSuchKey".equals(code) || "NoSuchObject".equals(code);
     }
 
     /**
@@ -218,4 +338,14 @@ public class MinioObjectStorageService implements ObjectStorageService {
                         .build()
         );
     }
+
+    @Override
+    public boolean bucketExists(String bucketName) throws Exception {
+        return internalMinioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+    }
+
+    @Override
+    public void makeBucket(String bucketName) throws Exception {
+        internalMinioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+    }
 }
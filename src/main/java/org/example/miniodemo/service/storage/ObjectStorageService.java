@@ -4,6 +4,7 @@ import org.example.miniodemo.domain.StorageObject;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -26,6 +27,35 @@ public interface ObjectStorageService {
      */
     void upload(String bucketName, String filePath, InputStream stream, long size, String contentType) throws Exception;
 
+    /**
+     * 上传一个带内容编码的对象，编码记录在对象的 {@code Content-Encoding} 元数据中，
+     * 通过公开URL或预签名URL直接访问时由浏览器透明解码。
+     *
+     * @param bucketName      存储桶名称。
+     * @param filePath        对象的完整路径和名称。
+     * @param stream          已编码内容的输入流。
+     * @param size            已编码内容的大小，未知时传 -1。
+     * @param contentType     原始内容的MIME类型。
+     * @param contentEncoding 内容编码（如 {@code gzip}），为 {@code null} 时等同于 {@link #upload(String, String, InputStream, long, String)}；
+     *                        只有 {@link #supportsCompression()} 为 {@code true} 时才能传入非空值。
+     * @throws Exception 如果上传失败。
+     */
+    default void upload(String bucketName, String filePath, InputStream stream, long size, String contentType,
+                        String contentEncoding) throws Exception {
+        if (contentEncoding != null) {
+            throw new IllegalArgumentException("上传带内容编码的对象前需先检查 supportsCompression()");
+        }
+        upload(bucketName, filePath, stream, size, contentType);
+    }
+
+    /**
+     * 是否能存储压缩内容，即 {@link #upload(String, String, InputStream, long, String, String)} 能记录内容编码。
+     * 不支持的实现（如本地文件系统）无法让直接访问的客户端正确解码，调用方在写入压缩内容前必须检查本方法。
+     */
+    default boolean supportsCompression() {
+        return false;
+    }
+
     /**
      * 将多个源对象合并成一个目标对象。主要用于分片上传的合并步骤。
      *
@@ -36,6 +66,17 @@ public interface ObjectStorageService {
      */
     void compose(String bucketName, List<String> sourceObjectNames, String targetObjectName) throws Exception;
 
+    /**
+     * 在存储端复制一个对象，可以跨存储桶，数据不经过应用。对象的内容类型与内容编码随之复制。
+     *
+     * @param sourceBucket 源存储桶。
+     * @param sourcePath   源对象路径。
+     * @param targetBucket 目标存储桶。
+     * @param targetPath   目标对象路径，已存在时被覆盖。
+     * @throws Exception 如果源对象不存在或复制失败。
+     */
+    void copy(String sourceBucket, String sourcePath, String targetBucket, String targetPath) throws Exception;
+
     /**
      * 列出指定存储桶和前缀下的所有对象。
      *
@@ -57,6 +98,28 @@ public interface ObjectStorageService {
      */
     InputStream download(String bucketName, String filePath) throws Exception;
 
+    /**
+     * 获取一个对象指定字节区间的输入流，用于 HTTP Range 请求。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePath   对象名称。
+     * @param offset     起始字节偏移量（从0开始）。
+     * @param length     读取的字节数。
+     * @return 指定区间内容的输入流。
+     * @throws Exception 如果获取失败。
+     */
+    InputStream download(String bucketName, String filePath, long offset, long length) throws Exception;
+
+    /**
+     * 获取单个对象的元信息（HEAD）。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePath   对象名称。
+     * @return 对象信息，对象不存在时返回空。
+     * @throws Exception 如果查询失败。
+     */
+    Optional<StorageObject> stat(String bucketName, String filePath) throws Exception;
+
     /**
      * 删除单个对象。
      *
@@ -86,4 +149,61 @@ public interface ObjectStorageService {
      * @throws Exception 如果生成URL失败。
      */
     String getPresignedDownloadUrl(String bucketName, String filePath, int duration, TimeUnit unit) throws Exception;
+
+    /**
+     * 为文件元数据记录了所在集群的对象生成预签名下载URL。多集群实现直接在该集群上签名，不查询对象存储；
+     * 单集群实现忽略集群ID。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePath   对象名称。
+     * @param clusterId  文件元数据记录的集群ID，未知时为 {@code null}。
+     * @param duration   URL的有效时长。
+     * @param unit       时长单位。
+     * @return 预签名的下载URL。
+     * @throws Exception 如果生成URL失败。
+     */
+    default String getPresignedDownloadUrl(String bucketName, String filePath, String clusterId,
+                                           int duration, TimeUnit unit) throws Exception {
+        return getPresignedDownloadUrl(bucketName, filePath, duration, unit);
+    }
+
+    /**
+     * 对象所在集群的ID，写入文件元数据。单集群实现返回 {@code null}。
+     *
+     * @param bucketName 存储桶名称。
+     * @param filePath   对象名称。
+     * @return 集群ID。
+     * @throws Exception 如果查询失败。
+     */
+    default String clusterOf(String bucketName, String filePath) throws Exception {
+        return null;
+    }
+
+    /**
+     * 直接访问对象（公共资源URL）的基础端点。单集群实现返回 {@code null}，由调用方使用 {@code minio.public-endpoint}。
+     *
+     * @param filePath  对象名称。
+     * @param clusterId 文件元数据记录的集群ID，未知时为 {@code null}。
+     * @return 基础端点，URL 为 {@code {端点}/{存储桶}/{对象名称}}。
+     */
+    default String publicEndpointOf(String filePath, String clusterId) {
+        return null;
+    }
+
+    /**
+     * 检查存储桶是否存在。
+     *
+     * @param bucketName 存储桶名称。
+     * @return 存在返回 {@code true}。
+     * @throws Exception 如果检查失败。
+     */
+    boolean bucketExists(String bucketName) throws Exception;
+
+    /**
+     * 创建存储桶。
+     *
+     * @param bucketName 存储桶名称。
+     * @throws Exception 如果创建失败。
+     */
+    void makeBucket(String bucketName) throws Exception;
 }
\ No newline at end of file
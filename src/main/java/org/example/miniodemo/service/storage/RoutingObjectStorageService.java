@@ -0,0 +1,381 @@
+package org.example.miniodemo.service.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import org.example.miniodemo.common.util.FilePathUtil;
+import org.example.miniodemo.config.LocalStorageConfig;
+import org.example.miniodemo.config.MinioConfig;
+import org.example.miniodemo.config.StorageClusterConfig;
+import org.example.miniodemo.domain.StorageObject;
+import org.example.miniodemo.service.DedupChunkService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多集群对象存储服务：按内容哈希在一致性哈希环上把对象路由到多个集群。
+ * <p>
+ * 同一内容哈希的分片、最终文件与共享对象落在同一个集群上，合并与服务端复制不会跨集群。
+ * 新对象写入环上的归属集群；读取先访问归属集群，对象不在那里（环变化后尚未搬迁）时回退到其他集群；
+ * 删除在所有集群上执行。合并与复制在源对象所在的集群上完成，目标不在归属集群时由后台搬迁任务移过去。
+ * <p>
+ * 本地文件系统集群的预签名URL指向其 {@code endpoint}，多集群模式下 {@code /local-storage} 端点不会启用，
+ * 本地集群只用于在单机上模拟多集群，文件经由应用代理下载。
+ * 通过 {@code storage.type=cluster} 启用，集群列表见 {@link StorageClusterConfig}。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "cluster")
+public class RoutingObjectStorageService implements ObjectStorageService {
+
+    private final Map<String, ObjectStorageService> clusters = new LinkedHashMap<>();
+    private final Map<String, String> publicEndpoints = new HashMap<>();
+    private final List<HedgedReader> hedgedReaders = new ArrayList<>();
+    private final ConsistentHashRing ring;
+
+    public RoutingObjectStorageService(StorageClusterConfig config, MinioConfig minioConfig,
+                                       MeterRegistry registry) throws IOException {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (StorageClusterConfig.Cluster cluster : config.getClusters()) {
+            String id = cluster.getId();
+            if (id == null || id.isBlank()) {
+                throw new IllegalStateException("storage.cluster.clusters 中的集群ID不能为空");
+            }
+            if (clusters.containsKey(id)) {
+                throw new IllegalStateException("storage.cluster.clusters 中的集群ID重复: " + id);
+            }
+            clusters.put(id, createCluster(cluster, minioConfig, registry));
+            publicEndpoints.put(id, cluster.getPublicEndpoint() != null ? cluster.getPublicEndpoint() : cluster.getEndpoint());
+            weights.put(id, Math.max(0, cluster.getWeight()));
+        }
+        this.ring = new ConsistentHashRing(weights, config.getVirtualNodesPerWeight());
+        log.info("【多集群存储】已启用，集群权重: {}", weights);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgedReaders.forEach(HedgedReader::shutdown);
+    }
+
+    private ObjectStorageService createCluster(StorageClusterConfig.Cluster cluster, MinioConfig minioConfig,
+                                               MeterRegistry registry) throws IOException {
+        switch (cluster.getType()) {
+            case "minio": {
+                String publicEndpoint = cluster.getPublicEndpoint() != null
+                        ? cluster.getPublicEndpoint() : cluster.getEndpoint();
+                OkHttpClient internalHttpClient = MinioConfig.buildHttpClient(minioConfig.getHttp(), cluster.getEndpoint());
+                MinioClient internalClient = MinioClient.builder()
+                        .endpoint(cluster.getEndpoint())
+                        .credentials(cluster.getAccessKey(), cluster.getSecretKey())
+                        .httpClient(internalHttpClient)
+                        .build();
+                MinioAsyncClient internalAsyncClient = MinioAsyncClient.builder()
+                        .endpoint(cluster.getEndpoint())
+                        .credentials(cluster.getAccessKey(), cluster.getSecretKey())
+                        .httpClient(internalHttpClient)
+                        .build();
+                HedgedReader hedgedReader = MinioConfig.buildHedgedReader(cluster.getEndpoint(), internalClient,
+                        internalAsyncClient, cluster.getReplicaEndpoints(), cluster.getAccessKey(), cluster.getSecretKey(),
+                        internalHttpClient, minioConfig.getHedgedRead());
+                hedgedReader.bindMetrics(registry);
+                hedgedReaders.add(hedgedReader);
+                MinioClient publicClient = MinioClient.builder()
+                        .endpoint(publicEndpoint)
+                        .credentials(cluster.getAccessKey(), cluster.getSecretKey())
+                        .httpClient(MinioConfig.buildHttpClient(minioConfig.getPublicHttp(), publicEndpoint))
+                        .build();
+                return new MinioObjectStorageService(internalClient, publicClient, hedgedReader, minioConfig);
+            }
+            case "local": {
+                LocalStorageConfig localConfig = new LocalStorageConfig();
+                localConfig.setRootDir(cluster.getRootDir());
+                if (cluster.getEndpoint() != null) {
+                    localConfig.setEndpoint(cluster.getEndpoint());
+                }
+                localConfig.setPresignSecret(cluster.getPresignSecret());
+                LocalFsObjectStorageService local = new LocalFsObjectStorageService(localConfig);
+                local.init();
+                return local;
+            }
+            default:
+                throw new IllegalStateException("不支持的集群存储类型: " + cluster.getType() + "（集群 " + cluster.getId() + "）");
+        }
+    }
+
+    // --- 路由 ---
+
+    /**
+     * 所有集群的ID，按配置顺序。
+     */
+    public Set<String> clusterIds() {
+        return Collections.unmodifiableSet(clusters.keySet());
+    }
+
+    /**
+     * 直接访问某个集群，供后台搬迁任务使用。
+     */
+    public ObjectStorageService cluster(String clusterId) {
+        ObjectStorageService cluster = clusters.get(clusterId);
+        if (cluster == null) {
+            throw new IllegalArgumentException("未知的集群: " + clusterId);
+        }
+        return cluster;
+    }
+
+    /**
+     * 对象在哈希环上的归属集群。
+     */
+    public String ownerOf(String filePath) {
+        return ring.nodeOf(routingKeyOf(filePath));
+    }
+
+    /**
+     * 对象的路由键：共享对象与 CDC 块为路径末段的哈希，文件与分片为路径中的文件哈希（分片为会话ID，即文件哈希），
+     * 其他路径为路径本身。
+     */
+    static String routingKeyOf(String filePath) {
+        if (filePath.startsWith(FilePathUtil.BLOB_PREFIX) || filePath.startsWith(DedupChunkService.CHUNK_PREFIX)) {
+            return filePath.substring(filePath.lastIndexOf('/') + 1);
+        }
+        String hash = FilePathUtil.extractHashFromPath(filePath);
+        return hash != null && !hash.isEmpty() ? hash : filePath;
+    }
+
+    /**
+     * 查找对象实际所在的集群，先查归属集群。
+     */
+    private Optional<String> locate(String bucketName, String filePath) throws Exception {
+        String owner = ownerOf(filePath);
+        if (clusters.get(owner).stat(bucketName, filePath).isPresent()) {
+            return Optional.of(owner);
+        }
+        return locateElsewhere(bucketName, filePath, owner);
+    }
+
+    /**
+     * 在归属集群以外的集群中查找对象，不可用的集群被跳过。
+     */
+    private Optional<String> locateElsewhere(String bucketName, String filePath, String owner) {
+        for (Map.Entry<String, ObjectStorageService> entry : clusters.entrySet()) {
+            if (entry.getKey().equals(owner)) {
+                continue;
+            }
+            try {
+                if (entry.getValue().stat(bucketName, filePath).isPresent()) {
+                    return Optional.of(entry.getKey());
+                }
+            } catch (Exception e) {
+                log.warn("【多集群存储】查询对象失败，跳过集群: 集群={}, 存储桶={}, 路径={}",
+                        entry.getKey(), bucketName, filePath, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private ObjectStorageService locatedOrOwner(String bucketName, String filePath) throws Exception {
+        return clusters.get(locate(bucketName, filePath).orElseGet(() -> ownerOf(filePath)));
+    }
+
+    /**
+     * 先在归属集群上读取，失败且对象在其他集群上时改从那里读取。
+     */
+    private <T> T read(String bucketName, String filePath, ClusterCall<T> call) throws Exception {
+        String owner = ownerOf(filePath);
+        try {
+            return call.apply(clusters.get(owner));
+        } catch (Exception e) {
+            Optional<String> located = locateElsewhere(bucketName, filePath, owner);
+            if (located.isEmpty()) {
+                throw e;
+            }
+            log.debug("【多集群存储】对象不在归属集群，改从集群 {} 读取: 存储桶={}, 路径={}", located.get(), bucketName, filePath);
+            return call.apply(clusters.get(located.get()));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ClusterCall<T> {
+        T apply(ObjectStorageService cluster) throws Exception;
+    }
+
+    // --- ObjectStorageService ---
+
+    @Override
+    public void upload(String bucketName, String filePath, InputStream stream, long size, String contentType) throws Exception {
+        clusters.get(ownerOf(filePath)).upload(bucketName, filePath, stream, size, contentType);
+    }
+
+    @Override
+    public void upload(String bucketName, String filePath, InputStream stream, long size, String contentType,
+                       String contentEncoding) throws Exception {
+        clusters.get(ownerOf(filePath)).upload(bucketName, filePath, stream, size, contentType, contentEncoding);
+    }
+
+    /**
+     * 只有所有集群都能记录内容编码时才支持，搬迁可能把对象移到任意集群。
+     */
+    @Override
+    public boolean supportsCompression() {
+        return clusters.values().stream().allMatch(ObjectStorageService::supportsCompression);
+    }
+
+    /**
+     * 在第一个分片所在的集群上合并，上传期间环发生变化时分片仍在原集群。
+     */
+    @Override
+    public void compose(String bucketName, List<String> sourceObjectNames, String targetObjectName) throws Exception {
+        String clusterId = sourceObjectNames.isEmpty()
+                ? ownerOf(targetObjectName)
+                : locate(bucketName, sourceObjectNames.get(0)).orElseGet(() -> ownerOf(targetObjectName));
+        clusters.get(clusterId).compose(bucketName, sourceObjectNames, targetObjectName);
+    }
+
+    /**
+     * 在源对象所在的集群上服务端复制，目标不在归属集群时由后台搬迁任务移过去。
+     */
+    @Override
+    public void copy(String sourceBucket, String sourcePath, String targetBucket, String targetPath) throws Exception {
+        locatedOrOwner(sourceBucket, sourcePath).copy(sourceBucket, sourcePath, targetBucket, targetPath);
+    }
+
+    /**
+     * 合并所有集群的列举结果，搬迁期间同一对象可能短暂存在于两个集群，只保留最后修改的一份。
+     */
+    @Override
+    public List<StorageObject> listObjects(String bucketName, String prefix, boolean recursive) throws Exception {
+        Map<String, StorageObject> merged = new TreeMap<>();
+        for (ObjectStorageService cluster : clusters.values()) {
+            for (StorageObject object : cluster.listObjects(bucketName, prefix, recursive)) {
+                merged.merge(object.getFilePath(), object, (a, b) ->
+                        b.getLastModified() != null
+                                && (a.getLastModified() == null || b.getLastModified().isAfter(a.getLastModified()))
+                                ? b : a);
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    @Override
+    public InputStream download(String bucketName, String filePath) throws Exception {
+        return read(bucketName, filePath, cluster -> cluster.download(bucketName, filePath));
+    }
+
+    @Override
+    public InputStream download(String bucketName, String filePath, long offset, long length) throws Exception {
+        return read(bucketName, filePath, cluster -> cluster.download(bucketName, filePath, offset, length));
+    }
+
+    @Override
+    public Optional<StorageObject> stat(String bucketName, String filePath) throws Exception {
+        String owner = ownerOf(filePath);
+        Optional<StorageObject> object = clusters.get(owner).stat(bucketName, filePath);
+        if (object.isPresent()) {
+            return object;
+        }
+        Optional<String> located = locateElsewhere(bucketName, filePath, owner);
+        return located.isPresent() ? clusters.get(located.get()).stat(bucketName, filePath) : Optional.empty();
+    }
+
+    /**
+     * 在所有集群上删除，搬迁中断遗留的副本随之删除。
+     */
+    @Override
+    public void delete(String bucketName, String filePath) throws Exception {
+        Exception failure = null;
+        for (Map.Entry<String, ObjectStorageService> entry : clusters.entrySet()) {
+            try {
+                entry.getValue().delete(bucketName, filePath);
+            } catch (Exception e) {
+                log.error("【多集群存储】删除对象失败: 集群={}, 存储桶={}, 路径={}", entry.getKey(), bucketName, filePath, e);
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void delete(String bucketName, List<String> filePaths) throws Exception {
+        Exception failure = null;
+        for (Map.Entry<String, ObjectStorageService> entry : clusters.entrySet()) {
+            try {
+                entry.getValue().delete(bucketName, filePaths);
+            } catch (Exception e) {
+                log.error("【多集群存储】批量删除对象失败: 集群={}, 存储桶={}, 对象数={}",
+                        entry.getKey(), bucketName, filePaths.size(), e);
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 没有元数据的对象：查询对象实际所在的集群后签名。
+     */
+    @Override
+    public String getPresignedDownloadUrl(String bucketName, String filePath, int duration, TimeUnit unit) throws Exception {
+        return locatedOrOwner(bucketName, filePath).getPresignedDownloadUrl(bucketName, filePath, duration, unit);
+    }
+
+    /**
+     * 与 {@link #publicEndpointOf} 相同，在元数据记录的集群上签名（未记录时为归属集群），不查询对象存储，
+     * 列表页为每个文件生成URL时不会逐个集群发送 HEAD 请求。
+     */
+    @Override
+    public String getPresignedDownloadUrl(String bucketName, String filePath, String clusterId,
+                                          int duration, TimeUnit unit) throws Exception {
+        String id = clusterId != null && clusters.containsKey(clusterId) ? clusterId : ownerOf(filePath);
+        return clusters.get(id).getPresignedDownloadUrl(bucketName, filePath, duration, unit);
+    }
+
+    @Override
+    public String clusterOf(String bucketName, String filePath) throws Exception {
+        return locate(bucketName, filePath).orElseGet(() -> ownerOf(filePath));
+    }
+
+    /**
+     * 优先使用元数据记录的集群（搬迁时随之更新），不查询对象存储，列表页可以批量生成URL。
+     */
+    @Override
+    public String publicEndpointOf(String filePath, String clusterId) {
+        String id = clusterId != null && clusters.containsKey(clusterId) ? clusterId : ownerOf(filePath);
+        return publicEndpoints.get(id);
+    }
+
+    /**
+     * 所有集群上都存在时才视为存在。
+     */
+    @Override
+    public boolean bucketExists(String bucketName) throws Exception {
+        for (ObjectStorageService cluster : clusters.values()) {
+            if (!cluster.bucketExists(bucketName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在缺少该存储桶的集群上创建。
+     */
+    @Override
+    public void makeBucket(String bucketName) throws Exception {
+        for (Map.Entry<String, ObjectStorageService> entry : clusters.entrySet()) {
+            if (!entry.getValue().bucketExists(bucketName)) {
+                entry.getValue().makeBucket(bucketName);
+                log.info("【多集群存储】已在集群 {} 上创建存储桶: {}", entry.getKey(), bucketName);
+            }
+        }
+    }
+}
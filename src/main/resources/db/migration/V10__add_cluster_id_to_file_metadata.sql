@@ -0,0 +1,2 @@
+-- 多集群存储（storage.type=cluster）时文件内容所在的集群，由后台搬迁任务随对象移动更新；单集群部署下为空。
+ALTER TABLE file_metadata ADD COLUMN cluster_id VARCHAR(64) COMMENT '文件内容所在的存储集群，单集群部署为空' AFTER bucket_name;
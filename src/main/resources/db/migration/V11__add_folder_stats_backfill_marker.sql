@@ -0,0 +1,12 @@
+-- 根目录的统计改为读取时汇总：根目录一行只记录直接位于根目录的文件，其余由一级子目录求和，写入不再争用同一行。
+-- 已有统计按旧口径累加，清空后由应用启动时的回填按新口径重建。
+-- 回填标记只有一行，由回填事务插入；多个节点同时启动时只有插入成功的节点回填，回填失败回滚后下次启动重试。
+-- 脚本同时兼容 MySQL 与 H2 的 MySQL 模式（压测环境）。
+DELETE FROM folder_stats;
+
+CREATE TABLE folder_stats_backfill
+(
+    id           INT       COMMENT '固定为 1' NOT NULL,
+    completed_at TIMESTAMP COMMENT '回填时间' NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,12 @@
+-- 文件列表的版本号，用作条件请求的强 ETag：每种存储类型一行，文件元数据写入的事务提交后递增。
+-- 保存在数据库中，多个实例发出的 ETag 一致；提交后在独立的短事务中递增，不与元数据写入争用这一行的锁。
+-- 脚本同时兼容 MySQL 与 H2 的 MySQL 模式（压测环境）。
+CREATE TABLE resource_version
+(
+    resource_key VARCHAR(64) COMMENT '资源标识，如 listing:PUBLIC' NOT NULL,
+    version      BIGINT      DEFAULT 0 COMMENT '版本号，只增不减' NOT NULL,
+    PRIMARY KEY (resource_key)
+);
+
+INSERT INTO resource_version (resource_key, version) VALUES ('listing:PUBLIC', 0);
+INSERT INTO resource_version (resource_key, version) VALUES ('listing:PRIVATE', 0);
@@ -0,0 +1,3 @@
+-- 记录服务端在 /upload/init 时为会话确定的分片大小，用于断点续传时保持分片方案不变并校验每个分片的字节数。
+-- 旧客户端自行声明 total_chunks 时该列为空，不做分片大小校验。
+ALTER TABLE chunk_upload_sessions ADD COLUMN chunk_size BIGINT COMMENT '分片大小（字节），为空表示由客户端决定' AFTER total_chunks;
@@ -0,0 +1,34 @@
+-- 内容定义分块（CDC）去重存储。
+-- dedup_chunk：每个存储桶内按 SHA-256 去重的数据块，对象路径为 cdc/{前两位}/{chunk_hash}。
+-- file_chunk_manifest：CDC 文件的有序块清单，按 (storage_type, content_hash) 与 file_metadata 对应。
+-- 脚本同时兼容 MySQL 与 H2 的 MySQL 模式（压测环境）。
+CREATE TABLE dedup_chunk
+(
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    bucket_name  VARCHAR(63) COMMENT '存储桶名称' NOT NULL,
+    chunk_hash   CHAR(64)    COMMENT '块内容 SHA-256（64hex，小写）' NOT NULL,
+    chunk_size   BIGINT      COMMENT '块大小（字节）' NOT NULL,
+    created_at   TIMESTAMP   DEFAULT CURRENT_TIMESTAMP COMMENT '首次上传时间' NOT NULL,
+    last_seen_at TIMESTAMP   DEFAULT CURRENT_TIMESTAMP COMMENT '最后一次被上传或被报告为已存在的时间，用于回收宽限期' NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_dedup_chunk_bucket_hash UNIQUE (bucket_name, chunk_hash)
+);
+
+CREATE INDEX idx_dedup_chunk_last_seen ON dedup_chunk (last_seen_at);
+
+CREATE TABLE file_chunk_manifest
+(
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    storage_type VARCHAR(16) COMMENT '存储类型（PUBLIC 或 PRIVATE）' NOT NULL,
+    content_hash CHAR(32)    COMMENT '文件内容哈希，与 file_metadata.content_hash 对应' NOT NULL,
+    seq          INT         COMMENT '块在文件中的序号，从 0 开始' NOT NULL,
+    chunk_hash   CHAR(64)    COMMENT '块内容 SHA-256' NOT NULL,
+    chunk_offset BIGINT      COMMENT '块在文件中的起始偏移量' NOT NULL,
+    chunk_size   BIGINT      COMMENT '块大小（字节）' NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_manifest_file_seq UNIQUE (storage_type, content_hash, seq)
+);
+
+CREATE INDEX idx_manifest_chunk_hash ON file_chunk_manifest (chunk_hash);
+
+ALTER TABLE file_metadata ADD COLUMN content_layout VARCHAR(16) DEFAULT 'OBJECT' COMMENT '内容布局：OBJECT 为单个对象，CDC 为去重块清单' NOT NULL AFTER content_hash;
@@ -0,0 +1 @@
+ALTER TABLE file_metadata ADD COLUMN content_encoding VARCHAR(16) COMMENT '内容编码：为空表示原始字节，GZIP 表示以 gzip 压缩存储' AFTER content_layout;
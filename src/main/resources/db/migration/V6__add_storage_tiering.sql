@@ -0,0 +1,20 @@
+-- 冷热分层：按最后访问时间把长期未访问的私有文件移动到冷存储桶，访问时再移回。
+-- 从未被访问过的文件以创建时间作为最后访问时间，冷数据筛选只需走 last_accessed_at 上的索引。
+-- 脚本同时兼容 MySQL 与 H2 的 MySQL 模式（压测环境）。
+UPDATE file_metadata SET last_accessed_at = created_at WHERE last_accessed_at IS NULL;
+
+CREATE INDEX idx_type_bucket_last_accessed ON file_metadata (storage_type, bucket_name, last_accessed_at, id);
+
+-- 进行中的分层移动：复制目标对象前写入，元数据切换且多余副本删除后移除。
+-- 进程中断后遗留的记录由下一次分层任务按元数据当前所在的存储桶收尾。
+CREATE TABLE file_tier_move
+(
+    id            BIGINT        NOT NULL AUTO_INCREMENT,
+    file_id       BIGINT        COMMENT 'file_metadata.id' NOT NULL,
+    file_path     VARCHAR(1024) COMMENT '对象路径，源与目标存储桶中相同' NOT NULL,
+    source_bucket VARCHAR(63)   COMMENT '源存储桶' NOT NULL,
+    target_bucket VARCHAR(63)   COMMENT '目标存储桶' NOT NULL,
+    created_at    TIMESTAMP     DEFAULT CURRENT_TIMESTAMP COMMENT '开始移动的时间' NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_file_tier_move_file UNIQUE (file_id)
+);
@@ -0,0 +1,20 @@
+-- 虚拟目录统计：每个目录前缀一行，记录其下（含所有子目录）的文件数、总字节数与最后修改时间。
+-- 随 file_metadata 的写入与删除在同一事务内增量维护；存量数据由应用启动时一次性回填。
+-- 路径为规范化形式（无首尾斜杠，根目录为空字符串），等值查询走 SHA-256 十六进制哈希列上的索引。
+-- 脚本同时兼容 MySQL 与 H2 的 MySQL 模式（压测环境）。
+CREATE TABLE folder_stats
+(
+    id               BIGINT        NOT NULL AUTO_INCREMENT,
+    storage_type     VARCHAR(16)   COMMENT '存储类型' NOT NULL,
+    folder_path      VARCHAR(1024) COMMENT '规范化目录路径，根目录为空字符串' NOT NULL,
+    folder_path_hash CHAR(64)      COMMENT '目录路径SHA-256(十六进制)' NOT NULL,
+    parent_path_hash CHAR(64)      COMMENT '父目录路径SHA-256(十六进制)，根目录为空' NULL,
+    name             VARCHAR(255)  COMMENT '目录名，即路径的最后一段' NOT NULL,
+    file_count       BIGINT        DEFAULT 0 COMMENT '目录下（含子目录）的文件数' NOT NULL,
+    total_bytes      BIGINT        DEFAULT 0 COMMENT '目录下（含子目录）的文件总字节数' NOT NULL,
+    last_modified    TIMESTAMP     COMMENT '目录下最近一次新增或删除文件的时间' NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_folder_stats_path UNIQUE (storage_type, folder_path_hash)
+);
+
+CREATE INDEX idx_folder_stats_parent ON folder_stats (storage_type, parent_path_hash, name);
@@ -0,0 +1,4 @@
+-- 同一文件被多个客户端同时上传时只有一个上传者发送分片，其余客户端等待其结果。
+-- uploader_id 记录当前上传者的令牌（/upload/init 时下发）；上传者超过一定时间没有上传分片时由等待者接管。
+-- 旧会话该列为空，任何客户端初始化时都可以认领。
+ALTER TABLE chunk_upload_sessions ADD COLUMN uploader_id VARCHAR(64) COMMENT '当前上传者令牌，为空表示尚无上传者' AFTER chunk_size;
@@ -0,0 +1,21 @@
+-- 按内容寻址的共享对象（BLOB 布局）。
+-- 同一存储类型内相同内容（content_hash）只存一份，对象路径为 blobs/{前两位}/{content_hash}；
+-- 多条 file_metadata（不同目录或文件名）以 content_layout = 'BLOB' 引用同一对象，引用数记录在 ref_count 中。
+-- 引用数降为 0 时记录 released_at，超过宽限期后由定时任务删除对象与登记记录；ref_count = -1 表示正在回收。
+-- 脚本同时兼容 MySQL 与 H2 的 MySQL 模式（压测环境）。
+CREATE TABLE file_blob
+(
+    id               BIGINT      NOT NULL AUTO_INCREMENT,
+    storage_type     VARCHAR(16) COMMENT '存储类型（PUBLIC 或 PRIVATE）' NOT NULL,
+    content_hash     CHAR(32)    COMMENT '文件内容哈希，与 file_metadata.content_hash 对应' NOT NULL,
+    bucket_name      VARCHAR(63) COMMENT '对象所在的存储桶' NOT NULL,
+    file_size        BIGINT      COMMENT '文件原始大小（字节）' NOT NULL,
+    content_encoding VARCHAR(16) COMMENT '对象的内容编码，为空表示原始字节' NULL,
+    ref_count        BIGINT      DEFAULT 0 COMMENT '引用该对象的文件元数据条数，-1 表示正在回收' NOT NULL,
+    created_at       TIMESTAMP   DEFAULT CURRENT_TIMESTAMP COMMENT '首次写入时间' NOT NULL,
+    released_at      TIMESTAMP   COMMENT '引用数降为 0 的时间，回收任务据此判断宽限期' NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_file_blob_hash UNIQUE (storage_type, content_hash)
+);
+
+CREATE INDEX idx_file_blob_released ON file_blob (released_at);
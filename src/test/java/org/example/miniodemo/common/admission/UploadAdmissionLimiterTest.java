@@ -0,0 +1,150 @@
+package org.example.miniodemo.common.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.miniodemo.common.admission.UploadAdmissionLimiter.Admission;
+import org.example.miniodemo.common.admission.UploadAdmissionLimiter.RejectReason;
+import org.example.miniodemo.common.metrics.UploadMetrics;
+import org.example.miniodemo.config.UploadAdmissionConfig;
+import org.example.miniodemo.domain.StorageType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分片上传准入限流：各级并发上限、拒绝时回滚已占用的名额、释放后计数归零，以及客户端令牌桶。
+ */
+class UploadAdmissionLimiterTest {
+
+    private final UploadAdmissionConfig config = new UploadAdmissionConfig();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        config.setMaxConcurrentPerSession(2);
+        config.setMaxConcurrentPerClient(3);
+        config.setMaxConcurrentPerStorageType(4);
+        config.setClientRatePerSecond(0);
+        config.setRetryAfter(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void rejectsWhenSessionConcurrencyIsExhausted() {
+        UploadAdmissionLimiter limiter = new UploadAdmissionLimiter(config, registry);
+
+        assertTrue(limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE).admitted());
+        assertTrue(limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE).admitted());
+        Admission rejected = limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE);
+
+        assertEquals(RejectReason.SESSION_CONCURRENCY, rejected.rejectReason());
+        assertEquals(2, rejected.retryAfterSeconds());
+        assertTrue(limiter.tryAcquire("s2", "10.0.0.1", StorageType.PRIVATE).admitted(), "其他会话不受影响");
+    }
+
+    @Test
+    void clientRejectionRollsBackSessionSlot() {
+        UploadAdmissionLimiter limiter = new UploadAdmissionLimiter(config, registry);
+        limiter.tryAcquire("a", "10.0.0.1", StorageType.PRIVATE);
+        limiter.tryAcquire("b", "10.0.0.1", StorageType.PRIVATE);
+        limiter.tryAcquire("c", "10.0.0.1", StorageType.PRIVATE);
+
+        assertEquals(RejectReason.CLIENT_CONCURRENCY,
+                limiter.tryAcquire("d", "10.0.0.1", StorageType.PRIVATE).rejectReason());
+        assertEquals(3.0, sessions(), "被拒绝的请求不应留下会话计数");
+    }
+
+    @Test
+    void storageTypeRejectionRollsBackSessionAndClientSlots() {
+        UploadAdmissionLimiter limiter = new UploadAdmissionLimiter(config, registry);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire("s" + i, "10.0.0." + i, StorageType.PUBLIC).admitted());
+        }
+
+        Admission rejected = limiter.tryAcquire("s9", "10.0.0.9", StorageType.PUBLIC);
+        assertEquals(RejectReason.STORAGE_CONCURRENCY, rejected.rejectReason());
+        assertEquals(4.0, sessions());
+        assertEquals(4.0, inFlight(StorageType.PUBLIC));
+        assertTrue(limiter.tryAcquire("s9", "10.0.0.9", StorageType.PRIVATE).admitted(), "存储类型之间互不影响");
+    }
+
+    @Test
+    void closeReleasesAllSlots() {
+        UploadAdmissionLimiter limiter = new UploadAdmissionLimiter(config, registry);
+        List<Admission> admissions = new ArrayList<>();
+        admissions.add(limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE));
+        admissions.add(limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE));
+        admissions.add(limiter.tryAcquire(null, "10.0.0.1", StorageType.PRIVATE));
+
+        admissions.forEach(Admission::close);
+
+        assertEquals(0.0, sessions(), "计数归零的会话条目应删除");
+        assertEquals(0.0, inFlight(StorageType.PRIVATE));
+        for (int i = 0; i < 2; i++) {
+            assertTrue(limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE).admitted());
+        }
+    }
+
+    @Test
+    void rejectedAdmissionCloseIsNoOp() {
+        config.setMaxConcurrentPerSession(1);
+        UploadAdmissionLimiter limiter = new UploadAdmissionLimiter(config, registry);
+        limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE);
+
+        Admission rejected = limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE);
+        rejected.close();
+
+        assertNull(rejected.releaser());
+        assertEquals(1.0, inFlight(StorageType.PRIVATE));
+        assertEquals(RejectReason.SESSION_CONCURRENCY,
+                limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE).rejectReason());
+    }
+
+    @Test
+    void nonPositiveLimitsDisableConcurrencyChecks() {
+        config.setMaxConcurrentPerSession(0);
+        config.setMaxConcurrentPerClient(0);
+        config.setMaxConcurrentPerStorageType(0);
+        UploadAdmissionLimiter limiter = new UploadAdmissionLimiter(config, registry);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE).admitted());
+        }
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenRejectsPerClient() {
+        config.setClientBurst(3);
+        config.setClientRatePerSecond(0.1);
+        config.setMaxConcurrentPerSession(0);
+        config.setMaxConcurrentPerClient(0);
+        config.setMaxConcurrentPerStorageType(0);
+        UploadAdmissionLimiter limiter = new UploadAdmissionLimiter(config, registry);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE).close();
+        }
+        Admission rejected = limiter.tryAcquire("s1", "10.0.0.1", StorageType.PRIVATE);
+
+        assertEquals(RejectReason.CLIENT_RATE, rejected.rejectReason());
+        // 每 10 秒补充一个令牌，等待时间向上取整到秒
+        assertTrue(rejected.retryAfterSeconds() > 1 && rejected.retryAfterSeconds() <= 10,
+                "Retry-After=" + rejected.retryAfterSeconds());
+        assertTrue(limiter.tryAcquire("s2", "10.0.0.2", StorageType.PRIVATE).admitted(), "令牌桶按客户端区分");
+        assertEquals(1.0, registry.get("upload.admission.rejected").tag("reason", "CLIENT_RATE").counter().count());
+    }
+
+    private double sessions() {
+        return registry.get("upload.admission.sessions").gauge().value();
+    }
+
+    private double inFlight(StorageType storageType) {
+        return registry.get("upload.admission.inflight").tag(UploadMetrics.TAG_STORAGE_TYPE, storageType.name()).gauge().value();
+    }
+}
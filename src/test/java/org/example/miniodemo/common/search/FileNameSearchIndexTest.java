@@ -0,0 +1,124 @@
+package org.example.miniodemo.common.search;
+
+import org.example.miniodemo.config.SearchConfig;
+import org.example.miniodemo.domain.StorageType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 三元组索引的匹配、排序、候选上限、删除与启动加载。
+ */
+class FileNameSearchIndexTest {
+
+    private final FileNameSearchIndex index = new FileNameSearchIndex(new SearchConfig());
+
+    @Test
+    void matchesSubstringOfNameOrFolderCaseInsensitively() {
+        index.addAfterCommit(1L, StorageType.PRIVATE, "Quarterly-Report.pdf", "finance/2026");
+        index.addAfterCommit(2L, StorageType.PRIVATE, "notes.txt", "reports/archive");
+        index.addAfterCommit(3L, StorageType.PRIVATE, "photo.jpg", "album");
+
+        assertEquals(List.of(1L, 2L), ids("REPORT"));
+        assertEquals(List.of(), ids("missing"));
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordThenInfixThenFolder() {
+        index.addAfterCommit(1L, StorageType.PRIVATE, "xdata.csv", "misc");
+        index.addAfterCommit(2L, StorageType.PRIVATE, "raw_data.csv", "misc");
+        index.addAfterCommit(3L, StorageType.PRIVATE, "data.csv.bak", "misc");
+        index.addAfterCommit(4L, StorageType.PRIVATE, "data.csv", "misc");
+        index.addAfterCommit(5L, StorageType.PRIVATE, "readme.md", "data.csv-exports");
+
+        assertEquals(List.of(4L, 3L, 2L, 1L, 5L), ids("data.csv"));
+    }
+
+    @Test
+    void shortQueriesOnlyMatchNamePrefixes() {
+        index.addAfterCommit(1L, StorageType.PRIVATE, "ab.txt", "x");
+        index.addAfterCommit(2L, StorageType.PRIVATE, "cab.txt", "ab");
+        index.addAfterCommit(3L, StorageType.PRIVATE, "a.txt", "x");
+
+        assertEquals(List.of(1L), ids("ab"));
+        assertEquals(List.of(3L, 1L), ids("a"));
+    }
+
+    @Test
+    void storageTypesAreIndexedSeparately() {
+        index.addAfterCommit(1L, StorageType.PRIVATE, "shared.txt", "");
+        index.addAfterCommit(2L, StorageType.PUBLIC, "shared.txt", "");
+
+        assertEquals(List.of(1L), ids("shared"));
+        assertEquals(List.of(2L), index.search(StorageType.PUBLIC, "shared", 10).ids());
+    }
+
+    @Test
+    void candidateLimitKeepsNewestAndFlagsTruncation() {
+        for (long id = 1; id <= 5; id++) {
+            index.addAfterCommit(id, StorageType.PRIVATE, "log-" + id + ".txt", "logs");
+        }
+
+        FileNameSearchIndex.Hits hits = index.search(StorageType.PRIVATE, "log-", 3);
+        assertEquals(List.of(5L, 4L, 3L), hits.ids());
+        assertTrue(hits.truncated());
+        assertFalse(index.search(StorageType.PRIVATE, "log-", 5).truncated());
+    }
+
+    @Test
+    void removedFilesAreNotReturnedAndSurviveCompaction() {
+        for (long id = 1; id <= 3000; id++) {
+            index.addAfterCommit(id, StorageType.PRIVATE, "file-" + id + ".bin", "bulk");
+        }
+        // 删除超过一半，触发压缩
+        for (long id = 1; id <= 2000; id++) {
+            index.removeAfterCommit(id, StorageType.PRIVATE);
+        }
+
+        assertEquals(List.of(), ids("file-1999."));
+        assertEquals(List.of(2999L), ids("file-2999."));
+        assertEquals(1000, index.search(StorageType.PRIVATE, "bulk", 10_000).ids().size());
+        index.addAfterCommit(3001L, StorageType.PRIVATE, "file-3001.bin", "bulk");
+        assertEquals(List.of(3001L), ids("file-3001."));
+    }
+
+    @Test
+    void addingSameFileTwiceIndexesItOnce() {
+        index.addAfterCommit(1L, StorageType.PRIVATE, "dup.txt", "");
+        index.addAfterCommit(1L, StorageType.PRIVATE, "dup.txt", "");
+
+        assertEquals(List.of(1L), ids("dup"));
+    }
+
+    @Test
+    void filesRemovedDuringLoadAreNotLoaded() {
+        index.beginLoad();
+        index.load(1L, StorageType.PRIVATE, "kept.txt", "");
+        index.removeAfterCommit(2L, StorageType.PRIVATE);
+        index.load(2L, StorageType.PRIVATE, "removed.txt", "");
+        assertFalse(index.isReady());
+        index.finishLoad();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), ids("kept"));
+        assertEquals(List.of(), ids("removed"));
+    }
+
+    @Test
+    void fulltextModeKeepsIndexEmpty() {
+        SearchConfig config = new SearchConfig();
+        config.setMode(SearchConfig.Mode.FULLTEXT);
+        FileNameSearchIndex fulltext = new FileNameSearchIndex(config);
+
+        fulltext.addAfterCommit(1L, StorageType.PRIVATE, "ignored.txt", "");
+        assertEquals(List.of(), fulltext.search(StorageType.PRIVATE, "ignored", 10).ids());
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(StorageType.PRIVATE, query, 10_000).ids();
+    }
+}
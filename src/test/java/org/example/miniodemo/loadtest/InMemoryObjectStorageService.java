@@ -0,0 +1,281 @@
+package org.example.miniodemo.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.domain.StorageObject;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于内存的对象存储服务实现，仅用于端到端压测。
+ * <p>
+ * 每次调用先等待 {@link InMemoryStorageConfig#getOperationLatency()}，再按传输字节数和
+ * {@link InMemoryStorageConfig#getBandwidthBytesPerSecond()} 计算额外的传输耗时，
+ * 从而在没有 MinIO 的机器上得到与真实集群量级接近的存储开销。
+ * 默认不保留对象内容，只记录大小，这样即使压测 GB 级文件也不会占满堆内存。
+ * 通过 {@code storage.type=memory} 启用。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "memory")
+public class InMemoryObjectStorageService implements ObjectStorageService {
+
+    private static final int DRAIN_BUFFER_SIZE = 64 * 1024;
+
+    private final InMemoryStorageConfig config;
+    private final Map<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadsInFlight = new AtomicInteger();
+    private final AtomicInteger peakUploadsInFlight = new AtomicInteger();
+
+    public InMemoryObjectStorageService(InMemoryStorageConfig config) {
+        this.config = config;
+        log.info("【内存存储】内存对象存储已启用: 延迟={}, 带宽={}B/s, 保留内容={}",
+                config.getOperationLatency(), config.getBandwidthBytesPerSecond(), config.isRetainContent());
+    }
+
+    @Override
+    public void upload(String bucketName, String filePath, InputStream stream, long size, String contentType) throws Exception {
+        peakUploadsInFlight.accumulateAndGet(uploadsInFlight.incrementAndGet(), Math::max);
+        try {
+            byte[] content = null;
+            long length;
+            if (config.isRetainContent()) {
+                content = stream.readAllBytes();
+                length = content.length;
+            } else {
+                length = drain(stream);
+            }
+            simulate(length);
+            bucket(bucketName).put(filePath, new StoredObject(content, length, ZonedDateTime.now()));
+        } finally {
+            uploadsInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 自上次重置以来同时进行中的上传调用数峰值，即请求处理线程能够同时推进的上传数量。
+     */
+    public int peakConcurrentUploads() {
+        return peakUploadsInFlight.get();
+    }
+
+    public void resetPeakConcurrentUploads() {
+        peakUploadsInFlight.set(uploadsInFlight.get());
+    }
+
+    @Override
+    public void compose(String bucketName, List<String> sourceObjectNames, String targetObjectName) throws Exception {
+        NavigableMap<String, StoredObject> objects = bucket(bucketName);
+        List<StoredObject> sources = new ArrayList<>(sourceObjectNames.size());
+        long total = 0;
+        for (String source : sourceObjectNames) {
+            StoredObject object = require(objects, bucketName, source);
+            sources.add(object);
+            total += object.size();
+        }
+
+        byte[] content = null;
+        if (config.isRetainContent()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(total, Integer.MAX_VALUE - 8));
+            for (StoredObject source : sources) {
+                out.write(source.content());
+            }
+            content = out.toByteArray();
+        }
+        // 合并在存储端完成，数据仍需在集群内部完整复制一次
+        simulate(total);
+        objects.put(targetObjectName, new StoredObject(content, total, ZonedDateTime.now()));
+    }
+
+    @Override
+    public void copy(String sourceBucket, String sourcePath, String targetBucket, String targetPath) throws Exception {
+        StoredObject source = require(bucket(sourceBucket), sourceBucket, sourcePath);
+        simulate(source.size());
+        bucket(targetBucket).put(targetPath, new StoredObject(source.content(), source.size(), ZonedDateTime.now()));
+    }
+
+    @Override
+    public List<StorageObject> listObjects(String bucketName, String prefix, boolean recursive) throws Exception {
+        simulate(0);
+        String effectivePrefix = prefix == null ? "" : prefix;
+        List<StorageObject> result = new ArrayList<>();
+        String lastDirectory = null;
+        for (Map.Entry<String, StoredObject> entry : bucket(bucketName).tailMap(effectivePrefix, true).entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(effectivePrefix)) {
+                break;
+            }
+            int slash = key.indexOf('/', effectivePrefix.length());
+            if (!recursive && slash >= 0) {
+                // 与 MinIO 一致：非递归列举时子目录以 "xxx/" 形式返回一次
+                String directory = key.substring(0, slash + 1);
+                if (!directory.equals(lastDirectory)) {
+                    result.add(StorageObject.builder().filePath(directory).build());
+                    lastDirectory = directory;
+                }
+                continue;
+            }
+            result.add(StorageObject.builder()
+                    .filePath(key)
+                    .size(entry.getValue().size())
+                    .lastModified(entry.getValue().lastModified())
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public InputStream download(String bucketName, String filePath) throws Exception {
+        StoredObject object = require(bucket(bucketName), bucketName, filePath);
+        return download(bucketName, filePath, 0, object.size());
+    }
+
+    @Override
+    public InputStream download(String bucketName, String filePath, long offset, long length) throws Exception {
+        StoredObject object = require(bucket(bucketName), bucketName, filePath);
+        long end = Math.min(object.size(), offset + length);
+        long actual = Math.max(0, end - offset);
+        simulate(actual);
+        if (object.content() != null) {
+            return new ByteArrayInputStream(object.content(), (int) offset, (int) actual);
+        }
+        return new ZeroInputStream(actual);
+    }
+
+    @Override
+    public Optional<StorageObject> stat(String bucketName, String filePath) throws Exception {
+        simulate(0);
+        StoredObject object = bucket(bucketName).get(filePath);
+        if (object == null) {
+            return Optional.empty();
+        }
+        return Optional.of(StorageObject.builder()
+                .filePath(filePath)
+                .size(object.size())
+                .lastModified(object.lastModified())
+                .build());
+    }
+
+    @Override
+    public void delete(String bucketName, String filePath) throws Exception {
+        simulate(0);
+        bucket(bucketName).remove(filePath);
+    }
+
+    @Override
+    public void delete(String bucketName, List<String> filePaths) throws Exception {
+        simulate(0);
+        NavigableMap<String, StoredObject> objects = bucket(bucketName);
+        filePaths.forEach(objects::remove);
+    }
+
+    @Override
+    public String getPresignedDownloadUrl(String bucketName, String filePath, int duration, TimeUnit unit) throws Exception {
+        simulate(0);
+        long expires = System.currentTimeMillis() / 1000 + unit.toSeconds(duration);
+        return "memory://" + bucketName + "/" + filePath + "?expires=" + expires;
+    }
+
+    @Override
+    public boolean bucketExists(String bucketName) throws Exception {
+        simulate(0);
+        return buckets.containsKey(bucketName);
+    }
+
+    @Override
+    public void makeBucket(String bucketName) throws Exception {
+        simulate(0);
+        buckets.putIfAbsent(bucketName, new ConcurrentSkipListMap<>());
+    }
+
+    private NavigableMap<String, StoredObject> bucket(String bucketName) throws FileNotFoundException {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucketName);
+        if (objects == null) {
+            throw new FileNotFoundException("存储桶不存在: " + bucketName);
+        }
+        return objects;
+    }
+
+    private StoredObject require(NavigableMap<String, StoredObject> objects, String bucketName, String filePath)
+            throws FileNotFoundException {
+        StoredObject object = objects.get(filePath);
+        if (object == null) {
+            throw new FileNotFoundException("对象不存在: " + bucketName + "/" + filePath);
+        }
+        return object;
+    }
+
+    /**
+     * 按固定延迟加传输耗时阻塞当前线程。
+     */
+    private void simulate(long bytes) throws InterruptedException {
+        long nanos = config.getOperationLatency().toNanos();
+        long bandwidth = config.getBandwidthBytesPerSecond();
+        if (bandwidth > 0 && bytes > 0) {
+            nanos += (long) (bytes * 1_000_000_000d / bandwidth);
+        }
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    private static long drain(InputStream stream) throws Exception {
+        byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    private record StoredObject(byte[] content, long size, ZonedDateTime lastModified) {
+    }
+
+    /**
+     * 不保留内容时返回的定长零字节流。
+     */
+    private static final class ZeroInputStream extends InputStream {
+        private long remaining;
+
+        private ZeroInputStream(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) {
+                return -1;
+            }
+            remaining--;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = (int) Math.min(len, remaining);
+            Arrays.fill(b, off, off + n, (byte) 0);
+            remaining -= n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.miniodemo.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 内存对象存储配置，仅在 {@code storage.type=memory} 时生效。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.memory")
+public class InMemoryStorageConfig {
+
+    /**
+     * 每次存储调用的固定延迟，模拟与存储集群之间的网络往返。
+     */
+    private Duration operationLatency = Duration.ZERO;
+
+    /**
+     * 模拟的存储带宽（字节/秒），上传、下载与合并按传输字节数额外等待，0 表示不限速。
+     */
+    private long bandwidthBytesPerSecond = 0;
+
+    /**
+     * 是否保留对象内容。关闭时只记录对象大小，下载返回等长的零字节流。
+     */
+    private boolean retainContent = false;
+}
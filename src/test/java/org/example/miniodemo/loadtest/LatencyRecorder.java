@@ -0,0 +1,87 @@
+package org.example.miniodemo.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个接口的延迟采样与统计。
+ * <p>
+ * 压测规模下样本量只有数万级，直接保存全部样本并在结束时排序即可得到精确分位数，
+ * 直方图按固定的毫秒边界分桶输出。
+ */
+final class LatencyRecorder {
+
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private final String name;
+    private final AtomicLong errors = new AtomicLong();
+    private long[] samples = new long[1024];
+    private int count;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * 生成统计报告：吞吐量、分位数以及延迟直方图。
+     *
+     * @param elapsedNanos 压测总耗时，用于计算吞吐量。
+     */
+    synchronized String report(long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-6s 请求=%d 失败=%d 吞吐=%.1f/s p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                name, count, errors.get(), count * 1e9 / Math.max(1, elapsedNanos),
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                millis(percentile(sorted, 0.99)), millis(count == 0 ? 0 : sorted[count - 1])));
+
+        int index = 0;
+        for (int i = 0; i <= BUCKET_BOUNDS_MS.length; i++) {
+            long upperNanos = i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] * 1_000_000 : Long.MAX_VALUE;
+            int start = index;
+            while (index < sorted.length && sorted[index] < upperNanos) {
+                index++;
+            }
+            int inBucket = index - start;
+            if (inBucket == 0) {
+                continue;
+            }
+            String label = i < BUCKET_BOUNDS_MS.length ? "< " + BUCKET_BOUNDS_MS[i] + "ms" : ">= " + BUCKET_BOUNDS_MS[i - 1] + "ms";
+            int bar = (int) Math.ceil(inBucket * 50.0 / sorted.length);
+            sb.append(String.format("    %-10s %7d %s%n", label, inBucket, "#".repeat(bar)));
+        }
+        return sb.toString();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
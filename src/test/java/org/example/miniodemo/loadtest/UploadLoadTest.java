@@ -0,0 +1,221 @@
+package org.example.miniodemo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 分片上传端到端压测。
+ * <p>
+ * 在随机端口启动完整应用（内存对象存储 + H2 数据库），由多个并发客户端按
+ * init → chunk × N → merge-v2 的真实流程回放上传负载：大量小文件混合少量大文件。
+ * 结束后输出各接口的吞吐量、p50/p90/p99 与延迟直方图。
+ * <p>
+ * 默认构建不会运行，使用 {@code mvn -Ploadtest test} 执行，负载参数可通过系统属性调整，例如
+ * {@code -Dloadtest.clients=32 -Dloadtest.large-files=4}。
+ */
+@Slf4j
+@Tag("loadtest")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UploadLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 16);
+    private static final int SMALL_FILES = Integer.getInteger("loadtest.small-files", 200);
+    private static final long SMALL_MIN_BYTES = Long.getLong("loadtest.small-min-bytes", 64L * 1024);
+    private static final long SMALL_MAX_BYTES = Long.getLong("loadtest.small-max-bytes", 8L * 1024 * 1024);
+    private static final int LARGE_FILES = Integer.getInteger("loadtest.large-files", 2);
+    private static final long LARGE_BYTES = Long.getLong("loadtest.large-bytes", 512L * 1024 * 1024);
+    private static final int CHUNK_SIZE = Integer.getInteger("loadtest.chunk-size", 5 * 1024 * 1024);
+    private static final long SEED = Long.getLong("loadtest.seed", 42L);
+    private static final String API_PREFIX = System.getProperty("loadtest.api-prefix", "/minio/public");
+
+    private static final String BOUNDARY = "----loadtest-boundary";
+
+    @LocalServerPort
+    private int port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyRecorder initLatency = new LatencyRecorder("init");
+    private final LatencyRecorder chunkLatency = new LatencyRecorder("chunk");
+    private final LatencyRecorder mergeLatency = new LatencyRecorder("merge");
+    private final AtomicLong uploadedBytes = new AtomicLong();
+
+    private HttpClient httpClient;
+    private byte[] payload;
+
+    @Test
+    void replayUploadMix() throws Exception {
+        List<UploadFile> files = buildWorkload();
+        payload = new byte[CHUNK_SIZE];
+        new Random(SEED).nextBytes(payload);
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+
+        log.info("【压测】开始: 客户端={}, 小文件={}, 大文件={}x{}MiB, 分片大小={}KiB",
+                CLIENTS, SMALL_FILES, LARGE_FILES, LARGE_BYTES >> 20, CHUNK_SIZE >> 10);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (UploadFile file : files) {
+                futures.add(clients.submit(() -> upload(file)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        log.info("【压测】完成: 文件={}, 耗时={}ms, 数据量={}MiB, 平均带宽={}MiB/s\n{}{}{}",
+                files.size(), elapsed / 1_000_000, uploadedBytes.get() >> 20,
+                String.format("%.1f", (uploadedBytes.get() / 1048576.0) / (elapsed / 1e9)),
+                initLatency.report(elapsed), chunkLatency.report(elapsed), mergeLatency.report(elapsed));
+
+        assertEquals(0, initLatency.errors() + chunkLatency.errors() + mergeLatency.errors(), "压测期间存在失败请求");
+        assertEquals(files.size(), mergeLatency.count(), "并非所有文件都完成了合并");
+    }
+
+    /**
+     * 构建上传负载：大量大小随机的小文件与少量大文件混合，并按固定种子打乱顺序。
+     */
+    private List<UploadFile> buildWorkload() {
+        Random random = new Random(SEED);
+        List<UploadFile> files = new ArrayList<>(SMALL_FILES + LARGE_FILES);
+        for (int i = 0; i < SMALL_FILES; i++) {
+            long size = SMALL_MIN_BYTES + (long) (random.nextDouble() * (SMALL_MAX_BYTES - SMALL_MIN_BYTES));
+            files.add(new UploadFile("small-" + i + ".bin", randomHash(random), size));
+        }
+        for (int i = 0; i < LARGE_FILES; i++) {
+            files.add(new UploadFile("large-" + i + ".bin", randomHash(random), LARGE_BYTES));
+        }
+        Collections.shuffle(files, random);
+        return files;
+    }
+
+    private void upload(UploadFile file) {
+        int totalChunks = (int) Math.max(1, (file.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+        Map<String, Object> init = new LinkedHashMap<>();
+        init.put("fileName", file.name());
+        init.put("fileHash", file.hash());
+        init.put("fileSize", file.size());
+        init.put("contentType", "application/octet-stream");
+        init.put("totalChunks", totalChunks);
+        init.put("folderPath", "loadtest");
+        if (!call(initLatency, jsonRequest("/upload/init", init))) {
+            return;
+        }
+
+        for (int chunkNumber = 1; chunkNumber <= totalChunks; chunkNumber++) {
+            int length = (int) Math.min(CHUNK_SIZE, file.size() - (long) (chunkNumber - 1) * CHUNK_SIZE);
+            if (!call(chunkLatency, chunkRequest(file.hash(), chunkNumber, length))) {
+                return;
+            }
+            uploadedBytes.addAndGet(length);
+        }
+
+        Map<String, Object> merge = new LinkedHashMap<>();
+        merge.put("sessionId", file.hash());
+        merge.put("fileName", file.name());
+        merge.put("fileHash", file.hash());
+        merge.put("folderPath", "loadtest");
+        merge.put("expectedChunkCount", totalChunks);
+        call(mergeLatency, jsonRequest("/upload/merge-v2", merge));
+    }
+
+    /**
+     * 发送请求并记录耗时；HTTP 状态或业务响应码不是成功时计为失败。
+     */
+    private boolean call(LatencyRecorder recorder, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(System.nanoTime() - start);
+            JsonNode body = response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+            if (body == null || body.path("code").asInt() != 200) {
+                recorder.recordError();
+                log.warn("【压测】请求失败: {} 状态码={}, 响应={}", request.uri(), response.statusCode(), response.body());
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            recorder.recordError();
+            log.warn("【压测】请求异常: {} {}", request.uri(), e.toString());
+            return false;
+        }
+    }
+
+    private HttpRequest jsonRequest(String path, Map<String, Object> body) {
+        try {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 构造 multipart/form-data 分片请求，分片内容直接引用共享的随机字节数组，不做额外复制。
+     */
+    private HttpRequest chunkRequest(String sessionId, int chunkNumber, int length) {
+        String head = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"sessionId\"\r\n\r\n" + sessionId + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"chunkNumber\"\r\n\r\n" + chunkNumber + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"chunk\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+        String tail = "\r\n--" + BOUNDARY + "--\r\n";
+        return HttpRequest.newBuilder(uri("/upload/chunk"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+                        HttpRequest.BodyPublishers.ofByteArray(payload, 0, length),
+                        HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + API_PREFIX + path);
+    }
+
+    private static String randomHash(Random random) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private record UploadFile(String name, String hash, long size) {
+    }
+}
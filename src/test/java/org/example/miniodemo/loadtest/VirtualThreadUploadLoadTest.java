@@ -0,0 +1,176 @@
+package org.example.miniodemo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.miniodemo.MiniodemoApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 慢速上传场景下平台线程与虚拟线程两种执行模式的并发能力对比。
+ * <p>
+ * 依次以 {@code spring.threads.virtual.enabled=false/true} 启动完整应用，对象存储每次调用固定阻塞
+ * {@code loadtest.slow.storage-latency}（默认 1s），模拟慢速的 MinIO 写入。客户端同时发起
+ * {@code loadtest.slow.uploads} 个分片上传请求，统计对象存储端同时进行中的上传数峰值与整体耗时。
+ * 平台线程模式下峰值不会超过 Tomcat 线程数，虚拟线程模式下应明显超过。
+ * <p>
+ * 与 {@link UploadLoadTest} 一样通过 {@code mvn -Ploadtest test} 执行。
+ */
+@Slf4j
+@Tag("loadtest")
+class VirtualThreadUploadLoadTest {
+
+    private static final int UPLOADS = Integer.getInteger("loadtest.slow.uploads", 500);
+    private static final int PLATFORM_THREADS = Integer.getInteger("loadtest.slow.platform-threads", 200);
+    private static final String STORAGE_LATENCY = System.getProperty("loadtest.slow.storage-latency", "1s");
+    private static final int CHUNK_BYTES = 64 * 1024;
+    private static final String API_PREFIX = "/minio/public";
+    private static final String BOUNDARY = "----loadtest-boundary";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final byte[] payload = new byte[CHUNK_BYTES];
+
+    @Test
+    void compareConcurrentSlowUploads() throws Exception {
+        ModeResult platform = run(false);
+        ModeResult virtual = run(true);
+
+        log.info("【压测】慢速上传并发对比: 上传数={}, 存储延迟={}, Tomcat 线程数={}\n"
+                        + "platform 峰值并发={} 耗时={}ms\n{}virtual  峰值并发={} 耗时={}ms\n{}",
+                UPLOADS, STORAGE_LATENCY, PLATFORM_THREADS,
+                platform.peakConcurrentUploads(), platform.elapsedNanos() / 1_000_000, platform.report(),
+                virtual.peakConcurrentUploads(), virtual.elapsedNanos() / 1_000_000, virtual.report());
+
+        assertEquals(0, platform.errors() + virtual.errors(), "压测期间存在失败请求");
+        assertTrue(platform.peakConcurrentUploads() <= PLATFORM_THREADS, "平台线程模式的并发不应超过 Tomcat 线程数");
+        if (UPLOADS > PLATFORM_THREADS) {
+            assertTrue(virtual.peakConcurrentUploads() > PLATFORM_THREADS, "虚拟线程模式的并发应突破 Tomcat 线程数上限");
+        }
+    }
+
+    private ModeResult run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        // 以命令行参数传入，优先级高于 application.yml 中的 spring.profiles.active
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MiniodemoApplication.class).run(
+                "--spring.profiles.active=loadtest",
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--storage.memory.operation-latency=" + STORAGE_LATENCY)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            InMemoryObjectStorageService storage = context.getBean(InMemoryObjectStorageService.class);
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+
+            List<String> sessionIds = new ArrayList<>(UPLOADS);
+            List<CompletableFuture<Boolean>> inits = new ArrayList<>(UPLOADS);
+            for (int i = 0; i < UPLOADS; i++) {
+                String sessionId = String.format("%s-slow-%08d", mode, i);
+                sessionIds.add(sessionId);
+                inits.add(send(httpClient, initRequest(port, sessionId), null));
+            }
+            for (CompletableFuture<Boolean> init : inits) {
+                assertTrue(init.join(), "初始化上传会话失败");
+            }
+
+            LatencyRecorder recorder = new LatencyRecorder(mode);
+            storage.resetPeakConcurrentUploads();
+            long start = System.nanoTime();
+            List<CompletableFuture<Boolean>> chunks = new ArrayList<>(UPLOADS);
+            for (String sessionId : sessionIds) {
+                chunks.add(send(httpClient, chunkRequest(port, sessionId), recorder));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+            long elapsed = System.nanoTime() - start;
+
+            return new ModeResult(storage.peakConcurrentUploads(), elapsed, recorder.errors(), recorder.report(elapsed));
+        }
+    }
+
+    /**
+     * 异步发送请求；HTTP 状态或业务响应码不是成功时计为失败。
+     */
+    private CompletableFuture<Boolean> send(HttpClient httpClient, HttpRequest request, LatencyRecorder recorder) {
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (recorder != null) {
+                        recorder.record(System.nanoTime() - start);
+                    }
+                    boolean success = false;
+                    if (error == null && response.statusCode() == 200) {
+                        try {
+                            JsonNode body = objectMapper.readTree(response.body());
+                            success = body.path("code").asInt() == 200;
+                        } catch (Exception ignored) {
+                            // 响应体不是合法 JSON，按失败处理
+                        }
+                    }
+                    if (!success) {
+                        if (recorder != null) {
+                            recorder.recordError();
+                        }
+                        log.warn("【压测】请求失败: {} {}", request.uri(), error != null ? error.toString() : response.body());
+                    }
+                    return success;
+                });
+    }
+
+    private HttpRequest initRequest(int port, String sessionId) throws Exception {
+        Map<String, Object> init = new LinkedHashMap<>();
+        init.put("fileName", sessionId + ".bin");
+        init.put("fileHash", sessionId);
+        init.put("fileSize", CHUNK_BYTES);
+        init.put("contentType", "application/octet-stream");
+        init.put("totalChunks", 1);
+        init.put("folderPath", "loadtest");
+        return HttpRequest.newBuilder(uri(port, "/upload/init"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(init)))
+                .build();
+    }
+
+    private HttpRequest chunkRequest(int port, String sessionId) {
+        String head = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"sessionId\"\r\n\r\n" + sessionId + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"chunkNumber\"\r\n\r\n1\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"chunk\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+        String tail = "\r\n--" + BOUNDARY + "--\r\n";
+        return HttpRequest.newBuilder(uri(port, "/upload/chunk"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+                        HttpRequest.BodyPublishers.ofByteArray(payload),
+                        HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://127.0.0.1:" + port + API_PREFIX + path);
+    }
+
+    private record ModeResult(int peakConcurrentUploads, long elapsedNanos, long errors, String report) {
+    }
+}
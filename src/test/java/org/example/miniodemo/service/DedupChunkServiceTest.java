@@ -0,0 +1,231 @@
+package org.example.miniodemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.config.MinioBucketConfig;
+import org.example.miniodemo.domain.ContentLayout;
+import org.example.miniodemo.domain.DedupChunk;
+import org.example.miniodemo.domain.FileMetadata;
+import org.example.miniodemo.domain.StorageType;
+import org.example.miniodemo.dto.DedupCommitRequestDto;
+import org.example.miniodemo.exception.BusinessException;
+import org.example.miniodemo.mapper.DedupChunkMapper;
+import org.example.miniodemo.service.storage.ObjectStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CDC 去重存储的块写入、清单提交与未引用块回收（内存对象存储 + H2）。
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class DedupChunkServiceTest {
+
+    @Autowired
+    private DedupChunkService dedupChunkService;
+
+    @Autowired
+    private DedupChunkMapper dedupChunkMapper;
+
+    @Autowired
+    private ObjectStorageService objectStorageService;
+
+    @Autowired
+    private MinioBucketConfig bucketConfig;
+
+    private String bucket;
+
+    @BeforeEach
+    void createBucket() throws Exception {
+        bucket = bucketConfig.getPrivateFiles();
+        objectStorageService.makeBucket(bucket);
+    }
+
+    @Test
+    void storesEachChunkOnce() throws Exception {
+        byte[] content = randomContent();
+
+        assertTrue(dedupChunkService.storeChunk(bucket, StorageType.PRIVATE, chunkFile(content), sha256(content)));
+        assertFalse(dedupChunkService.storeChunk(bucket, StorageType.PRIVATE, chunkFile(content), sha256(content)));
+
+        assertEquals(1, dedupChunkMapper.selectCount(new LambdaQueryWrapper<DedupChunk>()
+                .eq(DedupChunk::getBucketName, bucket)
+                .eq(DedupChunk::getChunkHash, sha256(content))));
+        assertTrue(objectStorageService.stat(bucket, DedupChunkService.chunkObjectPath(sha256(content))).isPresent());
+    }
+
+    @Test
+    void rejectsChunkWhoseContentDoesNotMatchItsHash() {
+        byte[] content = randomContent();
+
+        BusinessException e = assertThrows(BusinessException.class, () ->
+                dedupChunkService.storeChunk(bucket, StorageType.PRIVATE, chunkFile(content), sha256(randomContent())));
+        assertEquals(ResultCode.VALIDATE_FAILED, e.getResultCode());
+    }
+
+    @Test
+    void commitStitchesChunksInManifestOrder() throws Exception {
+        byte[] first = randomContent();
+        byte[] second = randomContent();
+        store(first);
+        store(second);
+
+        // 同一个块可以在清单中出现多次
+        DedupCommitRequestDto request = commitRequest(first, second, first);
+        FileMetadata metadata = dedupChunkService.commit(bucket, StorageType.PRIVATE, request);
+
+        assertEquals(ContentLayout.CDC, metadata.getContentLayout());
+        assertEquals(request.getFileSize(), metadata.getFileSize());
+        try (InputStream stream = dedupChunkService.openStream(metadata)) {
+            assertArrayEquals(concat(first, second, first), stream.readAllBytes());
+        }
+        // 重复提交同一文件返回已有元数据
+        assertEquals(metadata.getId(), dedupChunkService.commit(bucket, StorageType.PRIVATE, request).getId());
+    }
+
+    @Test
+    void commitRejectsMissingChunks() {
+        byte[] stored = randomContent();
+        store(stored);
+
+        BusinessException e = assertThrows(BusinessException.class, () ->
+                dedupChunkService.commit(bucket, StorageType.PRIVATE, commitRequest(stored, randomContent())));
+        assertEquals(ResultCode.VALIDATE_FAILED, e.getResultCode());
+    }
+
+    @Test
+    void commitRejectsChunkSizeThatDiffersFromStoredChunk() {
+        byte[] content = randomContent();
+        store(content);
+        DedupCommitRequestDto request = commitRequest(content);
+        request.getChunks().get(0).setSize(content.length - 1L);
+        request.setFileSize(content.length - 1L);
+
+        BusinessException e = assertThrows(BusinessException.class, () ->
+                dedupChunkService.commit(bucket, StorageType.PRIVATE, request));
+        assertEquals(ResultCode.VALIDATE_FAILED, e.getResultCode());
+    }
+
+    @Test
+    void garbageCollectionOnlyRemovesUnreferencedChunksPastGracePeriod() throws Exception {
+        byte[] referenced = randomContent();
+        byte[] orphan = randomContent();
+        byte[] recent = randomContent();
+        store(referenced);
+        store(orphan);
+        store(recent);
+        dedupChunkService.commit(bucket, StorageType.PRIVATE, commitRequest(referenced));
+        age(referenced, orphan);
+
+        dedupChunkService.collectGarbage(bucket, StorageType.PRIVATE);
+
+        assertTrue(chunkExists(referenced), "被清单引用的块不应回收");
+        assertTrue(chunkExists(recent), "宽限期内的块不应回收");
+        assertFalse(chunkExists(orphan), "超过宽限期且未被引用的块应回收");
+        assertFalse(objectStorageService.stat(bucket, DedupChunkService.chunkObjectPath(sha256(orphan))).isPresent());
+    }
+
+    @Test
+    void findExistingChunksRefreshesLastSeenSoPendingUploadsSurviveGarbageCollection() {
+        byte[] content = randomContent();
+        store(content);
+        age(content);
+
+        assertEquals(List.of(sha256(content)),
+                dedupChunkService.findExistingChunks(bucket, List.of(sha256(content), sha256(randomContent()))));
+        dedupChunkService.collectGarbage(bucket, StorageType.PRIVATE);
+
+        assertTrue(chunkExists(content));
+    }
+
+    private void store(byte[] content) {
+        dedupChunkService.storeChunk(bucket, StorageType.PRIVATE, chunkFile(content), sha256(content));
+    }
+
+    /**
+     * 把块的最后使用时间改到宽限期之前。
+     */
+    private void age(byte[]... contents) {
+        for (byte[] content : contents) {
+            dedupChunkMapper.update(null, new LambdaUpdateWrapper<DedupChunk>()
+                    .set(DedupChunk::getLastSeenAt, LocalDateTime.now().minusDays(30))
+                    .eq(DedupChunk::getBucketName, bucket)
+                    .eq(DedupChunk::getChunkHash, sha256(content)));
+        }
+    }
+
+    private boolean chunkExists(byte[] content) {
+        return dedupChunkMapper.selectCount(new LambdaQueryWrapper<DedupChunk>()
+                .eq(DedupChunk::getBucketName, bucket)
+                .eq(DedupChunk::getChunkHash, sha256(content))) > 0;
+    }
+
+    private static DedupCommitRequestDto commitRequest(byte[]... chunks) {
+        List<DedupCommitRequestDto.ChunkRef> refs = new ArrayList<>();
+        long size = 0;
+        for (byte[] chunk : chunks) {
+            DedupCommitRequestDto.ChunkRef ref = new DedupCommitRequestDto.ChunkRef();
+            ref.setHash(sha256(chunk));
+            ref.setSize((long) chunk.length);
+            refs.add(ref);
+            size += chunk.length;
+        }
+        DedupCommitRequestDto request = new DedupCommitRequestDto();
+        request.setFileHash(UUID.randomUUID().toString().replace("-", ""));
+        request.setFileName("dedup.txt");
+        request.setFileSize(size);
+        request.setContentType("text/plain");
+        request.setChunks(refs);
+        return request;
+    }
+
+    private static MockMultipartFile chunkFile(byte[] content) {
+        return new MockMultipartFile("file", "chunk", "application/octet-stream", content);
+    }
+
+    private static byte[] randomContent() {
+        return ("chunk-" + UUID.randomUUID()).repeat(64).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
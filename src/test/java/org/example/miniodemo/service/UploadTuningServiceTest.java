@@ -0,0 +1,108 @@
+package org.example.miniodemo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.miniodemo.common.response.ResultCode;
+import org.example.miniodemo.config.UploadTuningConfig;
+import org.example.miniodemo.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分片方案推荐：分片大小与分片数的计算，以及按负载下调的并发数（默认配置）。
+ */
+class UploadTuningServiceTest {
+
+    private static final long MIB = 1024L * 1024;
+    private static final long GIB = 1024 * MIB;
+
+    private final UploadTuningConfig config = new UploadTuningConfig();
+    private final UploadTuningService service = new UploadTuningService(config, new SimpleMeterRegistry());
+
+    @Test
+    void emptyFileIsOneChunk() {
+        assertEquals(new UploadTuningService.ChunkPlan(5 * MIB, 1), service.plan(0));
+    }
+
+    @Test
+    void fileSlightlyLargerThanMinimumIsNotSplitIntoATinyTail() {
+        // 6MiB 直接作为一个分片，而不是 5MiB + 1MiB
+        assertEquals(new UploadTuningService.ChunkPlan(6 * MIB, 1), service.plan(6 * MIB));
+    }
+
+    @Test
+    void largeFileIsSplitIntoTargetChunkCount() {
+        assertEquals(new UploadTuningService.ChunkPlan(16 * MIB, 64), service.plan(GIB));
+    }
+
+    @Test
+    void chunkSizeIsCappedAtMaximum() {
+        assertEquals(new UploadTuningService.ChunkPlan(64 * MIB, 1600), service.plan(100 * GIB));
+    }
+
+    @Test
+    void planCoversFileWithAlignedChunksWithinBounds() {
+        long[] sizes = {1, MIB - 1, 5 * MIB, 5 * MIB + 1, 11 * MIB + 7, 320 * MIB + 3, GIB + 1, 7 * GIB - 5, 600 * GIB};
+        for (long size : sizes) {
+            UploadTuningService.ChunkPlan plan = service.plan(size);
+            String message = "文件大小 " + size;
+            assertTrue((long) plan.totalChunks() * plan.chunkSize() >= size, message);
+            assertTrue((long) (plan.totalChunks() - 1) * plan.chunkSize() < size, message);
+            assertEquals(0, plan.chunkSize() % MIB, message);
+            assertTrue(plan.chunkSize() <= 64 * MIB, message);
+            if (size >= 5 * MIB) {
+                assertTrue(plan.chunkSize() >= 5 * MIB, message);
+            }
+            if (size <= 64 * 64 * MIB) {
+                assertTrue(plan.totalChunks() <= 64, message);
+            }
+        }
+    }
+
+    @Test
+    void rejectsFileThatNeedsTooManyChunks() {
+        BusinessException e = assertThrows(BusinessException.class, () -> service.plan(1024 * GIB));
+        assertEquals(ResultCode.BAD_REQUEST, e.getResultCode());
+    }
+
+    @Test
+    void concurrencyIsLimitedByRemainingChunks() {
+        assertEquals(8, service.recommendConcurrency(100));
+        assertEquals(3, service.recommendConcurrency(3));
+        assertEquals(1, service.recommendConcurrency(0));
+    }
+
+    @Test
+    void concurrencyDropsWithServerLoad() {
+        inFlight(64);
+        assertEquals(4, service.recommendConcurrency(100));
+
+        inFlight(64);
+        assertEquals(1, service.recommendConcurrency(100));
+
+        inFlight(10);
+        assertEquals(1, service.recommendConcurrency(100), "超过负载上限时仍至少推荐 1");
+
+        for (int i = 0; i < 138; i++) {
+            service.chunkUploadFinished();
+        }
+        assertEquals(8, service.recommendConcurrency(100));
+    }
+
+    @Test
+    void chunkCountMustBeWithinLimit() {
+        assertTrue(service.isChunkCountAllowed(1));
+        assertTrue(service.isChunkCountAllowed(10000));
+        assertFalse(service.isChunkCountAllowed(0));
+        assertFalse(service.isChunkCountAllowed(10001));
+    }
+
+    private void inFlight(int count) {
+        for (int i = 0; i < count; i++) {
+            service.chunkUploadStarted();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.miniodemo.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 一致性哈希环的分布与增删节点时的归属稳定性。
+ */
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 20_000;
+    private static final int VIRTUAL_NODES_PER_WEIGHT = 160;
+
+    @Test
+    void distributesKeysInProportionToWeight() {
+        ConsistentHashRing ring = new ConsistentHashRing(weights("a", 1, "b", 1, "c", 2), VIRTUAL_NODES_PER_WEIGHT);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeOf(key(i)), 1, Integer::sum);
+        }
+
+        assertShare(counts.get("a"), 0.25);
+        assertShare(counts.get("b"), 0.25);
+        assertShare(counts.get("c"), 0.50);
+    }
+
+    @Test
+    void addingNodeOnlyMovesKeysToTheNewNode() {
+        ConsistentHashRing before = new ConsistentHashRing(weights("a", 1, "b", 1, "c", 1), VIRTUAL_NODES_PER_WEIGHT);
+        ConsistentHashRing after = new ConsistentHashRing(weights("a", 1, "b", 1, "c", 1, "d", 1), VIRTUAL_NODES_PER_WEIGHT);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String from = before.nodeOf(key(i));
+            String to = after.nodeOf(key(i));
+            if (!from.equals(to)) {
+                assertEquals("d", to, "键只应移到新节点: " + key(i));
+                moved++;
+            }
+        }
+        assertShare(moved, 0.25);
+    }
+
+    @Test
+    void removingNodeOnlyMovesItsOwnKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(weights("a", 1, "b", 1, "c", 1, "d", 1), VIRTUAL_NODES_PER_WEIGHT);
+        ConsistentHashRing after = new ConsistentHashRing(weights("a", 1, "b", 1, "c", 1, "d", 0), VIRTUAL_NODES_PER_WEIGHT);
+
+        for (int i = 0; i < KEYS; i++) {
+            String from = before.nodeOf(key(i));
+            String to = after.nodeOf(key(i));
+            if (!from.equals("d")) {
+                assertEquals(from, to, "未被移除节点上的键不应移动: " + key(i));
+            } else {
+                assertNotEquals("d", to);
+            }
+        }
+    }
+
+    @Test
+    void ringDoesNotDependOnConfigurationOrder() {
+        ConsistentHashRing forward = new ConsistentHashRing(weights("a", 1, "b", 2, "c", 1), VIRTUAL_NODES_PER_WEIGHT);
+        ConsistentHashRing reversed = new ConsistentHashRing(weights("c", 1, "b", 2, "a", 1), VIRTUAL_NODES_PER_WEIGHT);
+
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(forward.nodeOf(key(i)), reversed.nodeOf(key(i)));
+        }
+    }
+
+    @Test
+    void rejectsRingWithoutWeightedNodes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConsistentHashRing(weights("a", 0), VIRTUAL_NODES_PER_WEIGHT));
+    }
+
+    /**
+     * 实际份额与期望份额的偏差不超过 3 个百分点。
+     */
+    private static void assertShare(Integer count, double expected) {
+        double share = (count == null ? 0 : count) / (double) KEYS;
+        assertTrue(Math.abs(share - expected) < 0.03, "份额 " + share + " 偏离期望 " + expected);
+    }
+
+    private static String key(int i) {
+        return String.format("%032x", i * 2654435761L);
+    }
+
+    private static Map<String, Integer> weights(Object... nodeAndWeight) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (int i = 0; i < nodeAndWeight.length; i += 2) {
+            weights.put((String) nodeAndWeight[i], (Integer) nodeAndWeight[i + 1]);
+        }
+        return weights;
+    }
+}
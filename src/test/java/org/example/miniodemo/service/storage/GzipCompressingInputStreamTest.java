@@ -0,0 +1,104 @@
+package org.example.miniodemo.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 即时压缩流的输出必须能被标准 gzip 解码器还原。
+ */
+class GzipCompressingInputStreamTest {
+
+    @Test
+    void emptyInputRoundTrips() throws IOException {
+        assertRoundTrip(new byte[0]);
+    }
+
+    @Test
+    void textRoundTripsAndShrinks() throws IOException {
+        byte[] text = "2026-10-19 INFO upload merged\n".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        GzipCompressingInputStream stream = new GzipCompressingInputStream(new ByteArrayInputStream(text), 6);
+        byte[] compressed = stream.readAllBytes();
+
+        assertArrayEquals(text, gunzip(compressed));
+        assertEquals(text.length, stream.getRawBytes());
+        assertEquals(compressed.length, stream.getCompressedBytes());
+        assertTrue(compressed.length < text.length / 10, "重复文本应明显变小: " + compressed.length);
+    }
+
+    @Test
+    void incompressibleInputLargerThanReadBufferRoundTrips() throws IOException {
+        byte[] random = new byte[300 * 1024 + 17];
+        new Random(42).nextBytes(random);
+        assertRoundTrip(random);
+    }
+
+    @Test
+    void storeLevelRoundTrips() throws IOException {
+        byte[] text = "abc".repeat(50_000).getBytes(StandardCharsets.US_ASCII);
+        GzipCompressingInputStream stream = new GzipCompressingInputStream(
+                new ByteArrayInputStream(text), Deflater.NO_COMPRESSION);
+        assertArrayEquals(text, gunzip(stream.readAllBytes()));
+    }
+
+    @Test
+    void singleByteReadsProduceSameOutput() throws IOException {
+        byte[] text = "single byte reads ".repeat(5_000).getBytes(StandardCharsets.US_ASCII);
+        byte[] bulk = new GzipCompressingInputStream(new ByteArrayInputStream(text), 6).readAllBytes();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream stream = new GzipCompressingInputStream(new ByteArrayInputStream(text), 6)) {
+            int b;
+            while ((b = stream.read()) != -1) {
+                out.write(b);
+            }
+            assertEquals(-1, stream.read(), "结束后继续读取仍返回 -1");
+        }
+        assertArrayEquals(bulk, out.toByteArray());
+    }
+
+    @Test
+    void sourceDeliveringShortReadsRoundTrips() throws IOException {
+        byte[] text = "trickle ".repeat(20_000).getBytes(StandardCharsets.US_ASCII);
+        InputStream trickle = new ByteArrayInputStream(text) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        assertArrayEquals(text, gunzip(new GzipCompressingInputStream(trickle, 6).readAllBytes()));
+    }
+
+    @Test
+    void outputStartsWithGzipHeader() throws IOException {
+        byte[] compressed = new GzipCompressingInputStream(new ByteArrayInputStream(new byte[]{1}), 6).readAllBytes();
+        assertEquals((byte) 0x1f, compressed[0]);
+        assertEquals((byte) 0x8b, compressed[1]);
+        assertEquals(Deflater.DEFLATED, compressed[2]);
+    }
+
+    private static void assertRoundTrip(byte[] content) throws IOException {
+        try (GzipCompressingInputStream stream = new GzipCompressingInputStream(new ByteArrayInputStream(content), 6)) {
+            assertArrayEquals(content, gunzip(stream.readAllBytes()));
+            assertEquals(content.length, stream.getRawBytes());
+        }
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.example.miniodemo.service.storage;
+
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.example.miniodemo.config.MinioConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对冲读取：慢端点触发对冲并被取消、连接错误与 5xx 改由其他端点读取、4xx 直接返回。
+ * 端点不带客户端，读取由测试中的回调模拟。
+ */
+class HedgedReaderTest {
+
+    private static final long HEDGE_DELAY_MILLIS = 50;
+
+    private final MinioConfig.HedgedReadProperties props = new MinioConfig.HedgedReadProperties();
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private HedgedReader reader;
+
+    @AfterEach
+    void shutdown() {
+        if (reader != null) {
+            reader.shutdown();
+        }
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws Exception {
+        reader = reader("a", "b");
+
+        assertEquals("a", reader.read(endpoint -> call(endpoint, endpoint.name()), value -> { }));
+        assertEquals(List.of("a"), calls);
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        reader = reader("a", "b");
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        String result = reader.read(endpoint -> {
+            call(endpoint, endpoint.name());
+            if (endpoint.name().equals("a")) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.countDown();
+                    throw e;
+                }
+            }
+            return endpoint.name();
+        }, value -> { });
+
+        assertEquals("b", result);
+        assertTrue(primaryInterrupted.await(5, TimeUnit.SECONDS), "未被采用的请求应被中断");
+    }
+
+    @Test
+    void resultOfLosingAttemptIsDiscarded() throws Exception {
+        reader = reader("a", "b");
+        CountDownLatch hedgeStarted = new CountDownLatch(1);
+        List<String> discarded = new CopyOnWriteArrayList<>();
+
+        String result = reader.read(endpoint -> {
+            if (endpoint.name().equals("a")) {
+                // 主请求忽略中断，在对冲请求胜出之后才返回结果，该结果必须被释放
+                awaitUninterruptibly(hedgeStarted);
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                while (System.nanoTime() < until) {
+                    Thread.interrupted();
+                    LockSupport.parkNanos(until - System.nanoTime());
+                }
+                return "a";
+            }
+            hedgeStarted.countDown();
+            return "b";
+        }, discarded::add);
+
+        assertEquals("b", result);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (discarded.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("a"), discarded);
+    }
+
+    @Test
+    void connectionFailureFailsOverImmediately() throws Exception {
+        reader = reader("a", "b");
+
+        long start = System.nanoTime();
+        String result = reader.read(endpoint -> {
+            call(endpoint, endpoint.name());
+            if (endpoint.name().equals("a")) {
+                throw new IOException("connection refused");
+            }
+            return endpoint.name();
+        }, value -> { });
+
+        assertEquals("b", result);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(HEDGE_DELAY_MILLIS),
+                "失败后不应等待对冲延迟");
+    }
+
+    @Test
+    void serverErrorsFailOver() throws Exception {
+        for (ErrorResponseException error : List.of(error(503, "SlowDown"), error(500, "InternalError"),
+                error(400, "RequestTimeout"))) {
+            reader = reader("a", "b");
+            calls.clear();
+
+            String result = reader.read(endpoint -> {
+                call(endpoint, endpoint.name());
+                if (endpoint.name().equals("a")) {
+                    throw error;
+                }
+                return endpoint.name();
+            }, value -> { });
+
+            assertEquals("b", result, error.errorResponse().code());
+            assertEquals(List.of("a", "b"), calls);
+            reader.shutdown();
+        }
+    }
+
+    @Test
+    void clientErrorsAreReturnedWithoutFailover() {
+        for (ErrorResponseException error : List.of(error(404, "NoSuchKey"), error(403, "AccessDenied"),
+                error(404, "NoSuchBucket"))) {
+            reader = reader("a", "b");
+            calls.clear();
+
+            Exception thrown = assertThrows(Exception.class, () -> reader.read(endpoint -> {
+                call(endpoint, endpoint.name());
+                throw error;
+            }, value -> { }));
+
+            assertSame(error, thrown);
+            assertEquals(List.of("a"), calls);
+            reader.shutdown();
+        }
+    }
+
+    @Test
+    void lastErrorIsThrownWhenAllEndpointsFail() {
+        reader = reader("a", "b");
+
+        Exception thrown = assertThrows(Exception.class, () -> reader.read(endpoint -> {
+            call(endpoint, endpoint.name());
+            throw new IOException("down: " + endpoint.name());
+        }, value -> { }));
+
+        assertEquals("down: b", thrown.getMessage());
+        assertEquals(List.of("a", "b"), calls);
+    }
+
+    @Test
+    void asyncSlowPrimaryIsHedgedAndCancelled() throws Exception {
+        reader = reader("a", "b");
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        String result = reader.readAsync(endpoint -> {
+            call(endpoint, endpoint.name());
+            return endpoint.name().equals("a") ? slow : CompletableFuture.completedFuture("b");
+        }).get(5, TimeUnit.SECONDS);
+
+        assertEquals("b", result);
+        // 取消在结果完成的回调中进行，可能晚于 get() 返回
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!slow.isCancelled() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void asyncServerErrorFailsOver() throws Exception {
+        reader = reader("a", "b");
+
+        String result = reader.readAsync(endpoint -> {
+            call(endpoint, endpoint.name());
+            return endpoint.name().equals("a")
+                    ? CompletableFuture.failedFuture(error(503, "SlowDown"))
+                    : CompletableFuture.completedFuture("b");
+        }).get(5, TimeUnit.SECONDS);
+
+        assertEquals("b", result);
+        assertEquals(List.of("a", "b"), calls);
+    }
+
+    @Test
+    void asyncClientErrorIsReturnedWithoutFailover() {
+        reader = reader("a", "b");
+        ErrorResponseException notFound = error(404, "NoSuchKey");
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> reader.readAsync(endpoint -> {
+            call(endpoint, endpoint.name());
+            return CompletableFuture.<String>failedFuture(notFound);
+        }).get(5, TimeUnit.SECONDS));
+
+        assertSame(notFound, thrown.getCause());
+        assertEquals(List.of("a"), calls);
+    }
+
+    @Test
+    void asyncLastErrorIsReturnedWhenAllEndpointsFail() {
+        reader = reader("a", "b");
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> reader.readAsync(endpoint -> {
+            call(endpoint, endpoint.name());
+            return CompletableFuture.<String>failedFuture(new IOException("down: " + endpoint.name()));
+        }).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IOException.class, thrown.getCause());
+        assertEquals(List.of("a", "b"), calls);
+    }
+
+    @Test
+    void singleEndpointIsCalledDirectly() throws Exception {
+        reader = reader("a");
+
+        assertEquals("a", reader.read(endpoint -> call(endpoint, endpoint.name()), value -> { }));
+        assertEquals(List.of("a"), calls);
+    }
+
+    private HedgedReader reader(String... names) {
+        // 样本不足时对冲等待时间取上限
+        props.setMaxHedgeDelay(Duration.ofMillis(HEDGE_DELAY_MILLIS));
+        List<HedgedReader.Endpoint> endpoints = Arrays.stream(names)
+                .map(name -> new HedgedReader.Endpoint(name, null, null, props))
+                .toList();
+        return new HedgedReader(endpoints, props);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // 模拟不响应中断的阻塞读取
+            }
+        }
+    }
+
+    private String call(HedgedReader.Endpoint endpoint, String value) {
+        calls.add(endpoint.name());
+        return value;
+    }
+
+    private static ErrorResponseException error(int status, String code) {
+        Response response = new Response.Builder()
+                .request(new Request.Builder().url("http://127.0.0.1:9000/bucket/object").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(status)
+                .message(code)
+                .build();
+        return new ErrorResponseException(
+                new ErrorResponse(code, code, "bucket", "object", "/bucket/object", "request", "host"),
+                response, null);
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.miniodemo.service.storage;
+
+import org.example.miniodemo.config.LocalStorageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地文件系统存储的区间读取、合并与预签名URL校验。
+ */
+class LocalFsObjectStorageServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path rootDir;
+
+    private LocalFsObjectStorageService storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = newStorage("secret");
+        storage.makeBucket(BUCKET);
+        storage.upload(BUCKET, "dir/file.txt", new ByteArrayInputStream(CONTENT), CONTENT.length, "text/plain");
+    }
+
+    @Test
+    void rangeReadReturnsRequestedBytes() throws Exception {
+        assertArrayEquals("5678".getBytes(StandardCharsets.US_ASCII), read(5, 4));
+        assertArrayEquals(CONTENT, read(0, CONTENT.length));
+    }
+
+    @Test
+    void rangeReadIsTruncatedAtEndOfObject() throws Exception {
+        assertArrayEquals("hij".getBytes(StandardCharsets.US_ASCII), read(17, 100));
+        assertEquals(0, read(CONTENT.length, 10).length);
+        assertEquals(0, read(CONTENT.length + 5, 10).length);
+    }
+
+    @Test
+    void rangeStreamSupportsSkip() throws Exception {
+        try (InputStream stream = storage.download(BUCKET, "dir/file.txt", 2, 10)) {
+            assertEquals(3, stream.skip(3));
+            assertEquals(7, stream.available());
+            assertArrayEquals("56789ab".getBytes(StandardCharsets.US_ASCII), stream.readAllBytes());
+        }
+    }
+
+    @Test
+    void downloadOfMissingObjectFails() {
+        assertThrows(NoSuchFileException.class, () -> storage.download(BUCKET, "dir/missing.txt", 0, 1));
+    }
+
+    @Test
+    void composeConcatenatesSourcesInOrder() throws Exception {
+        storage.upload(BUCKET, "parts/1", new ByteArrayInputStream(new byte[]{1, 2}), 2, "application/octet-stream");
+        storage.upload(BUCKET, "parts/2", new ByteArrayInputStream(new byte[]{3}), 1, "application/octet-stream");
+
+        storage.compose(BUCKET, List.of("parts/2", "parts/1"), "merged.bin");
+
+        try (InputStream stream = storage.download(BUCKET, "merged.bin")) {
+            assertArrayEquals(new byte[]{3, 1, 2}, stream.readAllBytes());
+        }
+    }
+
+    @Test
+    void rejectsPathsOutsideBucket() {
+        assertThrows(IllegalArgumentException.class, () -> storage.stat(BUCKET, "../other-bucket/file.txt"));
+        assertThrows(IllegalArgumentException.class, () -> storage.stat("../escape", "file.txt"));
+    }
+
+    @Test
+    void presignedUrlVerifiesUntilExpiry() throws Exception {
+        Map<String, String> query = query(storage.getPresignedDownloadUrl(BUCKET, "dir/file.txt", 5, TimeUnit.MINUTES));
+        long expires = Long.parseLong(query.get("expires"));
+        String signature = query.get("signature");
+
+        assertTrue(storage.verifySignature(BUCKET, "dir/file.txt", expires, signature));
+        assertFalse(storage.verifySignature(BUCKET, "dir/other.txt", expires, signature), "签名不应适用于其他对象");
+        assertFalse(storage.verifySignature(BUCKET, "dir/file.txt", expires + 60, signature), "篡改过期时间后签名应失效");
+        assertFalse(storage.verifySignature(BUCKET, "dir/file.txt", expires, null));
+    }
+
+    @Test
+    void expiredPresignedUrlIsRejected() throws Exception {
+        long expired = Instant.now().getEpochSecond() - 1;
+        Map<String, String> query = query(storage.getPresignedDownloadUrl(BUCKET, "dir/file.txt", -1, TimeUnit.SECONDS));
+
+        assertFalse(storage.verifySignature(BUCKET, "dir/file.txt", expired, query.get("signature")));
+        assertFalse(storage.verifySignature(BUCKET, "dir/file.txt",
+                Long.parseLong(query.get("expires")), query.get("signature")));
+    }
+
+    @Test
+    void signatureFromAnotherSecretIsRejected() throws Exception {
+        Map<String, String> query = query(newStorage("another-secret")
+                .getPresignedDownloadUrl(BUCKET, "dir/file.txt", 5, TimeUnit.MINUTES));
+
+        assertFalse(storage.verifySignature(BUCKET, "dir/file.txt",
+                Long.parseLong(query.get("expires")), query.get("signature")));
+    }
+
+    @Test
+    void presignedUrlEncodesObjectPath() throws Exception {
+        storage.upload(BUCKET, "dir/my report.txt", new ByteArrayInputStream(CONTENT), CONTENT.length, "text/plain");
+        URI uri = URI.create(storage.getPresignedDownloadUrl(BUCKET, "dir/my report.txt", 5, TimeUnit.MINUTES));
+
+        assertEquals("/local-storage/" + BUCKET + "/dir/my report.txt", uri.getPath());
+        Map<String, String> query = query(uri.toString());
+        assertTrue(storage.verifySignature(BUCKET, "dir/my report.txt",
+                Long.parseLong(query.get("expires")), query.get("signature")));
+    }
+
+    private byte[] read(long offset, long length) throws Exception {
+        try (InputStream stream = storage.download(BUCKET, "dir/file.txt", offset, length)) {
+            return stream.readAllBytes();
+        }
+    }
+
+    private LocalFsObjectStorageService newStorage(String secret) throws Exception {
+        LocalStorageConfig config = new LocalStorageConfig();
+        config.setRootDir(rootDir.toString());
+        config.setEndpoint("http://localhost:902/local-storage");
+        config.setPresignSecret(secret);
+        LocalFsObjectStorageService service = new LocalFsObjectStorageService(config);
+        service.init();
+        return service;
+    }
+
+    private static Map<String, String> query(String url) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : URI.create(url).getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
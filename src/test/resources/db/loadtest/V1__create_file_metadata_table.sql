@@ -0,0 +1,27 @@
+-- 压测环境（H2，MySQL 兼容模式）下的 file_metadata 基线表结构。
+-- 生产环境的 V1/V2 由 MySQL 脚本创建（见 minio.sql），这里保持列与索引一致，
+-- 仅将 MySQL 专有的生成列表达式替换为 H2 的等价写法。
+CREATE TABLE file_metadata
+(
+    id                BIGINT        NOT NULL AUTO_INCREMENT,
+    folder_path       VARCHAR(1024) NULL,
+    file_path         VARCHAR(1024) NOT NULL,
+    original_filename VARCHAR(255)  NOT NULL,
+    file_size         BIGINT        NOT NULL,
+    content_type      VARCHAR(128)  NULL,
+    content_hash      CHAR(32)      NOT NULL,
+    bucket_name       VARCHAR(63)   NOT NULL,
+    storage_type      VARCHAR(16)   NOT NULL,
+    created_at        TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_accessed_at  TIMESTAMP     NULL,
+    visit_count       INT           NOT NULL DEFAULT 0,
+    file_path_hash    VARBINARY(32) GENERATED ALWAYS AS (HASH('SHA-256', file_path)),
+    folder_path_hash  VARBINARY(32) GENERATED ALWAYS AS (HASH('SHA-256', folder_path)),
+    PRIMARY KEY (id),
+    CONSTRAINT chk_file_metadata_storage_type CHECK (storage_type IN ('PUBLIC', 'PRIVATE'))
+);
+
+CREATE UNIQUE INDEX uniq_bucket_path_hash ON file_metadata (bucket_name, file_path_hash);
+CREATE INDEX idx_bucket_folder_type_prefix ON file_metadata (bucket_name, storage_type, folder_path);
+CREATE INDEX idx_bucket_folder_hash ON file_metadata (bucket_name, storage_type, folder_path_hash);
+CREATE INDEX idx_bucket_hash ON file_metadata (bucket_name, content_hash);
@@ -0,0 +1,29 @@
+-- 压测环境（H2，MySQL 兼容模式）下的 chunk_upload_sessions 基线表结构。
+CREATE TABLE chunk_upload_sessions
+(
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    session_id       VARCHAR(64)  NOT NULL,
+    file_name        VARCHAR(255) NOT NULL,
+    file_hash        VARCHAR(64)  NOT NULL,
+    file_size        BIGINT       NOT NULL,
+    content_type     VARCHAR(100) NULL,
+    folder_path      VARCHAR(500) NULL,
+    total_chunks     INT          NOT NULL,
+    uploaded_chunks  INT          NULL DEFAULT 0,
+    chunk_paths_json CLOB         NULL,
+    bucket_name      VARCHAR(63)  NOT NULL,
+    storage_type     VARCHAR(16)  NOT NULL,
+    status           VARCHAR(20)  NOT NULL,
+    expires_at       TIMESTAMP    NOT NULL,
+    user_id          BIGINT       NULL,
+    created_at       TIMESTAMP    NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at       TIMESTAMP    NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_session_id UNIQUE (session_id),
+    CONSTRAINT chk_status CHECK (status IN ('INIT', 'UPLOADING', 'READY_TO_MERGE', 'MERGING', 'MERGED', 'FAILED', 'EXPIRED')),
+    CONSTRAINT chk_storage_type CHECK (storage_type IN ('PUBLIC', 'PRIVATE'))
+);
+
+CREATE INDEX idx_status ON chunk_upload_sessions (status);
+CREATE INDEX idx_expires_at ON chunk_upload_sessions (expires_at);
+CREATE INDEX idx_file_hash ON chunk_upload_sessions (file_hash);